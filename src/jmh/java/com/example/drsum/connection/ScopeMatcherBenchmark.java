@@ -0,0 +1,90 @@
+package com.example.drsum.connection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * スコープのテーブル名照合（list_tables の scope 指定時の絞り込み）のベンチマーク
+ * 
+ * スコープのエントリ数と種類（完全一致・glob・正規表現）を変えて、
+ * テーブル一覧の全テーブルを ScopeMatcher.matches() で照合する時間を測定します。
+ * テーブル名の半数はスコープに含まれ、残りは含まれません。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ScopeMatcherBenchmark {
+    
+    @Param({"10", "1000"})
+    private int entries;
+    
+    @Param({"exact", "glob", "regex"})
+    private String kind;
+    
+    @Param({"5000"})
+    private int tables;
+    
+    private ScopeMatcher matcher;
+    private String[] tableNames;
+    
+    @Setup
+    public void setUp() {
+        List<String> scope = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            switch (kind) {
+                case "glob":
+                    scope.add("sales_" + i + "_*");
+                    break;
+                case "regex":
+                    scope.add(ScopeMatcher.REGEX_PREFIX + "sales_" + i + "_20(1[0-9]|2[0-5])");
+                    break;
+                default:
+                    scope.add("sales_" + i + "_2024");
+                    break;
+            }
+        }
+        matcher = ScopeMatcher.of(scope);
+        
+        // 半数はスコープ内（大文字小文字を変えたものを含む）、残りはスコープ外の名前
+        Random random = new Random(42);
+        tableNames = new String[tables];
+        for (int i = 0; i < tables; i++) {
+            String name = "sales_" + random.nextInt(entries) + "_2024";
+            if (i % 2 == 1) {
+                name = "orders_" + random.nextInt(entries) + "_2024";
+            } else if (i % 4 == 0) {
+                name = name.toUpperCase(Locale.ROOT);
+            }
+            tableNames[i] = name;
+        }
+    }
+    
+    @Benchmark
+    public int isInScope() {
+        int matched = 0;
+        for (String tableName : tableNames) {
+            if (matcher.matches(tableName)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.drsum.format;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON文字列のエスケープのベンチマーク
+ * 
+ * 文字列の長さ・文字種・エスケープが必要な文字の割合を変えて、JsonEscaper の
+ * escape()（新しい文字列を返す）と appendEscaped()（既存のバッファに追加する）を測定します。
+ * 1回の呼び出しで VALUES 個の値を処理します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonEscaperBenchmark {
+    
+    private static final int VALUES = 1024;
+    
+    @Param({"16", "256"})
+    private int length;
+    
+    @Param({"ascii", "japanese"})
+    private String charset;
+    
+    /**
+     * 1文字あたりのエスケープが必要な文字の割合
+     */
+    @Param({"0.0", "0.01", "0.2"})
+    private double escapeDensity;
+    
+    private String[] values;
+    private StringBuilder buffer;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String alphabet = "ascii".equals(charset)
+                ? "abcdefghijklmnopqrstuvwxyz0123456789 _-"
+                : "東京大阪名古屋札幌福岡売上受注商品地域年月日 ";
+        String specials = "\"\\\n\r\t\u0001";
+        values = new String[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            char[] chars = new char[length];
+            for (int j = 0; j < length; j++) {
+                chars[j] = random.nextDouble() < escapeDensity
+                        ? specials.charAt(random.nextInt(specials.length()))
+                        : alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            values[i] = new String(chars);
+        }
+        buffer = new StringBuilder(VALUES * length * 2);
+    }
+    
+    @Benchmark
+    public void escape(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(JsonEscaper.escape(value));
+        }
+    }
+    
+    @Benchmark
+    public int appendEscaped() {
+        buffer.setLength(0);
+        for (String value : values) {
+            JsonEscaper.appendQuoted(buffer, value).append(',');
+        }
+        return buffer.length();
+    }
+}
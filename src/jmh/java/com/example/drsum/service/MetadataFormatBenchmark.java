@@ -0,0 +1,54 @@
+package com.example.drsum.service;
+
+import jp.co.dw_sapporo.drsum_ea.DWColumnInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * メタデータの整形（get_metadata の応答の作成）のベンチマーク
+ * 
+ * カラム定義とサンプルデータを DrSumMetadataService.formatMetadataAsJson() でJSONにするまでを測定します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MetadataFormatBenchmark {
+    
+    @Param({"8", "64", "256"})
+    private int width;
+    
+    @Param({"0", "3", "100"})
+    private int sampleRows;
+    
+    @Param({"0.0", "0.1"})
+    private double escapeDensity;
+    
+    private DWColumnInfo[] schema;
+    private Vector<Vector<String>> samples;
+    
+    @Setup
+    public void setUp() {
+        schema = SyntheticResults.schema(width);
+        samples = SyntheticResults.rows(schema, sampleRows, escapeDensity);
+    }
+    
+    @Benchmark
+    public String formatMetadata() {
+        return DrSumMetadataService.formatMetadataAsJson("ベンチマーク用テーブル", schema, samples);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.drsum.service;
+
+import com.example.drsum.model.ResultColumn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * クエリ結果の整形（execute_query の応答の作成）のベンチマーク
+ * 
+ * Dr.Sumから取得した行を出力形式ごとの QueryResultWriter で文字列にするまでを測定します。
+ * カラム数・行数・エスケープが必要な値の割合を変えて、1秒あたりの整形回数を比較します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class QueryResultFormatBenchmark {
+    
+    @Param({"4", "32"})
+    private int width;
+    
+    @Param({"100", "10000"})
+    private int rowCount;
+    
+    @Param({"0.0", "0.1"})
+    private double escapeDensity;
+    
+    @Param({"JSON", "JSON_COMPACT", "COLUMNAR", "CSV"})
+    private OutputFormat format;
+    
+    private List<ResultColumn> columns;
+    private Vector<Vector<String>> rows;
+    
+    @Setup
+    public void setUp() {
+        columns = ResultColumn.fromSchema(SyntheticResults.schema(width));
+        rows = SyntheticResults.rows(SyntheticResults.schema(width), rowCount, escapeDensity);
+    }
+    
+    @Benchmark
+    public String formatQueryResults() throws IOException {
+        try (QueryResultWriter writer = QueryResultWriter.create(format)) {
+            writer.begin(columns);
+            for (Vector<String> row : rows) {
+                writer.writeRow(row);
+            }
+            return writer.finish(rows.size(), Collections.emptyMap());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.drsum.service;
+
+import com.example.drsum.model.DrSumTypes;
+import jp.co.dw_sapporo.drsum_ea.DWColumnInfo;
+
+import java.util.Random;
+import java.util.Vector;
+
+/**
+ * ベンチマーク用の合成データ
+ * 
+ * Dr.Sumに接続せずに、カーソルが返すものと同じ形のスキーマ（DWColumnInfo[]）と
+ * 結果データ（Vector&lt;Vector&lt;String&gt;&gt;）を作成します。
+ * 同じ引数からは常に同じデータを作成します（乱数の種は固定）。
+ */
+final class SyntheticResults {
+    
+    /**
+     * カラムの型の並び（文字列のカラムが多い実際の集計表に近い比率）
+     */
+    private static final int[] TYPES = {
+        DrSumTypes.VARCHAR, DrSumTypes.INTEGER, DrSumTypes.VARCHAR, DrSumTypes.NUMERIC,
+        DrSumTypes.DATE, DrSumTypes.VARCHAR, DrSumTypes.REAL, DrSumTypes.TIMESTAMP
+    };
+    
+    /**
+     * エスケープが必要な文字（引用符、バックスラッシュ、改行、タブ、制御文字）
+     */
+    private static final String SPECIALS = "\"\\\n\t\u0001";
+    
+    private static final String[] WORDS = {
+        "東京", "大阪", "名古屋", "札幌", "福岡", "売上", "受注", "商品", "sales", "order", "item", "region"
+    };
+    
+    private static final double NULL_RATIO = 0.05;
+    
+    private SyntheticResults() {
+    }
+    
+    /**
+     * スキーマを作成
+     * 
+     * @param width カラム数
+     * @return カラム情報
+     */
+    static DWColumnInfo[] schema(int width) {
+        DWColumnInfo[] schema = new DWColumnInfo[width];
+        for (int i = 0; i < width; i++) {
+            DWColumnInfo column = new DWColumnInfo();
+            column.m_sName = "col_" + i;
+            column.m_sDisplay = "カラム" + i;
+            column.m_iType = TYPES[i % TYPES.length];
+            column.m_iNull = 0;  // NULLを許可
+            column.m_iPrecision = column.m_iType == DrSumTypes.NUMERIC ? 12 : 0;
+            column.m_iScale = column.m_iType == DrSumTypes.NUMERIC ? 2 : 0;
+            schema[i] = column;
+        }
+        return schema;
+    }
+    
+    /**
+     * 結果データを作成
+     * 
+     * @param schema カラム情報
+     * @param rowCount 行数
+     * @param escapeDensity 文字列の値のうち、エスケープが必要な文字を含む値の割合（0～1）
+     * @return 行データ
+     */
+    static Vector<Vector<String>> rows(DWColumnInfo[] schema, int rowCount, double escapeDensity) {
+        Random random = new Random(42);
+        Vector<Vector<String>> rows = new Vector<>(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            Vector<String> row = new Vector<>(schema.length);
+            for (DWColumnInfo column : schema) {
+                row.add(value(random, column.m_iType, escapeDensity));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+    
+    /**
+     * 文字列を作成
+     * 
+     * @param random 乱数
+     * @param words 語数
+     * @param escapeDensity エスケープが必要な文字を含める確率（0～1）
+     * @return 文字列
+     */
+    static String text(Random random, int words, double escapeDensity) {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                value.append(' ');
+            }
+            value.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        if (random.nextDouble() < escapeDensity) {
+            value.insert(random.nextInt(value.length() + 1), SPECIALS.charAt(random.nextInt(SPECIALS.length())));
+        }
+        return value.toString();
+    }
+    
+    private static String value(Random random, int type, double escapeDensity) {
+        if (random.nextDouble() < NULL_RATIO) {
+            return null;
+        }
+        switch (type) {
+            case DrSumTypes.INTEGER:
+                return Integer.toString(random.nextInt(1_000_000));
+            case DrSumTypes.NUMERIC:
+                return String.format("%d.%02d", random.nextInt(100_000), random.nextInt(100));
+            case DrSumTypes.REAL:
+                return Double.toString(random.nextDouble() * 1000);
+            case DrSumTypes.DATE:
+                return String.format("20%02d-%02d-%02d",
+                        random.nextInt(25), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            case DrSumTypes.TIMESTAMP:
+                return String.format("2024-%02d-%02d %02d:%02d:%02d", 1 + random.nextInt(12),
+                        1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60));
+            default:
+                return text(random, 1 + random.nextInt(4), escapeDensity);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.drsum.loadtest;
+
+import com.example.drsum.DrSumMcpServer;
+import com.example.drsum.metrics.LatencyHistogram;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * MCPサーバーの負荷試験（標準入出力経由のエンドツーエンド）
+ * 
+ * DrSumMcpServer を子プロセスとして起動し（デフォルトはメモリ上の代替バックエンド）、
+ * 標準入出力のJSON-RPCで list_tables / get_metadata / execute_query を指定の比率で呼び出します。
+ * 
+ * 呼び出しは応答を待たずに一定間隔の予定時刻どおりに送る開放型の負荷です。
+ * レイテンシは実際の送信時刻ではなく予定時刻から測るため、サーバーや送信側が詰まって
+ * 送信が遅れた分も含まれます（coordinated omission の補正）。補正しない値（送信からの時間）も併せて出力します。
+ * 
+ * 実行方法:
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--rate 200 --duration 60 --mix list_tables=1,execute_query=4"
+ * </pre>
+ * 
+ * @see LoadTestConfig
+ */
+public final class LoadGenerator {
+    
+    private static final String ALL = "all";
+    
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    
+    private final LoadTestConfig config;
+    private final SplittableRandom random;
+    private final String[] tools;
+    private final int[] cumulativeWeights;
+    
+    // ツール名 → 集計（最後に全体の集計）
+    private final Map<String, ToolResult> results = new LinkedHashMap<>();
+    
+    // 応答待ちの呼び出し
+    private final Set<Call> outstanding = ConcurrentHashMap.newKeySet();
+    
+    private List<String> tables = Collections.emptyList();
+    private long sent;
+    private long maxSendLagNanos;
+    private long measureStartNanos;
+    private long measureEndNanos;
+    
+    // 測定対象の呼び出しの最後の応答時刻
+    private final AtomicLong lastResponseNanos = new AtomicLong();
+    
+    LoadGenerator(LoadTestConfig config) {
+        this.config = config;
+        this.random = new SplittableRandom(config.getSeed());
+        this.tools = config.getMix().keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[tools.length];
+        int total = 0;
+        for (int i = 0; i < tools.length; i++) {
+            total += config.getMix().get(tools[i]);
+            cumulativeWeights[i] = total;
+            results.put(tools[i], new ToolResult());
+        }
+        results.put(ALL, new ToolResult());
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestConfig.usage());
+            System.exit(2);
+            return;
+        }
+        new LoadGenerator(config).run(System.out);
+    }
+    
+    /**
+     * サーバーを起動して負荷をかけ、結果を出力
+     * 
+     * @param out 結果の出力先
+     * @throws Exception サーバーの起動・初期化に失敗した場合
+     */
+    void run(PrintStream out) throws Exception {
+        out.println("Load test: " + config);
+        try (McpStdioClient client = McpStdioClient.start(serverCommand(), config.getServerEnv())) {
+            client.initialize(60);
+            if (config.getMix().containsKey(LoadTestConfig.GET_METADATA)
+                    || config.getMix().containsKey(LoadTestConfig.EXECUTE_QUERY)) {
+                tables = loadTables(client);
+            }
+            
+            drive(client);
+            report(out);
+            
+            if (config.isServerStats()) {
+                JsonNode stats = client.callTool("server_stats", Collections.emptyMap()).get(30, TimeUnit.SECONDS);
+                out.println();
+                out.println("server_stats:");
+                out.println(McpStdioClient.text(stats));
+            }
+        }
+    }
+    
+    /**
+     * 測定対象の呼び出しのうち、エラーまたは応答なしで終わった数
+     */
+    long getErrorCount() {
+        return results.get(ALL).errors.sum();
+    }
+    
+    // ========================================================================
+    // 負荷の生成
+    // ========================================================================
+    
+    /**
+     * 予定時刻どおりに呼び出しを送り、測定終了後に残りの応答を待つ
+     */
+    private void drive(McpStdioClient client) throws InterruptedException {
+        long interval = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / config.getRate()));
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long end = measureStart + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        measureStartNanos = measureStart;
+        measureEndNanos = end;
+        lastResponseNanos.set(measureStart);
+        long drainTimeout = TimeUnit.SECONDS.toNanos(config.getDrainTimeoutSeconds());
+        Semaphore inFlight = new Semaphore(config.getMaxInFlight());
+        
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended - end >= 0) {
+                break;
+            }
+            parkUntil(intended);
+            // 上限まで応答待ちの場合は送信が遅れ、その分は予定時刻からのレイテンシに含まれる
+            if (!inFlight.tryAcquire(drainTimeout, TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException(
+                    config.getDrainTimeoutSeconds() + "秒以内に応答が返らないため負荷試験を中断しました");
+            }
+            
+            String tool = nextTool();
+            Call call = new Call(tool, intended, intended - measureStart >= 0);
+            outstanding.add(call);
+            call.sentNanos = System.nanoTime();
+            if (call.measured) {
+                sent++;
+                maxSendLagNanos = Math.max(maxSendLagNanos, call.sentNanos - intended);
+            }
+            client.callTool(tool, arguments(tool)).whenComplete((response, error) -> {
+                inFlight.release();
+                call.finish(System.nanoTime(), error != null || McpStdioClient.isError(response), false);
+            });
+        }
+        
+        // 残りの応答を待ち、返らなかった呼び出しは待った時間までのレイテンシのエラーとして数える
+        long deadline = System.nanoTime() + drainTimeout;
+        while (!outstanding.isEmpty() && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+        long now = System.nanoTime();
+        for (Call call : outstanding) {
+            call.finish(now, true, true);
+        }
+    }
+    
+    private String nextTool() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < tools.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return tools[i];
+            }
+        }
+        return tools[tools.length - 1];
+    }
+    
+    private Map<String, Object> arguments(String tool) {
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        switch (tool) {
+            case LoadTestConfig.GET_METADATA:
+                arguments.put("table_name", nextTable());
+                arguments.put("sample_rows", config.getSampleRows());
+                break;
+            case LoadTestConfig.EXECUTE_QUERY:
+                arguments.put("sql_query", "SELECT * FROM " + nextTable() + " LIMIT " + config.getQueryRows());
+                break;
+            default:
+                break;
+        }
+        return arguments;
+    }
+    
+    private String nextTable() {
+        return tables.get(random.nextInt(tables.size()));
+    }
+    
+    /**
+     * list_tables の結果から呼び出し対象のテーブル・ビュー名を取得
+     */
+    private static List<String> loadTables(McpStdioClient client) throws Exception {
+        JsonNode response = client.callTool(LoadTestConfig.LIST_TABLES, Collections.emptyMap())
+                .get(60, TimeUnit.SECONDS);
+        if (McpStdioClient.isError(response)) {
+            throw new IllegalStateException("list_tables に失敗しました: " + McpStdioClient.text(response));
+        }
+        JsonNode list = client.mapper().readTree(McpStdioClient.text(response));
+        List<String> names = new ArrayList<>();
+        for (String field : new String[] {"tables", "views"}) {
+            for (JsonNode name : list.path(field)) {
+                names.add(name.asText());
+            }
+        }
+        if (names.isEmpty()) {
+            throw new IllegalStateException("list_tables がテーブルを返しませんでした");
+        }
+        return names;
+    }
+    
+    /**
+     * サーバーの起動コマンド（このプロセスと同じJavaとクラスパス）
+     */
+    private List<String> serverCommand() {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(config.getJvmArgs());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(DrSumMcpServer.class.getName());
+        return command;
+    }
+    
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+    
+    // ========================================================================
+    // 結果の出力
+    // ========================================================================
+    
+    private void report(PrintStream out) {
+        ToolResult all = results.get(ALL);
+        long completed = all.corrected.snapshot().getCount() - all.unanswered.sum();
+        // 送信が予定より遅れた場合は、最後の応答までの時間で割る
+        double seconds = Math.max(measureEndNanos, lastResponseNanos.get()) - measureStartNanos;
+        seconds /= 1e9;
+        out.println();
+        out.printf(Locale.ROOT, "Measured %.1f s after %d s warmup: sent %d, completed %d, errors %d, unanswered %d%n",
+                seconds, config.getWarmupSeconds(), sent, completed, all.errors.sum(), all.unanswered.sum());
+        out.printf(Locale.ROOT, "Throughput: %.1f calls/s (target %.1f/s), max send lag %.2f ms%n",
+                completed / seconds, config.getRate(), maxSendLagNanos / 1e6);
+        
+        out.println();
+        out.println("Latency from intended start (corrected for coordinated omission), ms");
+        printTable(out, true);
+        out.println();
+        out.println("Latency from actual send (uncorrected), ms");
+        printTable(out, false);
+    }
+    
+    private void printTable(PrintStream out, boolean corrected) {
+        out.printf(Locale.ROOT, "%-14s %8s %7s %9s %9s %9s %9s %9s%n",
+                "tool", "count", "errors", "p50", "p90", "p99", "p99.9", "max");
+        for (Map.Entry<String, ToolResult> entry : results.entrySet()) {
+            ToolResult result = entry.getValue();
+            LatencyHistogram.Snapshot snapshot = (corrected ? result.corrected : result.uncorrected).snapshot();
+            out.printf(Locale.ROOT, "%-14s %8d %7d", entry.getKey(), snapshot.getCount(), result.errors.sum());
+            for (double percentile : PERCENTILES) {
+                out.printf(Locale.ROOT, " %9.2f", snapshot.getValueAtPercentile(percentile) / 1000.0);
+            }
+            out.printf(Locale.ROOT, " %9.2f%n", snapshot.getMaxMicros() / 1000.0);
+        }
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * ツールごとの集計
+     */
+    private static final class ToolResult {
+        final LatencyHistogram corrected = new LatencyHistogram();
+        final LatencyHistogram uncorrected = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder unanswered = new LongAdder();
+    }
+    
+    /**
+     * 1回の呼び出し（応答とタイムアウトのどちらか先に来た方だけを記録）
+     */
+    private final class Call {
+        final String tool;
+        final long intendedNanos;
+        final boolean measured;
+        volatile long sentNanos;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        
+        Call(String tool, long intendedNanos, boolean measured) {
+            this.tool = tool;
+            this.intendedNanos = intendedNanos;
+            this.measured = measured;
+        }
+        
+        void finish(long nowNanos, boolean error, boolean unanswered) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            if (measured) {
+                if (!unanswered) {
+                    lastResponseNanos.accumulateAndGet(nowNanos, Math::max);
+                }
+                for (ToolResult result : new ToolResult[] {results.get(tool), results.get(ALL)}) {
+                    result.corrected.recordNanos(nowNanos - intendedNanos);
+                    result.uncorrected.recordNanos(nowNanos - sentNanos);
+                    if (error) {
+                        result.errors.increment();
+                    }
+                    if (unanswered) {
+                        result.unanswered.increment();
+                    }
+                }
+            }
+            outstanding.remove(this);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.drsum.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LoadGenerator・LoadTestConfigクラスのユニットテスト
+ * 
+ * 代替バックエンド（DRSUM_BACKEND=memory）のサーバーを起動し、短時間の負荷で
+ * 負荷生成ツールの送る引数がサーバーに受け付けられることを検証します。
+ */
+class LoadGeneratorTest {
+    
+    // ========================================================================
+    // LoadTestConfigのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("fromArgs() should map command line arguments to the config")
+    void testFromArgs() {
+        LoadTestConfig config = LoadTestConfig.fromArgs(new String[] {
+            "--rate", "5", "--duration", "2", "--warmup", "0",
+            "--mix", "execute_query=3,list_tables", "--env", "DRSUM_FETCH_SIZE=10", "--server-stats"});
+        
+        assertEquals(5.0, config.getRate());
+        assertEquals(2, config.getDurationSeconds());
+        assertEquals(0, config.getWarmupSeconds());
+        assertEquals(Map.of("execute_query", 3, "list_tables", 1), config.getMix());
+        assertEquals("memory", config.getServerEnv().get("DRSUM_BACKEND"));
+        assertEquals("10", config.getServerEnv().get("DRSUM_FETCH_SIZE"));
+        assertTrue(config.isServerStats());
+    }
+    
+    @Test
+    @DisplayName("fromArgs() should reject unknown tools, unknown arguments and missing values")
+    void testFromArgsRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LoadTestConfig.fromArgs(new String[] {"--mix", "drop_table=1"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> LoadTestConfig.fromArgs(new String[] {"--unknown", "1"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> LoadTestConfig.fromArgs(new String[] {"--rate"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> LoadTestConfig.fromArgs(new String[] {"--env", "=memory"}));
+    }
+    
+    // ========================================================================
+    // LoadGeneratorのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("A short run against the in-memory backend should complete every call without errors")
+    void testShortRunHasNoErrors() throws Exception {
+        LoadTestConfig config = LoadTestConfig.builder()
+                .rate(20)
+                .durationSeconds(1)
+                .warmupSeconds(0)
+                .queryRows(5)
+                .build();
+        LoadGenerator generator = new LoadGenerator(config);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        
+        generator.run(new PrintStream(output, true, StandardCharsets.UTF_8));
+        
+        String report = output.toString(StandardCharsets.UTF_8);
+        assertEquals(0, generator.getErrorCount(), report);
+        assertTrue(report.contains("errors 0, unanswered 0"), report);
+    }
+}
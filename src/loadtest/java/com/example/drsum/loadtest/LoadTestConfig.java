@@ -0,0 +1,404 @@
+package com.example.drsum.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 負荷試験の設定
+ * 
+ * コマンドライン引数（--name value 形式）から作成します。
+ * 
+ * 【引数】
+ * - --rate: 目標のツール呼び出し数（1秒あたり、デフォルト: 50）
+ * - --duration: 測定時間（秒、デフォルト: 60）
+ * - --warmup: 測定前の慣らし時間（秒、この間の呼び出しは集計しない、デフォルト: 10）
+ * - --mix: ツールの比率（例: list_tables=1,get_metadata=2,execute_query=2）
+ * - --max-in-flight: 応答待ちにできる呼び出しの最大数（デフォルト: 64）
+ * - --query-rows: execute_query で取得する行数（LIMIT、デフォルト: 100）
+ * - --sample-rows: get_metadata のサンプル行数（デフォルト: 3）
+ * - --seed: ツールとテーブルの選択に使う乱数の種（デフォルト: 1）
+ * - --drain-timeout: 測定終了後に残りの応答を待つ時間（秒、デフォルト: 30）
+ * - --env KEY=VALUE: サーバーに渡す環境変数（複数指定可、DRSUM_BACKEND=memory より優先）
+ * - --jvm-arg ARG: サーバーのJVMオプション（複数指定可、例: -Xmx512m）
+ * - --server-stats: 終了時にサーバーの server_stats の結果も出力
+ */
+final class LoadTestConfig {
+    
+    static final String LIST_TABLES = "list_tables";
+    static final String GET_METADATA = "get_metadata";
+    static final String EXECUTE_QUERY = "execute_query";
+    
+    private static final List<String> TOOLS = List.of(LIST_TABLES, GET_METADATA, EXECUTE_QUERY);
+    
+    private final double rate;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final Map<String, Integer> mix;
+    private final int maxInFlight;
+    private final int queryRows;
+    private final int sampleRows;
+    private final long seed;
+    private final int drainTimeoutSeconds;
+    private final Map<String, String> serverEnv;
+    private final List<String> jvmArgs;
+    private final boolean serverStats;
+    
+    private LoadTestConfig(Builder builder) {
+        this.rate = builder.rate;
+        this.durationSeconds = builder.durationSeconds;
+        this.warmupSeconds = builder.warmupSeconds;
+        this.mix = Collections.unmodifiableMap(new LinkedHashMap<>(builder.mix));
+        this.maxInFlight = builder.maxInFlight;
+        this.queryRows = builder.queryRows;
+        this.sampleRows = builder.sampleRows;
+        this.seed = builder.seed;
+        this.drainTimeoutSeconds = builder.drainTimeoutSeconds;
+        this.serverEnv = Collections.unmodifiableMap(new LinkedHashMap<>(builder.serverEnv));
+        this.jvmArgs = List.copyOf(builder.jvmArgs);
+        this.serverStats = builder.serverStats;
+    }
+    
+    static Builder builder() {
+        return new Builder();
+    }
+    
+    // ========================================================================
+    // Getter
+    // ========================================================================
+    
+    /**
+     * 目標のツール呼び出し数（1秒あたり）
+     */
+    double getRate() {
+        return rate;
+    }
+    
+    /**
+     * 測定時間（秒）
+     */
+    int getDurationSeconds() {
+        return durationSeconds;
+    }
+    
+    /**
+     * 慣らし時間（秒）
+     */
+    int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+    
+    /**
+     * ツール名 → 比率（比率0のツールは含まない）
+     */
+    Map<String, Integer> getMix() {
+        return mix;
+    }
+    
+    /**
+     * 応答待ちにできる呼び出しの最大数
+     */
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+    
+    /**
+     * execute_query で取得する行数
+     */
+    int getQueryRows() {
+        return queryRows;
+    }
+    
+    /**
+     * get_metadata のサンプル行数
+     */
+    int getSampleRows() {
+        return sampleRows;
+    }
+    
+    /**
+     * 乱数の種
+     */
+    long getSeed() {
+        return seed;
+    }
+    
+    /**
+     * 測定終了後に残りの応答を待つ時間（秒）
+     */
+    int getDrainTimeoutSeconds() {
+        return drainTimeoutSeconds;
+    }
+    
+    /**
+     * サーバーに渡す環境変数（DRSUM_BACKEND=memory を含む）
+     */
+    Map<String, String> getServerEnv() {
+        return serverEnv;
+    }
+    
+    /**
+     * サーバーのJVMオプション
+     */
+    List<String> getJvmArgs() {
+        return jvmArgs;
+    }
+    
+    /**
+     * 終了時に server_stats の結果を出力するかどうか
+     */
+    boolean isServerStats() {
+        return serverStats;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "rate=%.1f/s, duration=%ds, warmup=%ds, mix=%s, maxInFlight=%d, queryRows=%d, sampleRows=%d, seed=%d",
+                rate, durationSeconds, warmupSeconds, mix, maxInFlight, queryRows, sampleRows, seed);
+    }
+    
+    // ========================================================================
+    // ファクトリメソッド
+    // ========================================================================
+    
+    /**
+     * コマンドライン引数から作成
+     * 
+     * @param args 引数（--name value 形式）
+     * @return 作成されたLoadTestConfig
+     * @throws IllegalArgumentException 引数が不正な場合
+     */
+    static LoadTestConfig fromArgs(String[] args) {
+        Builder builder = builder();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (name.equals("--server-stats")) {
+                builder.serverStats(true);
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("引数 " + name + " に値がありません");
+            }
+            String value = args[++i];
+            switch (name) {
+                case "--rate":
+                    builder.rate(parseDouble(name, value));
+                    break;
+                case "--duration":
+                    builder.durationSeconds(parseInt(name, value));
+                    break;
+                case "--warmup":
+                    builder.warmupSeconds(parseInt(name, value));
+                    break;
+                case "--mix":
+                    builder.mix(parseMix(value));
+                    break;
+                case "--max-in-flight":
+                    builder.maxInFlight(parseInt(name, value));
+                    break;
+                case "--query-rows":
+                    builder.queryRows(parseInt(name, value));
+                    break;
+                case "--sample-rows":
+                    builder.sampleRows(parseInt(name, value));
+                    break;
+                case "--seed":
+                    builder.seed(parseInt(name, value));
+                    break;
+                case "--drain-timeout":
+                    builder.drainTimeoutSeconds(parseInt(name, value));
+                    break;
+                case "--env":
+                    int separator = value.indexOf('=');
+                    if (separator <= 0) {
+                        throw new IllegalArgumentException("--env は KEY=VALUE 形式である必要があります。取得値: " + value);
+                    }
+                    builder.serverEnv(value.substring(0, separator), value.substring(separator + 1));
+                    break;
+                case "--jvm-arg":
+                    builder.jvmArg(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("不明な引数です: " + name);
+            }
+        }
+        return builder.build();
+    }
+    
+    /**
+     * 引数の説明
+     */
+    static String usage() {
+        return String.join(System.lineSeparator(),
+                "usage: LoadGenerator [--rate N] [--duration SEC] [--warmup SEC]",
+                "                     [--mix list_tables=W,get_metadata=W,execute_query=W]",
+                "                     [--max-in-flight N] [--query-rows N] [--sample-rows N] [--seed N]",
+                "                     [--drain-timeout SEC] [--env KEY=VALUE]... [--jvm-arg ARG]... [--server-stats]");
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * ツールの比率をパース（例: list_tables=1,execute_query=3）
+     */
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] pair = entry.trim().split("=", 2);
+            String tool = pair[0].trim();
+            if (!TOOLS.contains(tool)) {
+                throw new IllegalArgumentException(
+                    "--mix のツールは " + String.join("、", TOOLS) + " のいずれかである必要があります。取得値: " + tool);
+            }
+            mix.put(tool, pair.length == 2 ? parseInt("--mix", pair[1]) : 1);
+        }
+        return mix;
+    }
+    
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " は有効な整数である必要があります。取得値: " + value);
+        }
+    }
+    
+    private static double parseDouble(String name, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " は有効な数値である必要があります。取得値: " + value);
+        }
+    }
+    
+    // ========================================================================
+    // ビルダー
+    // ========================================================================
+    
+    /**
+     * LoadTestConfigのビルダー
+     */
+    static final class Builder {
+        private double rate = 50;
+        private int durationSeconds = 60;
+        private int warmupSeconds = 10;
+        private Map<String, Integer> mix = defaultMix();
+        private int maxInFlight = 64;
+        private int queryRows = 100;
+        private int sampleRows = 3;
+        private long seed = 1;
+        private int drainTimeoutSeconds = 30;
+        private final Map<String, String> serverEnv = new LinkedHashMap<>(Map.of("DRSUM_BACKEND", "memory"));
+        private final List<String> jvmArgs = new ArrayList<>();
+        private boolean serverStats;
+        
+        private Builder() {
+        }
+        
+        private static Map<String, Integer> defaultMix() {
+            Map<String, Integer> mix = new LinkedHashMap<>();
+            mix.put(LIST_TABLES, 1);
+            mix.put(GET_METADATA, 2);
+            mix.put(EXECUTE_QUERY, 2);
+            return mix;
+        }
+        
+        Builder rate(double rate) {
+            this.rate = rate;
+            return this;
+        }
+        
+        Builder durationSeconds(int durationSeconds) {
+            this.durationSeconds = durationSeconds;
+            return this;
+        }
+        
+        Builder warmupSeconds(int warmupSeconds) {
+            this.warmupSeconds = warmupSeconds;
+            return this;
+        }
+        
+        Builder mix(Map<String, Integer> mix) {
+            this.mix = new LinkedHashMap<>(mix);
+            return this;
+        }
+        
+        Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+        
+        Builder queryRows(int queryRows) {
+            this.queryRows = queryRows;
+            return this;
+        }
+        
+        Builder sampleRows(int sampleRows) {
+            this.sampleRows = sampleRows;
+            return this;
+        }
+        
+        Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+        
+        Builder drainTimeoutSeconds(int drainTimeoutSeconds) {
+            this.drainTimeoutSeconds = drainTimeoutSeconds;
+            return this;
+        }
+        
+        Builder serverEnv(String name, String value) {
+            this.serverEnv.put(name, value);
+            return this;
+        }
+        
+        Builder jvmArg(String jvmArg) {
+            this.jvmArgs.add(jvmArg);
+            return this;
+        }
+        
+        Builder serverStats(boolean serverStats) {
+            this.serverStats = serverStats;
+            return this;
+        }
+        
+        /**
+         * LoadTestConfigを作成
+         * 
+         * @return 作成されたLoadTestConfig
+         * @throws IllegalArgumentException パラメータが不正な場合
+         */
+        LoadTestConfig build() {
+            if (!(rate > 0)) {
+                throw new IllegalArgumentException("--rate は正の数である必要があります");
+            }
+            if (durationSeconds <= 0) {
+                throw new IllegalArgumentException("--duration は1以上である必要があります");
+            }
+            if (warmupSeconds < 0) {
+                throw new IllegalArgumentException("--warmup は0以上である必要があります");
+            }
+            if (drainTimeoutSeconds <= 0) {
+                throw new IllegalArgumentException("--drain-timeout は1以上である必要があります");
+            }
+            if (maxInFlight <= 0) {
+                throw new IllegalArgumentException("--max-in-flight は1以上である必要があります");
+            }
+            if (queryRows < 0 || sampleRows < 0) {
+                throw new IllegalArgumentException("--query-rows と --sample-rows は0以上である必要があります");
+            }
+            mix.values().removeIf(weight -> weight == 0);
+            if (mix.isEmpty() || mix.values().stream().anyMatch(weight -> weight < 0)) {
+                throw new IllegalArgumentException("--mix の比率は0以上で、1つ以上のツールが正である必要があります");
+            }
+            return new LoadTestConfig(this);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.drsum.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 標準入出力でMCPサーバーと通信するクライアント
+ * 
+ * サーバーを子プロセスとして起動し、1行に1つのJSON-RPCメッセージを書き込みます。
+ * 応答は専用のスレッドで読み取り、id ごとの CompletableFuture をそのスレッドで完了させます。
+ * 応答を待たずに次の要求を送れるため、複数の呼び出しを同時に応答待ちにできます。
+ * 
+ * サーバーの標準エラー出力はこのプロセスの標準エラー出力にそのまま出力します。
+ */
+final class McpStdioClient implements AutoCloseable {
+    
+    private static final String PROTOCOL_VERSION = "2024-11-05";
+    
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Process process;
+    private final Writer writer;
+    private final Thread reader;
+    private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    
+    private McpStdioClient(Process process) {
+        this.process = process;
+        this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        this.reader = new Thread(this::readLoop, "mcp-stdio-reader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+    
+    /**
+     * サーバーを起動
+     * 
+     * @param command 起動コマンド
+     * @param env 追加する環境変数（このプロセスの環境変数を上書き）
+     * @return クライアント
+     * @throws IOException 起動に失敗した場合
+     */
+    static McpStdioClient start(List<String> command, Map<String, String> env) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        builder.environment().putAll(env);
+        return new McpStdioClient(builder.start());
+    }
+    
+    /**
+     * 初期化（initialize 要求と initialized 通知）
+     * 
+     * @param timeoutSeconds 応答を待つ時間（秒）
+     * @return サーバーの initialize の結果
+     * @throws Exception 初期化に失敗した場合
+     */
+    JsonNode initialize(long timeoutSeconds) throws Exception {
+        ObjectNode params = mapper.createObjectNode();
+        params.put("protocolVersion", PROTOCOL_VERSION);
+        params.putObject("capabilities");
+        params.putObject("clientInfo")
+                .put("name", "drsum-load-generator")
+                .put("version", "1.0.0");
+        JsonNode response = request("initialize", params).get(timeoutSeconds, TimeUnit.SECONDS);
+        if (response.has("error")) {
+            throw new IOException("initialize failed: " + response.get("error"));
+        }
+        
+        ObjectNode notification = mapper.createObjectNode();
+        notification.put("jsonrpc", "2.0");
+        notification.put("method", "notifications/initialized");
+        send(notification);
+        return response.get("result");
+    }
+    
+    /**
+     * ツールを呼び出す（応答を待たない）
+     * 
+     * @param name ツール名
+     * @param arguments 引数
+     * @return JSON-RPCの応答全体で完了するFuture（サーバーが終了した場合は例外で完了）
+     */
+    CompletableFuture<JsonNode> callTool(String name, Map<String, Object> arguments) {
+        ObjectNode params = mapper.createObjectNode();
+        params.put("name", name);
+        params.set("arguments", mapper.valueToTree(arguments));
+        return request("tools/call", params);
+    }
+    
+    /**
+     * 応答がエラーかどうか（JSON-RPCのエラー、またはツールの isError）
+     */
+    static boolean isError(JsonNode response) {
+        return response.has("error") || response.path("result").path("isError").asBoolean(false);
+    }
+    
+    /**
+     * ツールの応答の最初のテキスト（ない場合は空文字列）
+     */
+    static String text(JsonNode response) {
+        return response.path("result").path("content").path(0).path("text").asText("");
+    }
+    
+    /**
+     * 応答のテキストのパースに使うObjectMapper
+     */
+    ObjectMapper mapper() {
+        return mapper;
+    }
+    
+    /**
+     * 標準入力を閉じてサーバーを終了（終了しない場合は強制終了）
+     */
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // サーバーが既に終了している
+        }
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroy();
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+        failPending(new IOException("client closed"));
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    private CompletableFuture<JsonNode> request(String method, ObjectNode params) {
+        long id = nextId.getAndIncrement();
+        CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        pending.put(id, future);
+        
+        ObjectNode message = mapper.createObjectNode();
+        message.put("jsonrpc", "2.0");
+        message.put("id", id);
+        message.put("method", method);
+        message.set("params", params);
+        try {
+            send(message);
+        } catch (IOException e) {
+            pending.remove(id);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    
+    private void send(ObjectNode message) throws IOException {
+        String line = mapper.writeValueAsString(message);
+        synchronized (writer) {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+    
+    /**
+     * 応答を読み取り、対応するFutureを完了（サーバーからの通知や要求は読み捨てる）
+     */
+    private void readLoop() {
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.startsWith("{")) {
+                    continue;
+                }
+                JsonNode message;
+                try {
+                    message = mapper.readTree(line);
+                } catch (IOException e) {
+                    continue;  // JSONでない出力は読み捨てる
+                }
+                JsonNode id = message.get("id");
+                if (id == null || !(message.has("result") || message.has("error"))) {
+                    continue;
+                }
+                CompletableFuture<JsonNode> future = pending.remove(id.asLong());
+                if (future != null) {
+                    future.complete(message);
+                }
+            }
+            failPending(new IOException("server exited with code " + process.waitFor()));
+        } catch (IOException | InterruptedException e) {
+            failPending(new IOException("failed to read server output", e));
+        }
+    }
+    
+    private void failPending(IOException cause) {
+        for (Long id : pending.keySet()) {
+            CompletableFuture<JsonNode> future = pending.remove(id);
+            if (future != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+}
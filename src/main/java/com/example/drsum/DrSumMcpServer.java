@@ -5,23 +5,61 @@ import io.modelcontextprotocol.server.McpServer;
 import io.modelcontextprotocol.server.McpServerFeatures;
 import io.modelcontextprotocol.server.transport.StdioServerTransportProvider;
 import io.modelcontextprotocol.spec.McpSchema;
-import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpServerTransportProviderBase;
 
 import jp.co.dw_sapporo.drsum_ea.DWException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.example.drsum.connection.ConnectionConfig;
+import reactor.core.publisher.Mono;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import com.example.drsum.cache.MetadataCache;
+import com.example.drsum.cache.SingleFlight;
+import com.example.drsum.cache.TtlLruCache;
+import com.example.drsum.connection.ConnectionProvider;
 import com.example.drsum.connection.DrSumConnection;
+import com.example.drsum.connection.DrSumConnectionPool;
+import com.example.drsum.connection.PerCallConnectionProvider;
+import com.example.drsum.connection.PoolConfig;
 import com.example.drsum.connection.ScopeDefinitions;
+import com.example.drsum.connection.ScopeSource;
+import com.example.drsum.format.JsonEscaper;
+import com.example.drsum.format.JsonOutput;
+import com.example.drsum.format.Utf8;
+import com.example.drsum.metrics.CallMetrics;
+import com.example.drsum.metrics.Phase;
+import com.example.drsum.metrics.ServerStats;
+import com.example.drsum.metrics.ToolStats;
 import com.example.drsum.service.DrSumQueryService;
 import com.example.drsum.service.DrSumMetadataService;
+import com.example.drsum.service.OutputFormat;
+import com.example.drsum.service.QueryCancellation;
+import com.example.drsum.service.QueryCancelledException;
+import com.example.drsum.service.QueryOptions;
+import com.example.drsum.service.QueryPageService;
+import com.example.drsum.service.QueryResultCache;
+import com.example.drsum.service.QueryResultStore;
+import com.example.drsum.service.QueryWatchdog;
+import com.example.drsum.service.SqlFingerprint;
+import com.example.drsum.service.TableFanOut;
+import com.example.drsum.service.ViewClassifier;
+import com.example.drsum.transport.StreamableHttpTransportProvider;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 /**
  * DrSum MCP Server メインクラス
@@ -31,28 +69,150 @@ import java.util.Map;
  * 
  * 【責務】
  * - MCPサーバーの初期化と起動
- * - ツール定義（list_tables, get_metadata, execute_query）
+ * - ツール定義（list_tables, get_metadata, execute_query, refresh_metadata, server_stats）
  * - リクエストハンドリング（サービス層への委譲）
  */
 public class DrSumMcpServer {
     
     private static final Logger logger = LoggerFactory.getLogger(DrSumMcpServer.class);
-
+    
+    /**
+     * ツールハンドラが使用する接続プロバイダー（main()で初期化）
+     */
+    private static ConnectionProvider connectionProvider;
+    
+    /**
+     * サーバー動作設定（main()で初期化）
+     */
+    private static ServerSettings settings;
+    
+    /**
+     * ページング結果の保存先（main()で初期化）
+     */
+    private static QueryResultStore resultStore;
+    
+    /**
+     * メタデータのキャッシュ（main()で初期化、キャッシュ無効の場合はnull）
+     */
+    private static MetadataCache metadataCache;
+    
+    /**
+     * list_tables のビュー判定の並列実行（main()で初期化、並列化しない場合はnull）
+     */
+    private static ViewClassifier viewClassifier;
+    
+    /**
+     * get_metadata の一括取得の並列実行（main()で初期化、並列化しない場合はnull）
+     */
+    private static TableFanOut metadataFanOut;
+    
+    /**
+     * list_tables のスコープ定義（main()で初期化、ファイル指定時は変更を自動で反映）
+     */
+    private static ScopeSource scopeSource;
+    
+    /**
+     * 非同期モードのツールハンドラ実行用ワーカープール（main()で初期化、同期モードの場合はnull）
+     */
+    private static ToolWorkerPool workerPool;
+    
+    /**
+     * 仮想スレッドのピン留めの監視（main()で初期化、仮想スレッドモード以外はnull）
+     */
+    private static PinningMonitor pinningMonitor;
+    
+    /**
+     * クエリ結果のキャッシュ（main()で初期化、キャッシュ無効の場合はnull）
+     */
+    private static QueryResultCache queryCache;
+    
+    /**
+     * 実行中のツール呼び出しの集約（main()で初期化、集約しない場合はnull）
+     */
+    private static SingleFlight<String, McpSchema.CallToolResult> requestFlights;
+    
+    /**
+     * execute_query の制限時間の監視（main()で初期化）
+     */
+    private static QueryWatchdog queryWatchdog;
+    
+    /**
+     * 実行中のツール呼び出しの中断制御（ハンドラを実行しているスレッドで設定）
+     */
+    private static final ThreadLocal<QueryCancellation> currentCancellation = new ThreadLocal<>();
+    
+    /**
+     * ツールごとの実行統計
+     */
+    private static final ServerStats serverStats = new ServerStats();
+    
     /**
      * メインメソッド - MCPサーバーを起動します
      * 
      * 処理の流れ:
-     * 1. STDIO通信用のトランスポートを作成
-     * 2. サーバーの機能（capabilities）を定義
-     * 3. 3つのツールを登録
-     * 4. サーバーを起動して待機
+     * 1. サーバー設定を読み込み、接続プロバイダー（接続プールまたは都度接続）を作成
+     * 2. 設定に応じてSTDIOまたはStreamable HTTPのトランスポートを作成
+     * 3. サーバーの機能（capabilities）を定義
+     * 4. 5つのツールを登録したサーバーを、設定に応じて同期または非同期モードで作成
+     * 5. サーバーを起動して待機
      */
     public static void main(String[] args) {
         try {
             logger.info("DrSum MCP Server を起動中...");
             
-            // STDIO通信用のトランスポートプロバイダーを作成
-            StdioServerTransportProvider transportProvider = new StdioServerTransportProvider(McpJsonMapper.getDefault());
+            // サーバー設定を読み込み（スコープ定義・接続情報を含む読み込み時間を記録）
+            long configStart = System.nanoTime();
+            settings = ServerSettings.fromEnvironment();
+            resultStore = new QueryResultStore(settings.getResultTtlSeconds() * 1000L,
+                                               settings.getResultStoreMaxEntries(),
+                                               settings.getResultStoreMaxRows(),
+                                               settings.getResultSpillBytes(),
+                                               settings.getResultSpillDirectory());
+            if (settings.getMetadataCacheTtlSeconds() > 0) {
+                metadataCache = new MetadataCache(settings.getMetadataCacheTtlSeconds() * 1000L,
+                                                  settings.getMetadataCacheMaxEntries());
+            }
+            
+            if (settings.getQueryCacheTtlSeconds() > 0) {
+                queryCache = new QueryResultCache(settings.getQueryCacheTtlSeconds() * 1000L,
+                                                  settings.getQueryCacheMaxBytes());
+            }
+            if (settings.isCoalesceRequests()) {
+                requestFlights = new SingleFlight<>();
+            }
+            queryWatchdog = new QueryWatchdog();
+            
+            // スコープ定義を読み込み（DRSUM_SCOPES_FILE 指定時はファイルを監視）
+            scopeSource = ScopeSource.fromEnvironment();
+            PoolConfig poolConfig = PoolConfig.fromEnvironment();
+            serverStats.recordConfigLoad(System.nanoTime() - configStart);
+            serverStats.startPeriodicLog(settings.getStatsLogIntervalSeconds());
+            
+            // 接続プロバイダーを作成（接続情報はここで一度だけ読み込む）
+            connectionProvider = createConnectionProvider(poolConfig);
+            if (settings.getViewClassifyParallelism() > 1) {
+                viewClassifier = new ViewClassifier(connectionProvider, settings.getViewClassifyParallelism());
+            }
+            if (settings.getMetadataBatchParallelism() > 1) {
+                metadataFanOut = new TableFanOut(connectionProvider, settings.getMetadataBatchParallelism(),
+                                                 "drsum-metadata-batch");
+            }
+            
+            // トランスポートプロバイダーを作成（HTTPの場合は全クライアントでプロセスを共有）
+            StdioServerTransportProvider stdioTransport = null;
+            StreamableHttpTransportProvider httpTransport = null;
+            McpServerTransportProviderBase transportProvider;
+            if (settings.getTransport() == ServerSettings.Transport.HTTP) {
+                httpTransport = new StreamableHttpTransportProvider(McpJsonMapper.getDefault(),
+                        new InetSocketAddress(settings.getHttpHost(), settings.getHttpPort()),
+                        StreamableHttpTransportProvider.DEFAULT_ENDPOINT,
+                        Duration.ofSeconds(settings.getHttpSessionIdleTimeoutSeconds()),
+                        settings.getHttpMaxConcurrentRequests(), settings.getHttpMaxSessions());
+                transportProvider = httpTransport;
+            } else {
+                stdioTransport = new StdioServerTransportProvider(McpJsonMapper.getDefault());
+                transportProvider = stdioTransport;
+            }
             
             // サーバーの機能を定義
             McpSchema.ServerCapabilities capabilities = McpSchema.ServerCapabilities.builder()
@@ -67,45 +227,64 @@ public class DrSumMcpServer {
                     "1.0.0"
             );
             
-            // サーバーをビルド
-            var server = McpServer.sync(transportProvider)
-                    .serverInfo(serverInfo)
-                    .capabilities(capabilities)
-                    .instructions("DrSum MCP Server provides Dr.Sum database analysis capabilities. " +
-                                "Connection information is configured via environment variables " +
-                                "(DRSUM_HOST, DRSUM_PORT, DRSUM_USERNAME, DRSUM_PASSWORD, DRSUM_DATABASE). " +
-                                "DRSUM_SCOPES can be set to define named scopes that group related tables. " +
-                                "Use 'list_tables' to get a list of all tables and views in the database, " +
-                                "use 'get_metadata' to retrieve detailed table information with sample data, " +
-                                "and 'execute_query' to run SQL queries. " +
-                                "Connections are established on-demand for each tool call.")
-                    .build();
+            // ツールとハンドラの組を作成
+            Map<McpSchema.Tool, Function<McpSchema.CallToolRequest, McpSchema.CallToolResult>> tools =
+                    createToolHandlers();
             
-            // ツールを登録（ビルダーパターンを使用）
-            server.addTool(McpServerFeatures.SyncToolSpecification.builder()
-                    .tool(createListTablesTool())
-                    .callHandler(DrSumMcpServer::handleListTablesRequest)
-                    .build());
-            
-            server.addTool(McpServerFeatures.SyncToolSpecification.builder()
-                    .tool(createGetMetadataTool())
-                    .callHandler(DrSumMcpServer::handleGetMetadataRequest)
-                    .build());
-            
-            server.addTool(McpServerFeatures.SyncToolSpecification.builder()
-                    .tool(createExecuteQueryTool())
-                    .callHandler(DrSumMcpServer::handleExecuteQueryRequest)
-                    .build());
+            // サーバーをビルド（非同期モードではハンドラをワーカープールで実行）
+            if (settings.getServerMode() != ServerSettings.ServerMode.SYNC) {
+                workerPool = createWorkerPool(settings);
+                McpServer.AsyncSpecification<?> spec = httpTransport != null
+                        ? McpServer.async(httpTransport)
+                        : McpServer.async(stdioTransport);
+                spec.serverInfo(serverInfo)
+                        .capabilities(capabilities)
+                        .instructions(INSTRUCTIONS)
+                        .tools(createAsyncToolSpecifications(tools))
+                        .build();
+            } else {
+                logger.info("同期モードで動作します");
+                McpServer.SyncSpecification<?> spec = httpTransport != null
+                        ? McpServer.sync(httpTransport)
+                        : McpServer.sync(stdioTransport);
+                spec.serverInfo(serverInfo)
+                        .capabilities(capabilities)
+                        .instructions(INSTRUCTIONS)
+                        .tools(createSyncToolSpecifications(tools))
+                        .build();
+            }
             
             // 注: プロンプトとリソースは登録されていないため、空のリストが返されます
             // これはMCPプロトコルの要件を満たしつつ、不要な機能を追加しない設計です
             
+            // HTTPの場合はツールを登録したサーバーの作成後に待ち受けを開始
+            if (httpTransport != null) {
+                httpTransport.start();
+            }
+            
             logger.info("DrSum MCP Server が正常に起動しました");
             
             // サーバーを実行し続ける
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 logger.info("DrSum MCP Server をシャットダウン中...");
                 transportProvider.closeGracefully().block();
+                if (workerPool != null) {
+                    workerPool.close();
+                }
+                if (pinningMonitor != null) {
+                    pinningMonitor.close();
+                }
+                if (viewClassifier != null) {
+                    viewClassifier.close();
+                }
+                if (metadataFanOut != null) {
+                    metadataFanOut.close();
+                }
+                queryWatchdog.close();
+                serverStats.logSummary();
+                serverStats.close();
+                connectionProvider.close();
+                scopeSource.close();
             }));
             
             // メインスレッドをブロックしてサーバーを実行し続ける
@@ -117,6 +296,179 @@ public class DrSumMcpServer {
         }
     }
     
+    /**
+     * 設定に応じたワーカープールを作成
+     * 
+     * 仮想スレッドモードでは同時実行数をセマフォで制限し、キャリアスレッドのピン留めを監視します。
+     * 実行中のJavaが仮想スレッドに対応していない場合は、プラットフォームスレッドで動作します。
+     * 
+     * @param settings サーバー設定
+     * @return ワーカープール
+     */
+    static ToolWorkerPool createWorkerPool(ServerSettings settings) {
+        int threads = settings.getWorkerThreads();
+        int queueSize = settings.getWorkerQueueSize();
+        if (settings.getServerMode() == ServerSettings.ServerMode.VIRTUAL) {
+            if (ToolWorkerPool.isVirtualThreadSupported()) {
+                logger.info("仮想スレッドモードで動作します（同時実行数: {}、実行待ち上限: {}）", threads, queueSize);
+                pinningMonitor = new PinningMonitor(Duration.ofMillis(settings.getPinningThresholdMs()));
+                return ToolWorkerPool.virtual(threads, queueSize);
+            }
+            logger.warn("仮想スレッドは Java 21 以降で利用できます（実行中: {}）。ワーカースレッドで動作します",
+                        Runtime.version());
+        }
+        logger.info("非同期モードで動作します（ワーカースレッド: {}、実行待ち上限: {}）", threads, queueSize);
+        return new ToolWorkerPool(threads, queueSize);
+    }
+    
+    /**
+     * ツール定義と、リクエストを処理するハンドラの組を作成（登録順）
+     * 
+     * Dr.Sumを参照するツールは、同じ引数の呼び出しが実行中であればその結果を共有します。
+     */
+    private static Map<McpSchema.Tool, Function<McpSchema.CallToolRequest, McpSchema.CallToolResult>>
+            createToolHandlers() {
+        Map<McpSchema.Tool, Function<McpSchema.CallToolRequest, McpSchema.CallToolResult>> tools =
+                new LinkedHashMap<>();
+        tools.put(createListTablesTool(), coalesced(DrSumMcpServer::handleListTablesRequest));
+        tools.put(createGetMetadataTool(), coalesced(DrSumMcpServer::handleGetMetadataRequest));
+        tools.put(createExecuteQueryTool(), coalesced(DrSumMcpServer::handleExecuteQueryRequest));
+        tools.put(createRefreshMetadataTool(), DrSumMcpServer::handleRefreshMetadataRequest);
+        tools.put(createServerStatsTool(), DrSumMcpServer::handleServerStatsRequest);
+        return tools;
+    }
+    
+    /**
+     * 同じツール・同じ引数の呼び出しが実行中の場合に、その結果を待って共有するハンドラを作成
+     * 
+     * エージェントの再試行や並列のサブエージェントが同じ呼び出しを重ねて送った場合も、
+     * 接続の取得とDr.Sumへの問い合わせは1回で済みます。
+     * 更新系のSQL（SELECT/WITH 以外）を実行する execute_query は、呼び出しごとに実行します。
+     * 
+     * 実行した呼び出しがタイムアウトまたはキャンセルで中断された場合、その結果は共有せず、
+     * 待っていた呼び出しが改めて実行します。待っている呼び出し自身がキャンセルされた場合は
+     * 待機をやめ、その呼び出しのキャンセル結果を返します。
+     */
+    private static Function<McpSchema.CallToolRequest, McpSchema.CallToolResult> coalesced(
+            Function<McpSchema.CallToolRequest, McpSchema.CallToolResult> handler) {
+        return request -> {
+            if (requestFlights == null || !isCoalescable(request.arguments())) {
+                return handler.apply(request);
+            }
+            QueryCancellation cancellation = currentCancellation.get();
+            return requestFlights.execute(coalescingKey(request.name(), request.arguments()),
+                                          () -> handler.apply(request),
+                                          result -> cancellation == null || !cancellation.isCancelled(),
+                                          cancellation == null ? null : cancellation::onAbort);
+        };
+    }
+    
+    /**
+     * 同期サーバー用のツール定義を作成（ハンドラを呼び出し元のスレッドで実行）
+     * 
+     * 同期モードではキャンセル要求を受け取れないため、中断はタイムアウトのみです。
+     */
+    private static List<McpServerFeatures.SyncToolSpecification> createSyncToolSpecifications(
+            Map<McpSchema.Tool, Function<McpSchema.CallToolRequest, McpSchema.CallToolResult>> tools) {
+        List<McpServerFeatures.SyncToolSpecification> specifications = new ArrayList<>();
+        tools.forEach((tool, handler) -> {
+            ToolStats stats = serverStats.tool(tool.name());
+            specifications.add(McpServerFeatures.SyncToolSpecification.builder()
+                    .tool(tool)
+                    .callHandler((exchange, request) ->
+                            runToolCall(new QueryCancellation(), stats, handler, request))
+                    .build());
+        });
+        return specifications;
+    }
+    
+    /**
+     * 非同期サーバー用のツール定義を作成（ハンドラをワーカープールで実行）
+     * 
+     * 実行待ちの上限を超えた呼び出しは待たせずにエラー結果を返します。
+     * クライアントのキャンセル（notifications/cancelled やセッションの切断）で応答の購読が解除された場合は、
+     * 実行中の呼び出しを中断します。
+     */
+    private static List<McpServerFeatures.AsyncToolSpecification> createAsyncToolSpecifications(
+            Map<McpSchema.Tool, Function<McpSchema.CallToolRequest, McpSchema.CallToolResult>> tools) {
+        List<McpServerFeatures.AsyncToolSpecification> specifications = new ArrayList<>();
+        tools.forEach((tool, handler) -> {
+            ToolStats stats = serverStats.tool(tool.name());
+            specifications.add(McpServerFeatures.AsyncToolSpecification.builder()
+                    .tool(tool)
+                    .callHandler((exchange, request) -> {
+                        QueryCancellation cancellation = new QueryCancellation();
+                        return workerPool.submit(() -> runToolCall(cancellation, stats, handler, request))
+                                .doOnCancel(() -> cancellation.cancel(QueryCancellation.Reason.CANCELLED))
+                                .onErrorResume(RejectedExecutionException.class, e -> {
+                                    logger.warn("{} を受け付けられませんでした（実行待ちが上限に達しています）",
+                                                tool.name());
+                                    return Mono.just(createErrorResult(
+                                            "サーバーが混雑しています。しばらくしてから再実行してください"));
+                                });
+                    })
+                    .build());
+        });
+        return specifications;
+    }
+    
+    /**
+     * 中断制御と計測をこのスレッドに設定してハンドラを実行し、完了と実行統計を記録
+     * 
+     * 実行待ちの時間は含まず、ワーカーで実行を始めてからの時間を記録します。
+     */
+    private static McpSchema.CallToolResult runToolCall(
+            QueryCancellation cancellation,
+            ToolStats stats,
+            Function<McpSchema.CallToolRequest, McpSchema.CallToolResult> handler,
+            McpSchema.CallToolRequest request) {
+        currentCancellation.set(cancellation);
+        CallMetrics metrics = CallMetrics.start(stats);
+        McpSchema.CallToolResult result = null;
+        try {
+            result = handler.apply(request);
+            return result;
+        } finally {
+            currentCancellation.remove();
+            cancellation.finish();
+            if (result != null) {
+                metrics.setResponseBytes(responseBytes(result));
+            }
+            metrics.finish(result == null || Boolean.TRUE.equals(result.isError()));
+        }
+    }
+    
+    /**
+     * ツール実行結果のテキストのUTF-8でのバイト数
+     */
+    private static long responseBytes(McpSchema.CallToolResult result) {
+        long bytes = 0;
+        if (result.content() != null) {
+            for (McpSchema.Content content : result.content()) {
+                if (content instanceof McpSchema.TextContent) {
+                    bytes += Utf8.encodedLength(((McpSchema.TextContent) content).text());
+                }
+            }
+        }
+        return bytes;
+    }
+    
+    /**
+     * 設定に応じた接続プロバイダーを作成
+     * 
+     * @param poolConfig 接続プール設定
+     * @return 接続プールまたは都度接続のプロバイダー
+     */
+    static ConnectionProvider createConnectionProvider(PoolConfig poolConfig) {
+        ConnectionProvider.Factory factory = ConnectionProvider.Factory.fromEnvironment();
+        if (poolConfig.getMode() == PoolConfig.Mode.PER_CALL) {
+            logger.info("都度接続モードで動作します");
+            return new PerCallConnectionProvider(factory);
+        }
+        logger.info("接続プールモードで動作します");
+        return new DrSumConnectionPool(factory, poolConfig);
+    }
+    
     // ========================================================================
     // ツールスキーマ ヘルパーメソッド
     // ========================================================================
@@ -132,6 +484,18 @@ public class DrSumMcpServer {
         return prop;
     }
     
+    /**
+     * ヘルパー: 真偽値型のプロパティを作成
+     * ツールパラメータの定義を簡潔にします。
+     */
+    private static Map<String, Object> createBooleanProperty(String description, boolean defaultValue) {
+        Map<String, Object> prop = new HashMap<>();
+        prop.put("type", "boolean");
+        prop.put("description", description);
+        prop.put("default", defaultValue);
+        return prop;
+    }
+    
     /**
      * ヘルパー: 整数型のプロパティを作成
      * ツールパラメータの定義を簡潔にします。
@@ -146,6 +510,18 @@ public class DrSumMcpServer {
         return prop;
     }
     
+    /**
+     * ヘルパー: 文字列の配列型のプロパティを作成
+     * ツールパラメータの定義を簡潔にします。
+     */
+    private static Map<String, Object> createStringArrayProperty(String description) {
+        Map<String, Object> prop = new HashMap<>();
+        prop.put("type", "array");
+        prop.put("items", Map.of("type", "string"));
+        prop.put("description", description);
+        return prop;
+    }
+    
     /**
      * ヘルパー: プロパティと必須フィールドからJSONスキーマを作成
      * スキーマ作成ロジックを一元化します。
@@ -169,7 +545,7 @@ public class DrSumMcpServer {
      * list_tables ツールの定義を作成
      * 
      * このツールはDr.Sumデータベース内の全テーブルとビューのリストを返します。
-     * 接続情報は各呼び出し時に環境変数から読み込まれます。
+     * 接続情報は起動時に環境変数から読み込まれます。
      */
     private static McpSchema.Tool createListTablesTool() {
         // パラメータのプロパティを定義
@@ -195,17 +571,18 @@ public class DrSumMcpServer {
      * get_metadata ツールの定義を作成
      * 
      * このツールは指定されたテーブルのメタデータとサンプルデータを返します。
-     * 接続情報は各呼び出し時に環境変数から読み込まれます。
+     * 接続情報は起動時に環境変数から読み込まれます。
      */
     private static McpSchema.Tool createGetMetadataTool() {
         // パラメータのプロパティを定義
         Map<String, Object> properties = new HashMap<>();
         properties.put("table_name", createStringProperty("Name of the table to get metadata for"));
+        properties.put("tables", createStringArrayProperty(
+                "Names of several tables to get metadata for in one call (use instead of table_name)"));
         properties.put("sample_rows", createIntegerProperty("Number of sample rows to retrieve", 3));
         
-        // 必須パラメータを定義
+        // table_name と tables のどちらか一方を指定するため、必須パラメータはなし
         List<String> required = new ArrayList<>();
-        required.add("table_name");
         
         // スキーマを作成
         McpSchema.JsonSchema inputSchema = createJsonSchema(properties, required);
@@ -213,8 +590,11 @@ public class DrSumMcpServer {
         return McpSchema.Tool.builder()
                 .name("get_metadata")
                 .description("Get table metadata with sample data from Dr.Sum. " +
-                           "Parameters: table_name (string, required), " +
-                           "sample_rows (integer, optional, default=3)")
+                           "Parameters: table_name (string), " +
+                           "tables (array of strings, fetched in parallel and returned as one document; " +
+                           "a table that fails is reported with an error entry), " +
+                           "sample_rows (integer, optional, default=3). " +
+                           "Either table_name or tables is required")
                 .inputSchema(inputSchema)
                 .build();
     }
@@ -223,16 +603,38 @@ public class DrSumMcpServer {
      * execute_query ツールの定義を作成
      * 
      * このツールはDr.SumデータベースでSQLクエリを実行します。
-     * 接続情報は各呼び出し時に環境変数から読み込まれます。
+     * 接続情報は起動時に環境変数から読み込まれます。
      */
     private static McpSchema.Tool createExecuteQueryTool() {
         // パラメータのプロパティを定義
         Map<String, Object> properties = new HashMap<>();
         properties.put("sql_query", createStringProperty("SQL query to execute"));
+        properties.put("max_rows", createIntegerProperty(
+                "Maximum number of rows to return in total (0 = unlimited)", 0));
+        properties.put("offset", createIntegerProperty("Number of leading rows to skip", 0));
+        properties.put("page_size", createIntegerProperty(
+                "Number of rows per page. When set, remaining rows are kept on the server " +
+                "and a continuation_token is returned (0 = no paging)", 0));
+        properties.put("continuation_token", createStringProperty(
+                "Token returned by a previous paged execute_query call. " +
+                "When set, the next page is returned without re-running the query"));
+        properties.put("output_format", createStringProperty(
+                "Result format: json (default), json_compact, columnar (one array per column, " +
+                "repetitive string columns dictionary-encoded), csv or tsv"));
+        properties.put("use_cache", createBooleanProperty(
+                "Whether a cached result of the same read-only query may be returned " +
+                "(only when the server enables the query result cache)", true));
+        properties.put("timeout_ms", createIntegerProperty(
+                "Maximum time in milliseconds the query may run before it is aborted " +
+                "(0 = no limit; defaults to the server setting DRSUM_QUERY_TIMEOUT_MS)", null));
+        properties.put("max_response_bytes", createIntegerProperty(
+                "Approximate size limit in bytes for the rows in the response. Rows past the limit are " +
+                "not returned; the result then has truncated=true, total_row_count and per-column " +
+                "summaries (min, max, null_count, distinct_estimate). With page_size the page ends early " +
+                "instead (0 = no limit; defaults to the server setting DRSUM_MAX_RESPONSE_BYTES)", null));
         
-        // 必須パラメータを定義
+        // 必須パラメータを定義（sql_query または continuation_token のどちらかが必要なため空）
         List<String> required = new ArrayList<>();
-        required.add("sql_query");
         
         // スキーマを作成
         McpSchema.JsonSchema inputSchema = createJsonSchema(properties, required);
@@ -241,7 +643,61 @@ public class DrSumMcpServer {
                 .name("execute_query")
                 .description("Execute a SQL query on Dr.Sum database. " +
                            "Connection is established from environment variables. " +
-                           "Parameters: sql_query (string, required)")
+                           "Parameters: sql_query (string, required unless continuation_token is given), " +
+                           "max_rows (integer, optional), offset (integer, optional), " +
+                           "page_size (integer, optional), continuation_token (string, optional), " +
+                           "output_format (string, optional: json, json_compact, columnar, csv, tsv), " +
+                           "use_cache (boolean, optional, default=true), " +
+                           "timeout_ms (integer, optional), max_response_bytes (integer, optional)")
+                .inputSchema(inputSchema)
+                .build();
+    }
+    
+    /**
+     * refresh_metadata ツールの定義を作成
+     * 
+     * このツールはメタデータキャッシュを無効化します。Dr.Sumには接続しません。
+     */
+    private static McpSchema.Tool createRefreshMetadataTool() {
+        // パラメータのプロパティを定義
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("table_name", createStringProperty(
+                "Name of the table to refresh. If omitted, the whole metadata cache " +
+                "and query result cache are cleared"));
+        
+        // スキーマを作成（必須パラメータなし）
+        McpSchema.JsonSchema inputSchema = createJsonSchema(properties, null);
+        
+        return McpSchema.Tool.builder()
+                .name("refresh_metadata")
+                .description("Invalidate cached Dr.Sum metadata (table lists, view flags and column definitions) " +
+                           "and cached query results that read the table, " +
+                           "so that the next list_tables / get_metadata / execute_query call reads Dr.Sum again. " +
+                           "Parameters: table_name (string, optional)")
+                .inputSchema(inputSchema)
+                .build();
+    }
+    
+    /**
+     * server_stats ツールの定義を作成
+     * 
+     * このツールはサーバーの実行統計を返します。Dr.Sumには接続しません。
+     */
+    private static McpSchema.Tool createServerStatsTool() {
+        // パラメータのプロパティを定義
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("reset", createBooleanProperty(
+                "Clear the per-tool statistics after returning them", false));
+        
+        // スキーマを作成（必須パラメータなし）
+        McpSchema.JsonSchema inputSchema = createJsonSchema(properties, null);
+        
+        return McpSchema.Tool.builder()
+                .name("server_stats")
+                .description("Return per-tool call statistics of this server process: call, error, row and " +
+                           "response byte counts, and latency percentiles (p50/p90/p99/max in milliseconds) " +
+                           "split by phase (total, connect, execute, fetch, format, disconnect). " +
+                           "Parameters: reset (boolean, optional, default false)")
                 .inputSchema(inputSchema)
                 .build();
     }
@@ -253,8 +709,14 @@ public class DrSumMcpServer {
     /**
      * 共通処理: Dr.Sum接続を使った処理を実行
      * 
-     * このメソッドは「接続→処理→切断」のパターンを共通化します。
-     * 環境変数から接続情報を読み込み、接続を確立し、処理を実行し、必ず切断します。
+     * このメソッドは「接続取得→処理→返却」のパターンを共通化します。
+     * 接続プロバイダーから接続を取得し、処理を実行し、必ず返却します。
+     * 処理がRuntimeExceptionでラップして投げたDWExceptionはDr.Sumエラーとして報告し、
+     * 接続はそのまま返却します（SQLの誤りなどで接続を作り直さないため。切断済みの接続はプールが検証して破棄します）。
+     * 予期しない例外が発生した接続は再利用せずに破棄します。
+     * 
+     * 呼び出しがタイムアウトまたはキャンセルで中断された場合は接続を閉じて処理を解放し、
+     * 中断の内容を表すエラー結果を返します（閉じた接続はプールに戻さずに破棄します）。
      * 
      * @param operation 接続を使って実行する処理
      * @return ツール実行結果
@@ -263,23 +725,54 @@ public class DrSumMcpServer {
             java.util.function.Function<DrSumConnection, String> operation) {
         
         DrSumConnection connection = null;
+        boolean reusable = true;
+        QueryCancellation cancellation = currentCancellation.get();
         
         try {
-            // 環境変数から接続設定を作成
-            ConnectionConfig config = ConnectionConfig.fromEnvironment();
-            connection = new DrSumConnection();
-            connection.connect(config);
+            // 実行待ちの間に中断されていれば接続しない
+            if (cancellation != null) {
+                cancellation.throwIfCancelled();
+            }
+            
+            // 接続プロバイダーから接続を取得（新規接続の場合はデータベースを開く時間を含む）
+            long connectStart = System.nanoTime();
+            connection = connectionProvider.acquire();
+            CallMetrics.current().addSince(Phase.CONNECT, connectStart);
+            
+            logger.info("Dr.Sum接続を取得しました");
             
-            logger.info("Dr.Sumに接続しました");
+            if (cancellation != null) {
+                // 中断時は接続を閉じ、Dr.Sumの応答を待っている処理を解放する
+                DrSumConnection acquired = connection;
+                cancellation.onAbort(acquired::abort);
+                cancellation.throwIfCancelled();
+            }
             
             // 処理を実行
-            String result = operation.apply(connection);
+            String result;
+            try {
+                result = operation.apply(connection);
+            } catch (RuntimeException e) {
+                // 中断で接続が閉じられたことによるエラーはタイムアウト／キャンセルとして報告
+                if (cancellation != null) {
+                    cancellation.throwIfCancelled();
+                }
+                DWException drSumError = unwrapDrSumError(e);
+                if (drSumError != null) {
+                    throw drSumError;
+                }
+                throw e;
+            }
             
             // 成功レスポンスを作成
             McpSchema.TextContent content = new McpSchema.TextContent(result);
             logger.info("処理が正常に完了しました");
             return McpSchema.CallToolResult.builder().content(List.of(content)).build();
             
+        } catch (QueryCancelledException e) {
+            reusable = false;
+            logger.warn("ツール呼び出しを中断しました: {}", e.getMessage());
+            return createCancelledResult(e);
         } catch (DWException e) {
             logger.error("Dr.Sumエラー: {}", e.getMessage());
             return createErrorResult("Dr.Sum処理に失敗しました: " + e.getMessage());
@@ -287,17 +780,24 @@ public class DrSumMcpServer {
             logger.error("無効なリクエスト: {}", e.getMessage());
             return createErrorResult(e.getMessage());
         } catch (Exception e) {
+            reusable = false;
             logger.error("リクエスト処理エラー", e);
             return createErrorResult("内部エラー: " + e.getMessage());
         } finally {
-            // 必ず切断
-            if (connection != null && connection.isConnected()) {
-                try {
-                    connection.disconnect();
-                    logger.info("Dr.Sumから切断しました");
-                } catch (DWException e) {
-                    logger.error("切断エラー: {}", e.getMessage());
+            // 返却後の接続を中断処理で閉じないよう解除
+            if (cancellation != null) {
+                cancellation.onAbort(null);
+            }
+            // 必ず返却（異常があった接続は破棄）
+            if (connection != null) {
+                long disconnectStart = System.nanoTime();
+                if (reusable) {
+                    connectionProvider.release(connection);
+                } else {
+                    connectionProvider.invalidate(connection);
                 }
+                CallMetrics.current().addSince(Phase.DISCONNECT, disconnectStart);
+                logger.info("Dr.Sum接続を返却しました");
             }
         }
     }
@@ -305,11 +805,9 @@ public class DrSumMcpServer {
     /**
      * list_tables ツールのリクエストを処理
      * 
-     * オンデマンド接続パターン: 接続→テーブルリスト取得→切断
+     * 接続パターン: 接続取得→テーブルリスト取得→返却
      */
-    private static McpSchema.CallToolResult handleListTablesRequest(
-            McpSyncServerExchange exchange, 
-            McpSchema.CallToolRequest request) {
+    private static McpSchema.CallToolResult handleListTablesRequest(McpSchema.CallToolRequest request) {
         
         logger.info("list_tables リクエストを処理中");
         
@@ -323,14 +821,18 @@ public class DrSumMcpServer {
             logger.info("スコープフィルタが指定されました: {}", scopeName);
         }
         
+        // ビュー判定で借りる追加接続も中断時に閉じる
+        QueryCancellation cancellation = currentCancellation.get();
+        
         // 共通接続処理を使って実行
         return executeWithConnection(connection -> {
             try {
-                // 環境変数からスコープ定義を読み込み
-                ScopeDefinitions scopeDefinitions = ScopeDefinitions.fromEnvironment();
+                // 起動時に読み込んだスコープ定義を使用
+                ScopeDefinitions scopeDefinitions = scopeSource.get();
                 
                 // メタデータサービスを作成してテーブルリストを取得
-                DrSumMetadataService metadataService = new DrSumMetadataService(connection);
+                DrSumMetadataService metadataService = new DrSumMetadataService(
+                        connection, metadataCache, viewClassifier, null, cancellation);
                 return metadataService.getTableList(scopeName, scopeDefinitions);
             } catch (DWException e) {
                 throw new RuntimeException(e);
@@ -341,11 +843,9 @@ public class DrSumMcpServer {
     /**
      * get_metadata ツールのリクエストを処理
      * 
-     * オンデマンド接続パターン: 接続→メタデータ取得→切断
+     * 接続パターン: 接続取得→メタデータ取得→返却
      */
-    private static McpSchema.CallToolResult handleGetMetadataRequest(
-            McpSyncServerExchange exchange, 
-            McpSchema.CallToolRequest request) {
+    private static McpSchema.CallToolResult handleGetMetadataRequest(McpSchema.CallToolRequest request) {
         
         logger.info("get_metadata リクエストを処理中");
         
@@ -356,16 +856,21 @@ public class DrSumMcpServer {
                 ? ((Number) arguments.get("sample_rows")).intValue() 
                 : DEFAULT_SAMPLE_ROWS;
         
+        // tables が指定された場合は一括取得
+        if (arguments.get("tables") != null) {
+            return handleGetMetadataBatchRequest(arguments.get("tables"), tableName, sampleRows);
+        }
+        
         // パラメータを検証
         if (tableName == null || tableName.trim().isEmpty()) {
-            return createErrorResult("table_name パラメータは必須です");
+            return createErrorResult("table_name または tables パラメータは必須です");
         }
         
         // 共通接続処理を使って実行
         return executeWithConnection(connection -> {
             try {
                 // メタデータサービスを作成してメタデータを取得
-                DrSumMetadataService metadataService = new DrSumMetadataService(connection);
+                DrSumMetadataService metadataService = new DrSumMetadataService(connection, metadataCache);
                 return metadataService.getTableMetadata(tableName, sampleRows);
             } catch (DWException e) {
                 throw new RuntimeException(e);
@@ -373,38 +878,275 @@ public class DrSumMcpServer {
         });
     }
     
+    /**
+     * get_metadata ツールの一括取得（tables 指定）を処理
+     * 
+     * 接続パターン: 接続取得→メタデータ一括取得（追加接続で並列）→返却
+     * 
+     * @param tables tables パラメータの値
+     * @param tableName table_name パラメータの値（tables と同時には指定できない）
+     * @param sampleRows サンプル行数
+     */
+    private static McpSchema.CallToolResult handleGetMetadataBatchRequest(Object tables, String tableName,
+                                                                          int sampleRows) {
+        // パラメータを検証
+        if (tableName != null) {
+            return createErrorResult("table_name と tables は同時に指定できません");
+        }
+        if (!(tables instanceof List) || ((List<?>) tables).isEmpty()) {
+            return createErrorResult("tables パラメータはテーブル名の配列で指定してください");
+        }
+        List<String> tableNames = new ArrayList<>();
+        for (Object table : (List<?>) tables) {
+            if (!(table instanceof String) || ((String) table).trim().isEmpty()) {
+                return createErrorResult("tables パラメータはテーブル名の配列で指定してください");
+            }
+            tableNames.add((String) table);
+        }
+        if (tableNames.size() > settings.getMetadataBatchMaxTables()) {
+            return createErrorResult(String.format("tables に指定できるテーブルは%d件までです",
+                                                   settings.getMetadataBatchMaxTables()));
+        }
+        
+        logger.info("get_metadata の一括取得: {}テーブル", tableNames.size());
+        
+        // 並列取得で借りる追加接続も中断時に閉じる
+        QueryCancellation cancellation = currentCancellation.get();
+        
+        // 共通接続処理を使って実行
+        return executeWithConnection(connection -> {
+            try {
+                DrSumMetadataService metadataService = new DrSumMetadataService(
+                        connection, metadataCache, viewClassifier, metadataFanOut, cancellation);
+                return metadataService.getTableMetadataBatch(tableNames, sampleRows);
+            } catch (DWException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+    
     /**
      * execute_query ツールのリクエストを処理
      * 
-     * オンデマンド接続パターン: 接続→クエリ実行→切断
+     * 接続パターン: 接続取得→クエリ実行→返却
+     * continuation_token が指定された場合は保存済みの結果から次のページを返すため、接続を取得しません。
      */
-    private static McpSchema.CallToolResult handleExecuteQueryRequest(
-            McpSyncServerExchange exchange, 
-            McpSchema.CallToolRequest request) {
+    private static McpSchema.CallToolResult handleExecuteQueryRequest(McpSchema.CallToolRequest request) {
         
         logger.info("execute_query リクエストを処理中");
         
         // リクエストからパラメータを抽出
         Map<String, Object> arguments = request.arguments();
         String sqlQuery = (String) arguments.get("sql_query");
+        String continuationToken = (String) arguments.get("continuation_token");
+        int maxRows;
+        int offset;
+        int pageSize;
+        long timeoutMs;
+        int maxResponseBytes;
+        try {
+            maxRows = getIntArgument(arguments, "max_rows", 0);
+            offset = getIntArgument(arguments, "offset", 0);
+            pageSize = getIntArgument(arguments, "page_size", 0);
+            timeoutMs = getTimeoutArgument(arguments, settings.getQueryTimeoutMs());
+            maxResponseBytes = getIntArgument(arguments, "max_response_bytes", settings.getMaxResponseBytes());
+        } catch (IllegalArgumentException e) {
+            return createErrorResult(e.getMessage());
+        }
+        
+        OutputFormat outputFormat;
+        try {
+            outputFormat = OutputFormat.fromParameter((String) arguments.get("output_format"));
+        } catch (IllegalArgumentException e) {
+            return createErrorResult(e.getMessage());
+        }
+        
+        // 継続トークンが指定された場合は保存済みの結果から返す
+        if (continuationToken != null && !continuationToken.trim().isEmpty()) {
+            try {
+                String page = new QueryPageService(resultStore)
+                        .fetchPage(continuationToken, pageSize, outputFormat, maxResponseBytes);
+                McpSchema.TextContent content = new McpSchema.TextContent(page);
+                return McpSchema.CallToolResult.builder().content(List.of(content)).build();
+            } catch (IllegalArgumentException e) {
+                logger.error("無効なリクエスト: {}", e.getMessage());
+                return createErrorResult(e.getMessage());
+            }
+        }
         
         // パラメータを検証
         if (sqlQuery == null || sqlQuery.trim().isEmpty()) {
-            return createErrorResult("sql_query パラメータは必須です");
+            return createErrorResult("sql_query または continuation_token パラメータは必須です");
+        }
+        
+        QueryOptions options;
+        try {
+            options = QueryOptions.builder()
+                    .maxRows(maxRows)
+                    .offset(offset)
+                    .pageSize(pageSize)
+                    .outputFormat(outputFormat)
+                    .maxResponseBytes(maxResponseBytes)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return createErrorResult(e.getMessage());
+        }
+        
+        // 参照系SQLはキャッシュ済みの結果があれば接続せずに返す
+        SqlFingerprint fingerprint = null;
+        if (queryCache != null && getBooleanArgument(arguments, "use_cache", true)
+                && QueryResultCache.isCacheable(sqlQuery, options)) {
+            fingerprint = SqlFingerprint.of(sqlQuery);
+            String cached = queryCache.get(fingerprint, options);
+            if (cached != null) {
+                logger.info("キャッシュ済みのクエリ結果を返します");
+                McpSchema.TextContent content = new McpSchema.TextContent(cached);
+                return McpSchema.CallToolResult.builder().content(List.of(content)).build();
+            }
+        }
+        SqlFingerprint cacheKey = fingerprint;
+        
+        // 制限時間を超えたクエリは接続ごと中断する
+        QueryCancellation cancellation = currentCancellation.get();
+        if (cancellation != null) {
+            queryWatchdog.watch(cancellation, timeoutMs);
         }
         
         // 共通接続処理を使って実行
         return executeWithConnection(connection -> {
             try {
                 // クエリサービスを作成してクエリを実行
-                DrSumQueryService queryService = new DrSumQueryService(connection);
-                return queryService.executeQuery(sqlQuery);
+                DrSumQueryService queryService = new DrSumQueryService(
+                        connection, settings.getFetchSize(), resultStore, cancellation);
+                String result = queryService.executeQuery(sqlQuery, options);
+                if (cacheKey != null) {
+                    queryCache.put(cacheKey, options, result);
+                } else if (queryCache != null && !DrSumQueryService.isReadOnly(sqlQuery)) {
+                    // 更新系SQLの対象テーブルを参照する結果は古くなるため破棄する
+                    queryCache.invalidateAfterWrite(sqlQuery);
+                }
+                return result;
             } catch (DWException e) {
                 throw new RuntimeException(e);
             }
         });
     }
     
+    /**
+     * refresh_metadata ツールのリクエストを処理
+     * 
+     * メタデータキャッシュとクエリ結果キャッシュを無効化するだけのため、Dr.Sum接続は取得しません。
+     */
+    private static McpSchema.CallToolResult handleRefreshMetadataRequest(McpSchema.CallToolRequest request) {
+        
+        logger.info("refresh_metadata リクエストを処理中");
+        
+        // オプショナルなtable_nameパラメータを抽出
+        Map<String, Object> arguments = request.arguments();
+        String tableName = (String) arguments.get("table_name");
+        boolean allTables = tableName == null || tableName.trim().isEmpty();
+        
+        try (JsonOutput out = JsonOutput.pretty()) {
+            JsonGenerator gen = out.generator();
+            gen.writeStartObject();
+            gen.writeBooleanField("cache_enabled", metadataCache != null);
+            if (!allTables) {
+                gen.writeStringField("table", tableName.trim());
+            }
+            
+            if (queryCache != null) {
+                int invalidatedResults = allTables
+                        ? queryCache.invalidateAll()
+                        : queryCache.invalidateTable(tableName.trim());
+                gen.writeNumberField("query_results_invalidated", invalidatedResults);
+            }
+            if (metadataCache == null) {
+                gen.writeNumberField("invalidated", 0);
+            } else {
+                int invalidated = allTables
+                        ? metadataCache.invalidateAll()
+                        : metadataCache.invalidateTable(tableName.trim());
+                gen.writeNumberField("invalidated", invalidated);
+                gen.writeObjectFieldStart("stats");
+                writeCacheStats(gen, "table_lists", metadataCache.getTableListStats());
+                writeCacheStats(gen, "view_flags", metadataCache.getViewFlagStats());
+                writeCacheStats(gen, "schemas", metadataCache.getSchemaStats());
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+            
+            McpSchema.TextContent content = new McpSchema.TextContent(out.toJson());
+            return McpSchema.CallToolResult.builder().content(List.of(content)).build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write refresh_metadata result", e);
+        }
+    }
+    
+    /**
+     * server_stats ツールのリクエストを処理
+     * 
+     * プロセス内の統計を返すだけのため、Dr.Sum接続は取得しません。
+     * この呼び出し自体は、応答を作成した後に統計に記録されます。
+     */
+    private static McpSchema.CallToolResult handleServerStatsRequest(McpSchema.CallToolRequest request) {
+        
+        logger.info("server_stats リクエストを処理中");
+        
+        boolean reset = getBooleanArgument(request.arguments(), "reset", false);
+        String json = serverStats.toJson();
+        if (reset) {
+            serverStats.reset();
+            logger.info("実行統計を消去しました");
+        }
+        
+        McpSchema.TextContent content = new McpSchema.TextContent(json);
+        return McpSchema.CallToolResult.builder().content(List.of(content)).build();
+    }
+    
+    /**
+     * キャッシュの集計値をJSONオブジェクトとして書き込み
+     */
+    private static void writeCacheStats(JsonGenerator gen, String name, TtlLruCache.Stats stats)
+            throws IOException {
+        gen.writeObjectFieldStart(name);
+        gen.writeNumberField("hits", stats.getHits());
+        gen.writeNumberField("misses", stats.getMisses());
+        gen.writeNumberField("evictions", stats.getEvictions());
+        gen.writeNumberField("size", stats.getSize());
+        gen.writeEndObject();
+    }
+    
+    /**
+     * 中断（タイムアウトまたはキャンセル）を表すエラー結果を作成
+     * 
+     * クライアントが理由を判別できるよう、エラーの種類と経過時間をJSONで返します。
+     */
+    static McpSchema.CallToolResult createCancelledResult(QueryCancelledException e) {
+        boolean timedOut = e.getReason() == QueryCancellation.Reason.TIMEOUT;
+        try (JsonOutput out = JsonOutput.pretty()) {
+            JsonGenerator gen = out.generator();
+            gen.writeStartObject();
+            gen.writeStringField("error", timedOut ? "timeout" : "cancelled");
+            gen.writeStringField("message", timedOut
+                    ? "クエリが制限時間内に完了しなかったため中断しました。" +
+                      "条件の絞り込みや max_rows の指定を検討するか、timeout_ms を延ばして再実行してください"
+                    : "クライアントのキャンセル要求により処理を中断しました");
+            if (timedOut) {
+                gen.writeNumberField("timeout_ms", e.getTimeoutMs());
+            }
+            gen.writeNumberField("elapsed_ms", e.getElapsedMs());
+            gen.writeEndObject();
+            
+            McpSchema.TextContent content = new McpSchema.TextContent(out.toJson());
+            return McpSchema.CallToolResult.builder()
+                    .content(List.of(content))
+                    .isError(true)
+                    .build();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write cancelled result", ex);
+        }
+    }
+    
     /**
      * エラー結果を作成
      */
@@ -427,26 +1169,180 @@ public class DrSumMcpServer {
      */
     private static final int DEFAULT_SAMPLE_ROWS = 3;
     
+    /**
+     * サーバーの説明（MCPクライアントに渡すinstructions）
+     */
+    private static final String INSTRUCTIONS = "DrSum MCP Server provides Dr.Sum database analysis capabilities. " +
+            "Connection information is configured via environment variables " +
+            "(DRSUM_HOST, DRSUM_PORT, DRSUM_USERNAME, DRSUM_PASSWORD, DRSUM_DATABASE). " +
+            "DRSUM_SCOPES (or DRSUM_SCOPES_FILE, reloaded on change) can define named scopes " +
+            "that group related tables. " +
+            "Use 'list_tables' to get a list of all tables and views in the database, " +
+            "use 'get_metadata' to retrieve detailed table information with sample data " +
+            "(pass 'tables' to fetch several tables in one call), " +
+            "and 'execute_query' to run SQL queries. " +
+            "Large query results can be limited with max_rows or paged with page_size; " +
+            "pass the returned continuation_token to 'execute_query' to fetch the next page. " +
+            "Responses are capped at max_response_bytes (server default DRSUM_MAX_RESPONSE_BYTES); " +
+            "a capped result has \"truncated\": true, the total_row_count and column_summaries " +
+            "(min, max, null_count, distinct_estimate per column) so you can refine the query. " +
+            "When the query result cache is enabled, repeated read-only queries may be answered from it; " +
+            "pass use_cache=false to force re-execution. " +
+            "Queries that run longer than timeout_ms (server default DRSUM_QUERY_TIMEOUT_MS) are aborted " +
+            "and return an error with \"error\": \"timeout\"; narrow the query or raise timeout_ms and retry. " +
+            "Table lists and column metadata are cached; " +
+            "use 'refresh_metadata' after schema changes to drop the cached entries. " +
+            "Use 'server_stats' to see per-tool call counts and latency percentiles by phase. " +
+            "Connections are pooled and reused across tool calls " +
+            "(set DRSUM_CONNECTION_MODE=per_call to connect on-demand for each call).";
+    
     // ========================================================================
     // ユーティリティメソッド
     // ========================================================================
     
     /**
-     * JSON用に文字列をエスケープ
+     * 整数パラメータを取得（未指定の場合はデフォルト値）
+     * 
+     * 数値以外や範囲外の値を0（無制限）や切り捨てた値として扱わないよう、型と範囲を検証します。
+     * 
+     * @param arguments リクエストのパラメータ
+     * @param name パラメータ名
+     * @param defaultValue デフォルト値
+     * @return パラメータの値
+     * @throws IllegalArgumentException 数値でない場合、整数でない場合、または 0..Integer.MAX_VALUE の範囲外の場合
+     */
+    static int getIntArgument(Map<String, Object> arguments, String name, int defaultValue) {
+        Object value = arguments.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+        double number = ((Number) value).doubleValue();
+        if (number != Math.rint(number)) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+        if (number < 0 || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " must be between 0 and " + Integer.MAX_VALUE);
+        }
+        return ((Number) value).intValue();
+    }
+    
+    /**
+     * timeout_ms パラメータを取得（未指定の場合はデフォルト値）
      * 
-     * 特殊文字をエスケープしてJSON文字列として安全に使用できるようにします。
+     * 数値以外の値を0（無制限）として扱わないよう、型と範囲を検証します。
      * 
-     * @param value エスケープする文字列
-     * @return エスケープされた文字列
+     * @param arguments リクエストのパラメータ
+     * @param defaultValue デフォルト値（ミリ秒）
+     * @return 制限時間（ミリ秒、0は無制限）
+     * @throws IllegalArgumentException 数値でない場合、または負の値の場合
      */
-    private static String escapeJson(String value) {
+    static long getTimeoutArgument(Map<String, Object> arguments, long defaultValue) {
+        Object value = arguments.get("timeout_ms");
         if (value == null) {
-            return "";
+            return defaultValue;
+        }
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("timeout_ms must be a number");
+        }
+        long timeoutMs = ((Number) value).longValue();
+        if (timeoutMs < 0) {
+            throw new IllegalArgumentException("timeout_ms must be non-negative");
+        }
+        return timeoutMs;
+    }
+    
+    /**
+     * 真偽値パラメータを取得（未指定の場合はデフォルト値）
+     * 
+     * @param arguments リクエストのパラメータ
+     * @param name パラメータ名
+     * @param defaultValue デフォルト値
+     * @return パラメータの値
+     */
+    private static boolean getBooleanArgument(Map<String, Object> arguments, String name, boolean defaultValue) {
+        Object value = arguments.get(name);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+    
+    /**
+     * ハンドラがRuntimeExceptionでラップしたDWExceptionを取り出す
+     * 
+     * @param e 処理が投げた例外
+     * @return 原因のDWException、Dr.Sumエラーでない場合はnull
+     */
+    static DWException unwrapDrSumError(RuntimeException e) {
+        return e.getCause() instanceof DWException ? (DWException) e.getCause() : null;
+    }
+    
+    /**
+     * 呼び出し結果を他の呼び出しと共有してよいかどうか（更新系のSQLを含む場合は共有しない）
+     * 
+     * @param arguments リクエストのパラメータ
+     * @return 共有してよい場合true
+     */
+    static boolean isCoalescable(Map<String, Object> arguments) {
+        Object sql = arguments == null ? null : arguments.get("sql_query");
+        return !(sql instanceof String) || DrSumQueryService.isReadOnly((String) sql);
+    }
+    
+    /**
+     * ツール名と正規化した引数から、同じ呼び出しを識別するキーを作成
+     * 
+     * 引数はキーの順序によらず同じ表現になり、数値は 5 と 5.0 のように値が同じなら同じ表現になります。
+     * 文字列は前後の空白も含めてそのまま比較します（結果が変わりうるため）。
+     * 
+     * @param toolName ツール名
+     * @param arguments リクエストのパラメータ
+     * @return 呼び出しを識別するキー
+     */
+    static String coalescingKey(String toolName, Map<String, Object> arguments) {
+        StringBuilder key = new StringBuilder(toolName).append(':');
+        appendCanonical(key, arguments == null ? Map.of() : arguments);
+        return key.toString();
+    }
+    
+    /**
+     * 引数の値を正規化した表現で追加（マップはキー順、数値は整数値なら整数表記）
+     */
+    private static void appendCanonical(StringBuilder out, Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> sorted.put(String.valueOf(k), v));
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                JsonEscaper.appendQuoted(out, entry.getKey()).append(':');
+                appendCanonical(out, entry.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof List) {
+            out.append('[');
+            List<?> list = (List<?>) value;
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendCanonical(out, list.get(i));
+            }
+            out.append(']');
+        } else if (value instanceof String) {
+            JsonEscaper.appendQuoted(out, (String) value);
+        } else if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+                out.append((long) number);
+            } else {
+                out.append(value);
+            }
+        } else {
+            out.append(value);
         }
-        return value.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package com.example.drsum;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 仮想スレッドのピン留め（pinning）の監視
+ * 
+ * 仮想スレッドが synchronized ブロック内やネイティブ呼び出し中にブロックすると、
+ * キャリアスレッドを占有したままになり、他の仮想スレッドが実行できなくなります。
+ * Dr.Sum EA のドライバ内部で発生するピン留めを把握するため、
+ * JFRの jdk.VirtualThreadPinned イベントをプロセス内で購読し、ログと集計値で報告します。
+ * 
+ * 【責務】
+ * - しきい値以上ブロックしたピン留めイベントの収集
+ * - 発生箇所（スタックトレースの先頭）のログ出力
+ * - 発生件数・合計時間の集計
+ * 
+ * イベントが存在しないJava（21未満）では何も記録しません。
+ */
+public class PinningMonitor implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PinningMonitor.class);
+    
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    
+    // ログに出力するスタックフレーム数
+    private static final int LOGGED_FRAMES = 5;
+    
+    private final RecordingStream stream;
+    private final AtomicLong pinnedCount = new AtomicLong();
+    private final AtomicLong pinnedNanos = new AtomicLong();
+    
+    /**
+     * 監視を開始
+     * 
+     * @param threshold 報告するピン留めの最小時間
+     * @throws IllegalArgumentException thresholdが負の場合
+     */
+    public PinningMonitor(Duration threshold) {
+        if (threshold == null || threshold.isNegative()) {
+            throw new IllegalArgumentException("Pinning threshold cannot be negative");
+        }
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Monitoring virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 報告したピン留めの件数
+     */
+    public long getPinnedCount() {
+        return pinnedCount.get();
+    }
+    
+    /**
+     * 報告したピン留めの合計時間（ミリ秒）
+     */
+    public long getPinnedTotalMillis() {
+        return pinnedNanos.get() / 1_000_000L;
+    }
+    
+    /**
+     * 監視を停止
+     */
+    @Override
+    public void close() {
+        stream.close();
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * ピン留めイベントを集計してログに出力
+     */
+    private void onPinned(RecordedEvent event) {
+        long count = pinnedCount.incrementAndGet();
+        pinnedNanos.addAndGet(event.getDuration().toNanos());
+        logger.warn("Virtual thread pinned its carrier for {} ms (#{}) at {}",
+                    event.getDuration().toMillis(), count, describeTopFrames(event.getStackTrace()));
+    }
+    
+    /**
+     * スタックトレースの先頭数フレームを文字列化
+     */
+    static String describeTopFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "(no stack trace)";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            if (i > 0) {
+                text.append(" <- ");
+            }
+            text.append(frame.getMethod().getType().getName())
+                .append('.').append(frame.getMethod().getName())
+                .append(':').append(frame.getLineNumber());
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,835 @@
+package com.example.drsum;
+
+import com.example.drsum.service.DrSumQueryService;
+import com.example.drsum.service.QueryResultStore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.example.drsum.connection.EnvSettings.parseInt;
+import static com.example.drsum.connection.EnvSettings.parseLong;
+
+/**
+ * サーバー動作設定クラス
+ * 
+ * クエリ実行などのチューニング用パラメータを保持します。
+ * 起動時に一度だけ環境変数から読み込まれます。
+ * 
+ * 【責務】
+ * - チューニングパラメータの保持とバリデーション
+ * - 環境変数からの設定読み込み
+ */
+public class ServerSettings {
+    
+    /**
+     * ツールハンドラの実行方式
+     */
+    public enum ServerMode {
+        /** 同期サーバー（McpServer.sync）でハンドラを実行する（従来の方式） */
+        SYNC,
+        /** 非同期サーバー（McpServer.async）で、上限付きのワーカースレッドでハンドラを実行する */
+        ASYNC,
+        /** 非同期サーバーで、呼び出しごとに仮想スレッドでハンドラを実行する（Java 21以降） */
+        VIRTUAL;
+        
+        /**
+         * 設定値から実行方式を解決
+         * 
+         * @param value 設定値（"sync"、"async" または "virtual"、大文字小文字は区別しない）
+         * @return 実行方式
+         * @throws IllegalArgumentException 不明な値の場合
+         */
+        public static ServerMode parse(String value) {
+            String normalized = value.trim().toUpperCase(Locale.ROOT);
+            for (ServerMode mode : values()) {
+                if (mode.name().equals(normalized)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("Unknown server mode: " + value);
+        }
+    }
+    
+    /**
+     * MCPクライアントとの通信方式
+     */
+    public enum Transport {
+        /** 標準入出力（クライアントごとにサーバープロセスを起動する、従来の方式） */
+        STDIO,
+        /** Streamable HTTP（1つのサーバープロセスを複数のクライアントで共有する） */
+        HTTP;
+        
+        /**
+         * 設定値から通信方式を解決
+         * 
+         * @param value 設定値（"stdio" または "http"、大文字小文字は区別しない）
+         * @return 通信方式
+         * @throws IllegalArgumentException 不明な値の場合
+         */
+        public static Transport parse(String value) {
+            String normalized = value.trim().toUpperCase(Locale.ROOT);
+            for (Transport transport : values()) {
+                if (transport.name().equals(normalized)) {
+                    return transport;
+                }
+            }
+            throw new IllegalArgumentException("Unknown transport: " + value);
+        }
+    }
+    
+    private static final Logger logger = LoggerFactory.getLogger(ServerSettings.class);
+    
+    // サーバー設定用の環境変数名
+    private static final String ENV_DRSUM_FETCH_SIZE = "DRSUM_FETCH_SIZE";
+    private static final String ENV_DRSUM_RESULT_TTL_SECONDS = "DRSUM_RESULT_TTL_SECONDS";
+    private static final String ENV_DRSUM_RESULT_STORE_MAX_ENTRIES = "DRSUM_RESULT_STORE_MAX_ENTRIES";
+    private static final String ENV_DRSUM_RESULT_STORE_MAX_ROWS = "DRSUM_RESULT_STORE_MAX_ROWS";
+    private static final String ENV_DRSUM_METADATA_CACHE_TTL_SECONDS = "DRSUM_METADATA_CACHE_TTL_SECONDS";
+    private static final String ENV_DRSUM_METADATA_CACHE_MAX_ENTRIES = "DRSUM_METADATA_CACHE_MAX_ENTRIES";
+    private static final String ENV_DRSUM_VIEW_CLASSIFY_PARALLELISM = "DRSUM_VIEW_CLASSIFY_PARALLELISM";
+    private static final String ENV_DRSUM_METADATA_BATCH_PARALLELISM = "DRSUM_METADATA_BATCH_PARALLELISM";
+    private static final String ENV_DRSUM_METADATA_BATCH_MAX_TABLES = "DRSUM_METADATA_BATCH_MAX_TABLES";
+    private static final String ENV_DRSUM_SERVER_MODE = "DRSUM_SERVER_MODE";
+    private static final String ENV_DRSUM_WORKER_THREADS = "DRSUM_WORKER_THREADS";
+    private static final String ENV_DRSUM_WORKER_QUEUE_SIZE = "DRSUM_WORKER_QUEUE_SIZE";
+    private static final String ENV_DRSUM_PINNING_THRESHOLD_MS = "DRSUM_PINNING_THRESHOLD_MS";
+    private static final String ENV_DRSUM_TRANSPORT = "DRSUM_TRANSPORT";
+    private static final String ENV_DRSUM_HTTP_HOST = "DRSUM_HTTP_HOST";
+    private static final String ENV_DRSUM_HTTP_PORT = "DRSUM_HTTP_PORT";
+    private static final String ENV_DRSUM_HTTP_SESSION_IDLE_TIMEOUT_SECONDS = "DRSUM_HTTP_SESSION_IDLE_TIMEOUT_SECONDS";
+    private static final String ENV_DRSUM_HTTP_MAX_CONCURRENT_REQUESTS = "DRSUM_HTTP_MAX_CONCURRENT_REQUESTS";
+    private static final String ENV_DRSUM_HTTP_MAX_SESSIONS = "DRSUM_HTTP_MAX_SESSIONS";
+    private static final String ENV_DRSUM_COALESCE_REQUESTS = "DRSUM_COALESCE_REQUESTS";
+    private static final String ENV_DRSUM_QUERY_CACHE_TTL_SECONDS = "DRSUM_QUERY_CACHE_TTL_SECONDS";
+    private static final String ENV_DRSUM_QUERY_CACHE_MAX_BYTES = "DRSUM_QUERY_CACHE_MAX_BYTES";
+    private static final String ENV_DRSUM_RESULT_SPILL_BYTES = "DRSUM_RESULT_SPILL_BYTES";
+    private static final String ENV_DRSUM_RESULT_SPILL_DIR = "DRSUM_RESULT_SPILL_DIR";
+    private static final String ENV_DRSUM_QUERY_TIMEOUT_MS = "DRSUM_QUERY_TIMEOUT_MS";
+    private static final String ENV_DRSUM_MAX_RESPONSE_BYTES = "DRSUM_MAX_RESPONSE_BYTES";
+    private static final String ENV_DRSUM_STATS_LOG_INTERVAL_SECONDS = "DRSUM_STATS_LOG_INTERVAL_SECONDS";
+    
+    // デフォルト値
+    private static final int DEFAULT_RESULT_TTL_SECONDS = 300;
+    private static final int DEFAULT_RESULT_STORE_MAX_ENTRIES = 32;
+    private static final int DEFAULT_RESULT_STORE_MAX_ROWS = 100000;
+    private static final int DEFAULT_METADATA_CACHE_TTL_SECONDS = 600;
+    private static final int DEFAULT_METADATA_CACHE_MAX_ENTRIES = 1000;
+    private static final int DEFAULT_VIEW_CLASSIFY_PARALLELISM = 4;
+    private static final int DEFAULT_METADATA_BATCH_PARALLELISM = 4;
+    private static final int DEFAULT_METADATA_BATCH_MAX_TABLES = 50;
+    private static final int DEFAULT_WORKER_THREADS = 4;
+    private static final int DEFAULT_WORKER_QUEUE_SIZE = 32;
+    private static final int DEFAULT_PINNING_THRESHOLD_MS = 20;
+    private static final String DEFAULT_HTTP_HOST = "127.0.0.1";
+    private static final int DEFAULT_HTTP_PORT = 8080;
+    private static final int DEFAULT_HTTP_SESSION_IDLE_TIMEOUT_SECONDS = 1800;
+    private static final int DEFAULT_HTTP_MAX_CONCURRENT_REQUESTS = 64;
+    private static final int DEFAULT_HTTP_MAX_SESSIONS = 256;
+    private static final long DEFAULT_QUERY_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+    private static final long DEFAULT_RESULT_SPILL_BYTES = 32L * 1024 * 1024;
+    private static final long DEFAULT_QUERY_TIMEOUT_MS = 5 * 60 * 1000L;
+    private static final int DEFAULT_MAX_RESPONSE_BYTES = 1024 * 1024;
+    
+    private final int fetchSize;
+    private final int resultTtlSeconds;
+    private final int resultStoreMaxEntries;
+    private final int resultStoreMaxRows;
+    private final int metadataCacheTtlSeconds;
+    private final int metadataCacheMaxEntries;
+    private final int viewClassifyParallelism;
+    private final int metadataBatchParallelism;
+    private final int metadataBatchMaxTables;
+    private final ServerMode serverMode;
+    private final int workerThreads;
+    private final int workerQueueSize;
+    private final int pinningThresholdMs;
+    private final Transport transport;
+    private final String httpHost;
+    private final int httpPort;
+    private final int httpSessionIdleTimeoutSeconds;
+    private final int httpMaxConcurrentRequests;
+    private final int httpMaxSessions;
+    private final boolean coalesceRequests;
+    private final int queryCacheTtlSeconds;
+    private final long queryCacheMaxBytes;
+    private final long resultSpillBytes;
+    private final Path resultSpillDirectory;
+    private final long queryTimeoutMs;
+    private final int maxResponseBytes;
+    private final int statsLogIntervalSeconds;
+    
+    private ServerSettings(Builder builder) {
+        this.fetchSize = builder.fetchSize;
+        this.resultTtlSeconds = builder.resultTtlSeconds;
+        this.resultStoreMaxEntries = builder.resultStoreMaxEntries;
+        this.resultStoreMaxRows = builder.resultStoreMaxRows;
+        this.metadataCacheTtlSeconds = builder.metadataCacheTtlSeconds;
+        this.metadataCacheMaxEntries = builder.metadataCacheMaxEntries;
+        this.viewClassifyParallelism = builder.viewClassifyParallelism;
+        this.metadataBatchParallelism = builder.metadataBatchParallelism;
+        this.metadataBatchMaxTables = builder.metadataBatchMaxTables;
+        this.serverMode = builder.serverMode;
+        this.workerThreads = builder.workerThreads;
+        this.workerQueueSize = builder.workerQueueSize;
+        this.pinningThresholdMs = builder.pinningThresholdMs;
+        this.transport = builder.transport;
+        this.httpHost = builder.httpHost;
+        this.httpPort = builder.httpPort;
+        this.httpSessionIdleTimeoutSeconds = builder.httpSessionIdleTimeoutSeconds;
+        this.httpMaxConcurrentRequests = builder.httpMaxConcurrentRequests;
+        this.httpMaxSessions = builder.httpMaxSessions;
+        this.coalesceRequests = builder.coalesceRequests;
+        this.queryCacheTtlSeconds = builder.queryCacheTtlSeconds;
+        this.queryCacheMaxBytes = builder.queryCacheMaxBytes;
+        this.resultSpillBytes = builder.resultSpillBytes;
+        this.resultSpillDirectory = builder.resultSpillDirectory;
+        this.queryTimeoutMs = builder.queryTimeoutMs;
+        this.maxResponseBytes = builder.maxResponseBytes;
+        this.statsLogIntervalSeconds = builder.statsLogIntervalSeconds;
+    }
+    
+    /**
+     * デフォルト値で初期化されたビルダーを作成
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    // ========================================================================
+    // Getter メソッド
+    // ========================================================================
+    
+    /**
+     * 1回のfetchmanyで取得する行数
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+    
+    /**
+     * ページング結果を保持する時間（最終アクセスからの秒数）
+     */
+    public int getResultTtlSeconds() {
+        return resultTtlSeconds;
+    }
+    
+    /**
+     * 同時に保持するページング結果の最大数
+     */
+    public int getResultStoreMaxEntries() {
+        return resultStoreMaxEntries;
+    }
+    
+    /**
+     * 1つのページング結果で保持する最大行数
+     */
+    public int getResultStoreMaxRows() {
+        return resultStoreMaxRows;
+    }
+    
+    /**
+     * メタデータキャッシュの有効期限（登録からの秒数、0はキャッシュなし）
+     */
+    public int getMetadataCacheTtlSeconds() {
+        return metadataCacheTtlSeconds;
+    }
+    
+    /**
+     * メタデータキャッシュに保持するエントリの最大数（種類ごと）
+     */
+    public int getMetadataCacheMaxEntries() {
+        return metadataCacheMaxEntries;
+    }
+    
+    /**
+     * list_tablesのビュー判定に使う最大接続数（1は並列化なし）
+     */
+    public int getViewClassifyParallelism() {
+        return viewClassifyParallelism;
+    }
+    
+    /**
+     * get_metadataの一括取得（tables指定）に使う最大接続数（1は並列化なし）
+     */
+    public int getMetadataBatchParallelism() {
+        return metadataBatchParallelism;
+    }
+    
+    /**
+     * get_metadataで一度に指定できるテーブル数の上限
+     */
+    public int getMetadataBatchMaxTables() {
+        return metadataBatchMaxTables;
+    }
+    
+    /**
+     * ツールハンドラの実行方式
+     */
+    public ServerMode getServerMode() {
+        return serverMode;
+    }
+    
+    /**
+     * 非同期モードでツールハンドラを同時に実行する数（仮想スレッドモードではセマフォの許可数）
+     */
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+    
+    /**
+     * 非同期モードで実行待ちにできるツール呼び出しの最大数（超えた呼び出しはエラー）
+     */
+    public int getWorkerQueueSize() {
+        return workerQueueSize;
+    }
+    
+    /**
+     * 仮想スレッドモードで報告するキャリアスレッドのピン留めの最小時間（ミリ秒）
+     */
+    public int getPinningThresholdMs() {
+        return pinningThresholdMs;
+    }
+    
+    /**
+     * MCPクライアントとの通信方式
+     */
+    public Transport getTransport() {
+        return transport;
+    }
+    
+    /**
+     * HTTP通信で待ち受けるホスト名またはIPアドレス
+     */
+    public String getHttpHost() {
+        return httpHost;
+    }
+    
+    /**
+     * HTTP通信で待ち受けるポート番号
+     */
+    public int getHttpPort() {
+        return httpPort;
+    }
+    
+    /**
+     * HTTP通信で、リクエストもストリームもないセッションを破棄するまでの時間（秒）
+     */
+    public int getHttpSessionIdleTimeoutSeconds() {
+        return httpSessionIdleTimeoutSeconds;
+    }
+    
+    /**
+     * HTTP通信で同時に処理するリクエスト数の上限（SSEストリームを含む、超えた分は503）
+     */
+    public int getHttpMaxConcurrentRequests() {
+        return httpMaxConcurrentRequests;
+    }
+    
+    /**
+     * HTTP通信で同時に存在するセッション数の上限（超えた分の initialize は503）
+     */
+    public int getHttpMaxSessions() {
+        return httpMaxSessions;
+    }
+    
+    /**
+     * 同じツール呼び出しが同時に届いた場合に、1回の実行結果を共有するかどうか
+     */
+    public boolean isCoalesceRequests() {
+        return coalesceRequests;
+    }
+    
+    /**
+     * クエリ結果キャッシュの有効期限（登録からの秒数、0はキャッシュなし）
+     */
+    public int getQueryCacheTtlSeconds() {
+        return queryCacheTtlSeconds;
+    }
+    
+    /**
+     * クエリ結果キャッシュに保持する結果の合計サイズの上限（バイト）
+     */
+    public long getQueryCacheMaxBytes() {
+        return queryCacheMaxBytes;
+    }
+    
+    /**
+     * ページング結果をヒープに保持するバイト数の上限（超えた結果は一時ファイルに退避、0は退避しない）
+     */
+    public long getResultSpillBytes() {
+        return resultSpillBytes;
+    }
+    
+    /**
+     * ページング結果を退避する一時ファイルのディレクトリ
+     */
+    public Path getResultSpillDirectory() {
+        return resultSpillDirectory;
+    }
+    
+    /**
+     * execute_query の制限時間の既定値（ミリ秒、0は制限なし。呼び出しごとに timeout_ms で変更可能）
+     */
+    public long getQueryTimeoutMs() {
+        return queryTimeoutMs;
+    }
+    
+    /**
+     * execute_query の応答サイズの上限の既定値（バイト、0は制限なし。呼び出しごとに max_response_bytes で変更可能）
+     */
+    public int getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+    
+    /**
+     * 実行統計をログに出力する間隔（秒、0は出力しない）
+     */
+    public int getStatsLogIntervalSeconds() {
+        return statsLogIntervalSeconds;
+    }
+    
+    // ========================================================================
+    // Object メソッドのオーバーライド
+    // ========================================================================
+    
+    @Override
+    public String toString() {
+        return String.format("ServerSettings{fetchSize=%d, resultTtlSeconds=%d, " +
+                           "resultStoreMaxEntries=%d, resultStoreMaxRows=%d, " +
+                           "metadataCacheTtlSeconds=%d, metadataCacheMaxEntries=%d, " +
+                           "viewClassifyParallelism=%d, metadataBatchParallelism=%d, metadataBatchMaxTables=%d, " +
+                           "serverMode=%s, workerThreads=%d, " +
+                           "workerQueueSize=%d, pinningThresholdMs=%d, transport=%s, " +
+                           "httpHost=%s, httpPort=%d, httpSessionIdleTimeoutSeconds=%d, " +
+                           "httpMaxConcurrentRequests=%d, httpMaxSessions=%d, coalesceRequests=%b, " +
+                           "queryCacheTtlSeconds=%d, queryCacheMaxBytes=%d, " +
+                           "resultSpillBytes=%d, resultSpillDirectory=%s, " +
+                           "queryTimeoutMs=%d, maxResponseBytes=%d, statsLogIntervalSeconds=%d}",
+                           fetchSize, resultTtlSeconds, resultStoreMaxEntries, resultStoreMaxRows,
+                           metadataCacheTtlSeconds, metadataCacheMaxEntries, viewClassifyParallelism,
+                           metadataBatchParallelism, metadataBatchMaxTables, serverMode, workerThreads,
+                           workerQueueSize, pinningThresholdMs, transport,
+                           httpHost, httpPort, httpSessionIdleTimeoutSeconds, httpMaxConcurrentRequests,
+                           httpMaxSessions, coalesceRequests, queryCacheTtlSeconds, queryCacheMaxBytes,
+                           resultSpillBytes, resultSpillDirectory, queryTimeoutMs, maxResponseBytes,
+                           statsLogIntervalSeconds);
+    }
+    
+    // ========================================================================
+    // 静的ファクトリメソッド
+    // ========================================================================
+    
+    /**
+     * 環境変数からServerSettingsを作成
+     * 
+     * 以下の環境変数を読み込みます（全て省略可）：
+     * - DRSUM_FETCH_SIZE: 1回のfetchmanyで取得する行数（デフォルト: 1000）
+     * - DRSUM_RESULT_TTL_SECONDS: ページング結果の保持時間（デフォルト: 300秒）
+     * - DRSUM_RESULT_STORE_MAX_ENTRIES: 保持するページング結果の最大数（デフォルト: 32）
+     * - DRSUM_RESULT_STORE_MAX_ROWS: 1つのページング結果で保持する最大行数（デフォルト: 100000）
+     * - DRSUM_METADATA_CACHE_TTL_SECONDS: メタデータキャッシュの有効期限（デフォルト: 600秒、0でキャッシュ無効）
+     * - DRSUM_METADATA_CACHE_MAX_ENTRIES: メタデータキャッシュのエントリ数上限（デフォルト: 1000）
+     * - DRSUM_VIEW_CLASSIFY_PARALLELISM: list_tablesのビュー判定に使う最大接続数（デフォルト: 4）
+     * - DRSUM_METADATA_BATCH_PARALLELISM: get_metadataの一括取得に使う最大接続数（デフォルト: 4）
+     * - DRSUM_METADATA_BATCH_MAX_TABLES: get_metadataで一度に指定できるテーブル数（デフォルト: 50）
+     * - DRSUM_SERVER_MODE: ツールハンドラの実行方式（sync、async または virtual、デフォルト: sync）
+     * - DRSUM_WORKER_THREADS: 非同期モードで同時に実行する呼び出し数（デフォルト: 4）
+     * - DRSUM_WORKER_QUEUE_SIZE: 非同期モードで実行待ちにできる呼び出し数（デフォルト: 32）
+     * - DRSUM_PINNING_THRESHOLD_MS: 仮想スレッドのピン留めを報告する最小時間（デフォルト: 20ミリ秒）
+     * - DRSUM_TRANSPORT: MCPクライアントとの通信方式（stdio または http、デフォルト: stdio）
+     * - DRSUM_HTTP_HOST: HTTP通信で待ち受けるアドレス（デフォルト: 127.0.0.1）
+     * - DRSUM_HTTP_PORT: HTTP通信で待ち受けるポート番号（デフォルト: 8080）
+     * - DRSUM_HTTP_SESSION_IDLE_TIMEOUT_SECONDS: HTTP通信で使われていないセッションを破棄するまでの秒数（デフォルト: 1800）
+     * - DRSUM_HTTP_MAX_CONCURRENT_REQUESTS: HTTP通信で同時に処理するリクエスト数の上限（デフォルト: 64）
+     * - DRSUM_HTTP_MAX_SESSIONS: HTTP通信で同時に存在するセッション数の上限（デフォルト: 256）
+     * - DRSUM_COALESCE_REQUESTS: 同時に届いた同じツール呼び出しの実行を1回にまとめるか（デフォルト: true）
+     * - DRSUM_QUERY_CACHE_TTL_SECONDS: クエリ結果キャッシュの有効期限（デフォルト: 0秒＝キャッシュ無効）
+     * - DRSUM_QUERY_CACHE_MAX_BYTES: クエリ結果キャッシュの合計サイズの上限（デフォルト: 64MiB）
+     * - DRSUM_RESULT_SPILL_BYTES: ページング結果をヒープに保持するサイズの上限（デフォルト: 32MiB、0で退避しない）
+     * - DRSUM_RESULT_SPILL_DIR: ページング結果を退避する一時ファイルのディレクトリ（デフォルト: java.io.tmpdir）
+     * - DRSUM_QUERY_TIMEOUT_MS: execute_query の制限時間の既定値（デフォルト: 300000ミリ秒、0で制限なし）
+     * - DRSUM_MAX_RESPONSE_BYTES: execute_query の応答サイズの上限の既定値（デフォルト: 1MiB、0で制限なし）
+     * - DRSUM_STATS_LOG_INTERVAL_SECONDS: 実行統計をログに出力する間隔（デフォルト: 0秒＝出力しない）
+     * 
+     * @return 環境変数から作成されたServerSettings
+     * @throws IllegalStateException 環境変数の値が不正な場合
+     */
+    public static ServerSettings fromEnvironment() {
+        return fromMap(System.getenv());
+    }
+    
+    /**
+     * キーと値のマップからServerSettingsを作成
+     * 
+     * @param env 環境変数と同じキーを持つマップ
+     * @return 作成されたServerSettings
+     * @throws IllegalStateException 値が不正な場合
+     */
+    public static ServerSettings fromMap(Map<String, String> env) {
+        ServerMode serverMode;
+        String modeStr = env.get(ENV_DRSUM_SERVER_MODE);
+        try {
+            serverMode = (modeStr == null || modeStr.trim().isEmpty()) ? ServerMode.SYNC : ServerMode.parse(modeStr);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                "環境変数 " + ENV_DRSUM_SERVER_MODE + " は sync、async または virtual である必要があります。取得値: " + modeStr);
+        }
+        
+        Transport transport;
+        String transportStr = env.get(ENV_DRSUM_TRANSPORT);
+        try {
+            transport = (transportStr == null || transportStr.trim().isEmpty())
+                    ? Transport.STDIO : Transport.parse(transportStr);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                "環境変数 " + ENV_DRSUM_TRANSPORT + " は stdio または http である必要があります。取得値: " + transportStr);
+        }
+        String httpHost = env.get(ENV_DRSUM_HTTP_HOST);
+        
+        Path spillDirectory;
+        String spillDirStr = env.get(ENV_DRSUM_RESULT_SPILL_DIR);
+        try {
+            spillDirectory = (spillDirStr == null || spillDirStr.trim().isEmpty())
+                    ? QueryResultStore.defaultSpillDirectory() : Paths.get(spillDirStr.trim());
+        } catch (InvalidPathException e) {
+            throw new IllegalStateException(
+                "環境変数 " + ENV_DRSUM_RESULT_SPILL_DIR + " は有効なパスである必要があります。取得値: " + spillDirStr);
+        }
+        
+        Builder builder = builder()
+                .fetchSize(parseInt(env, ENV_DRSUM_FETCH_SIZE, DrSumQueryService.DEFAULT_FETCH_SIZE))
+                .resultTtlSeconds(parseInt(env, ENV_DRSUM_RESULT_TTL_SECONDS, DEFAULT_RESULT_TTL_SECONDS))
+                .resultStoreMaxEntries(parseInt(env, ENV_DRSUM_RESULT_STORE_MAX_ENTRIES,
+                                                DEFAULT_RESULT_STORE_MAX_ENTRIES))
+                .resultStoreMaxRows(parseInt(env, ENV_DRSUM_RESULT_STORE_MAX_ROWS,
+                                             DEFAULT_RESULT_STORE_MAX_ROWS))
+                .metadataCacheTtlSeconds(parseInt(env, ENV_DRSUM_METADATA_CACHE_TTL_SECONDS,
+                                                  DEFAULT_METADATA_CACHE_TTL_SECONDS))
+                .metadataCacheMaxEntries(parseInt(env, ENV_DRSUM_METADATA_CACHE_MAX_ENTRIES,
+                                                  DEFAULT_METADATA_CACHE_MAX_ENTRIES))
+                .viewClassifyParallelism(parseInt(env, ENV_DRSUM_VIEW_CLASSIFY_PARALLELISM,
+                                                  DEFAULT_VIEW_CLASSIFY_PARALLELISM))
+                .metadataBatchParallelism(parseInt(env, ENV_DRSUM_METADATA_BATCH_PARALLELISM,
+                                                   DEFAULT_METADATA_BATCH_PARALLELISM))
+                .metadataBatchMaxTables(parseInt(env, ENV_DRSUM_METADATA_BATCH_MAX_TABLES,
+                                                 DEFAULT_METADATA_BATCH_MAX_TABLES))
+                .serverMode(serverMode)
+                .workerThreads(parseInt(env, ENV_DRSUM_WORKER_THREADS, DEFAULT_WORKER_THREADS))
+                .workerQueueSize(parseInt(env, ENV_DRSUM_WORKER_QUEUE_SIZE, DEFAULT_WORKER_QUEUE_SIZE))
+                .pinningThresholdMs(parseInt(env, ENV_DRSUM_PINNING_THRESHOLD_MS,
+                                             DEFAULT_PINNING_THRESHOLD_MS))
+                .transport(transport)
+                .httpHost(httpHost == null || httpHost.trim().isEmpty() ? DEFAULT_HTTP_HOST : httpHost.trim())
+                .httpPort(parseInt(env, ENV_DRSUM_HTTP_PORT, DEFAULT_HTTP_PORT))
+                .httpSessionIdleTimeoutSeconds(parseInt(env, ENV_DRSUM_HTTP_SESSION_IDLE_TIMEOUT_SECONDS,
+                                                        DEFAULT_HTTP_SESSION_IDLE_TIMEOUT_SECONDS))
+                .httpMaxConcurrentRequests(parseInt(env, ENV_DRSUM_HTTP_MAX_CONCURRENT_REQUESTS,
+                                                    DEFAULT_HTTP_MAX_CONCURRENT_REQUESTS))
+                .httpMaxSessions(parseInt(env, ENV_DRSUM_HTTP_MAX_SESSIONS, DEFAULT_HTTP_MAX_SESSIONS))
+                .coalesceRequests(parseBoolean(env, ENV_DRSUM_COALESCE_REQUESTS, true))
+                .queryCacheTtlSeconds(parseInt(env, ENV_DRSUM_QUERY_CACHE_TTL_SECONDS, 0))
+                .queryCacheMaxBytes(parseLong(env, ENV_DRSUM_QUERY_CACHE_MAX_BYTES, DEFAULT_QUERY_CACHE_MAX_BYTES))
+                .resultSpillBytes(parseLong(env, ENV_DRSUM_RESULT_SPILL_BYTES, DEFAULT_RESULT_SPILL_BYTES))
+                .resultSpillDirectory(spillDirectory)
+                .queryTimeoutMs(parseLong(env, ENV_DRSUM_QUERY_TIMEOUT_MS, DEFAULT_QUERY_TIMEOUT_MS))
+                .maxResponseBytes(parseInt(env, ENV_DRSUM_MAX_RESPONSE_BYTES, DEFAULT_MAX_RESPONSE_BYTES))
+                .statsLogIntervalSeconds(parseInt(env, ENV_DRSUM_STATS_LOG_INTERVAL_SECONDS, 0));
+        
+        try {
+            ServerSettings settings = builder.build();
+            logger.info("サーバー設定を読み込みました: {}", settings);
+            return settings;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("サーバー設定が不正です: " + e.getMessage());
+        }
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * 真偽値の設定値をパース（未設定の場合はデフォルト値）
+     */
+    private static boolean parseBoolean(Map<String, String> env, String name, boolean defaultValue) {
+        String value = env.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals("true")) {
+            return true;
+        }
+        if (normalized.equals("false")) {
+            return false;
+        }
+        throw new IllegalStateException(
+            "環境変数 " + name + " は true または false である必要があります。取得値: " + value);
+    }
+    
+    // ========================================================================
+    // ビルダー
+    // ========================================================================
+    
+    /**
+     * ServerSettingsのビルダー
+     */
+    public static final class Builder {
+        private int fetchSize = DrSumQueryService.DEFAULT_FETCH_SIZE;
+        private int resultTtlSeconds = DEFAULT_RESULT_TTL_SECONDS;
+        private int resultStoreMaxEntries = DEFAULT_RESULT_STORE_MAX_ENTRIES;
+        private int resultStoreMaxRows = DEFAULT_RESULT_STORE_MAX_ROWS;
+        private int metadataCacheTtlSeconds = DEFAULT_METADATA_CACHE_TTL_SECONDS;
+        private int metadataCacheMaxEntries = DEFAULT_METADATA_CACHE_MAX_ENTRIES;
+        private int viewClassifyParallelism = DEFAULT_VIEW_CLASSIFY_PARALLELISM;
+        private int metadataBatchParallelism = DEFAULT_METADATA_BATCH_PARALLELISM;
+        private int metadataBatchMaxTables = DEFAULT_METADATA_BATCH_MAX_TABLES;
+        private ServerMode serverMode = ServerMode.SYNC;
+        private int workerThreads = DEFAULT_WORKER_THREADS;
+        private int workerQueueSize = DEFAULT_WORKER_QUEUE_SIZE;
+        private int pinningThresholdMs = DEFAULT_PINNING_THRESHOLD_MS;
+        private Transport transport = Transport.STDIO;
+        private String httpHost = DEFAULT_HTTP_HOST;
+        private int httpPort = DEFAULT_HTTP_PORT;
+        private int httpSessionIdleTimeoutSeconds = DEFAULT_HTTP_SESSION_IDLE_TIMEOUT_SECONDS;
+        private int httpMaxConcurrentRequests = DEFAULT_HTTP_MAX_CONCURRENT_REQUESTS;
+        private int httpMaxSessions = DEFAULT_HTTP_MAX_SESSIONS;
+        private boolean coalesceRequests = true;
+        private int queryCacheTtlSeconds = 0;
+        private long queryCacheMaxBytes = DEFAULT_QUERY_CACHE_MAX_BYTES;
+        private long resultSpillBytes = DEFAULT_RESULT_SPILL_BYTES;
+        private Path resultSpillDirectory = QueryResultStore.defaultSpillDirectory();
+        private long queryTimeoutMs = DEFAULT_QUERY_TIMEOUT_MS;
+        private int maxResponseBytes = DEFAULT_MAX_RESPONSE_BYTES;
+        private int statsLogIntervalSeconds = 0;
+        
+        private Builder() {
+        }
+        
+        public Builder fetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+            return this;
+        }
+        
+        public Builder resultTtlSeconds(int resultTtlSeconds) {
+            this.resultTtlSeconds = resultTtlSeconds;
+            return this;
+        }
+        
+        public Builder resultStoreMaxEntries(int resultStoreMaxEntries) {
+            this.resultStoreMaxEntries = resultStoreMaxEntries;
+            return this;
+        }
+        
+        public Builder resultStoreMaxRows(int resultStoreMaxRows) {
+            this.resultStoreMaxRows = resultStoreMaxRows;
+            return this;
+        }
+        
+        public Builder metadataCacheTtlSeconds(int metadataCacheTtlSeconds) {
+            this.metadataCacheTtlSeconds = metadataCacheTtlSeconds;
+            return this;
+        }
+        
+        public Builder metadataCacheMaxEntries(int metadataCacheMaxEntries) {
+            this.metadataCacheMaxEntries = metadataCacheMaxEntries;
+            return this;
+        }
+        
+        public Builder viewClassifyParallelism(int viewClassifyParallelism) {
+            this.viewClassifyParallelism = viewClassifyParallelism;
+            return this;
+        }
+        
+        public Builder metadataBatchParallelism(int metadataBatchParallelism) {
+            this.metadataBatchParallelism = metadataBatchParallelism;
+            return this;
+        }
+        
+        public Builder metadataBatchMaxTables(int metadataBatchMaxTables) {
+            this.metadataBatchMaxTables = metadataBatchMaxTables;
+            return this;
+        }
+        
+        public Builder serverMode(ServerMode serverMode) {
+            this.serverMode = serverMode;
+            return this;
+        }
+        
+        public Builder workerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+            return this;
+        }
+        
+        public Builder workerQueueSize(int workerQueueSize) {
+            this.workerQueueSize = workerQueueSize;
+            return this;
+        }
+        
+        public Builder pinningThresholdMs(int pinningThresholdMs) {
+            this.pinningThresholdMs = pinningThresholdMs;
+            return this;
+        }
+        
+        public Builder transport(Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+        
+        public Builder httpHost(String httpHost) {
+            this.httpHost = httpHost;
+            return this;
+        }
+        
+        public Builder httpPort(int httpPort) {
+            this.httpPort = httpPort;
+            return this;
+        }
+        
+        public Builder httpSessionIdleTimeoutSeconds(int httpSessionIdleTimeoutSeconds) {
+            this.httpSessionIdleTimeoutSeconds = httpSessionIdleTimeoutSeconds;
+            return this;
+        }
+        
+        public Builder httpMaxConcurrentRequests(int httpMaxConcurrentRequests) {
+            this.httpMaxConcurrentRequests = httpMaxConcurrentRequests;
+            return this;
+        }
+        
+        public Builder httpMaxSessions(int httpMaxSessions) {
+            this.httpMaxSessions = httpMaxSessions;
+            return this;
+        }
+        
+        public Builder coalesceRequests(boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+            return this;
+        }
+        
+        public Builder queryCacheTtlSeconds(int queryCacheTtlSeconds) {
+            this.queryCacheTtlSeconds = queryCacheTtlSeconds;
+            return this;
+        }
+        
+        public Builder queryCacheMaxBytes(long queryCacheMaxBytes) {
+            this.queryCacheMaxBytes = queryCacheMaxBytes;
+            return this;
+        }
+        
+        public Builder resultSpillBytes(long resultSpillBytes) {
+            this.resultSpillBytes = resultSpillBytes;
+            return this;
+        }
+        
+        public Builder resultSpillDirectory(Path resultSpillDirectory) {
+            this.resultSpillDirectory = resultSpillDirectory;
+            return this;
+        }
+        
+        public Builder queryTimeoutMs(long queryTimeoutMs) {
+            this.queryTimeoutMs = queryTimeoutMs;
+            return this;
+        }
+        
+        public Builder maxResponseBytes(int maxResponseBytes) {
+            this.maxResponseBytes = maxResponseBytes;
+            return this;
+        }
+        
+        public Builder statsLogIntervalSeconds(int statsLogIntervalSeconds) {
+            this.statsLogIntervalSeconds = statsLogIntervalSeconds;
+            return this;
+        }
+        
+        /**
+         * ServerSettingsを作成
+         * 
+         * @return 作成されたServerSettings
+         * @throws IllegalArgumentException パラメータが不正な場合
+         */
+        public ServerSettings build() {
+            if (fetchSize <= 0) {
+                throw new IllegalArgumentException("フェッチサイズは1以上である必要があります");
+            }
+            if (resultTtlSeconds <= 0) {
+                throw new IllegalArgumentException("ページング結果の保持時間は1秒以上である必要があります");
+            }
+            if (resultStoreMaxEntries <= 0 || resultStoreMaxRows <= 0) {
+                throw new IllegalArgumentException("ページング結果の保持数は1以上である必要があります");
+            }
+            if (metadataCacheTtlSeconds < 0) {
+                throw new IllegalArgumentException("メタデータキャッシュの有効期限は0以上である必要があります");
+            }
+            if (metadataCacheMaxEntries <= 0) {
+                throw new IllegalArgumentException("メタデータキャッシュのエントリ数は1以上である必要があります");
+            }
+            if (viewClassifyParallelism <= 0) {
+                throw new IllegalArgumentException("ビュー判定の並列数は1以上である必要があります");
+            }
+            if (metadataBatchParallelism <= 0) {
+                throw new IllegalArgumentException("メタデータの一括取得の並列数は1以上である必要があります");
+            }
+            if (metadataBatchMaxTables <= 0) {
+                throw new IllegalArgumentException("一括取得のテーブル数の上限は1以上である必要があります");
+            }
+            if (serverMode == null) {
+                throw new IllegalArgumentException("サーバーの実行方式を指定する必要があります");
+            }
+            if (workerThreads <= 0) {
+                throw new IllegalArgumentException("ワーカースレッド数は1以上である必要があります");
+            }
+            if (workerQueueSize < 0) {
+                throw new IllegalArgumentException("実行待ちの呼び出し数は0以上である必要があります");
+            }
+            if (pinningThresholdMs < 0) {
+                throw new IllegalArgumentException("ピン留めを報告する時間は0以上である必要があります");
+            }
+            if (transport == null) {
+                throw new IllegalArgumentException("通信方式を指定する必要があります");
+            }
+            if (httpHost == null || httpHost.trim().isEmpty()) {
+                throw new IllegalArgumentException("HTTPの待ち受けアドレスを指定する必要があります");
+            }
+            if (httpPort < 0 || httpPort > 65535) {
+                throw new IllegalArgumentException("HTTPのポート番号は0から65535の範囲である必要があります");
+            }
+            if (httpSessionIdleTimeoutSeconds <= 0) {
+                throw new IllegalArgumentException("HTTPセッションの有効期限は1以上である必要があります");
+            }
+            if (httpMaxConcurrentRequests <= 0) {
+                throw new IllegalArgumentException("HTTPの同時リクエスト数の上限は1以上である必要があります");
+            }
+            if (httpMaxSessions <= 0) {
+                throw new IllegalArgumentException("HTTPのセッション数の上限は1以上である必要があります");
+            }
+            if (queryCacheTtlSeconds < 0) {
+                throw new IllegalArgumentException("クエリ結果キャッシュの有効期限は0以上である必要があります");
+            }
+            if (queryCacheMaxBytes <= 0) {
+                throw new IllegalArgumentException("クエリ結果キャッシュのサイズ上限は1以上である必要があります");
+            }
+            if (resultSpillBytes < 0) {
+                throw new IllegalArgumentException("ページング結果を退避するサイズは0以上である必要があります");
+            }
+            if (resultSpillDirectory == null) {
+                throw new IllegalArgumentException("ページング結果を退避するディレクトリを指定する必要があります");
+            }
+            if (queryTimeoutMs < 0) {
+                throw new IllegalArgumentException("クエリの制限時間は0以上である必要があります");
+            }
+            if (maxResponseBytes < 0) {
+                throw new IllegalArgumentException("応答サイズの上限は0以上である必要があります");
+            }
+            if (statsLogIntervalSeconds < 0) {
+                throw new IllegalArgumentException("実行統計のログ出力間隔は0以上である必要があります");
+            }
+            return new ServerSettings(this);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.drsum;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * ツールハンドラ実行用のワーカープール
+ * 
+ * 非同期サーバーモードで、ツールハンドラをMCPの通信スレッドから切り離して実行します。
+ * 独立したツール呼び出し（list_tables, get_metadata, execute_query など）が
+ * 同時実行数まで並行に処理され、遅いクエリが他の呼び出しを待たせません。
+ * 
+ * 【責務】
+ * - 上限付きの同時実行数と待ち行列でハンドラを実行
+ * - 待ち行列が満杯の場合の受付拒否（RejectedExecutionException）
+ * 
+ * 実行方式は2種類です。
+ * - プラットフォームスレッド: 同時実行数と同じ数のワーカースレッドを常駐させる
+ * - 仮想スレッド（Java 21以降）: 呼び出しごとに仮想スレッドを作成し、セマフォで同時実行数を制限する
+ * 
+ * Dr.Sumの処理はブロッキングのため、同時実行数は接続プールの最大接続数を目安に設定します。
+ */
+public class ToolWorkerPool implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ToolWorkerPool.class);
+    
+    // Java 17でもビルドできるよう、仮想スレッドのAPIはリフレクションで呼び出す（利用できない場合はnull）
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+    
+    private final ExecutorService executor;
+    
+    // 仮想スレッドの場合のみ使用（プラットフォームスレッドの場合はnull）
+    private final Semaphore permits;
+    private final int concurrency;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    
+    /**
+     * プラットフォームスレッドのワーカープールを作成
+     * 
+     * @param threads ワーカースレッド数
+     * @param queueSize 実行待ちにできるハンドラの最大数（0は待ち行列なし）
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public ToolWorkerPool(int threads, int queueSize) {
+        validate(threads, queueSize);
+        BlockingQueue<Runnable> queue = queueSize == 0
+                ? new SynchronousQueue<>()
+                : new ArrayBlockingQueue<>(queueSize);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, r -> {
+            Thread t = new Thread(r, "drsum-tool-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.permits = null;
+        this.concurrency = threads;
+        this.maxPending = threads + queueSize;
+    }
+    
+    /**
+     * 仮想スレッド用コンストラクタ
+     */
+    private ToolWorkerPool(ExecutorService executor, int concurrency, int queueSize) {
+        this.executor = executor;
+        this.permits = new Semaphore(concurrency, true);
+        this.concurrency = concurrency;
+        this.maxPending = concurrency + queueSize;
+    }
+    
+    /**
+     * 仮想スレッドのワーカープールを作成
+     * 
+     * 呼び出しごとに仮想スレッドで実行し、同時にDr.Sumを呼び出すハンドラ数をセマフォで制限します。
+     * 
+     * @param concurrency 同時に実行するハンドラの最大数
+     * @param queueSize 同時実行数を超えて待機できるハンドラの最大数（0は待機なし）
+     * @return ワーカープール
+     * @throws IllegalArgumentException パラメータが不正な場合
+     * @throws IllegalStateException 実行中のJavaが仮想スレッドに対応していない場合
+     */
+    public static ToolWorkerPool virtual(int concurrency, int queueSize) {
+        validate(concurrency, queueSize);
+        if (NEW_VIRTUAL_THREAD_EXECUTOR == null) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later (running "
+                    + Runtime.version() + ")");
+        }
+        try {
+            ExecutorService executor = (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            return new ToolWorkerPool(executor, concurrency, queueSize);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+    
+    /**
+     * 実行中のJavaが仮想スレッドに対応しているかどうか
+     */
+    public static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * ハンドラをワーカーで実行するMonoを作成
+     * 
+     * ハンドラは購読されるたびに実行されます。
+     * 待ち行列が満杯の場合、Monoは RejectedExecutionException で失敗します。
+     * 
+     * @param <T> ハンドラの結果の型
+     * @param handler 実行する処理
+     * @return 処理結果を通知するMono
+     */
+    public <T> Mono<T> submit(Supplier<T> handler) {
+        if (permits == null) {
+            return Mono.defer(() -> Mono.fromFuture(CompletableFuture.supplyAsync(handler, executor)));
+        }
+        return Mono.defer(() -> {
+            if (pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                return Mono.error(new RejectedExecutionException(
+                        "Too many pending tool calls (limit " + maxPending + ")"));
+            }
+            CompletableFuture<T> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> runWithPermit(handler), executor);
+            } catch (RejectedExecutionException e) {
+                pending.decrementAndGet();
+                throw e;
+            }
+            // 実行前にキャンセルされてハンドラが呼ばれない場合も待機数を戻す
+            future.whenComplete((result, error) -> pending.decrementAndGet());
+            return Mono.fromFuture(future);
+        });
+    }
+    
+    /**
+     * 仮想スレッドで実行しているかどうか
+     */
+    public boolean isVirtual() {
+        return permits != null;
+    }
+    
+    /**
+     * 実行中のハンドラ数
+     */
+    public int getActiveCount() {
+        if (permits != null) {
+            return concurrency - permits.availablePermits();
+        }
+        return ((ThreadPoolExecutor) executor).getActiveCount();
+    }
+    
+    /**
+     * 実行待ちのハンドラ数
+     */
+    public int getQueuedCount() {
+        if (permits != null) {
+            return permits.getQueueLength();
+        }
+        return ((ThreadPoolExecutor) executor).getQueue().size();
+    }
+    
+    /**
+     * ワーカーを停止（実行中のハンドラには割り込む）
+     */
+    @Override
+    public void close() {
+        int dropped = executor.shutdownNow().size();
+        if (dropped > 0) {
+            logger.info("Dropped {} queued tool calls on shutdown", dropped);
+        }
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * セマフォの許可を得てからハンドラを実行（仮想スレッド用）
+     */
+    private <T> T runWithPermit(Supplier<T> handler) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a worker slot");
+        }
+        try {
+            return handler.get();
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private static void validate(int concurrency, int queueSize) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Worker threads must be positive");
+        }
+        if (queueSize < 0) {
+            throw new IllegalArgumentException("Worker queue size cannot be negative");
+        }
+    }
+    
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.drsum.backend;
+
+import jp.co.dw_sapporo.drsum_ea.DWColumnInfo;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+import jp.co.dw_sapporo.drsum_ea.DWTableInfo;
+import jp.co.dw_sapporo.drsum_ea.DWViewInfo;
+
+/**
+ * バックエンドの接続（データベースを開いた状態）
+ * 
+ * サービスがDr.Sumに対して行う操作（テーブル一覧・ビュー情報・スキーマの取得とカーソルの作成）をまとめたものです。
+ * 戻り値はDrSumEAのデータクラスをそのまま使うため、キャッシュや整形の処理はバックエンドに依存しません。
+ * 
+ * close() は処理を実行しているスレッドとは別のスレッドから呼び出されることがあります（中断時）。
+ * その場合、実装はブロックしている操作を DWException で終了させる必要があります。
+ */
+public interface BackendConnection {
+    
+    /**
+     * 開いているデータベース名
+     */
+    String getDatabase();
+    
+    /**
+     * 接続が開いているかどうか
+     */
+    boolean isOpen();
+    
+    /**
+     * テーブル（ビューを含む）の一覧を取得
+     * 
+     * @param database データベース名
+     * @return テーブル情報（テーブルがない場合はnullまたは空配列）
+     * @throws DWException 取得に失敗した場合
+     */
+    DWTableInfo[] getTableList(String database) throws DWException;
+    
+    /**
+     * ビュー情報を取得
+     * 
+     * @param database データベース名
+     * @param table テーブル名
+     * @return ビュー情報（m_iType が0以外ならビュー、ビューでない場合はnullの場合もある）
+     * @throws DWException 取得に失敗した場合
+     */
+    DWViewInfo getViewInfo(String database, String table) throws DWException;
+    
+    /**
+     * カラム定義を取得
+     * 
+     * @param database データベース名
+     * @param table テーブル名
+     * @return カラム情報（テーブルが存在しない場合はnullまたは空配列）
+     * @throws DWException 取得に失敗した場合
+     */
+    DWColumnInfo[] getSchema(String database, String table) throws DWException;
+    
+    /**
+     * SQLを実行するカーソルを作成
+     * 
+     * @return カーソル（使用後は close() で閉じる）
+     * @throws DWException 作成に失敗した場合
+     */
+    BackendCursor cursor() throws DWException;
+    
+    /**
+     * 接続を閉じる
+     * 
+     * @throws DWException 切断に失敗した場合
+     */
+    void close() throws DWException;
+}
@@ -0,0 +1,46 @@
+package com.example.drsum.backend;
+
+import jp.co.dw_sapporo.drsum_ea.DWColumnInfo;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+
+import java.util.Vector;
+
+/**
+ * バックエンドのカーソル
+ * 
+ * SQLを実行し、結果を指定した行数ずつ取得します。
+ * close() は中断時に別のスレッドから呼び出されることがあります。
+ */
+public interface BackendCursor {
+    
+    /**
+     * SQLを実行
+     * 
+     * @param sql SQL文
+     * @throws DWException 実行に失敗した場合
+     */
+    void execute(String sql) throws DWException;
+    
+    /**
+     * 実行した結果のカラム情報
+     * 
+     * @return カラム情報（結果を返さないSQLの場合はnullまたは空配列）
+     */
+    DWColumnInfo[] getDescription();
+    
+    /**
+     * 結果を最大 size 行取得
+     * 
+     * @param size 取得する最大行数
+     * @return 行データ（残りがない場合は空またはnull、size 未満なら最後のチャンク）
+     * @throws DWException 取得に失敗した場合
+     */
+    Vector<Vector<String>> fetchmany(int size) throws DWException;
+    
+    /**
+     * カーソルを閉じる
+     * 
+     * @throws DWException 閉じるのに失敗した場合
+     */
+    void close() throws DWException;
+}
@@ -0,0 +1,69 @@
+package com.example.drsum.backend;
+
+import com.example.drsum.connection.ConnectionConfig;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 接続先のバックエンド
+ * 
+ * 接続情報からデータベースを開いた接続（BackendConnection）を作成します。
+ * 通常はDr.Sumに接続する DrSumEaBackend を使い、Dr.Sumのない環境での負荷試験や
+ * 性能測定では、遅延とデータ量を設定できるメモリ上の代替（InMemoryBackend）を使います。
+ * 
+ * 実装は複数スレッドから同時に open() を呼び出せる必要があります。
+ */
+public interface DrSumBackend {
+    
+    /**
+     * バックエンドを選択する環境変数
+     */
+    String ENV_DRSUM_BACKEND = "DRSUM_BACKEND";
+    
+    /**
+     * データベースを開いた接続を作成
+     * 
+     * @param config 接続情報
+     * @return 接続
+     * @throws DWException 接続に失敗した場合
+     */
+    BackendConnection open(ConnectionConfig config) throws DWException;
+    
+    /**
+     * 環境変数からバックエンドを作成
+     * 
+     * @return バックエンド
+     * @throws IllegalStateException 環境変数の値が不正な場合
+     * @see #fromMap(Map)
+     */
+    static DrSumBackend fromEnvironment() {
+        return fromMap(System.getenv());
+    }
+    
+    /**
+     * キーと値のマップからバックエンドを作成
+     * 
+     * DRSUM_BACKEND が drsum（デフォルト）の場合はDr.Sum、memory の場合はメモリ上の代替を使います。
+     * memory の場合のデータ量と遅延は InMemoryBackendConfig の環境変数で設定します。
+     * 
+     * @param env 環境変数と同じキーを持つマップ
+     * @return バックエンド
+     * @throws IllegalStateException 値が不正な場合
+     */
+    static DrSumBackend fromMap(Map<String, String> env) {
+        String value = env.get(ENV_DRSUM_BACKEND);
+        String name = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        switch (name) {
+            case "":
+            case "drsum":
+                return new DrSumEaBackend();
+            case "memory":
+                return new InMemoryBackend(InMemoryBackendConfig.fromMap(env));
+            default:
+                throw new IllegalStateException(
+                    "環境変数 " + ENV_DRSUM_BACKEND + " は drsum または memory である必要があります。取得値: " + value);
+        }
+    }
+}
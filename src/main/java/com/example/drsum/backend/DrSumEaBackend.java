@@ -0,0 +1,126 @@
+package com.example.drsum.backend;
+
+import com.example.drsum.connection.ConnectionConfig;
+import jp.co.dw_sapporo.drsum_ea.DWColumnInfo;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+import jp.co.dw_sapporo.drsum_ea.DWTableInfo;
+import jp.co.dw_sapporo.drsum_ea.DWViewInfo;
+import jp.co.dw_sapporo.drsum_ea.dbi.DWDbiConnection;
+import jp.co.dw_sapporo.drsum_ea.dbi.DWDbiCursor;
+
+import java.util.Vector;
+
+/**
+ * DrSumEAを使ってDr.Sumサーバーに接続するバックエンド（デフォルト）
+ * 
+ * DWDbiConnection・DWDbiCursor への呼び出しをそのまま委譲します。
+ * DrSumEAの公開フィールド（m_sDatabase、m_hDatabase、m_oDescription）を参照するのはこのクラスだけです。
+ */
+public final class DrSumEaBackend implements DrSumBackend {
+    
+    @Override
+    public BackendConnection open(ConnectionConfig config) throws DWException {
+        DWDbiConnection connection = new DWDbiConnection(
+            config.getHost(), 
+            config.getPort(), 
+            config.getUsername(), 
+            config.getPassword()
+        );
+        try {
+            connection.openDatabase(config.getDatabase());
+        } catch (DWException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+        return new EaConnection(connection);
+    }
+    
+    private static void closeQuietly(DWDbiConnection connection) {
+        try {
+            connection.close();
+        } catch (DWException e) {
+            // 接続に失敗した後の後始末のため無視する
+        }
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * DWDbiConnection への委譲
+     */
+    private static final class EaConnection implements BackendConnection {
+        private final DWDbiConnection connection;
+        
+        EaConnection(DWDbiConnection connection) {
+            this.connection = connection;
+        }
+        
+        @Override
+        public String getDatabase() {
+            return connection.m_sDatabase;
+        }
+        
+        @Override
+        public boolean isOpen() {
+            return connection.m_hDatabase != 0;
+        }
+        
+        @Override
+        public DWTableInfo[] getTableList(String database) throws DWException {
+            return connection.getTableList(database);
+        }
+        
+        @Override
+        public DWViewInfo getViewInfo(String database, String table) throws DWException {
+            return connection.getViewInfo(database, table);
+        }
+        
+        @Override
+        public DWColumnInfo[] getSchema(String database, String table) throws DWException {
+            return connection.getSchema(database, table);
+        }
+        
+        @Override
+        public BackendCursor cursor() throws DWException {
+            return new EaCursor(connection.cursor());
+        }
+        
+        @Override
+        public void close() throws DWException {
+            connection.close();
+        }
+    }
+    
+    /**
+     * DWDbiCursor への委譲
+     */
+    private static final class EaCursor implements BackendCursor {
+        private final DWDbiCursor cursor;
+        
+        EaCursor(DWDbiCursor cursor) {
+            this.cursor = cursor;
+        }
+        
+        @Override
+        public void execute(String sql) throws DWException {
+            cursor.execute(sql);
+        }
+        
+        @Override
+        public DWColumnInfo[] getDescription() {
+            return cursor.m_oDescription;
+        }
+        
+        @Override
+        public Vector<Vector<String>> fetchmany(int size) throws DWException {
+            return cursor.fetchmany(size);
+        }
+        
+        @Override
+        public void close() throws DWException {
+            cursor.close();
+        }
+    }
+}
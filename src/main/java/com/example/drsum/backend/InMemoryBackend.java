@@ -0,0 +1,372 @@
+package com.example.drsum.backend;
+
+import com.example.drsum.connection.ConnectionConfig;
+import com.example.drsum.model.DrSumTypes;
+import jp.co.dw_sapporo.drsum_ea.DWColumnInfo;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+import jp.co.dw_sapporo.drsum_ea.DWTableInfo;
+import jp.co.dw_sapporo.drsum_ea.DWViewInfo;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * メモリ上のDr.Sumの代替バックエンド（負荷試験・性能測定用）
+ * 
+ * 設定（InMemoryBackendConfig）に従って、テーブル（TABLE_001…）とビュー（VIEW_001…）を持つ
+ * データベースを模します。行は保持せず、行番号とカラム番号から決まった値を取得のたびに作成するため、
+ * 行数を増やしてもメモリは増えず、同じ問い合わせには常に同じ結果を返します。
+ * 
+ * 【SQLの扱い】
+ * - SELECT / WITH 文: FROM の直後のテーブル名の全カラムを返します（選択リストや WHERE は無視）。
+ *   末尾の LIMIT n は反映します。存在しないテーブルの場合は DWException を投げます
+ * - それ以外の文: 結果のない文として成功します
+ * 
+ * 各操作には設定した遅延を加えます。遅延中に接続が閉じられた場合（中断時）は、
+ * 実際のDr.Sumと同様に DWException で終了します。
+ */
+public final class InMemoryBackend implements DrSumBackend {
+    
+    private static final String TABLE_PREFIX = "TABLE_";
+    private static final String VIEW_PREFIX = "VIEW_";
+    
+    /**
+     * 2列目以降のカラムの型の並び
+     */
+    private static final int[] COLUMN_TYPES = {
+        DrSumTypes.VARCHAR, DrSumTypes.INTEGER, DrSumTypes.NUMERIC, DrSumTypes.DATE
+    };
+    
+    private static final String[] WORDS = {
+        "東京", "大阪", "名古屋", "札幌", "福岡", "仙台", "広島", "那覇"
+    };
+    
+    private static final LocalDate BASE_DATE = LocalDate.of(2020, 1, 1);
+    
+    /**
+     * NULLにする値の間隔（ID以外のカラムで、この行数に1つ）
+     */
+    private static final int NULL_INTERVAL = 50;
+    
+    private static final Pattern SELECT_FROM = Pattern.compile(
+            "^\\s*(?:SELECT|WITH)\\b.*?\\bFROM\\s+\"?([A-Za-z0-9_]+)\"?(.*)$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    
+    private static final Pattern LIMIT = Pattern.compile(
+            "\\bLIMIT\\s+(\\d+)\\s*;?\\s*$", Pattern.CASE_INSENSITIVE);
+    
+    private final InMemoryBackendConfig config;
+    
+    // 大文字のテーブル名 → ビューならtrue（Dr.Sumが返す順序はテーブル、ビューの順）
+    private final Map<String, Boolean> objects = new TreeMap<>();
+    private final String[] objectNames;
+    private final DWColumnInfo[] schema;
+    
+    private final AtomicInteger openedCount = new AtomicInteger();
+    private final AtomicInteger openCount = new AtomicInteger();
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param config データ量と遅延の設定
+     * @throws IllegalArgumentException configがnullの場合
+     */
+    public InMemoryBackend(InMemoryBackendConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("InMemoryBackendConfig cannot be null");
+        }
+        this.config = config;
+        this.objectNames = new String[config.getTables() + config.getViews()];
+        for (int i = 0; i < config.getTables(); i++) {
+            objectNames[i] = String.format(Locale.ROOT, "%s%03d", TABLE_PREFIX, i + 1);
+            objects.put(objectNames[i], false);
+        }
+        for (int i = 0; i < config.getViews(); i++) {
+            String name = String.format(Locale.ROOT, "%s%03d", VIEW_PREFIX, i + 1);
+            objectNames[config.getTables() + i] = name;
+            objects.put(name, true);
+        }
+        this.schema = createSchema(config.getColumns());
+    }
+    
+    /**
+     * 代替バックエンドで使う接続情報（環境変数の接続情報がない場合に使用）
+     * 
+     * 代替バックエンドは接続先を使わないため、データベース名以外は固定値です。
+     * 
+     * @param database データベース名（nullの場合は "MEMORY"）
+     * @return 接続情報
+     */
+    public static ConnectionConfig defaultConfig(String database) {
+        return new ConnectionConfig("localhost", 6001, "memory", "",
+                                    database == null || database.trim().isEmpty() ? "MEMORY" : database);
+    }
+    
+    @Override
+    public BackendConnection open(ConnectionConfig connectionConfig) throws DWException {
+        MemoryConnection connection = new MemoryConnection(connectionConfig.getDatabase());
+        connection.pause(config.getConnectLatencyMs());
+        openedCount.incrementAndGet();
+        openCount.incrementAndGet();
+        return connection;
+    }
+    
+    /**
+     * 設定
+     */
+    public InMemoryBackendConfig getConfig() {
+        return config;
+    }
+    
+    /**
+     * これまでに開いた接続の数
+     */
+    public int getOpenedCount() {
+        return openedCount.get();
+    }
+    
+    /**
+     * 現在開いている接続の数
+     */
+    public int getOpenCount() {
+        return openCount.get();
+    }
+    
+    // ========================================================================
+    // パッケージプライベートメソッド
+    // ========================================================================
+    
+    /**
+     * 行番号とカラム番号から決まる値
+     * 
+     * @param row 行番号（0から）
+     * @param column カラム番号（0から）
+     * @return 値（NULLの場合はnull）
+     */
+    static String value(int row, int column) {
+        if (column == 0) {
+            return Integer.toString(row + 1);
+        }
+        if ((row + column) % NULL_INTERVAL == NULL_INTERVAL - 1) {
+            return null;
+        }
+        switch (COLUMN_TYPES[(column - 1) % COLUMN_TYPES.length]) {
+            case DrSumTypes.INTEGER:
+                return Integer.toString((row * 31 + column * 17) % 10000);
+            case DrSumTypes.NUMERIC:
+                int cents = (row * 131 + column * 7) % 1000000;
+                return (cents / 100) + "." + (cents % 100 < 10 ? "0" : "") + (cents % 100);
+            case DrSumTypes.DATE:
+                return BASE_DATE.plusDays((row + column) % 1826).toString();
+            default:
+                return WORDS[(row * 7 + column) % WORDS.length] + "_" + (row % 100);
+        }
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    private static DWColumnInfo[] createSchema(int columns) {
+        DWColumnInfo[] schema = new DWColumnInfo[columns];
+        for (int i = 0; i < columns; i++) {
+            DWColumnInfo column = new DWColumnInfo();
+            if (i == 0) {
+                column.m_sName = "ID";
+                column.m_iType = DrSumTypes.INTEGER;
+                column.m_iUnique = 1;
+                column.m_iNull = 1;  // NULLを許可しない
+            } else {
+                column.m_iType = COLUMN_TYPES[(i - 1) % COLUMN_TYPES.length];
+                column.m_sName = DrSumTypes.getTypeName(column.m_iType) + "_" + i;
+                column.m_iNull = 0;
+            }
+            column.m_sDisplay = column.m_sName;
+            column.m_iPrecision = column.m_iType == DrSumTypes.NUMERIC ? 10 : 0;
+            column.m_iScale = column.m_iType == DrSumTypes.NUMERIC ? 2 : 0;
+            schema[i] = column;
+        }
+        return schema;
+    }
+    
+    private Boolean lookup(String table) {
+        return table == null ? null : objects.get(table.toUpperCase(Locale.ROOT));
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * メモリ上の接続
+     */
+    private final class MemoryConnection implements BackendConnection {
+        private final String database;
+        private final CountDownLatch closed = new CountDownLatch(1);
+        
+        MemoryConnection(String database) {
+            this.database = database;
+        }
+        
+        @Override
+        public String getDatabase() {
+            return database;
+        }
+        
+        @Override
+        public boolean isOpen() {
+            return closed.getCount() > 0;
+        }
+        
+        @Override
+        public DWTableInfo[] getTableList(String database) throws DWException {
+            pause(config.getMetadataLatencyMs());
+            DWTableInfo[] tables = new DWTableInfo[objectNames.length];
+            for (int i = 0; i < objectNames.length; i++) {
+                DWTableInfo table = new DWTableInfo();
+                table.m_sName = objectNames[i];
+                tables[i] = table;
+            }
+            return tables;
+        }
+        
+        @Override
+        public DWViewInfo getViewInfo(String database, String table) throws DWException {
+            pause(config.getMetadataLatencyMs());
+            Boolean view = lookup(table);
+            if (view == null) {
+                return null;
+            }
+            DWViewInfo info = new DWViewInfo();
+            info.m_sName = table;
+            info.m_iType = view ? 1 : 0;
+            return info;
+        }
+        
+        @Override
+        public DWColumnInfo[] getSchema(String database, String table) throws DWException {
+            pause(config.getMetadataLatencyMs());
+            return lookup(table) == null ? null : schema.clone();
+        }
+        
+        @Override
+        public BackendCursor cursor() throws DWException {
+            ensureOpen();
+            return new MemoryCursor(this);
+        }
+        
+        @Override
+        public void close() {
+            if (closed.getCount() > 0) {
+                closed.countDown();
+                openCount.decrementAndGet();
+            }
+        }
+        
+        /**
+         * 遅延を加える（接続が閉じられた場合は直ちに終了）
+         */
+        void pause(long millis) throws DWException {
+            ensureOpen();
+            if (millis <= 0) {
+                return;
+            }
+            try {
+                if (closed.await(millis, TimeUnit.MILLISECONDS)) {
+                    throw new DWException("Connection closed");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DWException("Interrupted");
+            }
+        }
+        
+        void ensureOpen() throws DWException {
+            if (!isOpen()) {
+                throw new DWException("Connection closed");
+            }
+        }
+    }
+    
+    /**
+     * メモリ上のカーソル
+     */
+    private final class MemoryCursor implements BackendCursor {
+        private final MemoryConnection connection;
+        private DWColumnInfo[] description;
+        private int position;
+        private int rowCount;
+        private volatile boolean closed;
+        
+        MemoryCursor(MemoryConnection connection) {
+            this.connection = connection;
+        }
+        
+        @Override
+        public void execute(String sql) throws DWException {
+            ensureOpen();
+            connection.pause(config.getExecuteLatencyMs());
+            description = null;
+            position = 0;
+            rowCount = 0;
+            
+            Matcher select = SELECT_FROM.matcher(sql);
+            if (!select.matches()) {
+                return;  // 結果のない文
+            }
+            String table = select.group(1);
+            if (lookup(table) == null) {
+                throw new DWException("Table not found: " + table);
+            }
+            rowCount = config.getRows();
+            Matcher limit = LIMIT.matcher(select.group(2));
+            if (limit.find()) {
+                rowCount = (int) Math.min(rowCount, Long.parseLong(limit.group(1)));
+            }
+            description = schema.clone();
+        }
+        
+        @Override
+        public DWColumnInfo[] getDescription() {
+            return description;
+        }
+        
+        @Override
+        public Vector<Vector<String>> fetchmany(int size) throws DWException {
+            ensureOpen();
+            connection.pause(config.getFetchLatencyMs());
+            int count = Math.max(0, Math.min(size, rowCount - position));
+            Vector<Vector<String>> rows = new Vector<>(count);
+            int columns = description == null ? 0 : description.length;
+            for (int r = 0; r < count; r++) {
+                Vector<String> row = new Vector<>(columns);
+                for (int c = 0; c < columns; c++) {
+                    row.add(value(position + r, c));
+                }
+                rows.add(row);
+            }
+            position += count;
+            return rows;
+        }
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+        
+        private void ensureOpen() throws DWException {
+            if (closed) {
+                throw new DWException("Cursor closed");
+            }
+            connection.ensureOpen();
+        }
+    }
+}
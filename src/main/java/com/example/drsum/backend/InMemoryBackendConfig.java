@@ -0,0 +1,280 @@
+package com.example.drsum.backend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+import static com.example.drsum.connection.EnvSettings.parseInt;
+import static com.example.drsum.connection.EnvSettings.parseLong;
+
+/**
+ * メモリ上の代替バックエンド（InMemoryBackend）の設定
+ * 
+ * 作成するデータの量（テーブル数・ビュー数・カラム数・行数）と、操作ごとに加える遅延を保持します。
+ * 遅延は実際のDr.Sumの応答時間を模したもので、接続プールやキャッシュの効果をDr.Sumなしで測定するために使います。
+ * 
+ * 【責務】
+ * - データ量と遅延の保持とバリデーション
+ * - 環境変数からの設定読み込み
+ */
+public final class InMemoryBackendConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryBackendConfig.class);
+    
+    // 代替バックエンド用の環境変数名
+    private static final String ENV_DRSUM_MEMORY_TABLES = "DRSUM_MEMORY_TABLES";
+    private static final String ENV_DRSUM_MEMORY_VIEWS = "DRSUM_MEMORY_VIEWS";
+    private static final String ENV_DRSUM_MEMORY_COLUMNS = "DRSUM_MEMORY_COLUMNS";
+    private static final String ENV_DRSUM_MEMORY_ROWS = "DRSUM_MEMORY_ROWS";
+    private static final String ENV_DRSUM_MEMORY_CONNECT_LATENCY_MS = "DRSUM_MEMORY_CONNECT_LATENCY_MS";
+    private static final String ENV_DRSUM_MEMORY_METADATA_LATENCY_MS = "DRSUM_MEMORY_METADATA_LATENCY_MS";
+    private static final String ENV_DRSUM_MEMORY_EXECUTE_LATENCY_MS = "DRSUM_MEMORY_EXECUTE_LATENCY_MS";
+    private static final String ENV_DRSUM_MEMORY_FETCH_LATENCY_MS = "DRSUM_MEMORY_FETCH_LATENCY_MS";
+    
+    // デフォルト値
+    private static final int DEFAULT_TABLES = 20;
+    private static final int DEFAULT_VIEWS = 5;
+    private static final int DEFAULT_COLUMNS = 8;
+    private static final int DEFAULT_ROWS = 1000;
+    
+    private final int tables;
+    private final int views;
+    private final int columns;
+    private final int rows;
+    private final long connectLatencyMs;
+    private final long metadataLatencyMs;
+    private final long executeLatencyMs;
+    private final long fetchLatencyMs;
+    
+    private InMemoryBackendConfig(Builder builder) {
+        this.tables = builder.tables;
+        this.views = builder.views;
+        this.columns = builder.columns;
+        this.rows = builder.rows;
+        this.connectLatencyMs = builder.connectLatencyMs;
+        this.metadataLatencyMs = builder.metadataLatencyMs;
+        this.executeLatencyMs = builder.executeLatencyMs;
+        this.fetchLatencyMs = builder.fetchLatencyMs;
+    }
+    
+    /**
+     * デフォルト設定（遅延なし）
+     */
+    public static InMemoryBackendConfig defaults() {
+        return builder().build();
+    }
+    
+    /**
+     * ビルダーを作成
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    // ========================================================================
+    // Getter メソッド
+    // ========================================================================
+    
+    /**
+     * テーブル数（ビューを含まない）
+     */
+    public int getTables() {
+        return tables;
+    }
+    
+    /**
+     * ビュー数
+     */
+    public int getViews() {
+        return views;
+    }
+    
+    /**
+     * 1テーブルあたりのカラム数
+     */
+    public int getColumns() {
+        return columns;
+    }
+    
+    /**
+     * 1テーブルあたりの行数
+     */
+    public int getRows() {
+        return rows;
+    }
+    
+    /**
+     * 接続（データベースを開く）にかける時間（ミリ秒）
+     */
+    public long getConnectLatencyMs() {
+        return connectLatencyMs;
+    }
+    
+    /**
+     * テーブル一覧・ビュー情報・スキーマの取得1回にかける時間（ミリ秒）
+     */
+    public long getMetadataLatencyMs() {
+        return metadataLatencyMs;
+    }
+    
+    /**
+     * SQLの実行1回にかける時間（ミリ秒）
+     */
+    public long getExecuteLatencyMs() {
+        return executeLatencyMs;
+    }
+    
+    /**
+     * fetchmany 1回にかける時間（ミリ秒）
+     */
+    public long getFetchLatencyMs() {
+        return fetchLatencyMs;
+    }
+    
+    // ========================================================================
+    // Object メソッドのオーバーライド
+    // ========================================================================
+    
+    @Override
+    public String toString() {
+        return String.format("InMemoryBackendConfig{tables=%d, views=%d, columns=%d, rows=%d, " +
+                           "connectLatencyMs=%d, metadataLatencyMs=%d, executeLatencyMs=%d, fetchLatencyMs=%d}",
+                           tables, views, columns, rows,
+                           connectLatencyMs, metadataLatencyMs, executeLatencyMs, fetchLatencyMs);
+    }
+    
+    // ========================================================================
+    // 静的ファクトリメソッド
+    // ========================================================================
+    
+    /**
+     * 環境変数からInMemoryBackendConfigを作成
+     * 
+     * 以下の環境変数を読み込みます（全て省略可）：
+     * - DRSUM_MEMORY_TABLES: テーブル数（デフォルト: 20）
+     * - DRSUM_MEMORY_VIEWS: ビュー数（デフォルト: 5）
+     * - DRSUM_MEMORY_COLUMNS: 1テーブルあたりのカラム数（デフォルト: 8）
+     * - DRSUM_MEMORY_ROWS: 1テーブルあたりの行数（デフォルト: 1000）
+     * - DRSUM_MEMORY_CONNECT_LATENCY_MS: 接続の遅延（デフォルト: 0ミリ秒）
+     * - DRSUM_MEMORY_METADATA_LATENCY_MS: メタデータ取得1回の遅延（デフォルト: 0ミリ秒）
+     * - DRSUM_MEMORY_EXECUTE_LATENCY_MS: SQL実行1回の遅延（デフォルト: 0ミリ秒）
+     * - DRSUM_MEMORY_FETCH_LATENCY_MS: fetchmany 1回の遅延（デフォルト: 0ミリ秒）
+     * 
+     * @return 環境変数から作成されたInMemoryBackendConfig
+     * @throws IllegalStateException 環境変数の値が不正な場合
+     */
+    public static InMemoryBackendConfig fromEnvironment() {
+        return fromMap(System.getenv());
+    }
+    
+    /**
+     * キーと値のマップからInMemoryBackendConfigを作成
+     * 
+     * @param env 環境変数と同じキーを持つマップ
+     * @return 作成されたInMemoryBackendConfig
+     * @throws IllegalStateException 値が不正な場合
+     */
+    public static InMemoryBackendConfig fromMap(Map<String, String> env) {
+        Builder builder = builder()
+                .tables(parseInt(env, ENV_DRSUM_MEMORY_TABLES, DEFAULT_TABLES))
+                .views(parseInt(env, ENV_DRSUM_MEMORY_VIEWS, DEFAULT_VIEWS))
+                .columns(parseInt(env, ENV_DRSUM_MEMORY_COLUMNS, DEFAULT_COLUMNS))
+                .rows(parseInt(env, ENV_DRSUM_MEMORY_ROWS, DEFAULT_ROWS))
+                .connectLatencyMs(parseLong(env, ENV_DRSUM_MEMORY_CONNECT_LATENCY_MS, 0))
+                .metadataLatencyMs(parseLong(env, ENV_DRSUM_MEMORY_METADATA_LATENCY_MS, 0))
+                .executeLatencyMs(parseLong(env, ENV_DRSUM_MEMORY_EXECUTE_LATENCY_MS, 0))
+                .fetchLatencyMs(parseLong(env, ENV_DRSUM_MEMORY_FETCH_LATENCY_MS, 0));
+        
+        try {
+            InMemoryBackendConfig config = builder.build();
+            logger.info("代替バックエンドの設定を読み込みました: {}", config);
+            return config;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("代替バックエンドの設定が不正です: " + e.getMessage());
+        }
+    }
+    
+    // ========================================================================
+    // ビルダー
+    // ========================================================================
+    
+    /**
+     * InMemoryBackendConfigのビルダー
+     */
+    public static final class Builder {
+        private int tables = DEFAULT_TABLES;
+        private int views = DEFAULT_VIEWS;
+        private int columns = DEFAULT_COLUMNS;
+        private int rows = DEFAULT_ROWS;
+        private long connectLatencyMs = 0;
+        private long metadataLatencyMs = 0;
+        private long executeLatencyMs = 0;
+        private long fetchLatencyMs = 0;
+        
+        private Builder() {
+        }
+        
+        public Builder tables(int tables) {
+            this.tables = tables;
+            return this;
+        }
+        
+        public Builder views(int views) {
+            this.views = views;
+            return this;
+        }
+        
+        public Builder columns(int columns) {
+            this.columns = columns;
+            return this;
+        }
+        
+        public Builder rows(int rows) {
+            this.rows = rows;
+            return this;
+        }
+        
+        public Builder connectLatencyMs(long connectLatencyMs) {
+            this.connectLatencyMs = connectLatencyMs;
+            return this;
+        }
+        
+        public Builder metadataLatencyMs(long metadataLatencyMs) {
+            this.metadataLatencyMs = metadataLatencyMs;
+            return this;
+        }
+        
+        public Builder executeLatencyMs(long executeLatencyMs) {
+            this.executeLatencyMs = executeLatencyMs;
+            return this;
+        }
+        
+        public Builder fetchLatencyMs(long fetchLatencyMs) {
+            this.fetchLatencyMs = fetchLatencyMs;
+            return this;
+        }
+        
+        /**
+         * InMemoryBackendConfigを作成
+         * 
+         * @return 作成されたInMemoryBackendConfig
+         * @throws IllegalArgumentException パラメータが不正な場合
+         */
+        public InMemoryBackendConfig build() {
+            if (tables < 0 || views < 0) {
+                throw new IllegalArgumentException("テーブル数とビュー数は0以上である必要があります");
+            }
+            if (columns <= 0) {
+                throw new IllegalArgumentException("カラム数は1以上である必要があります");
+            }
+            if (rows < 0) {
+                throw new IllegalArgumentException("行数は0以上である必要があります");
+            }
+            if (connectLatencyMs < 0 || metadataLatencyMs < 0 || executeLatencyMs < 0 || fetchLatencyMs < 0) {
+                throw new IllegalArgumentException("遅延は0以上である必要があります");
+            }
+            return new InMemoryBackendConfig(this);
+        }
+    }
+}
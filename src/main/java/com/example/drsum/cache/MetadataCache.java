@@ -0,0 +1,231 @@
+package com.example.drsum.cache;
+
+import jp.co.dw_sapporo.drsum_ea.DWColumnInfo;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+import jp.co.dw_sapporo.drsum_ea.DWTableInfo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Dr.Sumメタデータカタログのキャッシュ
+ * 
+ * テーブル一覧、ビュー判定、カラム情報はほとんど変化しないため、
+ * データベース・テーブル単位でプロセス内にキャッシュし、Dr.Sumへの問い合わせを削減します。
+ * サンプルデータやクエリ結果はキャッシュしません。
+ * 
+ * 【責務】
+ * - テーブル一覧（DWTableInfo[]）のキャッシュ（データベース単位）
+ * - ビュー判定のキャッシュ（データベース単位にテーブル名→ビューかどうかを保持）
+ * - カラム情報（DWColumnInfo[]）のキャッシュ（データベース＋テーブル単位）
+ * - テーブル単位・全体の明示的な無効化
+ * - ヒット・ミス件数の集計
+ * 
+ * 各キャッシュは登録から有効期限（TTL）を過ぎると再取得され、
+ * エントリ数の上限を超えると最も長く参照されていないエントリから破棄されます。
+ * ビュー判定はテーブル数が多いデータベースでも上限に達しないよう、データベースごとに1エントリで保持します。
+ */
+public class MetadataCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MetadataCache.class);
+    
+    private final TtlLruCache<String, DWTableInfo[]> tableLists;
+    private final TtlLruCache<String, Map<String, Boolean>> viewFlags;
+    private final TtlLruCache<TableKey, DWColumnInfo[]> schemas;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param ttlMs 登録からエントリを再取得するまでの時間（ミリ秒）
+     * @param maxEntries キャッシュごとに保持するエントリの最大数
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public MetadataCache(long ttlMs, int maxEntries) {
+        this(ttlMs, maxEntries, System::currentTimeMillis);
+    }
+    
+    /**
+     * テスト用コンストラクタ
+     */
+    MetadataCache(long ttlMs, int maxEntries, LongSupplier clock) {
+        this.tableLists = new TtlLruCache<>(ttlMs, maxEntries, clock);
+        this.viewFlags = new TtlLruCache<>(ttlMs, maxEntries, clock);
+        this.schemas = new TtlLruCache<>(ttlMs, maxEntries, clock);
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * データベースのテーブル一覧を取得（キャッシュにない場合は読み込み）
+     * 
+     * @param database データベース名
+     * @param loader Dr.Sumからテーブル一覧を取得する処理
+     * @return テーブル一覧（読み込み結果がnullの場合はnull）
+     * @throws DWException 読み込みに失敗した場合
+     */
+    public DWTableInfo[] getTableList(String database, Loader<DWTableInfo[]> loader) throws DWException {
+        return tableLists.getOrLoad(database, key -> loader.load());
+    }
+    
+    /**
+     * データベースのキャッシュ済みビュー判定を取得
+     * 
+     * @param database データベース名
+     * @return テーブル名からビューかどうかへのマップ（読み取り専用、キャッシュにない場合は空）
+     */
+    public Map<String, Boolean> getViewFlags(String database) {
+        Map<String, Boolean> flags = viewFlags.get(database);
+        return flags != null ? Collections.unmodifiableMap(flags) : Collections.emptyMap();
+    }
+    
+    /**
+     * ビュー判定をキャッシュに追加
+     * 
+     * 既にデータベースのエントリがある場合は追加するだけで、有効期限は延長しません。
+     * 
+     * @param database データベース名
+     * @param flags テーブル名からビューかどうかへのマップ
+     */
+    public void putViewFlags(String database, Map<String, Boolean> flags) {
+        if (flags.isEmpty()) {
+            return;
+        }
+        synchronized (viewFlags) {
+            Map<String, Boolean> cached = viewFlags.get(database);
+            if (cached != null) {
+                cached.putAll(flags);
+            } else {
+                viewFlags.put(database, new ConcurrentHashMap<>(flags));
+            }
+        }
+    }
+    
+    /**
+     * テーブルのカラム情報を取得（キャッシュにない場合は読み込み）
+     * 
+     * @param database データベース名
+     * @param table テーブル名
+     * @param loader Dr.Sumからカラム情報を取得する処理（nullを返した場合はキャッシュしない）
+     * @return カラム情報（読み込み結果がnullの場合はnull）
+     * @throws DWException 読み込みに失敗した場合
+     */
+    public DWColumnInfo[] getSchema(String database, String table, Loader<DWColumnInfo[]> loader)
+            throws DWException {
+        return schemas.getOrLoad(new TableKey(database, table), key -> loader.load());
+    }
+    
+    /**
+     * 指定したテーブルのキャッシュを無効化
+     * 
+     * テーブルの追加・削除を反映するため、テーブル一覧のキャッシュも合わせて無効化します。
+     * テーブル名は大文字小文字を区別せず、全データベースのエントリが対象です。
+     * 
+     * @param table テーブル名
+     * @return 無効化したエントリ数
+     */
+    public int invalidateTable(String table) {
+        AtomicInteger removedFlags = new AtomicInteger();
+        viewFlags.forEach((database, flags) -> {
+            if (flags.keySet().removeIf(name -> name.equalsIgnoreCase(table))) {
+                removedFlags.incrementAndGet();
+            }
+        });
+        
+        int removed = tableLists.invalidateAll() + removedFlags.get();
+        removed += schemas.invalidateIf(key -> key.table.equalsIgnoreCase(table));
+        logger.info("Invalidated {} metadata cache entries for table {}", removed, table);
+        return removed;
+    }
+    
+    /**
+     * 全てのキャッシュを無効化
+     * 
+     * @return 無効化したエントリ数
+     */
+    public int invalidateAll() {
+        int removed = tableLists.invalidateAll() + viewFlags.invalidateAll() + schemas.invalidateAll();
+        logger.info("Invalidated all {} metadata cache entries", removed);
+        return removed;
+    }
+    
+    /**
+     * テーブル一覧キャッシュの集計値を取得
+     */
+    public TtlLruCache.Stats getTableListStats() {
+        return tableLists.getStats();
+    }
+    
+    /**
+     * ビュー判定キャッシュの集計値を取得（エントリはデータベース単位）
+     */
+    public TtlLruCache.Stats getViewFlagStats() {
+        return viewFlags.getStats();
+    }
+    
+    /**
+     * カラム情報キャッシュの集計値を取得
+     */
+    public TtlLruCache.Stats getSchemaStats() {
+        return schemas.getStats();
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * キャッシュミス時にDr.Sumからメタデータを読み込む処理
+     * 
+     * @param <V> 読み込む値の型
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        
+        /**
+         * メタデータを読み込む
+         * 
+         * @return 読み込んだ値（キャッシュしない場合はnull）
+         * @throws DWException 読み込みに失敗した場合
+         */
+        V load() throws DWException;
+    }
+    
+    /**
+     * データベース名とテーブル名の組
+     */
+    private static final class TableKey {
+        final String database;
+        final String table;
+        
+        TableKey(String database, String table) {
+            this.database = database;
+            this.table = table;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TableKey)) {
+                return false;
+            }
+            TableKey other = (TableKey) o;
+            return Objects.equals(database, other.database) && Objects.equals(table, other.table);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(database, table);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.drsum.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 同一リクエストの同時実行の集約（single-flight）
+ * 
+ * 同じキーの処理が実行中の間に届いた呼び出しは、新たに処理を実行せず、
+ * 実行中の処理の完了を待ってその結果（または例外）を共有します。
+ * 処理が完了するとキーは解放されるため、結果を保持するキャッシュではありません。
+ * 
+ * 実行した呼び出しに固有の結果（中断された結果など）は共有しないよう指定でき、
+ * その場合に待機していた呼び出しは改めて処理を実行します。
+ * 待機中の呼び出しは、自身の中断に合わせて待機を打ち切ることもできます。
+ * 
+ * 【責務】
+ * - キーごとに実行中の処理を1つに限定
+ * - 待機していた呼び出しへの結果の共有
+ * - 実行件数・共有件数の集計
+ * 
+ * @param <K> キーの型
+ * @param <V> 結果の型
+ */
+public class SingleFlight<K, V> {
+    
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 処理を実行し、同じキーの処理が実行中の場合はその結果を待って共有
+     * 
+     * 処理は呼び出し元のスレッドで実行されます。
+     * 処理が例外を投げた場合、待機していた呼び出しにも同じ例外が投げられます。
+     * 
+     * @param key キー
+     * @param operation 実行する処理
+     * @return 処理結果（他の呼び出しと共有される可能性がある）
+     * @throws IllegalArgumentException キーまたは処理がnullの場合
+     * @throws IllegalStateException 結果を待っている間に割り込まれた場合
+     */
+    public V execute(K key, Supplier<V> operation) {
+        return execute(key, operation, result -> true, null);
+    }
+    
+    /**
+     * 処理を実行し、同じキーの処理が実行中の場合はその結果を待って共有（共有する結果と待機の打ち切りを指定）
+     * 
+     * 実行した呼び出しの shareable が false を返した結果は待機していた呼び出しに渡さず、
+     * 待機していた呼び出しは改めて処理を実行します（そのうち1つが実行し、残りはその結果を待ちます）。
+     * 
+     * onAbandon には待機を打ち切る処理が渡されます。それが呼ばれると、待機中の呼び出しは結果を待たずに
+     * 自身で処理を実行します（処理の側で中断を検出し、直ちに終わることを想定しています）。
+     * 
+     * @param key キー
+     * @param operation 実行する処理
+     * @param shareable 処理結果を待機中の呼び出しと共有してよいかどうか（この呼び出しが実行した場合に使用）
+     * @param onAbandon 待機を打ち切る処理を受け取る関数（nullの場合は打ち切らない）
+     * @return 処理結果（他の呼び出しと共有される可能性がある）
+     * @throws IllegalArgumentException キー、処理、shareableがnullの場合
+     * @throws IllegalStateException 結果を待っている間に割り込まれた場合
+     */
+    public V execute(K key, Supplier<V> operation, Predicate<? super V> shareable, Consumer<Runnable> onAbandon) {
+        if (key == null || operation == null || shareable == null) {
+            throw new IllegalArgumentException("Key, operation and shareable cannot be null");
+        }
+        CompletableFuture<Void> abandoned = new CompletableFuture<>();
+        if (onAbandon != null) {
+            onAbandon.accept(() -> abandoned.complete(null));
+        }
+        while (true) {
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, operation, shareable);
+            }
+            
+            shared.incrementAndGet();
+            awaitEither(existing, abandoned);
+            if (!existing.isDone()) {
+                // 待機を打ち切った呼び出しは共有せずに自身で実行
+                return operation.get();
+            }
+            try {
+                return await(existing);
+            } catch (NotSharedException e) {
+                // 実行した呼び出しに固有の結果のため、改めて実行する
+            }
+        }
+    }
+    
+    /**
+     * 実行中の処理数
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+    
+    /**
+     * 実際に処理を実行した回数
+     */
+    public long getExecutionCount() {
+        return executions.get();
+    }
+    
+    /**
+     * 実行中の処理の結果を共有した回数
+     */
+    public long getSharedCount() {
+        return shared.get();
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * 処理を実行し、結果を待機中の呼び出しに渡す（共有しない結果の場合は再実行を促す）
+     */
+    private V lead(K key, CompletableFuture<V> flight, Supplier<V> operation, Predicate<? super V> shareable) {
+        executions.incrementAndGet();
+        try {
+            V result = operation.get();
+            if (shareable.test(result)) {
+                flight.complete(result);
+            } else {
+                flight.completeExceptionally(NotSharedException.INSTANCE);
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+    
+    /**
+     * 実行中の処理が完了するか、待機を打ち切られるまで待機
+     */
+    private static void awaitEither(CompletableFuture<?> flight, CompletableFuture<Void> abandoned) {
+        try {
+            CompletableFuture.anyOf(flight, abandoned).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an identical request");
+        } catch (ExecutionException e) {
+            // 処理の例外は await() で投げ直す
+        }
+    }
+    
+    /**
+     * 実行中の処理の完了を待ち、処理が投げた例外はそのまま投げ直す
+     */
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an identical request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * 結果を共有しないことを待機中の呼び出しに伝える例外
+     */
+    private static final class NotSharedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        static final NotSharedException INSTANCE = new NotSharedException();
+        
+        private NotSharedException() {
+            super("Result is not shared", null, false, false);
+        }
+    }
+}
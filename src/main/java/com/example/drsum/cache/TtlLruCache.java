@@ -0,0 +1,285 @@
+package com.example.drsum.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * 有効期限付きLRUキャッシュ
+ * 
+ * エントリ数の上限を超えると最も長く参照されていないエントリから破棄し、
+ * 登録から有効期限（TTL）を過ぎたエントリは参照時に破棄します。
+ * 
+ * 【責務】
+ * - キーと値の保持（エントリ数の上限、登録からの有効期限）
+ * - キャッシュミス時の値の読み込み（getOrLoad）
+ * - ヒット・ミス・破棄件数の集計
+ * 
+ * 全ての操作はこのインスタンスで同期されます。getOrLoad()の読み込み処理はロックの外で実行されるため、
+ * 同じキーが同時に要求された場合は読み込みが重複することがあります（後から登録した値が残ります）。
+ * 
+ * @param <K> キーの型
+ * @param <V> 値の型
+ */
+public class TtlLruCache<K, V> {
+    
+    private final long ttlMs;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    
+    // アクセス順（古い順）に保持
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param ttlMs 登録からエントリを破棄するまでの時間（ミリ秒）
+     * @param maxEntries 保持するエントリの最大数
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public TtlLruCache(long ttlMs, int maxEntries) {
+        this(ttlMs, maxEntries, System::currentTimeMillis);
+    }
+    
+    /**
+     * テスト用コンストラクタ
+     * 
+     * @param ttlMs 登録からエントリを破棄するまでの時間（ミリ秒）
+     * @param maxEntries 保持するエントリの最大数
+     * @param clock 現在時刻（ミリ秒）を返す時計
+     */
+    TtlLruCache(long ttlMs, int maxEntries, LongSupplier clock) {
+        if (ttlMs <= 0) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be positive");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 値を取得
+     * 
+     * @param key キー
+     * @return キャッシュされた値、存在しないか期限切れの場合はnull
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && clock.getAsLong() - entry.createdAt < ttlMs) {
+            hits++;
+            return entry.value;
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        misses++;
+        return null;
+    }
+    
+    /**
+     * 値を取得し、存在しない場合は読み込んで登録
+     * 
+     * @param key キー
+     * @param loader キャッシュミス時に値を読み込む処理（nullを返した場合は登録しない）
+     * @return キャッシュされた値または読み込んだ値
+     * @throws E 読み込みに失敗した場合
+     */
+    public <E extends Exception> V getOrLoad(K key, Loader<K, V, E> loader) throws E {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.load(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+    
+    /**
+     * 値を登録（既存の値は置き換え）
+     * 
+     * @param key キー
+     * @param value 値
+     * @throws IllegalArgumentException キーまたは値がnullの場合
+     */
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Cache key and value cannot be null");
+        }
+        entries.put(key, new Entry<>(value, clock.getAsLong()));
+        
+        // 上限を超えた分を参照の古い順に破棄
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+    
+    /**
+     * 指定したキーのエントリを破棄
+     * 
+     * @param key キー
+     * @return エントリが存在した場合true
+     */
+    public synchronized boolean invalidate(K key) {
+        return entries.remove(key) != null;
+    }
+    
+    /**
+     * 条件に一致するキーのエントリを全て破棄
+     * 
+     * @param predicate 破棄するキーの条件
+     * @return 破棄したエントリ数
+     */
+    public synchronized int invalidateIf(Predicate<? super K> predicate) {
+        int removed = 0;
+        Iterator<K> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (predicate.test(it.next())) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * 全てのエントリを破棄
+     * 
+     * @return 破棄したエントリ数
+     */
+    public synchronized int invalidateAll() {
+        int removed = entries.size();
+        entries.clear();
+        return removed;
+    }
+    
+    /**
+     * 有効期限内の全エントリに処理を適用（参照順は変更しない）
+     * 
+     * 処理はロックを保持したまま実行されるため、短時間で終わる処理のみ指定してください。
+     * 
+     * @param action キーと値を受け取る処理
+     */
+    public synchronized void forEach(BiConsumer<? super K, ? super V> action) {
+        long now = clock.getAsLong();
+        for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+            if (now - entry.getValue().createdAt < ttlMs) {
+                action.accept(entry.getKey(), entry.getValue().value);
+            }
+        }
+    }
+    
+    /**
+     * 保持しているエントリ数を取得（期限切れで未破棄のエントリを含む）
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    /**
+     * 集計値のスナップショットを取得
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * キャッシュミス時に値を読み込む処理
+     * 
+     * @param <K> キーの型
+     * @param <V> 値の型
+     * @param <E> 読み込み時に発生する例外の型
+     */
+    @FunctionalInterface
+    public interface Loader<K, V, E extends Exception> {
+        
+        /**
+         * 値を読み込む
+         * 
+         * @param key キー
+         * @return 読み込んだ値（キャッシュしない場合はnull）
+         * @throws E 読み込みに失敗した場合
+         */
+        V load(K key) throws E;
+    }
+    
+    /**
+     * キャッシュの集計値
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        
+        public Stats(long hits, long misses, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+        
+        public long getHits() {
+            return hits;
+        }
+        
+        public long getMisses() {
+            return misses;
+        }
+        
+        /**
+         * 上限（エントリ数またはサイズ）により破棄された件数
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+        
+        public int getSize() {
+            return size;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Stats{hits=%d, misses=%d, evictions=%d, size=%d}",
+                               hits, misses, evictions, size);
+        }
+    }
+    
+    /**
+     * 値と登録時刻
+     */
+    private static final class Entry<V> {
+        final V value;
+        final long createdAt;
+        
+        Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.drsum.connection;
+
+import com.example.drsum.backend.DrSumBackend;
+import com.example.drsum.backend.DrSumEaBackend;
+import com.example.drsum.backend.InMemoryBackend;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+
+/**
+ * Dr.Sum接続プロバイダー
+ * 
+ * ツールハンドラが使用する接続の取得と返却を抽象化します。
+ * 実装によって「都度接続」と「接続プール」を切り替えられます。
+ * 
+ * 【責務】
+ * - 接続済みのDrSumConnectionの貸し出し
+ * - 使用済み接続の返却または破棄
+ */
+public interface ConnectionProvider extends AutoCloseable {
+    
+    /**
+     * 接続済みのDrSumConnectionを取得
+     * 
+     * @return 接続済みのDrSumConnection
+     * @throws DWException 接続に失敗した場合
+     * @throws IllegalStateException 接続を取得できない場合（設定不備、プール枯渇など）
+     */
+    DrSumConnection acquire() throws DWException;
+    
+    /**
+     * 待たずに取得できる場合のみ接続を取得
+     * 
+     * 並列処理で追加の接続を使う場合など、接続がなくても処理を継続できる用途に使用します。
+     * デフォルト実装は常にnullを返します（追加の接続を提供しない）。
+     * 
+     * @return 接続済みのDrSumConnection、すぐに取得できない場合はnull
+     * @throws DWException 接続に失敗した場合
+     */
+    default DrSumConnection tryAcquire() throws DWException {
+        return null;
+    }
+    
+    /**
+     * 使用済みの接続を返却
+     * 
+     * @param connection acquire()で取得した接続
+     */
+    void release(DrSumConnection connection);
+    
+    /**
+     * 異常が発生した接続を破棄（再利用しない）
+     * 
+     * @param connection acquire()で取得した接続
+     */
+    void invalidate(DrSumConnection connection);
+    
+    /**
+     * プロバイダーを閉じ、保持している接続を全て切断
+     */
+    @Override
+    void close();
+    
+    /**
+     * 新しい接続を確立するファクトリ
+     */
+    @FunctionalInterface
+    interface Factory {
+        
+        /**
+         * 新しい接続を確立
+         * 
+         * @return 接続済みのDrSumConnection
+         * @throws DWException 接続に失敗した場合
+         */
+        DrSumConnection create() throws DWException;
+        
+        /**
+         * 環境変数の接続情報とバックエンド（DRSUM_BACKEND）を使って接続するファクトリを作成
+         * 
+         * 接続情報はこのメソッドの呼び出し時に一度だけ読み込まれます。
+         * 必須の環境変数が設定されていない場合も例外は投げず、
+         * 接続を確立しようとした時点で同じエラーを返すファクトリを作成します。
+         * メモリ上の代替バックエンドでは、接続情報がなくても固定の接続情報で接続します。
+         * 
+         * @return ファクトリ
+         * @throws IllegalStateException バックエンドの設定が不正な場合
+         */
+        static Factory fromEnvironment() {
+            DrSumBackend backend = DrSumBackend.fromEnvironment();
+            ConnectionConfig config;
+            try {
+                config = ConnectionConfig.fromEnvironment();
+            } catch (IllegalStateException e) {
+                if (backend instanceof InMemoryBackend) {
+                    return fromConfig(InMemoryBackend.defaultConfig(System.getenv("DRSUM_DATABASE")), backend);
+                }
+                String message = e.getMessage();
+                return () -> {
+                    throw new IllegalStateException(message);
+                };
+            }
+            return fromConfig(config, backend);
+        }
+        
+        /**
+         * 指定した接続情報で接続するファクトリを作成
+         * 
+         * @param config 接続情報
+         * @return ファクトリ
+         * @throws IllegalArgumentException configがnullの場合
+         */
+        static Factory fromConfig(ConnectionConfig config) {
+            return fromConfig(config, new DrSumEaBackend());
+        }
+        
+        /**
+         * 指定した接続情報とバックエンドで接続するファクトリを作成
+         * 
+         * @param config 接続情報
+         * @param backend 接続先のバックエンド
+         * @return ファクトリ
+         * @throws IllegalArgumentException configまたはbackendがnullの場合
+         */
+        static Factory fromConfig(ConnectionConfig config, DrSumBackend backend) {
+            if (config == null) {
+                throw new IllegalArgumentException("ConnectionConfig cannot be null");
+            }
+            if (backend == null) {
+                throw new IllegalArgumentException("Backend cannot be null");
+            }
+            return () -> {
+                DrSumConnection connection = new DrSumConnection(backend);
+                connection.connect(config);
+                return connection;
+            };
+        }
+    }
+}
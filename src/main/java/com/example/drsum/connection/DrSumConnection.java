@@ -1,7 +1,9 @@
 package com.example.drsum.connection;
 
+import com.example.drsum.backend.BackendConnection;
+import com.example.drsum.backend.DrSumBackend;
+import com.example.drsum.backend.DrSumEaBackend;
 import jp.co.dw_sapporo.drsum_ea.DWException;
-import jp.co.dw_sapporo.drsum_ea.dbi.DWDbiConnection;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,24 +11,42 @@ import org.slf4j.LoggerFactory;
 /**
  * Dr.Sum接続マネージャー
  * 
- * Dr.Sumへの接続ライフサイクルを管理し、DWDbiConnectionへのアクセスを提供します。
+ * Dr.Sumへの接続ライフサイクルを管理し、バックエンドの接続（BackendConnection）へのアクセスを提供します。
+ * バックエンドを指定しない場合はDrSumEAでDr.Sumサーバーに接続します。
  * 
  * 【責務】
- * - Dr.Sumサーバーへの接続確立と切断
+ * - Dr.Sumサーバー（またはバックエンド）への接続確立と切断
  * - 接続状態の管理
- * - DWDbiConnectionのラッパー
+ * - BackendConnectionのラッパー
  */
 public class DrSumConnection {
     
     private static final Logger logger = LoggerFactory.getLogger(DrSumConnection.class);
     
-    private DWDbiConnection connection;
-    private ConnectionConfig config;
+    private final DrSumBackend backend;
+    
+    // 中断時は別スレッドから閉じるため volatile
+    private volatile BackendConnection connection;
+    private volatile ConnectionConfig config;
     
     /**
-     * デフォルトコンストラクタ
+     * デフォルトコンストラクタ（DrSumEAでDr.Sumサーバーに接続）
      */
     public DrSumConnection() {
+        this(new DrSumEaBackend());
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param backend 接続先のバックエンド
+     * @throws IllegalArgumentException backendがnullの場合
+     */
+    public DrSumConnection(DrSumBackend backend) {
+        if (backend == null) {
+            throw new IllegalArgumentException("Backend cannot be null");
+        }
+        this.backend = backend;
         this.connection = null;
         this.config = null;
     }
@@ -56,16 +76,8 @@ public class DrSumConnection {
         logger.info("Connecting to Dr.Sum: {}", config);
         
         try {
-            // DBI接続を作成
-            this.connection = new DWDbiConnection(
-                config.getHost(), 
-                config.getPort(), 
-                config.getUsername(), 
-                config.getPassword()
-            );
-            
-            // データベースを開く
-            this.connection.openDatabase(config.getDatabase());
+            // 接続を作成してデータベースを開く
+            this.connection = backend.open(config);
             this.config = config;
             
             logger.info("Successfully connected to Dr.Sum database: {}", config.getDatabase());
@@ -83,7 +95,8 @@ public class DrSumConnection {
      * @return 接続されている場合true、それ以外はfalse
      */
     public boolean isConnected() {
-        return connection != null && connection.m_hDatabase != 0;
+        BackendConnection current = connection;
+        return current != null && current.isOpen();
     }
     
     /**
@@ -105,16 +118,38 @@ public class DrSumConnection {
     }
     
     /**
-     * 内部のDWDbiConnectionを取得
+     * 実行中の処理を中断するため、接続を強制的に閉じる
+     * 
+     * 処理を実行しているスレッドとは別のスレッドから呼び出せます。
+     * 閉じた接続は isConnected() が false になり、再利用されません。切断エラーはログのみ出力します。
+     */
+    public void abort() {
+        BackendConnection current = connection;
+        connection = null;
+        config = null;
+        if (current == null) {
+            return;
+        }
+        logger.warn("Aborting Dr.Sum connection");
+        try {
+            current.close();
+        } catch (DWException e) {
+            logger.warn("Failed to close aborted connection: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 内部のBackendConnectionを取得
      * 
-     * @return DWDbiConnectionインスタンス
+     * @return BackendConnectionインスタンス
      * @throws IllegalStateException 接続されていない場合
      */
-    public DWDbiConnection getConnection() {
-        if (!isConnected()) {
+    public BackendConnection getConnection() {
+        BackendConnection current = connection;
+        if (current == null || !current.isOpen()) {
             throw new IllegalStateException("Not connected to Dr.Sum. Please connect first.");
         }
-        return connection;
+        return current;
     }
     
     /**
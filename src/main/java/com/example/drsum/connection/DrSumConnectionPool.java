@@ -0,0 +1,524 @@
+package com.example.drsum.connection;
+
+import jp.co.dw_sapporo.drsum_ea.DWException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Dr.Sum接続プール
+ * 
+ * 確立済みのDrSumConnectionを保持し、ツール呼び出し間で再利用します。
+ * 接続ごとのTCPハンドシェイク・ログイン・openDatabaseのコストを削減します。
+ * 
+ * 【責務】
+ * - 最大接続数（maxTotal）による同時接続数の制限
+ * - アイドル接続の保持（minIdle〜maxIdle）
+ * - 貸し出し・返却時の接続検証（isConnected()、最大寿命）
+ * - アイドル接続の定期的な破棄と最小アイドル数の補充
+ * 
+ * アイドル接続は最後に使われたものから貸し出し（LIFO）、
+ * 長く使われていない接続から破棄します。
+ */
+public class DrSumConnectionPool implements ConnectionProvider {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DrSumConnectionPool.class);
+    
+    // アイドル接続の破棄処理の実行間隔（ミリ秒）
+    private static final long MIN_EVICTION_INTERVAL_MS = 1000L;
+    private static final long MAX_EVICTION_INTERVAL_MS = 30 * 1000L;
+    
+    private final Factory factory;
+    private final PoolConfig config;
+    private final LongSupplier clock;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private final Map<DrSumConnection, PooledEntry> leased = new IdentityHashMap<>();
+    
+    // idle + leased + 確立中の接続数（lockで保護）
+    private int total;
+    private boolean closed;
+    
+    private final ScheduledExecutorService evictor;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param factory 接続を確立するファクトリ
+     * @param config プール設定
+     * @throws IllegalArgumentException パラメータがnullの場合
+     */
+    public DrSumConnectionPool(Factory factory, PoolConfig config) {
+        this(factory, config, System::currentTimeMillis, true);
+    }
+    
+    /**
+     * テスト用コンストラクタ
+     * 
+     * @param factory 接続を確立するファクトリ
+     * @param config プール設定
+     * @param clock 現在時刻（ミリ秒）を返す時計
+     * @param startEvictor 破棄処理をバックグラウンドで実行する場合true
+     */
+    DrSumConnectionPool(Factory factory, PoolConfig config, LongSupplier clock, boolean startEvictor) {
+        if (factory == null) {
+            throw new IllegalArgumentException("Connection factory cannot be null");
+        }
+        if (config == null) {
+            throw new IllegalArgumentException("PoolConfig cannot be null");
+        }
+        this.factory = factory;
+        this.config = config;
+        this.clock = clock;
+        
+        if (startEvictor) {
+            long interval = evictionIntervalMs(config);
+            this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "drsum-pool-evictor");
+                t.setDaemon(true);
+                return t;
+            });
+            this.evictor.scheduleWithFixedDelay(this::evictSafely, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.evictor = null;
+        }
+        
+        logger.info("Connection pool created: {}", config);
+    }
+    
+    // ========================================================================
+    // ConnectionProvider の実装
+    // ========================================================================
+    
+    /**
+     * プールから接続を取得
+     * 
+     * アイドル接続があれば検証して再利用し、なければmaxTotalの範囲で新規接続します。
+     * maxTotalに達している場合は borrowTimeoutMs まで返却を待ちます。
+     * 
+     * @return 接続済みのDrSumConnection
+     * @throws DWException 新規接続に失敗した場合
+     * @throws IllegalStateException プールが閉じられている、または待機がタイムアウトした場合
+     */
+    @Override
+    public DrSumConnection acquire() throws DWException {
+        return borrow(TimeUnit.MILLISECONDS.toNanos(config.getBorrowTimeoutMs()), false);
+    }
+    
+    /**
+     * 待たずに取得できる場合のみ接続を取得
+     * 
+     * アイドル接続があるか、maxTotalに達していない場合のみ接続を返します。
+     * 
+     * @return 接続済みのDrSumConnection、すぐに取得できない場合はnull
+     * @throws DWException 新規接続に失敗した場合
+     * @throws IllegalStateException プールが閉じられている場合
+     */
+    @Override
+    public DrSumConnection tryAcquire() throws DWException {
+        return borrow(0, true);
+    }
+    
+    /**
+     * 接続を取得（acquire()とtryAcquire()の共通処理）
+     * 
+     * @param remainingNanos 返却を待つ最大時間（ナノ秒）
+     * @param nullIfExhausted 待機がタイムアウトした場合に例外ではなくnullを返す場合true
+     */
+    private DrSumConnection borrow(long remainingNanos, boolean nullIfExhausted) throws DWException {
+        while (true) {
+            PooledEntry candidate = null;
+            
+            lock.lock();
+            try {
+                ensureOpen();
+                while (true) {
+                    candidate = idle.pollFirst();
+                    if (candidate != null) {
+                        break;
+                    }
+                    if (total < config.getMaxTotal()) {
+                        total++;
+                        break;
+                    }
+                    if (remainingNanos <= 0) {
+                        if (nullIfExhausted) {
+                            return null;
+                        }
+                        throw new IllegalStateException(
+                            "Connection pool exhausted: all " + config.getMaxTotal() +
+                            " connections are in use (waited " + config.getBorrowTimeoutMs() + " ms)");
+                    }
+                    try {
+                        remainingNanos = available.awaitNanos(remainingNanos);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for a pooled connection");
+                    }
+                    ensureOpen();
+                }
+                
+                if (candidate != null) {
+                    if (isReusable(candidate, clock.getAsLong())) {
+                        leased.put(candidate.connection, candidate);
+                        return candidate.connection;
+                    }
+                    // 検証に失敗した接続はロック外で破棄して再試行
+                    total--;
+                }
+            } finally {
+                lock.unlock();
+            }
+            
+            if (candidate != null) {
+                logger.info("Discarding stale pooled connection");
+                destroy(candidate.connection);
+                continue;
+            }
+            
+            return createLeased();
+        }
+    }
+    
+    /**
+     * 接続をプールに返却
+     * 
+     * 切断されている、寿命を超えている、アイドル数が上限に達している場合は切断します。
+     * 
+     * @param connection acquire()で取得した接続
+     */
+    @Override
+    public void release(DrSumConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        
+        boolean keep;
+        lock.lock();
+        try {
+            PooledEntry entry = leased.remove(connection);
+            if (entry == null) {
+                logger.warn("Released connection does not belong to this pool - disconnecting");
+                keep = false;
+            } else {
+                long now = clock.getAsLong();
+                keep = !closed && isReusable(entry, now) && idle.size() < config.getMaxIdle();
+                if (keep) {
+                    entry.lastUsedAt = now;
+                    idle.addFirst(entry);
+                } else {
+                    total--;
+                }
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        
+        if (!keep) {
+            destroy(connection);
+        }
+    }
+    
+    /**
+     * 接続を破棄（プールに戻さない）
+     * 
+     * @param connection acquire()で取得した接続
+     */
+    @Override
+    public void invalidate(DrSumConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        
+        lock.lock();
+        try {
+            if (leased.remove(connection) != null) {
+                total--;
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        
+        logger.info("Invalidating pooled connection");
+        destroy(connection);
+    }
+    
+    /**
+     * プールを閉じる
+     * 
+     * アイドル接続は即座に切断し、貸し出し中の接続は返却時に切断します。
+     */
+    @Override
+    public void close() {
+        List<PooledEntry> drained;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            drained = new ArrayList<>(idle);
+            idle.clear();
+            total -= drained.size();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        for (PooledEntry entry : drained) {
+            destroy(entry.connection);
+        }
+        logger.info("Connection pool closed ({} idle connection(s) disconnected)", drained.size());
+    }
+    
+    // ========================================================================
+    // 状態取得メソッド
+    // ========================================================================
+    
+    /**
+     * アイドル接続数を取得
+     */
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 貸し出し中の接続数を取得
+     */
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return leased.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 確立中を含む全接続数を取得
+     */
+    public int getTotalCount() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * プール設定を取得
+     */
+    public PoolConfig getConfig() {
+        return config;
+    }
+    
+    // ========================================================================
+    // 破棄処理
+    // ========================================================================
+    
+    /**
+     * アイドル接続の破棄と最小アイドル数の補充を実行
+     * 
+     * 切断済み・寿命超過の接続は常に破棄し、idleTimeoutMsを超えた接続は
+     * minIdleを下回らない範囲で破棄します。
+     */
+    void evict() {
+        List<PooledEntry> retired = new ArrayList<>();
+        int deficit;
+        
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            long now = clock.getAsLong();
+            // 末尾ほど長くアイドル状態にある
+            Iterator<PooledEntry> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledEntry entry = it.next();
+                boolean idleExpired = config.getIdleTimeoutMs() > 0
+                        && now - entry.lastUsedAt >= config.getIdleTimeoutMs()
+                        && idle.size() > config.getMinIdle();
+                if (!isReusable(entry, now) || idleExpired) {
+                    it.remove();
+                    retired.add(entry);
+                }
+            }
+            total -= retired.size();
+            
+            deficit = Math.min(config.getMinIdle() - idle.size(), config.getMaxTotal() - total);
+            if (deficit > 0) {
+                total += deficit;
+            }
+        } finally {
+            lock.unlock();
+        }
+        
+        for (PooledEntry entry : retired) {
+            destroy(entry.connection);
+        }
+        if (!retired.isEmpty()) {
+            logger.info("Evicted {} idle connection(s)", retired.size());
+        }
+        
+        for (int i = 0; i < deficit; i++) {
+            DrSumConnection connection;
+            try {
+                connection = factory.create();
+            } catch (DWException | RuntimeException e) {
+                logger.warn("Failed to replenish idle connections: {}", e.getMessage());
+                lock.lock();
+                try {
+                    total -= deficit - i;
+                    available.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            addIdle(connection);
+        }
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * 新規接続を確立して貸し出し状態にする（呼び出し前にtotalを予約済み）
+     */
+    private DrSumConnection createLeased() throws DWException {
+        DrSumConnection connection;
+        try {
+            connection = factory.create();
+        } catch (DWException | RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        
+        lock.lock();
+        try {
+            if (!closed) {
+                leased.put(connection, new PooledEntry(connection, clock.getAsLong()));
+                return connection;
+            }
+            total--;
+        } finally {
+            lock.unlock();
+        }
+        destroy(connection);
+        throw new IllegalStateException("Connection pool is closed");
+    }
+    
+    /**
+     * 補充した接続をアイドルリストに追加（呼び出し前にtotalを予約済み）
+     */
+    private void addIdle(DrSumConnection connection) {
+        lock.lock();
+        try {
+            if (!closed) {
+                idle.addLast(new PooledEntry(connection, clock.getAsLong()));
+                available.signal();
+                return;
+            }
+            total--;
+        } finally {
+            lock.unlock();
+        }
+        destroy(connection);
+    }
+    
+    /**
+     * 接続が再利用可能かチェック（接続状態と最大寿命）
+     */
+    private boolean isReusable(PooledEntry entry, long now) {
+        if (!entry.connection.isConnected()) {
+            return false;
+        }
+        return config.getMaxLifetimeMs() <= 0 || now - entry.createdAt < config.getMaxLifetimeMs();
+    }
+    
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Connection pool is closed");
+        }
+    }
+    
+    private void evictSafely() {
+        try {
+            evict();
+        } catch (RuntimeException e) {
+            logger.error("Connection pool eviction failed", e);
+        }
+    }
+    
+    /**
+     * 接続を切断（切断エラーはログのみ）
+     */
+    private static void destroy(DrSumConnection connection) {
+        if (!connection.isConnected()) {
+            return;
+        }
+        try {
+            connection.disconnect();
+        } catch (DWException e) {
+            logger.error("Failed to disconnect pooled connection: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 設定値から破棄処理の実行間隔を決定
+     */
+    private static long evictionIntervalMs(PoolConfig config) {
+        long basis = config.getIdleTimeoutMs() > 0 ? config.getIdleTimeoutMs() / 2 : MAX_EVICTION_INTERVAL_MS;
+        return Math.max(MIN_EVICTION_INTERVAL_MS, Math.min(MAX_EVICTION_INTERVAL_MS, basis));
+    }
+    
+    /**
+     * プール内の接続と時刻情報
+     */
+    private static final class PooledEntry {
+        final DrSumConnection connection;
+        final long createdAt;
+        long lastUsedAt;
+        
+        PooledEntry(DrSumConnection connection, long createdAt) {
+            this.connection = connection;
+            this.createdAt = createdAt;
+            this.lastUsedAt = createdAt;
+        }
+    }
+}
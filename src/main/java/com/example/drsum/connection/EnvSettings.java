@@ -0,0 +1,64 @@
+package com.example.drsum.connection;
+
+import java.util.Map;
+
+/**
+ * 環境変数の設定値のパース
+ * 
+ * 接続プール・サーバー・代替バックエンドの各設定クラスが共通で使う数値のパース処理です。
+ * 未設定（空文字を含む）の場合はデフォルト値を返し、有効な整数でない値は IllegalStateException にします。
+ */
+public final class EnvSettings {
+    
+    private EnvSettings() {
+    }
+    
+    /**
+     * int型の設定値をパース（未設定の場合はデフォルト値）
+     * 
+     * intの範囲を超える値は切り詰めずに、有効な整数でない値と同じエラーにします。
+     * 
+     * @param env 環境変数のマップ
+     * @param name 環境変数名
+     * @param defaultValue 未設定の場合の値
+     * @return 設定値
+     * @throws IllegalStateException 有効な整数でない場合
+     */
+    public static int parseInt(Map<String, String> env, String name, int defaultValue) {
+        String value = env.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw invalidInteger(name, value);
+        }
+    }
+    
+    /**
+     * long型の設定値をパース（未設定の場合はデフォルト値）
+     * 
+     * @param env 環境変数のマップ
+     * @param name 環境変数名
+     * @param defaultValue 未設定の場合の値
+     * @return 設定値
+     * @throws IllegalStateException 有効な整数でない場合
+     */
+    public static long parseLong(Map<String, String> env, String name, long defaultValue) {
+        String value = env.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw invalidInteger(name, value);
+        }
+    }
+    
+    private static IllegalStateException invalidInteger(String name, String value) {
+        return new IllegalStateException(
+            "環境変数 " + name + " は有効な整数である必要があります。取得値: " + value);
+    }
+}
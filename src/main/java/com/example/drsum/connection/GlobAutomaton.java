@@ -0,0 +1,231 @@
+package com.example.drsum.connection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 複数のglobパターンをまとめた決定性有限オートマトン（DFA）
+ * 
+ * "*"（任意の文字列）と "?"（任意の1文字）を含むパターンを、作成時に1つのDFAへ変換します。
+ * 照合はパターン数に関係なく、テーブル名の1文字ごとに表を1回引くだけで済み、
+ * オブジェクトの生成も行いません。大文字小文字の同一視は String.equalsIgnoreCase() と同じ規則です。
+ * 
+ * 文字は「パターンに現れる文字」ごとのクラスと「それ以外」の1クラスに分類し、
+ * 遷移表の大きさを (状態数 × クラス数) に抑えます。
+ * インスタンスは不変で、複数スレッドから同時に使用できます。
+ */
+final class GlobAutomaton {
+    
+    /**
+     * DFAの最大状態数（超える場合は作成しない）
+     */
+    static final int MAX_STATES = 10_000;
+    
+    private static final int DEAD = 0;
+    private static final int START = 1;
+    
+    // クラス0は「パターンに現れない文字」、クラス i (1以上) は alphabet[i - 1]
+    private final char[] alphabet;
+    private final int classCount;
+    private final int[] transitions;
+    private final boolean[] accepting;
+    
+    private GlobAutomaton(char[] alphabet, int[] transitions, boolean[] accepting) {
+        this.alphabet = alphabet;
+        this.classCount = alphabet.length + 1;
+        this.transitions = transitions;
+        this.accepting = accepting;
+    }
+    
+    /**
+     * globパターンからDFAを作成
+     * 
+     * @param patterns globパターン（"*" と "?" をワイルドカードとして扱う）
+     * @return DFA、状態数が MAX_STATES を超える場合はnull
+     */
+    static GlobAutomaton compile(List<String> patterns) {
+        return new Builder(patterns).build();
+    }
+    
+    /**
+     * 文字列がいずれかのパターンに一致するかどうか
+     * 
+     * @param value 照合する文字列
+     * @return 一致する場合true
+     */
+    boolean matches(String value) {
+        int state = START;
+        for (int i = 0; i < value.length(); i++) {
+            int index = Arrays.binarySearch(alphabet, fold(value.charAt(i)));
+            int charClass = index >= 0 ? index + 1 : 0;
+            state = transitions[state * classCount + charClass];
+            if (state == DEAD) {
+                return false;
+            }
+        }
+        return accepting[state];
+    }
+    
+    /**
+     * DFAの状態数（停止状態を含む）
+     */
+    int stateCount() {
+        return accepting.length;
+    }
+    
+    /**
+     * 大文字小文字を同一視するための文字の正規化（equalsIgnoreCaseと同じ規則）
+     */
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * 部分集合構成法によるDFAの作成
+     * 
+     * NFAの状態は「パターン番号とパターン内の位置」の組で、
+     * 通し番号 offsets[パターン番号] + 位置 で表します。
+     */
+    private static final class Builder {
+        private final char[][] patterns;
+        private final int[] offsets;
+        private final int[] owner;
+        private final char[] alphabet;
+        
+        Builder(List<String> source) {
+            this.patterns = new char[source.size()][];
+            this.offsets = new int[source.size()];
+            TreeSet<Character> chars = new TreeSet<>();
+            int total = 0;
+            for (int p = 0; p < patterns.length; p++) {
+                char[] pattern = source.get(p).toCharArray();
+                for (int i = 0; i < pattern.length; i++) {
+                    if (pattern[i] != '*' && pattern[i] != '?') {
+                        pattern[i] = fold(pattern[i]);
+                        chars.add(pattern[i]);
+                    }
+                }
+                patterns[p] = pattern;
+                offsets[p] = total;
+                total += pattern.length + 1;
+            }
+            
+            this.owner = new int[total];
+            for (int p = 0; p < patterns.length; p++) {
+                Arrays.fill(owner, offsets[p], offsets[p] + patterns[p].length + 1, p);
+            }
+            this.alphabet = new char[chars.size()];
+            int i = 0;
+            for (char c : chars) {
+                alphabet[i++] = c;
+            }
+        }
+        
+        GlobAutomaton build() {
+            int classCount = alphabet.length + 1;
+            List<BitSet> states = new ArrayList<>();
+            Map<BitSet, Integer> ids = new HashMap<>();
+            
+            // 状態0は停止状態（空集合）、状態1は開始状態
+            BitSet dead = new BitSet();
+            states.add(dead);
+            ids.put(dead, DEAD);
+            BitSet start = new BitSet();
+            for (int p = 0; p < patterns.length; p++) {
+                start.set(offsets[p]);
+            }
+            closure(start);
+            if (!ids.containsKey(start)) {
+                ids.put(start, states.size());
+                states.add(start);
+            }
+            
+            List<int[]> rows = new ArrayList<>();
+            rows.add(new int[classCount]);
+            Deque<Integer> pending = new ArrayDeque<>();
+            pending.add(ids.get(start));
+            while (!pending.isEmpty()) {
+                int id = pending.poll();
+                while (rows.size() <= id) {
+                    rows.add(null);
+                }
+                int[] row = new int[classCount];
+                for (int charClass = 0; charClass < classCount; charClass++) {
+                    BitSet next = step(states.get(id), charClass);
+                    Integer nextId = ids.get(next);
+                    if (nextId == null) {
+                        if (states.size() >= MAX_STATES) {
+                            return null;
+                        }
+                        nextId = states.size();
+                        ids.put(next, nextId);
+                        states.add(next);
+                        pending.add(nextId);
+                    }
+                    row[charClass] = nextId;
+                }
+                rows.set(id, row);
+            }
+            
+            int[] transitions = new int[states.size() * classCount];
+            boolean[] accepting = new boolean[states.size()];
+            for (int id = 0; id < states.size(); id++) {
+                System.arraycopy(rows.get(id), 0, transitions, id * classCount, classCount);
+                accepting[id] = isAccepting(states.get(id));
+            }
+            return new GlobAutomaton(alphabet, transitions, accepting);
+        }
+        
+        /**
+         * "*" は空文字列にも一致するため、"*" の位置から次の位置へ遷移を追加
+         */
+        private void closure(BitSet set) {
+            for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+                int p = owner[s];
+                int pos = s - offsets[p];
+                if (pos < patterns[p].length && patterns[p][pos] == '*') {
+                    set.set(s + 1);  // s より後ろのビットのため、このループで続けて処理される
+                }
+            }
+        }
+        
+        private BitSet step(BitSet set, int charClass) {
+            BitSet next = new BitSet();
+            for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+                int p = owner[s];
+                int pos = s - offsets[p];
+                if (pos >= patterns[p].length) {
+                    continue;
+                }
+                char c = patterns[p][pos];
+                if (c == '*') {
+                    next.set(s);
+                } else if (c == '?' || (charClass > 0 && c == alphabet[charClass - 1])) {
+                    next.set(s + 1);
+                }
+            }
+            closure(next);
+            return next;
+        }
+        
+        private boolean isAccepting(BitSet set) {
+            for (int p = 0; p < patterns.length; p++) {
+                if (set.get(offsets[p] + patterns[p].length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.drsum.connection;
+
+import jp.co.dw_sapporo.drsum_ea.DWException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 都度接続プロバイダー
+ * 
+ * acquire()のたびに新しい接続を確立し、release()で必ず切断します。
+ * 接続プール導入前の動作と同じ「接続→処理→切断」方式です。
+ */
+public class PerCallConnectionProvider implements ConnectionProvider {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PerCallConnectionProvider.class);
+    
+    private final Factory factory;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param factory 接続を確立するファクトリ
+     * @throws IllegalArgumentException factoryがnullの場合
+     */
+    public PerCallConnectionProvider(Factory factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("Connection factory cannot be null");
+        }
+        this.factory = factory;
+    }
+    
+    @Override
+    public DrSumConnection acquire() throws DWException {
+        return factory.create();
+    }
+    
+    @Override
+    public void release(DrSumConnection connection) {
+        disconnectQuietly(connection);
+    }
+    
+    @Override
+    public void invalidate(DrSumConnection connection) {
+        disconnectQuietly(connection);
+    }
+    
+    @Override
+    public void close() {
+        // 保持している接続はないため何もしない
+    }
+    
+    /**
+     * 接続を切断（切断エラーはログのみ）
+     */
+    private static void disconnectQuietly(DrSumConnection connection) {
+        if (connection == null || !connection.isConnected()) {
+            return;
+        }
+        try {
+            connection.disconnect();
+        } catch (DWException e) {
+            logger.error("Failed to disconnect: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.drsum.connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static com.example.drsum.connection.EnvSettings.parseInt;
+import static com.example.drsum.connection.EnvSettings.parseLong;
+
+/**
+ * 接続プール設定クラス
+ * 
+ * Dr.Sum接続の取得方式（プール/都度接続）とプールのサイズ・寿命を保持します。
+ * 
+ * 【責務】
+ * - 接続モードとプールパラメータの保持とバリデーション
+ * - 環境変数からの設定読み込み
+ */
+public class PoolConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PoolConfig.class);
+    
+    // 接続プール用の環境変数名
+    private static final String ENV_DRSUM_CONNECTION_MODE = "DRSUM_CONNECTION_MODE";
+    private static final String ENV_DRSUM_POOL_MIN_IDLE = "DRSUM_POOL_MIN_IDLE";
+    private static final String ENV_DRSUM_POOL_MAX_IDLE = "DRSUM_POOL_MAX_IDLE";
+    private static final String ENV_DRSUM_POOL_MAX_TOTAL = "DRSUM_POOL_MAX_TOTAL";
+    private static final String ENV_DRSUM_POOL_MAX_LIFETIME_MS = "DRSUM_POOL_MAX_LIFETIME_MS";
+    private static final String ENV_DRSUM_POOL_IDLE_TIMEOUT_MS = "DRSUM_POOL_IDLE_TIMEOUT_MS";
+    private static final String ENV_DRSUM_POOL_BORROW_TIMEOUT_MS = "DRSUM_POOL_BORROW_TIMEOUT_MS";
+    
+    // デフォルト値
+    private static final int DEFAULT_MIN_IDLE = 0;
+    private static final int DEFAULT_MAX_IDLE = 4;
+    private static final int DEFAULT_MAX_TOTAL = 8;
+    private static final long DEFAULT_MAX_LIFETIME_MS = 30 * 60 * 1000L;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 5 * 60 * 1000L;
+    private static final long DEFAULT_BORROW_TIMEOUT_MS = 30 * 1000L;
+    
+    /**
+     * 接続の取得方式
+     */
+    public enum Mode {
+        /** 接続をプールして再利用する */
+        POOLED,
+        /** ツール呼び出しごとに接続・切断する（従来の方式） */
+        PER_CALL;
+        
+        /**
+         * 設定値から接続モードを解決
+         * 
+         * @param value 設定値（"pooled" または "per_call"、大文字小文字は区別しない）
+         * @return 接続モード
+         * @throws IllegalArgumentException 不明な値の場合
+         */
+        public static Mode parse(String value) {
+            String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+            for (Mode mode : values()) {
+                if (mode.name().equals(normalized)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("Unknown connection mode: " + value);
+        }
+    }
+    
+    private final Mode mode;
+    private final int minIdle;
+    private final int maxIdle;
+    private final int maxTotal;
+    private final long maxLifetimeMs;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param mode 接続モード
+     * @param minIdle 常に保持するアイドル接続の最小数
+     * @param maxIdle 保持するアイドル接続の最大数
+     * @param maxTotal 同時に存在できる接続の最大数
+     * @param maxLifetimeMs 接続の最大寿命（ミリ秒、0以下で無制限）
+     * @param idleTimeoutMs アイドル接続を破棄するまでの時間（ミリ秒、0以下で無制限）
+     * @param borrowTimeoutMs 接続が空くまで待機する最大時間（ミリ秒）
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public PoolConfig(Mode mode, int minIdle, int maxIdle, int maxTotal,
+                      long maxLifetimeMs, long idleTimeoutMs, long borrowTimeoutMs) {
+        if (mode == null) {
+            throw new IllegalArgumentException("接続モードはnullにできません");
+        }
+        if (maxTotal <= 0) {
+            throw new IllegalArgumentException("最大接続数は1以上である必要があります");
+        }
+        if (minIdle < 0 || maxIdle < 0) {
+            throw new IllegalArgumentException("アイドル接続数は0以上である必要があります");
+        }
+        if (minIdle > maxIdle || maxIdle > maxTotal) {
+            throw new IllegalArgumentException("アイドル接続数は minIdle <= maxIdle <= maxTotal を満たす必要があります");
+        }
+        if (borrowTimeoutMs < 0) {
+            throw new IllegalArgumentException("接続待機時間は0以上である必要があります");
+        }
+        
+        this.mode = mode;
+        this.minIdle = minIdle;
+        this.maxIdle = maxIdle;
+        this.maxTotal = maxTotal;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+    }
+    
+    // ========================================================================
+    // Getter メソッド
+    // ========================================================================
+    
+    public Mode getMode() {
+        return mode;
+    }
+    
+    public int getMinIdle() {
+        return minIdle;
+    }
+    
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+    
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+    
+    public long getMaxLifetimeMs() {
+        return maxLifetimeMs;
+    }
+    
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+    
+    public long getBorrowTimeoutMs() {
+        return borrowTimeoutMs;
+    }
+    
+    // ========================================================================
+    // Object メソッドのオーバーライド
+    // ========================================================================
+    
+    @Override
+    public String toString() {
+        return String.format("PoolConfig{mode=%s, minIdle=%d, maxIdle=%d, maxTotal=%d, " +
+                           "maxLifetimeMs=%d, idleTimeoutMs=%d, borrowTimeoutMs=%d}",
+                           mode, minIdle, maxIdle, maxTotal, maxLifetimeMs, idleTimeoutMs, borrowTimeoutMs);
+    }
+    
+    // ========================================================================
+    // 静的ファクトリメソッド
+    // ========================================================================
+    
+    /**
+     * 環境変数からPoolConfigを作成
+     * 
+     * 以下の環境変数を読み込みます（全て省略可）：
+     * - DRSUM_CONNECTION_MODE: pooled（デフォルト）または per_call
+     * - DRSUM_POOL_MIN_IDLE: 最小アイドル接続数（デフォルト: 0）
+     * - DRSUM_POOL_MAX_IDLE: 最大アイドル接続数（デフォルト: 4）
+     * - DRSUM_POOL_MAX_TOTAL: 最大接続数（デフォルト: 8）
+     * - DRSUM_POOL_MAX_LIFETIME_MS: 接続の最大寿命（デフォルト: 30分）
+     * - DRSUM_POOL_IDLE_TIMEOUT_MS: アイドル接続の破棄時間（デフォルト: 5分）
+     * - DRSUM_POOL_BORROW_TIMEOUT_MS: 接続取得の待機時間（デフォルト: 30秒）
+     * 
+     * @return 環境変数から作成されたPoolConfig
+     * @throws IllegalStateException 環境変数の値が不正な場合
+     */
+    public static PoolConfig fromEnvironment() {
+        return fromMap(System.getenv());
+    }
+    
+    /**
+     * キーと値のマップからPoolConfigを作成
+     * 
+     * @param env 環境変数と同じキーを持つマップ
+     * @return 作成されたPoolConfig
+     * @throws IllegalStateException 値が不正な場合
+     */
+    public static PoolConfig fromMap(Map<String, String> env) {
+        Mode mode;
+        String modeStr = env.get(ENV_DRSUM_CONNECTION_MODE);
+        try {
+            mode = (modeStr == null || modeStr.trim().isEmpty()) ? Mode.POOLED : Mode.parse(modeStr);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                "環境変数 " + ENV_DRSUM_CONNECTION_MODE + " は pooled または per_call である必要があります。取得値: " + modeStr);
+        }
+        
+        int minIdle = parseInt(env, ENV_DRSUM_POOL_MIN_IDLE, DEFAULT_MIN_IDLE);
+        int maxIdle = parseInt(env, ENV_DRSUM_POOL_MAX_IDLE, DEFAULT_MAX_IDLE);
+        int maxTotal = parseInt(env, ENV_DRSUM_POOL_MAX_TOTAL, DEFAULT_MAX_TOTAL);
+        long maxLifetimeMs = parseLong(env, ENV_DRSUM_POOL_MAX_LIFETIME_MS, DEFAULT_MAX_LIFETIME_MS);
+        long idleTimeoutMs = parseLong(env, ENV_DRSUM_POOL_IDLE_TIMEOUT_MS, DEFAULT_IDLE_TIMEOUT_MS);
+        long borrowTimeoutMs = parseLong(env, ENV_DRSUM_POOL_BORROW_TIMEOUT_MS, DEFAULT_BORROW_TIMEOUT_MS);
+        
+        try {
+            PoolConfig config = new PoolConfig(mode, minIdle, maxIdle, maxTotal,
+                                               maxLifetimeMs, idleTimeoutMs, borrowTimeoutMs);
+            logger.info("接続プール設定を読み込みました: {}", config);
+            return config;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("接続プール設定が不正です: " + e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.example.drsum.connection;
 
+import com.example.drsum.format.ObjectMappers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -18,8 +25,11 @@ import java.util.Set;
  * 
  * 【責務】
  * - スコープ定義の保持と検索
- * - 環境変数からのJSON設定読み込み
+ * - 環境変数・ファイルからのJSON設定読み込み
  * - スコープに基づくテーブルフィルタリング
+ * 
+ * インスタンスは不変です。定義を変更する場合は新しいインスタンスを作成します
+ * （ファイルの変更を反映する場合は ScopeSource を使用）。
  */
 public class ScopeDefinitions {
     
@@ -28,15 +38,27 @@ public class ScopeDefinitions {
     // Dr.Sumスコープ定義用の環境変数名
     private static final String ENV_DRSUM_SCOPES = "DRSUM_SCOPES";
     
+    private static final TypeReference<Map<String, List<String>>> SCOPES_TYPE =
+        new TypeReference<Map<String, List<String>>>() {};
+    
     private final Map<String, List<String>> scopes;
+    private final Map<String, ScopeMatcher> matchers;
     
     /**
      * コンストラクタ
      * 
+     * 渡されたマップはコピーされるため、作成後に変更しても影響しません。
+     * 各スコープの照合用ハッシュ表もここで作成します。
+     * 
      * @param scopes スコープ名とテーブルリストのマップ（nullの場合は空のマップとして初期化）
      */
     public ScopeDefinitions(Map<String, List<String>> scopes) {
-        this.scopes = scopes != null ? scopes : new HashMap<>();
+        this.scopes = copyOf(scopes);
+        Map<String, ScopeMatcher> compiled = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : this.scopes.entrySet()) {
+            compiled.put(entry.getKey(), ScopeMatcher.of(entry.getValue()));
+        }
+        this.matchers = compiled;
     }
     
     // ========================================================================
@@ -53,6 +75,16 @@ public class ScopeDefinitions {
         return scopes.get(scopeName);
     }
     
+    /**
+     * 指定されたスコープ名のテーブル名照合を取得
+     * 
+     * @param scopeName スコープ名
+     * @return 大文字小文字を区別しない照合、スコープが見つからない場合はnull
+     */
+    public ScopeMatcher getMatcher(String scopeName) {
+        return matchers.get(scopeName);
+    }
+    
     /**
      * スコープが存在するかチェック
      * 
@@ -66,7 +98,7 @@ public class ScopeDefinitions {
     /**
      * 全てのスコープ名を取得
      * 
-     * @return スコープ名のセット
+     * @return スコープ名のセット（変更不可）
      */
     public Set<String> getScopeNames() {
         return scopes.keySet();
@@ -92,19 +124,42 @@ public class ScopeDefinitions {
         
         if (scopesJson == null || scopesJson.trim().isEmpty()) {
             logger.info("DRSUM_SCOPES environment variable not set - scope filtering disabled");
-            return new ScopeDefinitions(new HashMap<>());
+            return new ScopeDefinitions(null);
         }
         
         try {
-            Map<String, List<String>> scopes = parseJsonScopes(scopesJson);
-            logger.info("Loaded {} scope(s) from environment: {}", scopes.size(), scopes.keySet());
-            return new ScopeDefinitions(scopes);
+            ScopeDefinitions definitions = parse(scopesJson);
+            logger.info("Loaded {} scope(s) from environment: {}",
+                       definitions.scopes.size(), definitions.getScopeNames());
+            return definitions;
         } catch (Exception e) {
             logger.error("Failed to parse DRSUM_SCOPES: {}. Scope filtering disabled.", e.getMessage());
-            return new ScopeDefinitions(new HashMap<>());
+            return new ScopeDefinitions(null);
         }
     }
     
+    /**
+     * JSON文字列からスコープ定義を作成
+     * 
+     * @param json スコープ名をキー、テーブル配列を値とするJSONオブジェクト
+     * @return ScopeDefinitionsインスタンス
+     * @throws IOException JSONのパースに失敗した場合
+     */
+    public static ScopeDefinitions parse(String json) throws IOException {
+        return new ScopeDefinitions(parseJsonScopes(json));
+    }
+    
+    /**
+     * ファイルからスコープ定義を読み込み（UTF-8、形式は DRSUM_SCOPES と同じ）
+     * 
+     * @param file スコープ定義ファイル
+     * @return ScopeDefinitionsインスタンス
+     * @throws IOException ファイルの読み込みまたはJSONのパースに失敗した場合
+     */
+    public static ScopeDefinitions fromFile(Path file) throws IOException {
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+    
     // ========================================================================
     // プライベートヘルパーメソッド
     // ========================================================================
@@ -116,12 +171,31 @@ public class ScopeDefinitions {
      * 
      * @param json パースするJSON文字列
      * @return スコープ名とテーブルリストのマップ
-     * @throws Exception JSONパースに失敗した場合
+     * @throws IOException JSONパースに失敗した場合
      */
-    private static Map<String, List<String>> parseJsonScopes(String json) throws Exception {
-        ObjectMapper mapper = new ObjectMapper();
-        TypeReference<Map<String, List<String>>> typeRef = 
-            new TypeReference<Map<String, List<String>>>() {};
-        return mapper.readValue(json, typeRef);
+    private static Map<String, List<String>> parseJsonScopes(String json) throws IOException {
+        return ObjectMappers.shared().readValue(json, SCOPES_TYPE);
+    }
+    
+    /**
+     * 変更不可のコピーを作成（nullのテーブルリスト・テーブル名は除外）
+     */
+    private static Map<String, List<String>> copyOf(Map<String, List<String>> scopes) {
+        if (scopes == null || scopes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : scopes.entrySet()) {
+            List<String> tables = new ArrayList<>();
+            if (entry.getValue() != null) {
+                for (String table : entry.getValue()) {
+                    if (table != null) {
+                        tables.add(table);
+                    }
+                }
+            }
+            copy.put(entry.getKey(), Collections.unmodifiableList(tables));
+        }
+        return Collections.unmodifiableMap(copy);
     }
 }
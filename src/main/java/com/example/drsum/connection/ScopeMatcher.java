@@ -0,0 +1,213 @@
+package com.example.drsum.connection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * スコープのテーブル名照合
+ * 
+ * スコープの各エントリは次の3種類として扱います。
+ * - "re:" で始まるエントリ: 正規表現（例: "re:sales_20(19|2[0-5])"）
+ * - "*" または "?" を含むエントリ: globパターン（例: "sales_*"）
+ * - それ以外: テーブル名の完全一致
+ * 
+ * テーブル名は大文字小文字を区別しないハッシュ表に、globパターンは全て1つのDFA（GlobAutomaton）に、
+ * 正規表現は全て1つの Pattern に作成時にまとめます。
+ * テーブル名とglobの照合はエントリ数に関係なく一定の手間で済み、オブジェクトの生成も行いません。
+ * 
+ * 大文字小文字の同一視は String.equalsIgnoreCase() と同じ規則です。
+ * インスタンスは不変で、複数スレッドから同時に使用できます。
+ */
+public final class ScopeMatcher {
+    
+    /**
+     * 正規表現エントリの接頭辞
+     */
+    public static final String REGEX_PREFIX = "re:";
+    
+    private static final ScopeMatcher EMPTY = new ScopeMatcher(new String[1], 0, null, null, 0);
+    
+    // オープンアドレス法のハッシュ表（要素数の2倍以上の2のべき乗サイズ、空きはnull）
+    private final String[] slots;
+    private final int size;
+    
+    // パターンがない場合はnull
+    private final GlobAutomaton globs;
+    private final Pattern regex;
+    private final int patternCount;
+    
+    private ScopeMatcher(String[] slots, int size, GlobAutomaton globs, Pattern regex, int patternCount) {
+        this.slots = slots;
+        this.size = size;
+        this.globs = globs;
+        this.regex = regex;
+        this.patternCount = patternCount;
+    }
+    
+    /**
+     * スコープのエントリから作成
+     * 
+     * @param entries テーブル名・globパターン・正規表現（nullの要素は無視）
+     * @return 照合用のインスタンス
+     * @throws java.util.regex.PatternSyntaxException 正規表現が不正な場合
+     */
+    public static ScopeMatcher of(Collection<String> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return EMPTY;
+        }
+        
+        // エントリを種類ごとに分類
+        List<String> names = new ArrayList<>();
+        List<String> globPatterns = new ArrayList<>();
+        List<String> regexPatterns = new ArrayList<>();
+        for (String entry : entries) {
+            if (entry == null) {
+                continue;
+            }
+            if (entry.startsWith(REGEX_PREFIX)) {
+                regexPatterns.add(entry.substring(REGEX_PREFIX.length()));
+            } else if (entry.indexOf('*') >= 0 || entry.indexOf('?') >= 0) {
+                globPatterns.add(entry);
+            } else {
+                names.add(entry);
+            }
+        }
+        
+        // テーブル名をハッシュ表に登録
+        int capacity = names.isEmpty() ? 1 : Integer.highestOneBit(names.size() * 2 - 1) << 1;
+        String[] slots = new String[capacity];
+        int size = 0;
+        for (String name : names) {
+            if (insert(slots, name)) {
+                size++;
+            }
+        }
+        
+        // globパターンをDFAに変換（状態数が多すぎる場合は正規表現として扱う）
+        GlobAutomaton globs = null;
+        if (!globPatterns.isEmpty()) {
+            globs = GlobAutomaton.compile(globPatterns);
+            if (globs == null) {
+                for (String glob : globPatterns) {
+                    regexPatterns.add(globToRegex(glob));
+                }
+            }
+        }
+        
+        // 正規表現を1つのパターンに結合
+        Pattern regex = null;
+        if (!regexPatterns.isEmpty()) {
+            StringBuilder combined = new StringBuilder();
+            for (String pattern : regexPatterns) {
+                if (combined.length() > 0) {
+                    combined.append('|');
+                }
+                combined.append("(?:").append(pattern).append(')');
+            }
+            regex = Pattern.compile(combined.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        }
+        
+        return new ScopeMatcher(slots, size, globs, regex, globPatterns.size() + regexPatterns.size());
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * テーブル名がスコープに含まれるかどうか（大文字小文字を区別しない）
+     * 
+     * @param tableName テーブル名
+     * @return 含まれる場合true
+     */
+    public boolean matches(String tableName) {
+        if (tableName == null) {
+            return false;
+        }
+        return containsName(tableName)
+            || (globs != null && globs.matches(tableName))
+            || (regex != null && regex.matcher(tableName).matches());
+    }
+    
+    /**
+     * 登録されているエントリの数（大文字小文字違いで重複するテーブル名は1件）
+     */
+    public int size() {
+        return size + patternCount;
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * テーブル名の完全一致（大文字小文字を区別しない）
+     */
+    private boolean containsName(String tableName) {
+        if (size == 0) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        for (int i = foldedHash(tableName) & mask; ; i = (i + 1) & mask) {
+            String slot = slots[i];
+            if (slot == null) {
+                return false;
+            }
+            if (slot.equalsIgnoreCase(tableName)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * ハッシュ表に追加（大文字小文字違いを含めて登録済みの場合は追加しない）
+     */
+    private static boolean insert(String[] slots, String name) {
+        int mask = slots.length - 1;
+        for (int i = foldedHash(name) & mask; ; i = (i + 1) & mask) {
+            String slot = slots[i];
+            if (slot == null) {
+                slots[i] = name;
+                return true;
+            }
+            if (slot.equalsIgnoreCase(name)) {
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * 大文字小文字を同一視したハッシュ値（equalsIgnoreCaseで等しい文字列は同じ値）
+     */
+    static int foldedHash(String value) {
+        int h = 0;
+        for (int i = 0; i < value.length(); i++) {
+            h = 31 * h + GlobAutomaton.fold(value.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * globパターンを同じ意味の正規表現に変換
+     */
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return regex.toString();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.drsum.connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * スコープ定義の読み込み元
+ * 
+ * 起動時に一度だけスコープ定義を読み込み、ツール呼び出しごとに同じインスタンスを返します。
+ * DRSUM_SCOPES_FILE を指定した場合はファイルから読み込み、WatchServiceでファイルの変更を監視して
+ * サーバーを再起動せずに定義を再読み込みします。
+ * 
+ * 【責務】
+ * - 現在のスコープ定義（不変のScopeDefinitions）の保持
+ * - スコープ定義ファイルの監視と再読み込み
+ * 
+ * 再読み込みに失敗した場合（編集途中の不正なJSONなど）は、直前に読み込めた定義を使い続けます。
+ */
+public class ScopeSource implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ScopeSource.class);
+    
+    // スコープ定義ファイルの環境変数名
+    private static final String ENV_DRSUM_SCOPES_FILE = "DRSUM_SCOPES_FILE";
+    
+    private final Path file;
+    private final WatchService watchService;
+    private volatile ScopeDefinitions current;
+    
+    private ScopeSource(ScopeDefinitions definitions, Path file, WatchService watchService) {
+        this.current = definitions;
+        this.file = file;
+        this.watchService = watchService;
+    }
+    
+    // ========================================================================
+    // 静的ファクトリメソッド
+    // ========================================================================
+    
+    /**
+     * 固定のスコープ定義を返す読み込み元を作成
+     * 
+     * @param definitions スコープ定義
+     * @return ScopeSourceインスタンス
+     */
+    public static ScopeSource of(ScopeDefinitions definitions) {
+        return new ScopeSource(definitions != null ? definitions : new ScopeDefinitions(null), null, null);
+    }
+    
+    /**
+     * ファイルからスコープ定義を読み込み、変更の監視を開始
+     * 
+     * 起動時にファイルが存在しないか読み込めない場合は空の定義で開始し、
+     * ファイルが作成・修正された時点で読み込みます。
+     * 
+     * @param file スコープ定義ファイル（親ディレクトリが存在すること）
+     * @return ScopeSourceインスタンス
+     * @throws IOException ディレクトリの監視を開始できない場合
+     */
+    public static ScopeSource fromFile(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path directory = absolute.getParent();
+        WatchService watchService = absolute.getFileSystem().newWatchService();
+        try {
+            directory.register(watchService,
+                               StandardWatchEventKinds.ENTRY_CREATE,
+                               StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+        
+        ScopeSource source = new ScopeSource(new ScopeDefinitions(null), absolute, watchService);
+        source.reload();
+        
+        Thread watcher = new Thread(source::watch, "drsum-scope-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.info("Watching scope definition file: {}", absolute);
+        return source;
+    }
+    
+    /**
+     * 環境変数からスコープ定義の読み込み元を作成
+     * 
+     * DRSUM_SCOPES_FILE が設定されている場合はファイルを監視し、
+     * 設定されていない場合は DRSUM_SCOPES の内容を固定で使用します。
+     * ファイルを監視できない場合は DRSUM_SCOPES にフォールバックします（例外は投げない）。
+     * 
+     * @return ScopeSourceインスタンス
+     */
+    public static ScopeSource fromEnvironment() {
+        String scopesFile = System.getenv(ENV_DRSUM_SCOPES_FILE);
+        if (scopesFile != null && !scopesFile.trim().isEmpty()) {
+            try {
+                return fromFile(Paths.get(scopesFile.trim()));
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to watch DRSUM_SCOPES_FILE {}: {}. Falling back to DRSUM_SCOPES.",
+                            scopesFile, e.getMessage());
+            }
+        }
+        return of(ScopeDefinitions.fromEnvironment());
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 現在のスコープ定義を取得
+     * 
+     * @return スコープ定義（不変）
+     */
+    public ScopeDefinitions get() {
+        return current;
+    }
+    
+    /**
+     * スコープ定義ファイルを再読み込み
+     * 
+     * ファイルの変更を検知した際に自動で呼び出されます。
+     * 固定の定義の場合は何もしません。
+     * 
+     * @return 読み込みに成功した場合true
+     */
+    public boolean reload() {
+        if (file == null) {
+            return false;
+        }
+        try {
+            ScopeDefinitions definitions = ScopeDefinitions.fromFile(file);
+            current = definitions;
+            logger.info("Loaded {} scope(s) from {}: {}",
+                       definitions.getScopeNames().size(), file, definitions.getScopeNames());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to load scope definition file {}: {}. Keeping previous scopes.",
+                        file, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * ファイルの監視を停止
+     */
+    @Override
+    public void close() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close scope file watcher: {}", e.getMessage());
+        }
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * 監視スレッドの処理（close()されるまでイベントを待ち、対象ファイルの変更で再読み込み）
+     */
+    private void watch() {
+        Path fileName = file.getFileName();
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                    changed = true;
+                }
+            }
+            if (changed) {
+                reload();
+            }
+            if (!key.reset()) {
+                logger.warn("Scope definition directory is no longer accessible: {}", file.getParent());
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.drsum.format;
+
+/**
+ * JSON文字列のエスケープ
+ * 
+ * 値を1回だけ走査し、出力先のStringBuilderへ直接書き込みます。
+ * エスケープが必要な文字を含まない値は走査のみで、そのまま追加します。
+ * 
+ * 【責務】
+ * - JSON文字列リテラルとして安全な形への変換（RFC 8259）
+ * - 制御文字（0x00〜0x1F）の \\uXXXX 形式へのエスケープ
+ */
+public final class JsonEscaper {
+    
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    /**
+     * ASCII文字ごとのエスケープ表（0の場合はエスケープ不要、'u'の場合は \\u00XX 形式）
+     */
+    private static final char[] ESCAPES = new char[128];
+    
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = 'u';
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+    }
+    
+    private JsonEscaper() {
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 値をエスケープして追加（前後の引用符は付けない）
+     * 
+     * @param out 出力先
+     * @param value エスケープする文字列（nullの場合は何も追加しない）
+     * @return out
+     */
+    public static StringBuilder appendEscaped(StringBuilder out, String value) {
+        if (value == null) {
+            return out;
+        }
+        
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 128 || ESCAPES[c] == 0) {
+                continue;
+            }
+            
+            // エスケープ不要な区間をまとめて追加
+            if (i > start) {
+                out.append(value, start, i);
+            }
+            appendEscapedChar(out, c);
+            start = i + 1;
+        }
+        
+        if (start == 0) {
+            return out.append(value);
+        }
+        if (start < length) {
+            out.append(value, start, length);
+        }
+        return out;
+    }
+    
+    /**
+     * 値を引用符で囲んだJSON文字列として追加
+     * 
+     * @param out 出力先
+     * @param value エスケープする文字列（nullの場合は空文字列 "" として追加）
+     * @return out
+     */
+    public static StringBuilder appendQuoted(StringBuilder out, String value) {
+        out.append('"');
+        appendEscaped(out, value);
+        return out.append('"');
+    }
+    
+    /**
+     * 値をエスケープした文字列を取得
+     * 
+     * @param value エスケープする文字列
+     * @return エスケープされた文字列（エスケープ不要な場合は value そのもの、nullの場合は空文字列）
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        int first = indexOfSpecial(value);
+        if (first < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length() + 16);
+        out.append(value, 0, first);
+        return appendEscaped(out, value.substring(first)).toString();
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * エスケープが必要な最初の文字の位置を取得
+     * 
+     * @return 位置、エスケープ不要な場合は-1
+     */
+    private static int indexOfSpecial(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 128 && ESCAPES[c] != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 1文字をエスケープして追加
+     */
+    private static void appendEscapedChar(StringBuilder out, char c) {
+        char escape = ESCAPES[c];
+        out.append('\\');
+        if (escape == 'u') {
+            out.append("u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+        } else {
+            out.append(escape);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.drsum.format;
+
+/**
+ * JSON数値の判定
+ * 
+ * Dr.Sumから文字列で返される数値型の値を、そのままJSONの数値リテラルとして
+ * 出力できるかどうかを判定します。数値への変換やオブジェクトの生成は行わず、
+ * 文字列を1回走査するだけで判定します。
+ * 
+ * JSONの数値文法（RFC 8259）に従い、先頭の "+"、先頭の余分な "0"、
+ * "NaN"、"Infinity"、前後の空白などを含む値は数値として扱いません。
+ */
+public final class JsonNumbers {
+    
+    private JsonNumbers() {
+    }
+    
+    /**
+     * 文字列がJSONの数値リテラルとして有効かどうか
+     * 
+     * @param value 判定する文字列
+     * @return 有効な数値リテラルの場合true（nullまたは空の場合false）
+     */
+    public static boolean isJsonNumber(CharSequence value) {
+        if (value == null) {
+            return false;
+        }
+        int length = value.length();
+        int i = 0;
+        
+        // 符号
+        if (i < length && value.charAt(i) == '-') {
+            i++;
+        }
+        
+        // 整数部（0 または 1-9 で始まる数字列）
+        if (i >= length) {
+            return false;
+        }
+        char c = value.charAt(i);
+        if (c == '0') {
+            i++;
+        } else if (c >= '1' && c <= '9') {
+            i = skipDigits(value, i + 1);
+        } else {
+            return false;
+        }
+        
+        // 小数部
+        if (i < length && value.charAt(i) == '.') {
+            int start = i + 1;
+            i = skipDigits(value, start);
+            if (i == start) {
+                return false;
+            }
+        }
+        
+        // 指数部
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                i++;
+            }
+            int start = i;
+            i = skipDigits(value, start);
+            if (i == start) {
+                return false;
+            }
+        }
+        
+        return i == length;
+    }
+    
+    private static int skipDigits(CharSequence value, int from) {
+        int i = from;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+}
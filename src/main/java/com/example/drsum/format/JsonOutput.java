@@ -0,0 +1,257 @@
+package com.example.drsum.format;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.PrettyPrinter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * ストリーミングJSON出力
+ * 
+ * JacksonのJsonGeneratorで値を逐次書き込み、スレッドごとに再利用する文字バッファに蓄積します。
+ * 結果全体をStringBuilderで組み立てる方式と異なり、バッファの再確保（倍々の拡張とコピー）は
+ * スレッドで初めて大きな結果を出力したときだけ発生し、以降は同じ配列を使い回します。
+ * 
+ * 【責務】
+ * - JsonGeneratorの作成（整形あり・なし）
+ * - 出力先バッファの貸し出しと返却
+ * 
+ * 使用例:
+ * <pre>
+ * try (JsonOutput out = JsonOutput.pretty()) {
+ *     JsonGenerator g = out.generator();
+ *     g.writeStartObject();
+ *     ...
+ *     g.writeEndObject();
+ *     return out.toJson();
+ * }
+ * </pre>
+ */
+public final class JsonOutput implements AutoCloseable {
+    
+    /**
+     * JsonGeneratorを作成するファクトリ（共有ObjectMapperのもの、スレッドセーフ）
+     */
+    private static final JsonFactory FACTORY = ObjectMappers.shared().getFactory();
+    
+    /**
+     * バッファの初期サイズ（文字数）
+     */
+    static final int INITIAL_CAPACITY = 64 * 1024;
+    
+    /**
+     * 返却時に保持し続けるバッファの最大サイズ（文字数）
+     * これより大きくなったバッファは破棄し、1回の巨大な結果でメモリを占有し続けないようにします。
+     */
+    static final int MAX_RETAINED_CAPACITY = 4 * 1024 * 1024;
+    
+    /**
+     * 整形時に改行・インデントする深さ（トップレベルが1）
+     * トップレベルのオブジェクトとその直下の配列（columns, rows など）は1要素1行、
+     * それより深い値（1行分の配列、1カラムのオブジェクト）は1行にまとめます。
+     */
+    static final int DEFAULT_MULTILINE_DEPTH = 2;
+    
+    private static final ThreadLocal<CharBufferWriter> BUFFERS =
+            ThreadLocal.withInitial(() -> new CharBufferWriter(INITIAL_CAPACITY));
+    
+    private final CharBufferWriter buffer;
+    private final boolean pooled;
+    private final JsonGenerator generator;
+    private boolean released;
+    
+    private JsonOutput(PrettyPrinter prettyPrinter) {
+        CharBufferWriter threadBuffer = BUFFERS.get();
+        if (threadBuffer.inUse) {
+            // 同じスレッドで入れ子に使われた場合は一時バッファを使う
+            this.buffer = new CharBufferWriter(INITIAL_CAPACITY);
+            this.pooled = false;
+        } else {
+            this.buffer = threadBuffer;
+            this.pooled = true;
+        }
+        this.buffer.inUse = true;
+        
+        try {
+            this.generator = FACTORY.createGenerator(buffer);
+        } catch (IOException e) {
+            release();
+            throw new UncheckedIOException(e);
+        }
+        if (prettyPrinter != null) {
+            generator.setPrettyPrinter(prettyPrinter);
+        }
+    }
+    
+    /**
+     * 整形あり（改行・インデント付き）の出力を開始
+     * 
+     * トップレベルとその直下のオブジェクト・配列のみ改行します。
+     */
+    public static JsonOutput pretty() {
+        return pretty(DEFAULT_MULTILINE_DEPTH);
+    }
+    
+    /**
+     * 整形ありの出力を開始（オブジェクトを改行する深さを指定）
+     * 
+     * 配列はトップレベルの直下まで改行し、オブジェクトは指定した深さまで改行します。
+     * 1要素ごとに項目の多いオブジェクトを出力する場合（カラム定義など）に使用します。
+     * 
+     * @param objectDepth オブジェクトを改行する最大の深さ（トップレベルが1）
+     */
+    public static JsonOutput pretty(int objectDepth) {
+        return new JsonOutput(new LayoutPrettyPrinter(DEFAULT_MULTILINE_DEPTH, objectDepth));
+    }
+    
+    /**
+     * 整形なし（空白なし）の出力を開始
+     */
+    public static JsonOutput compact() {
+        return new JsonOutput(null);
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 書き込み先のJsonGeneratorを取得
+     */
+    public JsonGenerator generator() {
+        return generator;
+    }
+    
+    /**
+     * これまでに書き込んだJSONのUTF-8でのバイト数
+     * 
+     * JsonGeneratorの内部バッファを出力先に移してから数えます。
+     * 前回の呼び出し以降に書き込まれた部分だけを走査するため、行ごとに呼び出しても全体の走査は1回分です。
+     * 
+     * @return バイト数
+     * @throws IOException 書き込み中のエラー
+     */
+    public long byteLength() throws IOException {
+        generator.flush();
+        return buffer.byteLength();
+    }
+    
+    /**
+     * 書き込んだJSONを文字列として取得し、バッファを返却
+     * 
+     * @return JSON文字列
+     * @throws IOException 書き込み中のエラー
+     */
+    public String toJson() throws IOException {
+        generator.flush();
+        String json = buffer.toString();
+        release();
+        return json;
+    }
+    
+    /**
+     * バッファを返却（toJson()済みの場合は何もしない）
+     */
+    @Override
+    public void close() {
+        release();
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    private void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        buffer.reset();
+        buffer.inUse = false;
+        if (pooled && buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFERS.remove();
+        }
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * 再利用可能な文字バッファ（同期なし）
+     */
+    static final class CharBufferWriter extends Writer {
+        private char[] chars;
+        private int length;
+        private int countedLength;
+        private long countedBytes;
+        boolean inUse;
+        
+        CharBufferWriter(int capacity) {
+            this.chars = new char[capacity];
+        }
+        
+        @Override
+        public void write(int c) {
+            ensureCapacity(length + 1);
+            chars[length++] = (char) c;
+        }
+        
+        @Override
+        public void write(char[] src, int off, int len) {
+            ensureCapacity(length + len);
+            System.arraycopy(src, off, chars, length, len);
+            length += len;
+        }
+        
+        @Override
+        public void write(String str, int off, int len) {
+            ensureCapacity(length + len);
+            str.getChars(off, off + len, chars, length);
+            length += len;
+        }
+        
+        @Override
+        public void flush() {
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        int capacity() {
+            return chars.length;
+        }
+        
+        void reset() {
+            length = 0;
+            countedLength = 0;
+            countedBytes = 0;
+        }
+        
+        /**
+         * 書き込んだ文字列のUTF-8でのバイト数（前回以降の追加分のみ走査）
+         */
+        long byteLength() {
+            countedBytes += Utf8.encodedLength(chars, countedLength, length);
+            countedLength = length;
+            return countedBytes;
+        }
+        
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+        
+        private void ensureCapacity(int required) {
+            if (required > chars.length) {
+                int newCapacity = Math.max(required, chars.length * 2);
+                chars = Arrays.copyOf(chars, newCapacity);
+            }
+        }
+    }
+}
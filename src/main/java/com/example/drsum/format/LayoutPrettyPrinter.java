@@ -0,0 +1,154 @@
+package com.example.drsum.format;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.PrettyPrinter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 浅い階層だけを改行するPrettyPrinter
+ * 
+ * 指定した深さ以下のオブジェクト・配列は1要素1行でインデントし、
+ * それより深い値は ", " 区切りで1行にまとめます。
+ * 結果行を1行1レコードで出力し、行数が多くても読みやすさと出力サイズを両立させます。
+ * 深さはトップレベルの値を1として数えます。
+ * 
+ * 出力例（配列・オブジェクトとも深さ2まで改行）:
+ * <pre>
+ * {
+ *   "columns": [
+ *     {"name": "年", "type": 2}
+ *   ],
+ *   "rows": [
+ *     ["2006", "150000.00"]
+ *   ]
+ * }
+ * </pre>
+ */
+final class LayoutPrettyPrinter implements PrettyPrinter {
+    
+    private static final String INDENT = "  ";
+    
+    private final int arrayDepth;
+    private final int objectDepth;
+    
+    // 開いているオブジェクト・配列ごとに、改行するかどうか
+    private boolean[] multiline = new boolean[8];
+    private int nesting;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param arrayDepth 配列を改行する最大の深さ
+     * @param objectDepth オブジェクトを改行する最大の深さ
+     */
+    LayoutPrettyPrinter(int arrayDepth, int objectDepth) {
+        this.arrayDepth = arrayDepth;
+        this.objectDepth = objectDepth;
+    }
+    
+    @Override
+    public void writeRootValueSeparator(JsonGenerator g) throws IOException {
+        g.writeRaw('\n');
+    }
+    
+    @Override
+    public void writeStartObject(JsonGenerator g) throws IOException {
+        g.writeRaw('{');
+        push(nesting + 1 <= objectDepth);
+    }
+    
+    @Override
+    public void beforeObjectEntries(JsonGenerator g) throws IOException {
+        writeLineBreak(g);
+    }
+    
+    @Override
+    public void writeObjectFieldValueSeparator(JsonGenerator g) throws IOException {
+        g.writeRaw(": ");
+    }
+    
+    @Override
+    public void writeObjectEntrySeparator(JsonGenerator g) throws IOException {
+        g.writeRaw(',');
+        writeSeparatorSpace(g);
+    }
+    
+    @Override
+    public void writeEndObject(JsonGenerator g, int nrOfEntries) throws IOException {
+        writeClosingBreak(g, nrOfEntries);
+        g.writeRaw('}');
+    }
+    
+    @Override
+    public void writeStartArray(JsonGenerator g) throws IOException {
+        g.writeRaw('[');
+        push(nesting + 1 <= arrayDepth);
+    }
+    
+    @Override
+    public void beforeArrayValues(JsonGenerator g) throws IOException {
+        writeLineBreak(g);
+    }
+    
+    @Override
+    public void writeArrayValueSeparator(JsonGenerator g) throws IOException {
+        g.writeRaw(',');
+        writeSeparatorSpace(g);
+    }
+    
+    @Override
+    public void writeEndArray(JsonGenerator g, int nrOfValues) throws IOException {
+        writeClosingBreak(g, nrOfValues);
+        g.writeRaw(']');
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    private void push(boolean lineBreaks) {
+        if (nesting == multiline.length) {
+            multiline = Arrays.copyOf(multiline, nesting * 2);
+        }
+        multiline[nesting++] = lineBreaks;
+    }
+    
+    /**
+     * 最初の要素の前の改行
+     */
+    private void writeLineBreak(JsonGenerator g) throws IOException {
+        if (multiline[nesting - 1]) {
+            writeNewLine(g, nesting);
+        }
+    }
+    
+    /**
+     * 要素の区切りの後の空白（改行またはスペース）
+     */
+    private void writeSeparatorSpace(JsonGenerator g) throws IOException {
+        if (multiline[nesting - 1]) {
+            writeNewLine(g, nesting);
+        } else {
+            g.writeRaw(' ');
+        }
+    }
+    
+    /**
+     * 閉じ括弧の前の改行（要素がある場合のみ）
+     */
+    private void writeClosingBreak(JsonGenerator g, int entries) throws IOException {
+        nesting--;
+        if (entries > 0 && multiline[nesting]) {
+            writeNewLine(g, nesting);
+        }
+    }
+    
+    private static void writeNewLine(JsonGenerator g, int level) throws IOException {
+        g.writeRaw('\n');
+        for (int i = 0; i < level; i++) {
+            g.writeRaw(INDENT);
+        }
+    }
+}
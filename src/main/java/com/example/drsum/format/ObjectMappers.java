@@ -0,0 +1,25 @@
+package com.example.drsum.format;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 共有ObjectMapper
+ * 
+ * ObjectMapperは作成コストが高く、設定後はスレッドセーフに使えるため、
+ * プロセス全体で1つのインスタンスを共有します。
+ * 共有インスタンスの設定は変更しないでください。
+ */
+public final class ObjectMappers {
+    
+    private static final ObjectMapper SHARED = new ObjectMapper();
+    
+    private ObjectMappers() {
+    }
+    
+    /**
+     * 共有ObjectMapperを取得
+     */
+    public static ObjectMapper shared() {
+        return SHARED;
+    }
+}
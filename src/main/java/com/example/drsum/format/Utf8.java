@@ -0,0 +1,62 @@
+package com.example.drsum.format;
+
+/**
+ * UTF-8でのバイト数の計算
+ * 
+ * 応答サイズの上限（max_response_bytes）の判定のため、文字列を実際にエンコードせずに
+ * UTF-8でのバイト数を求めます。サロゲートペアは1文字あたり2バイト（ペアで4バイト）として数えます。
+ */
+public final class Utf8 {
+    
+    private Utf8() {
+    }
+    
+    /**
+     * 文字列全体のUTF-8でのバイト数
+     * 
+     * @param value 文字列（nullの場合は0）
+     * @return バイト数
+     */
+    public static long encodedLength(CharSequence value) {
+        return value == null ? 0 : encodedLength(value, 0, value.length());
+    }
+    
+    /**
+     * 文字列の指定範囲のUTF-8でのバイト数
+     * 
+     * @param value 文字列
+     * @param from 開始位置（含む）
+     * @param to 終了位置（含まない）
+     * @return バイト数
+     */
+    public static long encodedLength(CharSequence value, int from, int to) {
+        long bytes = to - from;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // 2バイト文字は+1、サロゲートは+1（ペアで4バイト）、それ以外の3バイト文字は+2
+                bytes += (c < 0x800 || Character.isSurrogate(c)) ? 1 : 2;
+            }
+        }
+        return bytes;
+    }
+    
+    /**
+     * 文字配列の指定範囲のUTF-8でのバイト数
+     * 
+     * @param chars 文字配列
+     * @param from 開始位置（含む）
+     * @param to 終了位置（含まない）
+     * @return バイト数
+     */
+    public static long encodedLength(char[] chars, int from, int to) {
+        long bytes = to - from;
+        for (int i = from; i < to; i++) {
+            char c = chars[i];
+            if (c >= 0x80) {
+                bytes += (c < 0x800 || Character.isSurrogate(c)) ? 1 : 2;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.drsum.metrics;
+
+/**
+ * 1回のツール呼び出しの計測
+ * 
+ * ツールのハンドラを実行するスレッドに start() で結び付け、サービスは current() で取得して
+ * 段階ごとの時間と行数を加えます。呼び出しの終了時に finish() でツールの統計（ToolStats）に反映します。
+ * 計測中でないスレッドの current() は何も記録しないインスタンスを返すため、呼び出し側でnullを確認する必要はありません。
+ * 
+ * 使用例:
+ * <pre>
+ * long start = System.nanoTime();
+ * Vector&lt;Vector&lt;String&gt;&gt; chunk = cursor.fetchmany(fetchSize);
+ * CallMetrics.current().addSince(Phase.FETCH, start);
+ * </pre>
+ * 
+ * 1つの呼び出しは1つのスレッドで計測します（スレッドセーフではありません）。
+ * 他のスレッドに分けた処理（ビュー判定の並列実行など）は、待ち合わせた呼び出し元の段階の時間に含まれます。
+ */
+public final class CallMetrics {
+    
+    private static final ThreadLocal<CallMetrics> CURRENT = new ThreadLocal<>();
+    
+    private static final CallMetrics NONE = new CallMetrics(null);
+    
+    private final ToolStats stats;
+    private final long startNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final boolean[] phaseSeen = new boolean[Phase.values().length];
+    private long rows;
+    private long responseBytes;
+    
+    private CallMetrics(ToolStats stats) {
+        this.stats = stats;
+    }
+    
+    /**
+     * 呼び出しの計測を開始し、このスレッドに結び付ける
+     * 
+     * @param stats 記録先のツールの統計（nullの場合は記録しない）
+     * @return 計測
+     */
+    public static CallMetrics start(ToolStats stats) {
+        CallMetrics metrics = stats == null ? NONE : new CallMetrics(stats);
+        CURRENT.set(metrics);
+        return metrics;
+    }
+    
+    /**
+     * このスレッドで計測中の呼び出し（計測中でない場合は何も記録しないインスタンス）
+     */
+    public static CallMetrics current() {
+        CallMetrics metrics = CURRENT.get();
+        return metrics == null ? NONE : metrics;
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 段階の時間を加える（同じ段階を複数回加えた場合は合計）
+     * 
+     * @param phase 段階
+     * @param startNanos 段階の開始時刻（System.nanoTime()）
+     */
+    public void addSince(Phase phase, long startNanos) {
+        if (stats == null) {
+            return;
+        }
+        phaseNanos[phase.ordinal()] += System.nanoTime() - startNanos;
+        phaseSeen[phase.ordinal()] = true;
+    }
+    
+    /**
+     * Dr.Sumから取得した行数を加える
+     */
+    public void addRows(long count) {
+        rows += count;
+    }
+    
+    /**
+     * 応答のバイト数を設定
+     */
+    public void setResponseBytes(long bytes) {
+        responseBytes = bytes;
+    }
+    
+    /**
+     * 計測を終了してツールの統計に反映し、スレッドとの結び付けを解除
+     * 
+     * @param error エラー結果を返した場合true
+     */
+    public void finish(boolean error) {
+        CURRENT.remove();
+        if (stats == null) {
+            return;
+        }
+        addSince(Phase.TOTAL, startNanos);
+        stats.record(phaseNanos, phaseSeen, rows, responseBytes, error);
+    }
+}
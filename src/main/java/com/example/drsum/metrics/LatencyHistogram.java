@@ -0,0 +1,192 @@
+package com.example.drsum.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ロックなしのレイテンシヒストグラム
+ * 
+ * HdrHistogramと同じ対数・線形の区分（2の累乗ごとに32区間）でマイクロ秒単位の値を数えます。
+ * 64マイクロ秒未満は1マイクロ秒単位、それ以上は値の約3%以内の精度で、約19時間までの値を記録できます
+ * （それ以上は最大の区間に数えます）。
+ * 
+ * 記録（recordNanos()）は区間のカウンタを原子的に加算するだけで、ロックや配列の確保を行いません。
+ * 集計（snapshot()）は記録と並行して実行でき、その時点のカウンタの写しから百分位数を求めます。
+ */
+public final class LatencyHistogram {
+    
+    /**
+     * 2の累乗ごとの区間数の対数（区間数は 2^SUB_BUCKET_BITS）
+     */
+    static final int SUB_BUCKET_BITS = 5;
+    
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    
+    /**
+     * 記録できる最大値の指数（2^MAX_EXPONENT マイクロ秒未満）
+     */
+    private static final int MAX_EXPONENT = 36;
+    
+    /**
+     * 記録できる最大値（マイクロ秒）
+     */
+    static final long MAX_VALUE_MICROS = (1L << MAX_EXPONENT) - 1;
+    
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 経過時間を記録
+     * 
+     * @param nanos 経過時間（ナノ秒、負の値は0として扱う）
+     */
+    public void recordNanos(long nanos) {
+        recordMicros(TimeUnit.NANOSECONDS.toMicros(Math.max(0, nanos)));
+    }
+    
+    /**
+     * 経過時間を記録
+     * 
+     * @param micros 経過時間（マイクロ秒、負の値は0、上限を超える値は上限として扱う）
+     */
+    public void recordMicros(long micros) {
+        long value = Math.min(Math.max(0, micros), MAX_VALUE_MICROS);
+        counts.incrementAndGet(bucketIndex(value));
+        totalMicros.add(value);
+        if (value > maxMicros.get()) {
+            maxMicros.accumulateAndGet(value, Math::max);
+        }
+    }
+    
+    /**
+     * 現時点の集計を取得
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, totalMicros.sum(), maxMicros.get());
+    }
+    
+    /**
+     * 記録をすべて消去
+     * 
+     * 記録と並行して呼び出した場合、その間に記録された値の一部が残ることがあります。
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalMicros.reset();
+        maxMicros.set(0);
+    }
+    
+    // ========================================================================
+    // パッケージプライベートメソッド
+    // ========================================================================
+    
+    /**
+     * 値が属する区間の位置
+     * 
+     * 2^(SUB_BUCKET_BITS+1) 未満の値はその値自身、それ以上は指数と上位ビットから求めます。
+     */
+    static int bucketIndex(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (micros >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    /**
+     * 区間に属する最大の値（マイクロ秒）
+     */
+    static long highestValueInBucket(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * ある時点の集計（不変）
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+        
+        private Snapshot(long[] counts, long count, long totalMicros, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.totalMicros = totalMicros;
+            this.maxMicros = maxMicros;
+        }
+        
+        /**
+         * 記録された値の数
+         */
+        public long getCount() {
+            return count;
+        }
+        
+        /**
+         * 平均値（マイクロ秒、記録がない場合は0）
+         */
+        public double getMeanMicros() {
+            return count == 0 ? 0 : (double) totalMicros / count;
+        }
+        
+        /**
+         * 最大値（マイクロ秒）
+         */
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+        
+        /**
+         * 百分位数（マイクロ秒）
+         * 
+         * 値が属する区間の最大値を返すため、実際の値より最大で約3%大きくなります（最大値は超えません）。
+         * 
+         * @param percentile 百分位（0～100）
+         * @return 百分位数、記録がない場合は0
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            double clamped = Math.min(Math.max(percentile, 0), 100);
+            long rank = Math.max(1, (long) Math.ceil(clamped / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueInBucket(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.drsum.metrics;
+
+/**
+ * ツール呼び出しの処理段階
+ * 
+ * server_stats ツールでは段階ごとにレイテンシの分布を返します。
+ */
+public enum Phase {
+    
+    /** 呼び出し全体（ハンドラの開始から結果の作成まで） */
+    TOTAL("total"),
+    
+    /** 接続の取得（プールからの貸し出し、新しい接続の場合は openDatabase を含む） */
+    CONNECT("connect"),
+    
+    /** SQLの実行、テーブル一覧・カラム情報の取得 */
+    EXECUTE("execute"),
+    
+    /** 結果行の取得（fetchmany） */
+    FETCH("fetch"),
+    
+    /** 結果の整形（JSON・CSVなどへの書き込み） */
+    FORMAT("format"),
+    
+    /** 接続の返却（都度接続モードや異常時は切断） */
+    DISCONNECT("disconnect");
+    
+    private final String key;
+    
+    Phase(String key) {
+        this.key = key;
+    }
+    
+    /**
+     * server_stats の出力での名前
+     */
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.drsum.metrics;
+
+import com.example.drsum.format.JsonOutput;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * サーバーの実行統計
+ * 
+ * ツールごとの統計（ToolStats）を保持し、server_stats ツールの応答（JSON）と
+ * ログへの定期出力を作成します。
+ * 
+ * 【責務】
+ * - ツール名ごとの統計の作成と保持
+ * - 起動時の設定読み込み時間の記録
+ * - 統計のJSON出力とログ出力
+ */
+public final class ServerStats implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ServerStats.class);
+    
+    /**
+     * JSON出力でオブジェクトを改行する深さ（段階の集計は1行にまとめる）
+     */
+    private static final int STATS_OBJECT_DEPTH = 4;
+    
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final Map<String, ToolStats> tools = new ConcurrentSkipListMap<>();
+    private volatile long configLoadNanos = -1;
+    private ScheduledExecutorService logScheduler;
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * ツールの統計を取得（初回は作成）
+     * 
+     * @param name ツール名
+     * @return ツールの統計
+     */
+    public ToolStats tool(String name) {
+        return tools.computeIfAbsent(name, ToolStats::new);
+    }
+    
+    /**
+     * 起動時の設定読み込み（環境変数・スコープ定義）にかかった時間を記録
+     * 
+     * @param nanos 読み込み時間（ナノ秒）
+     */
+    public void recordConfigLoad(long nanos) {
+        configLoadNanos = nanos;
+    }
+    
+    /**
+     * 全ツールの統計を消去（起動時の記録は残す）
+     */
+    public void reset() {
+        for (ToolStats stats : tools.values()) {
+            stats.reset();
+        }
+    }
+    
+    /**
+     * 統計をJSONとして取得
+     * 
+     * 出力例:
+     * <pre>
+     * {
+     *   "uptime_seconds": 3600,
+     *   "config_load_ms": 12.4,
+     *   "tools": {
+     *     "execute_query": {
+     *       "calls": 42,
+     *       "errors": 1,
+     *       "rows": 120000,
+     *       "response_bytes": 3400000,
+     *       "phases": {
+     *         "total": {"count": 42, "mean_ms": 85.1, "p50_ms": 60.4, "p90_ms": 150.5, "p99_ms": 410.6, "max_ms": 415.2},
+     *         ...
+     *       }
+     *     }
+     *   }
+     * }
+     * </pre>
+     * 
+     * 時間の百分位数はヒストグラムの区間の上限のため、約3%の誤差があります。
+     * 
+     * @return JSON文字列
+     */
+    public String toJson() {
+        try (JsonOutput out = JsonOutput.pretty(STATS_OBJECT_DEPTH)) {
+            JsonGenerator gen = out.generator();
+            gen.writeStartObject();
+            gen.writeNumberField("uptime_seconds", (System.currentTimeMillis() - startedAtMillis) / 1000);
+            if (configLoadNanos >= 0) {
+                gen.writeNumberField("config_load_ms", toMillis(configLoadNanos / 1000.0));
+            }
+            gen.writeObjectFieldStart("tools");
+            for (ToolStats stats : tools.values()) {
+                gen.writeObjectFieldStart(stats.getName());
+                gen.writeNumberField("calls", stats.getCalls());
+                gen.writeNumberField("errors", stats.getErrors());
+                gen.writeNumberField("rows", stats.getRows());
+                gen.writeNumberField("response_bytes", stats.getResponseBytes());
+                gen.writeObjectFieldStart("phases");
+                for (Phase phase : Phase.values()) {
+                    LatencyHistogram.Snapshot snapshot = stats.histogram(phase).snapshot();
+                    if (snapshot.getCount() > 0) {
+                        gen.writeObjectFieldStart(phase.getKey());
+                        writeSnapshot(gen, snapshot);
+                        gen.writeEndObject();
+                    }
+                }
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+            gen.writeEndObject();
+            return out.toJson();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write server stats", e);
+        }
+    }
+    
+    /**
+     * 統計をログに出力（呼び出しのあったツールのみ、1ツール1行）
+     */
+    public void logSummary() {
+        for (ToolStats stats : tools.values()) {
+            if (stats.getCalls() == 0) {
+                continue;
+            }
+            StringBuilder line = new StringBuilder();
+            line.append(stats.getName())
+                .append(": calls=").append(stats.getCalls())
+                .append(" errors=").append(stats.getErrors())
+                .append(" rows=").append(stats.getRows())
+                .append(" bytes=").append(stats.getResponseBytes());
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram.Snapshot snapshot = stats.histogram(phase).snapshot();
+                if (snapshot.getCount() > 0) {
+                    line.append(" | ").append(phase.getKey())
+                        .append(" p50=").append(toMillis(snapshot.getValueAtPercentile(50)))
+                        .append("ms p99=").append(toMillis(snapshot.getValueAtPercentile(99)))
+                        .append("ms max=").append(toMillis(snapshot.getMaxMicros())).append("ms");
+                }
+            }
+            logger.info("Stats {}", line);
+        }
+    }
+    
+    /**
+     * 統計のログへの定期出力を開始
+     * 
+     * @param intervalSeconds 出力間隔（秒、0以下の場合は出力しない）
+     */
+    public synchronized void startPeriodicLog(long intervalSeconds) {
+        if (intervalSeconds <= 0 || logScheduler != null) {
+            return;
+        }
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "drsum-stats-log");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::logSummaryQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        logScheduler = scheduler;
+        logger.info("Logging server stats every {} second(s)", intervalSeconds);
+    }
+    
+    /**
+     * 定期出力を停止
+     */
+    @Override
+    public synchronized void close() {
+        if (logScheduler != null) {
+            logScheduler.shutdownNow();
+            logScheduler = null;
+        }
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    private void logSummaryQuietly() {
+        try {
+            logSummary();
+        } catch (RuntimeException e) {
+            // 例外で定期実行が止まらないようにする
+            logger.warn("Failed to log server stats: {}", e.getMessage());
+        }
+    }
+    
+    private static void writeSnapshot(JsonGenerator gen, LatencyHistogram.Snapshot snapshot) throws IOException {
+        gen.writeNumberField("count", snapshot.getCount());
+        gen.writeNumberField("mean_ms", toMillis(snapshot.getMeanMicros()));
+        gen.writeNumberField("p50_ms", toMillis(snapshot.getValueAtPercentile(50)));
+        gen.writeNumberField("p90_ms", toMillis(snapshot.getValueAtPercentile(90)));
+        gen.writeNumberField("p99_ms", toMillis(snapshot.getValueAtPercentile(99)));
+        gen.writeNumberField("max_ms", toMillis(snapshot.getMaxMicros()));
+    }
+    
+    /**
+     * マイクロ秒をミリ秒に変換（小数第1位まで）
+     */
+    private static double toMillis(double micros) {
+        return Math.round(micros / 100.0) / 10.0;
+    }
+}
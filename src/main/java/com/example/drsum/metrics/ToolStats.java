@@ -0,0 +1,101 @@
+package com.example.drsum.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 1つのツールの実行統計
+ * 
+ * 呼び出し数・エラー数・Dr.Sumから取得した行数・応答のバイト数と、段階（Phase）ごとのレイテンシを集計します。
+ * 全てのカウンタはロックなしで更新されます。
+ */
+public final class ToolStats {
+    
+    private final String name;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    
+    /**
+     * @param name ツール名
+     */
+    ToolStats(String name) {
+        this.name = name;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+    
+    /**
+     * ツール名
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 段階のレイテンシの分布
+     */
+    public LatencyHistogram histogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+    
+    /**
+     * 呼び出し数
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+    
+    /**
+     * エラー結果を返した呼び出し数
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+    
+    /**
+     * Dr.Sumから取得した行数の合計
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+    
+    /**
+     * 応答（ツール結果のテキスト）のUTF-8でのバイト数の合計
+     */
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+    
+    /**
+     * 1回の呼び出しの集計を加える
+     */
+    void record(long[] phaseNanos, boolean[] phaseSeen, long callRows, long callBytes, boolean error) {
+        calls.increment();
+        if (error) {
+            errors.increment();
+        }
+        rows.add(callRows);
+        responseBytes.add(callBytes);
+        for (int i = 0; i < histograms.length; i++) {
+            if (phaseSeen[i]) {
+                histograms[i].recordNanos(phaseNanos[i]);
+            }
+        }
+    }
+    
+    /**
+     * 全ての集計を消去
+     */
+    void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        responseBytes.reset();
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.drsum.model;
+
+/**
+ * Dr.Sumのカラム型コード
+ * 
+ * DWColumnInfo.m_iType の値と型名の対応、および出力時の値の扱いを定義します。
+ * メタデータ出力（type_name）とクエリ結果の値の型付けで同じ定義を使用します。
+ */
+public final class DrSumTypes {
+    
+    public static final int VARCHAR = 0;
+    public static final int INTEGER = 1;
+    public static final int REAL = 2;
+    public static final int DATE = 3;
+    public static final int TIME = 4;
+    public static final int TIMESTAMP = 5;
+    public static final int OBJECT = 6;
+    public static final int NUMERIC = 7;
+    public static final int INTERVAL = 12;
+    
+    private DrSumTypes() {
+    }
+    
+    /**
+     * 型コードを型名に変換
+     * 
+     * @param typeCode 型コード
+     * @return 型名（未知のコードの場合は "UNKNOWN(コード)"）
+     */
+    public static String getTypeName(int typeCode) {
+        switch (typeCode) {
+            case VARCHAR: return "VARCHAR";
+            case INTEGER: return "INTEGER";
+            case REAL: return "REAL";
+            case DATE: return "DATE";
+            case TIME: return "TIME";
+            case TIMESTAMP: return "TIMESTAMP";
+            case OBJECT: return "OBJECT";
+            case NUMERIC: return "NUMERIC";
+            case INTERVAL: return "INTERVAL";
+            default: return "UNKNOWN(" + typeCode + ")";
+        }
+    }
+    
+    /**
+     * 値をJSONの数値として出力する型かどうか
+     * 
+     * @param typeCode 型コード
+     * @return INTEGER、REAL、NUMERICの場合true
+     */
+    public static boolean isNumeric(int typeCode) {
+        return typeCode == INTEGER || typeCode == REAL || typeCode == NUMERIC;
+    }
+}
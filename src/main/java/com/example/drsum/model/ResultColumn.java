@@ -0,0 +1,123 @@
+package com.example.drsum.model;
+
+import jp.co.dw_sapporo.drsum_ea.DWColumnInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 結果セットのカラム情報
+ * 
+ * Dr.SumのDWColumnInfoから出力に必要な項目だけを取り出した不変オブジェクトです。
+ * 整形処理や保存済みの結果がDr.Sum APIのクラスに依存しないようにします。
+ */
+public final class ResultColumn {
+    
+    private final String name;
+    private final String displayName;
+    private final int type;
+    private final boolean unique;
+    private final boolean nullable;
+    private final int precision;
+    private final int scale;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param name カラム名
+     * @param displayName 表示名
+     * @param type Dr.Sum型コード
+     * @param unique 一意制約がある場合true
+     * @param nullable NULLを許容する場合true
+     * @param precision 精度
+     * @param scale 位取り
+     */
+    public ResultColumn(String name, String displayName, int type,
+                        boolean unique, boolean nullable, int precision, int scale) {
+        this.name = name;
+        this.displayName = displayName;
+        this.type = type;
+        this.unique = unique;
+        this.nullable = nullable;
+        this.precision = precision;
+        this.scale = scale;
+    }
+    
+    /**
+     * 名前と型だけを指定して作成（表示名は名前と同じ）
+     * 
+     * @param name カラム名
+     * @param type Dr.Sum型コード
+     * @return カラム情報
+     */
+    public static ResultColumn of(String name, int type) {
+        return new ResultColumn(name, name, type, false, true, 0, 0);
+    }
+    
+    /**
+     * DWColumnInfoから作成
+     * 
+     * @param column Dr.Sumのカラム情報
+     * @return カラム情報
+     */
+    public static ResultColumn from(DWColumnInfo column) {
+        return new ResultColumn(column.m_sName, column.m_sDisplay, column.m_iType,
+                                column.m_iUnique != 0, column.m_iNull == 0,
+                                column.m_iPrecision, column.m_iScale);
+    }
+    
+    /**
+     * DWColumnInfoの配列から作成
+     * 
+     * @param schema Dr.Sumのカラム情報（nullの場合は空リスト）
+     * @return 変更不可のカラム情報リスト
+     */
+    public static List<ResultColumn> fromSchema(DWColumnInfo[] schema) {
+        if (schema == null || schema.length == 0) {
+            return Collections.emptyList();
+        }
+        List<ResultColumn> columns = new ArrayList<>(schema.length);
+        for (DWColumnInfo column : schema) {
+            columns.add(from(column));
+        }
+        return Collections.unmodifiableList(columns);
+    }
+    
+    // ========================================================================
+    // Getter メソッド
+    // ========================================================================
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    public int getType() {
+        return type;
+    }
+    
+    public boolean isUnique() {
+        return unique;
+    }
+    
+    public boolean isNullable() {
+        return nullable;
+    }
+    
+    public int getPrecision() {
+        return precision;
+    }
+    
+    public int getScale() {
+        return scale;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("ResultColumn{name='%s', type=%d}", name, type);
+    }
+}
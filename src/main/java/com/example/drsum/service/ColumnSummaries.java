@@ -0,0 +1,187 @@
+package com.example.drsum.service;
+
+import com.example.drsum.format.JsonNumbers;
+import com.example.drsum.model.ResultColumn;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Vector;
+
+/**
+ * カラムごとの要約統計（最小値・最大値・NULLの数・異なる値の数の推定）
+ * 
+ * 応答サイズの上限（max_response_bytes）で行を切り詰めた結果に付け、出力しなかった行を含む
+ * 結果全体の概要を返すために使います。行を取得しながら1行ずつ add() し、行は保持しません。
+ * 
+ * 最小値・最大値は、数値型のカラムでは数値として、それ以外のカラムでは文字列の辞書順で比較します。
+ * 異なる値の数はHyperLogLog（2^10 個のレジスタ、標準誤差約3%）で推定するため、
+ * カラムあたりのメモリは約1KBで一定です。
+ * 
+ * 出力例（column_summaries フィールドの値）:
+ * <pre>
+ * [
+ *   {"name": "年", "null_count": 0, "min": 2006, "max": 2010, "distinct_estimate": 5},
+ *   {"name": "地域", "null_count": 2, "min": "大阪", "max": "東京", "distinct_estimate": 2}
+ * ]
+ * </pre>
+ */
+final class ColumnSummaries {
+    
+    /**
+     * HyperLogLogのレジスタ数の対数（レジスタ数は 2^PRECISION）
+     */
+    static final int PRECISION = 10;
+    
+    private static final int REGISTERS = 1 << PRECISION;
+    
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+    
+    private final List<ResultColumn> columns;
+    private final Summary[] summaries;
+    
+    /**
+     * @param columns カラム情報
+     */
+    ColumnSummaries(List<ResultColumn> columns) {
+        this.columns = columns;
+        this.summaries = new Summary[columns.size()];
+        for (int i = 0; i < summaries.length; i++) {
+            summaries[i] = new Summary(QueryResultFormatter.isNumeric(columns.get(i)));
+        }
+    }
+    
+    /**
+     * 1行分の値を集計
+     * 
+     * @param row 行データ
+     */
+    void add(Vector<String> row) {
+        int count = Math.min(row.size(), summaries.length);
+        for (int i = 0; i < count; i++) {
+            summaries[i].add(row.get(i));
+        }
+    }
+    
+    /**
+     * カラムごとの要約をJSON配列として書き込む
+     * 
+     * @param gen 出力先
+     * @throws IOException 書き込みに失敗した場合
+     */
+    void write(JsonGenerator gen) throws IOException {
+        gen.writeStartArray();
+        for (int i = 0; i < summaries.length; i++) {
+            Summary summary = summaries[i];
+            gen.writeStartObject();
+            gen.writeStringField("name", columns.get(i).getName());
+            gen.writeNumberField("null_count", summary.nullCount);
+            gen.writeFieldName("min");
+            QueryResultFormatter.writeValue(gen, summary.numeric, summary.min);
+            gen.writeFieldName("max");
+            QueryResultFormatter.writeValue(gen, summary.numeric, summary.max);
+            gen.writeNumberField("distinct_estimate", summary.distinctEstimate());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * 1カラム分の集計
+     */
+    private static final class Summary {
+        final boolean numeric;
+        final byte[] registers = new byte[REGISTERS];
+        long nullCount;
+        long valueCount;
+        String min;
+        String max;
+        double minNumber;
+        double maxNumber;
+        
+        Summary(boolean numeric) {
+            this.numeric = numeric;
+        }
+        
+        void add(String value) {
+            if (value == null) {
+                nullCount++;
+                return;
+            }
+            valueCount++;
+            addToSketch(value);
+            if (numeric) {
+                addNumber(value);
+            } else {
+                if (min == null || value.compareTo(min) < 0) {
+                    min = value;
+                }
+                if (max == null || value.compareTo(max) > 0) {
+                    max = value;
+                }
+            }
+        }
+        
+        /**
+         * 数値として比較（数値として不正な値は最小値・最大値の対象外）
+         */
+        private void addNumber(String value) {
+            if (!JsonNumbers.isJsonNumber(value)) {
+                return;
+            }
+            double number = Double.parseDouble(value);
+            if (min == null || number < minNumber) {
+                min = value;
+                minNumber = number;
+            }
+            if (max == null || number > maxNumber) {
+                max = value;
+                maxNumber = number;
+            }
+        }
+        
+        private void addToSketch(String value) {
+            long hash = mix(value.hashCode());
+            int index = (int) (hash >>> (Long.SIZE - PRECISION));
+            // 残りのビットの先頭の0の数 + 1（番兵のビットで上限を抑える）
+            int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+            if (rank > registers[index]) {
+                registers[index] = (byte) rank;
+            }
+        }
+        
+        long distinctEstimate() {
+            double sum = 0;
+            int zeros = 0;
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+            double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+            if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+                // 少ない場合は線形カウンティングで補正
+                estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+            }
+            return Math.min(Math.round(estimate), valueCount);
+        }
+        
+        /**
+         * 32ビットのハッシュ値を64ビットに拡散（MurmurHash3の最終化処理）
+         */
+        private static long mix(int hashCode) {
+            long h = hashCode;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.drsum.service;
+
+import com.example.drsum.format.JsonOutput;
+import com.example.drsum.format.Utf8;
+import com.example.drsum.model.ResultColumn;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * カラム単位のJSON出力（columnar）
+ * 
+ * 行ごとの配列ではなく、カラムごとに値の配列を出力します。
+ * 値の種類が少ない文字列カラム（区分・名称など）は辞書化し、
+ * 異なる値の一覧（dictionary）と各行の値の位置（codes）で表します。
+ * 
+ * 出力例:
+ * <pre>
+ * {
+ *   "columns": [...],
+ *   "format": "columnar",
+ *   "data": [
+ *     [2006, 2007, 2008, 2009],
+ *     {"dictionary": ["東京", "大阪"], "codes": [0, 1, 0, 0]}
+ *   ],
+ *   "row_count": 4
+ * }
+ * </pre>
+ * 
+ * カラムの配列は全行を読み終えるまで書き込めないため、出力する行（1ページ分）を保持します。
+ */
+final class ColumnarResultWriter implements QueryResultWriter {
+    
+    /**
+     * 辞書化を検討する最小行数
+     */
+    static final int DICTIONARY_MIN_ROWS = 4;
+    
+    /**
+     * 出力サイズの概算で1つの値に加える区切り・引用符の分（", " と前後の引用符）
+     */
+    private static final int VALUE_OVERHEAD_BYTES = 4;
+    
+    private final JsonOutput out = JsonOutput.pretty();
+    private List<ResultColumn> columns;
+    private List<List<String>> values;
+    private long estimatedBytes;
+    
+    @Override
+    public void begin(List<ResultColumn> columns) throws IOException {
+        this.columns = columns;
+        this.values = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            values.add(new ArrayList<>());
+        }
+        for (ResultColumn column : columns) {
+            // カラム情報（name, display_name, type のフィールド名と値）の分
+            estimatedBytes += Utf8.encodedLength(column.getName()) * 2 + 64;
+        }
+    }
+    
+    @Override
+    public void writeRow(Vector<String> row) {
+        for (int i = 0; i < values.size(); i++) {
+            String value = i < row.size() ? row.get(i) : null;
+            values.get(i).add(value);
+            // 辞書化やエスケープは考慮しない（辞書化された場合は実際の出力の方が小さい）
+            estimatedBytes += (value == null ? 4 : Utf8.encodedLength(value)) + VALUE_OVERHEAD_BYTES;
+        }
+    }
+    
+    @Override
+    public long outputBytes() {
+        return estimatedBytes;
+    }
+    
+    @Override
+    public String finish(int rowCount, Map<String, Object> extras) throws IOException {
+        JsonGenerator gen = out.generator();
+        gen.writeStartObject();
+        QueryResultFormatter.writeColumns(gen, columns);
+        gen.writeStringField("format", OutputFormat.COLUMNAR.getParameterValue());
+        
+        gen.writeArrayFieldStart("data");
+        for (int i = 0; i < columns.size(); i++) {
+            boolean numeric = QueryResultFormatter.isNumeric(columns.get(i));
+            List<String> column = values.get(i);
+            Map<String, Integer> dictionary = numeric ? null : buildDictionary(column);
+            if (dictionary != null) {
+                writeDictionaryColumn(gen, column, dictionary);
+            } else {
+                gen.writeStartArray();
+                for (String value : column) {
+                    QueryResultFormatter.writeValue(gen, numeric, value);
+                }
+                gen.writeEndArray();
+            }
+        }
+        gen.writeEndArray();
+        
+        QueryResultFormatter.writeSummary(gen, rowCount, extras);
+        gen.writeEndObject();
+        return out.toJson();
+    }
+    
+    @Override
+    public void close() {
+        out.close();
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * 値の種類が行数の半分以下の場合に辞書（値→位置）を作成
+     * 
+     * @return 辞書、辞書化しない場合はnull
+     */
+    private static Map<String, Integer> buildDictionary(List<String> column) {
+        if (column.size() < DICTIONARY_MIN_ROWS) {
+            return null;
+        }
+        int maxEntries = column.size() / 2;
+        Map<String, Integer> dictionary = new HashMap<>();
+        for (String value : column) {
+            if (value != null && !dictionary.containsKey(value)) {
+                if (dictionary.size() == maxEntries) {
+                    return null;  // 種類が多すぎるため辞書化しない
+                }
+                dictionary.put(value, dictionary.size());
+            }
+        }
+        return dictionary;
+    }
+    
+    /**
+     * 辞書化したカラムを書き込む（NULLの位置はnull）
+     */
+    private static void writeDictionaryColumn(JsonGenerator gen, List<String> column,
+                                              Map<String, Integer> dictionary) throws IOException {
+        String[] entries = new String[dictionary.size()];
+        for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            entries[entry.getValue()] = entry.getKey();
+        }
+        
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("dictionary");
+        for (String entry : entries) {
+            gen.writeString(entry);
+        }
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("codes");
+        for (String value : column) {
+            if (value == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(dictionary.get(value));
+            }
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.drsum.service;
+
+import com.example.drsum.format.JsonOutput;
+import com.example.drsum.format.Utf8;
+import com.example.drsum.model.ResultColumn;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * 区切り文字形式の出力（csv, tsv）
+ * 
+ * 1行目にカラム名、以降に1行1レコードで値を出力します。
+ * 行数や継続トークンなどの付加情報は、最後に "# " で始まる1行のJSONとして出力します。
+ * 
+ * CSVはRFC 4180に従い、区切り文字・引用符・改行を含む値を引用符で囲みます。
+ * NULLは空欄、空文字列は "" です。
+ * TSVは値の中のタブ・改行・バックスラッシュを \t \n \r \\ でエスケープし、NULLは \N です。
+ */
+final class DelimitedResultWriter implements QueryResultWriter {
+    
+    private final char delimiter;
+    private final StringBuilder text = new StringBuilder();
+    private int countedLength;
+    private long countedBytes;
+    
+    /**
+     * @param delimiter 区切り文字（',' または '\t'）
+     */
+    DelimitedResultWriter(char delimiter) {
+        this.delimiter = delimiter;
+    }
+    
+    @Override
+    public void begin(List<ResultColumn> columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                text.append(delimiter);
+            }
+            appendField(columns.get(i).getName());
+        }
+        text.append('\n');
+    }
+    
+    @Override
+    public void writeRow(Vector<String> row) {
+        for (int i = 0; i < row.size(); i++) {
+            if (i > 0) {
+                text.append(delimiter);
+            }
+            appendField(row.get(i));
+        }
+        text.append('\n');
+    }
+    
+    @Override
+    public long outputBytes() {
+        // 前回以降に追加した部分だけを数える
+        countedBytes += Utf8.encodedLength(text, countedLength, text.length());
+        countedLength = text.length();
+        return countedBytes;
+    }
+    
+    @Override
+    public String finish(int rowCount, Map<String, Object> extras) throws IOException {
+        try (JsonOutput summary = JsonOutput.compact()) {
+            JsonGenerator gen = summary.generator();
+            gen.writeStartObject();
+            QueryResultFormatter.writeSummary(gen, rowCount, extras);
+            gen.writeEndObject();
+            text.append("# ").append(summary.toJson());
+        }
+        return text.toString();
+    }
+    
+    @Override
+    public void close() {
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    private void appendField(String value) {
+        if (delimiter == '\t') {
+            appendTsvField(value);
+        } else {
+            appendCsvField(value);
+        }
+    }
+    
+    private void appendCsvField(String value) {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && !needsCsvQuote(value)) {
+            text.append(value);
+            return;
+        }
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                text.append('"');
+            }
+            text.append(c);
+        }
+        text.append('"');
+    }
+    
+    private boolean needsCsvQuote(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void appendTsvField(String value) {
+        if (value == null) {
+            text.append("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\t': text.append("\\t"); break;
+                case '\n': text.append("\\n"); break;
+                case '\r': text.append("\\r"); break;
+                case '\\': text.append("\\\\"); break;
+                default: text.append(c);
+            }
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package com.example.drsum.service;
 
+import com.example.drsum.backend.BackendConnection;
+import com.example.drsum.backend.BackendCursor;
+import com.example.drsum.cache.MetadataCache;
 import com.example.drsum.connection.DrSumConnection;
 import com.example.drsum.connection.ScopeDefinitions;
+import com.example.drsum.connection.ScopeMatcher;
+import com.example.drsum.format.JsonOutput;
+import com.example.drsum.metrics.CallMetrics;
+import com.example.drsum.metrics.Phase;
+import com.example.drsum.model.DrSumTypes;
+import com.example.drsum.model.ResultColumn;
+import com.fasterxml.jackson.core.JsonGenerator;
 import jp.co.dw_sapporo.drsum_ea.DWException;
-import jp.co.dw_sapporo.drsum_ea.dbi.DWDbiCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 /**
@@ -20,24 +35,98 @@ import java.util.Vector;
  * - テーブル一覧の取得
  * - テーブルメタデータの取得
  * - サンプルデータの取得
+ * 
+ * MetadataCacheを指定した場合、テーブル一覧・ビュー判定・カラム情報はキャッシュから返します。
+ * サンプルデータは常にDr.Sumから取得します。
+ * ViewClassifierを指定した場合、キャッシュにないテーブルのビュー判定を複数の接続で並列に実行します。
+ * TableFanOutを指定した場合、複数テーブルのメタデータの一括取得を複数の接続で並列に実行します。
+ * 
+ * 取得・整形の時間は、呼び出し元のスレッドで計測中の CallMetrics に段階ごとに記録します。
  */
 public class DrSumMetadataService {
     
     private static final Logger logger = LoggerFactory.getLogger(DrSumMetadataService.class);
     
+    /**
+     * メタデータ出力でオブジェクトを改行する深さ（カラム定義まで）
+     */
+    private static final int METADATA_OBJECT_DEPTH = 3;
+    
     private final DrSumConnection dsConnection;
+    private final MetadataCache metadataCache;
+    private final ViewClassifier viewClassifier;
+    private final TableFanOut metadataFanOut;
+    private final QueryCancellation cancellation;
     
     /**
-     * コンストラクタ
+     * コンストラクタ（キャッシュなし）
      * 
      * @param connection Dr.Sum接続
      * @throws IllegalArgumentException connectionがnullの場合
      */
     public DrSumMetadataService(DrSumConnection connection) {
+        this(connection, null);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param connection Dr.Sum接続
+     * @param metadataCache メタデータのキャッシュ（nullの場合は毎回Dr.Sumから取得）
+     * @throws IllegalArgumentException connectionがnullの場合
+     */
+    public DrSumMetadataService(DrSumConnection connection, MetadataCache metadataCache) {
+        this(connection, metadataCache, null);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param connection Dr.Sum接続
+     * @param metadataCache メタデータのキャッシュ（nullの場合は毎回Dr.Sumから取得）
+     * @param viewClassifier ビュー判定の並列実行（nullの場合はconnectionのみで順に判定）
+     * @throws IllegalArgumentException connectionがnullの場合
+     */
+    public DrSumMetadataService(DrSumConnection connection, MetadataCache metadataCache,
+                                ViewClassifier viewClassifier) {
+        this(connection, metadataCache, viewClassifier, null);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param connection Dr.Sum接続
+     * @param metadataCache メタデータのキャッシュ（nullの場合は毎回Dr.Sumから取得）
+     * @param viewClassifier ビュー判定の並列実行（nullの場合はconnectionのみで順に判定）
+     * @param metadataFanOut メタデータの一括取得の並列実行（nullの場合はconnectionのみで順に取得）
+     * @throws IllegalArgumentException connectionがnullの場合
+     */
+    public DrSumMetadataService(DrSumConnection connection, MetadataCache metadataCache,
+                                ViewClassifier viewClassifier, TableFanOut metadataFanOut) {
+        this(connection, metadataCache, viewClassifier, metadataFanOut, null);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param connection Dr.Sum接続
+     * @param metadataCache メタデータのキャッシュ（nullの場合は毎回Dr.Sumから取得）
+     * @param viewClassifier ビュー判定の並列実行（nullの場合はconnectionのみで順に判定）
+     * @param metadataFanOut メタデータの一括取得の並列実行（nullの場合はconnectionのみで順に取得）
+     * @param cancellation 呼び出しの中断制御（nullの場合は中断しない、並列実行で借りた接続も中断時に閉じる）
+     * @throws IllegalArgumentException connectionがnullの場合
+     */
+    public DrSumMetadataService(DrSumConnection connection, MetadataCache metadataCache,
+                                ViewClassifier viewClassifier, TableFanOut metadataFanOut,
+                                QueryCancellation cancellation) {
         if (connection == null) {
             throw new IllegalArgumentException("DrSumConnection cannot be null");
         }
         this.dsConnection = connection;
+        this.metadataCache = metadataCache;
+        this.viewClassifier = viewClassifier;
+        this.metadataFanOut = metadataFanOut;
+        this.cancellation = cancellation;
     }
     
     // ========================================================================
@@ -60,48 +149,54 @@ public class DrSumMetadataService {
             throw new IllegalStateException("Not connected to Dr.Sum. Please configure connection first.");
         }
         
-        jp.co.dw_sapporo.drsum_ea.dbi.DWDbiConnection conn = dsConnection.getConnection();
-        String dbName = conn.m_sDatabase;
+        BackendConnection conn = dsConnection.getConnection();
+        String dbName = conn.getDatabase();
         
         logger.info("Retrieving table list for database: {}", dbName);
         
         // スコープを検証（指定されている場合）
-        List<String> scopeFilter = null;
+        ScopeMatcher scopeFilter = null;
         if (scopeName != null && !scopeName.trim().isEmpty()) {
             if (scopeDefinitions == null || !scopeDefinitions.hasScope(scopeName)) {
                 throw new IllegalArgumentException(
                     "Scope '" + scopeName + "' not found. Available scopes: " + 
                     (scopeDefinitions != null ? scopeDefinitions.getScopeNames() : "[]"));
             }
-            scopeFilter = scopeDefinitions.getScope(scopeName);
+            scopeFilter = scopeDefinitions.getMatcher(scopeName);
             logger.info("Applying scope filter '{}' with {} table(s)", scopeName, scopeFilter.size());
         }
         
+        CallMetrics metrics = CallMetrics.current();
         try {
             // テーブルリストを取得
-            jp.co.dw_sapporo.drsum_ea.DWTableInfo[] tableList = conn.getTableList(dbName);
+            long executeStart = System.nanoTime();
+            jp.co.dw_sapporo.drsum_ea.DWTableInfo[] tableList = loadTableList(conn, dbName);
             
             if (tableList == null || tableList.length == 0) {
+                metrics.addSince(Phase.EXECUTE, executeStart);
                 logger.warn("No tables found in database: {}", dbName);
-                return "{\"database\": \"" + escapeJson(dbName) + "\", \"tables\": [], \"views\": []}";
+                return formatTableListAsJson(dbName, Collections.emptyList(), Collections.emptyList());
             }
             
-            // テーブルとビューを分離
-            List<String> tables = new ArrayList<>();
-            List<String> views = new ArrayList<>();
-            
+            // スコープフィルタを先に適用（判定対象を減らすため）
+            List<String> names = new ArrayList<>();
             for (jp.co.dw_sapporo.drsum_ea.DWTableInfo tableInfo : tableList) {
                 String tableName = tableInfo.m_sName;
-                
-                // スコープフィルタを適用（指定されている場合）
-                if (scopeFilter != null && !isInScope(tableName, scopeFilter)) {
+                if (scopeFilter != null && !scopeFilter.matches(tableName)) {
                     continue;  // スコープに含まれないテーブルをスキップ
                 }
-                
-                // ビュー情報を取得してビューかどうかチェック
-                jp.co.dw_sapporo.drsum_ea.DWViewInfo viewInfo = conn.getViewInfo(dbName, tableName);
-                
-                if (viewInfo != null && viewInfo.m_iType != 0) {
+                names.add(tableName);
+            }
+            
+            // ビュー判定をまとめて取得
+            Map<String, Boolean> viewFlags = classifyViews(dbName, names);
+            metrics.addSince(Phase.EXECUTE, executeStart);
+            
+            // テーブルとビューを分離（Dr.Sumが返した順序を維持）
+            List<String> tables = new ArrayList<>();
+            List<String> views = new ArrayList<>();
+            for (String tableName : names) {
+                if (Boolean.TRUE.equals(viewFlags.get(tableName))) {
                     views.add(tableName);
                 } else {
                     tables.add(tableName);
@@ -113,7 +208,10 @@ public class DrSumMetadataService {
                        scopeName != null ? " (filtered by scope: " + scopeName + ")" : "");
             
             // JSONとしてフォーマット
-            return formatTableListAsJson(dbName, tables, views);
+            long formatStart = System.nanoTime();
+            String json = formatTableListAsJson(dbName, tables, views);
+            metrics.addSince(Phase.FORMAT, formatStart);
+            return json;
             
         } catch (DWException e) {
             logger.error("Failed to retrieve table list: {}", e.getMessage());
@@ -158,14 +256,102 @@ public class DrSumMetadataService {
             throw new IllegalStateException("Not connected to Dr.Sum. Please configure connection first.");
         }
         
-        jp.co.dw_sapporo.drsum_ea.dbi.DWDbiConnection conn = dsConnection.getConnection();
-        String dbName = conn.m_sDatabase;
+        BackendConnection conn = dsConnection.getConnection();
+        String dbName = conn.getDatabase();
         
         logger.info("Retrieving metadata for table: {} with {} sample rows", tableName, sampleRows);
         
+        TableMetadata metadata = fetchTableMetadata(conn, dbName, tableName, sampleRows);
+        
+        // JSONとしてフォーマット
+        long formatStart = System.nanoTime();
+        String json = formatMetadataAsJson(tableName, metadata.schema, metadata.samples);
+        CallMetrics.current().addSince(Phase.FORMAT, formatStart);
+        return json;
+    }
+    
+    /**
+     * 複数テーブルのメタデータとサンプルデータをまとめて取得
+     * 
+     * TableFanOutを指定した場合は複数の接続で並列に、なければ現在の接続で順に取得します。
+     * 存在しないテーブルなど、テーブルごとの取得の失敗は結果の該当テーブルに error として含め、
+     * 残りのテーブルの取得を続けます。
+     * 
+     * @param tableNames テーブル名（重複は1回だけ取得）
+     * @param sampleRows テーブルごとのサンプル行数
+     * @return 全テーブルのメタデータを指定順に含むJSON文字列
+     * @throws DWException テーブルの取得を続けられない失敗をした場合
+     * @throws IllegalStateException 接続されていない場合
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public String getTableMetadataBatch(List<String> tableNames, int sampleRows) throws DWException {
+        // パラメータを先に検証（接続チェックの前）
+        if (tableNames == null || tableNames.isEmpty()) {
+            throw new IllegalArgumentException("Table names cannot be null or empty");
+        }
+        for (String tableName : tableNames) {
+            if (tableName == null || tableName.trim().isEmpty()) {
+                throw new IllegalArgumentException("Table name cannot be null or empty");
+            }
+        }
+        
+        if (sampleRows < 0) {
+            throw new IllegalArgumentException("Sample rows must be non-negative");
+        }
+        
+        // 次に接続をチェック
+        if (!dsConnection.isConnected()) {
+            throw new IllegalStateException("Not connected to Dr.Sum. Please configure connection first.");
+        }
+        
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(tableNames));
+        String dbName = dsConnection.getConnection().getDatabase();
+        
+        logger.info("Retrieving metadata for {} tables with {} sample rows", names.size(), sampleRows);
+        
+        TableFanOut.TableTask<TableMetadata> task = (connection, tableName) -> {
+            try {
+                return fetchTableMetadata(connection.getConnection(), dbName, tableName, sampleRows);
+            } catch (DWException e) {
+                return TableMetadata.failed(e.getMessage());
+            }
+        };
+        
+        Map<String, TableMetadata> results;
+        if (metadataFanOut != null && names.size() > 1) {
+            results = metadataFanOut.run(dsConnection, names, task, cancellation);
+        } else {
+            results = new HashMap<>();
+            for (String name : names) {
+                results.put(name, task.apply(dsConnection, name));
+            }
+        }
+        
+        // JSONとしてフォーマット
+        long formatStart = System.nanoTime();
+        String json = formatMetadataBatchAsJson(dbName, names, results);
+        CallMetrics.current().addSince(Phase.FORMAT, formatStart);
+        return json;
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * 1テーブルのスキーマとサンプルデータを取得
+     * 
+     * 時間と行数は、実行中のスレッドで計測中の CallMetrics に記録します
+     * （一括取得で追加の接続を使うワーカースレッドでは記録しません）。
+     */
+    private TableMetadata fetchTableMetadata(BackendConnection conn, String dbName,
+                                             String tableName, int sampleRows) throws DWException {
+        CallMetrics metrics = CallMetrics.current();
         try {
             // スキーマ情報を取得
-            jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] schema = conn.getSchema(dbName, tableName);
+            long executeStart = System.nanoTime();
+            jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] schema = loadSchema(conn, dbName, tableName);
+            metrics.addSince(Phase.EXECUTE, executeStart);
             
             if (schema == null || schema.length == 0) {
                 throw new DWException("Table not found or has no columns: " + tableName);
@@ -174,19 +360,25 @@ public class DrSumMetadataService {
             // サンプルデータを取得
             Vector<Vector<String>> samples = null;
             if (sampleRows > 0) {
-                DWDbiCursor cursor = conn.cursor();
+                BackendCursor cursor = conn.cursor();
                 try {
                     // サンプルデータ取得にLIMIT句を使用
                     String sql = String.format("SELECT * FROM %s LIMIT %d", tableName, sampleRows);
+                    executeStart = System.nanoTime();
                     cursor.execute(sql);
+                    metrics.addSince(Phase.EXECUTE, executeStart);
+                    long fetchStart = System.nanoTime();
                     samples = cursor.fetchmany(sampleRows);
+                    metrics.addSince(Phase.FETCH, fetchStart);
+                    if (samples != null) {
+                        metrics.addRows(samples.size());
+                    }
                 } finally {
                     cursor.close();
                 }
             }
             
-            // JSONとしてフォーマット
-            return formatMetadataAsJson(tableName, schema, samples);
+            return new TableMetadata(schema, samples, null);
             
         } catch (DWException e) {
             logger.error("Failed to retrieve metadata for table {}: {}", tableName, e.getMessage());
@@ -194,25 +386,80 @@ public class DrSumMetadataService {
         }
     }
     
-    // ========================================================================
-    // プライベートヘルパーメソッド
-    // ========================================================================
+    /**
+     * テーブル一覧を取得（キャッシュがあればキャッシュから）
+     */
+    private jp.co.dw_sapporo.drsum_ea.DWTableInfo[] loadTableList(
+            BackendConnection conn, String dbName) throws DWException {
+        if (metadataCache == null) {
+            return conn.getTableList(dbName);
+        }
+        return metadataCache.getTableList(dbName, () -> conn.getTableList(dbName));
+    }
     
     /**
-     * テーブル名がスコープフィルタに含まれているかチェック
-     * 大文字小文字を区別しない比較
+     * テーブルがビューかどうかをまとめて判定
      * 
-     * @param tableName チェックするテーブル名
-     * @param scopeFilter スコープフィルタ
-     * @return スコープに含まれている場合true
+     * キャッシュ済みの判定を使い、残りのテーブルだけをDr.Sumに問い合わせます。
+     * ViewClassifierがあれば複数の接続で並列に、なければ現在の接続で順に判定します。
+     * 
+     * @param dbName データベース名
+     * @param names 判定するテーブル名
+     * @return テーブル名からビューかどうかへのマップ
+     * @throws DWException ビュー情報の取得に失敗した場合
      */
-    private boolean isInScope(String tableName, List<String> scopeFilter) {
-        for (String scopeTable : scopeFilter) {
-            if (scopeTable.equalsIgnoreCase(tableName)) {
-                return true;
+    private Map<String, Boolean> classifyViews(String dbName, List<String> names) throws DWException {
+        Map<String, Boolean> cached = metadataCache != null
+                ? metadataCache.getViewFlags(dbName)
+                : new HashMap<>();
+        
+        List<String> unresolved = new ArrayList<>();
+        for (String name : names) {
+            if (!cached.containsKey(name)) {
+                unresolved.add(name);
             }
         }
-        return false;
+        if (unresolved.isEmpty()) {
+            return cached;
+        }
+        
+        logger.info("Classifying {} of {} tables ({} cached)",
+                   unresolved.size(), names.size(), names.size() - unresolved.size());
+        
+        Map<String, Boolean> classified;
+        if (viewClassifier != null) {
+            classified = viewClassifier.classify(dsConnection, dbName, unresolved, cancellation);
+        } else {
+            classified = new HashMap<>();
+            for (String name : unresolved) {
+                classified.put(name, ViewClassifier.isView(dsConnection.getConnection(), dbName, name));
+            }
+        }
+        
+        if (metadataCache != null) {
+            metadataCache.putViewFlags(dbName, classified);
+        }
+        
+        Map<String, Boolean> result = new HashMap<>(cached);
+        result.putAll(classified);
+        return result;
+    }
+    
+    /**
+     * カラム情報を取得（キャッシュがあればキャッシュから）
+     * 
+     * カラムが取得できなかった結果（テーブルが存在しない場合など）はキャッシュしません。
+     */
+    private jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] loadSchema(
+            BackendConnection conn,
+            String dbName, String tableName) throws DWException {
+        if (metadataCache == null) {
+            return conn.getSchema(dbName, tableName);
+        }
+        return metadataCache.getSchema(dbName, tableName, () -> {
+            jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] schema = conn.getSchema(dbName, tableName);
+            return schema != null && schema.length > 0 ? schema : null;
+        });
     }
     
     /**
@@ -224,145 +471,170 @@ public class DrSumMetadataService {
      * @return JSON文字列
      */
     private String formatTableListAsJson(String dbName, List<String> tables, List<String> views) {
-        StringBuilder json = new StringBuilder();
-        json.append("{\n");
-        json.append("  \"database\": \"").append(escapeJson(dbName)).append("\",\n");
-        
-        // テーブルをフォーマット
-        json.append("  \"tables\": [\n");
-        for (int i = 0; i < tables.size(); i++) {
-            json.append("    \"").append(escapeJson(tables.get(i))).append("\"");
-            if (i < tables.size() - 1) {
-                json.append(",");
+        try (JsonOutput out = JsonOutput.pretty()) {
+            JsonGenerator gen = out.generator();
+            gen.writeStartObject();
+            gen.writeStringField("database", dbName);
+            
+            // テーブルをフォーマット
+            gen.writeArrayFieldStart("tables");
+            for (String table : tables) {
+                gen.writeString(table);
             }
-            json.append("\n");
-        }
-        json.append("  ],\n");
-        
-        // ビューをフォーマット
-        json.append("  \"views\": [\n");
-        for (int i = 0; i < views.size(); i++) {
-            json.append("    \"").append(escapeJson(views.get(i))).append("\"");
-            if (i < views.size() - 1) {
-                json.append(",");
+            gen.writeEndArray();
+            
+            // ビューをフォーマット
+            gen.writeArrayFieldStart("views");
+            for (String view : views) {
+                gen.writeString(view);
             }
-            json.append("\n");
+            gen.writeEndArray();
+            
+            gen.writeNumberField("total_count", tables.size() + views.size());
+            gen.writeEndObject();
+            return out.toJson();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write table list", e);
         }
-        json.append("  ],\n");
-        
-        json.append("  \"total_count\": ").append(tables.size() + views.size()).append("\n");
-        json.append("}");
-        
-        return json.toString();
     }
     
     /**
      * メタデータとサンプルデータをJSONとしてフォーマット
      * 
+     * 接続を使わない処理のため、ベンチマークから直接呼び出せるようパッケージプライベートにしています。
+     * 
      * @param tableName テーブル名
      * @param schema カラムスキーマ
      * @param samples サンプルデータ
      * @return JSON文字列
      */
-    private String formatMetadataAsJson(String tableName, 
-                                      jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] schema,
-                                      Vector<Vector<String>> samples) {
-        StringBuilder json = new StringBuilder();
-        json.append("{\n");
-        json.append("  \"table\": \"").append(escapeJson(tableName)).append("\",\n");
-        json.append("  \"columns\": [\n");
-        
-        // カラムをフォーマット
-        for (int i = 0; i < schema.length; i++) {
-            jp.co.dw_sapporo.drsum_ea.DWColumnInfo col = schema[i];
-            json.append("    {\n");
-            json.append("      \"name\": \"").append(escapeJson(col.m_sName)).append("\",\n");
-            json.append("      \"display_name\": \"").append(escapeJson(col.m_sDisplay)).append("\",\n");
-            json.append("      \"type\": ").append(col.m_iType).append(",\n");
-            json.append("      \"type_name\": \"").append(getTypeName(col.m_iType)).append("\",\n");
-            json.append("      \"unique\": ").append(col.m_iUnique != 0).append(",\n");
-            json.append("      \"nullable\": ").append(col.m_iNull == 0).append(",\n");
-            json.append("      \"precision\": ").append(col.m_iPrecision).append(",\n");
-            json.append("      \"scale\": ").append(col.m_iScale).append("\n");
-            json.append("    }");
-            if (i < schema.length - 1) {
-                json.append(",");
-            }
-            json.append("\n");
+    static String formatMetadataAsJson(String tableName, 
+                                       jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] schema,
+                                       Vector<Vector<String>> samples) {
+        // カラム定義は項目が多いため1項目1行で出力する
+        try (JsonOutput out = JsonOutput.pretty(METADATA_OBJECT_DEPTH)) {
+            writeMetadata(out.generator(), tableName, schema, samples);
+            return out.toJson();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write table metadata", e);
         }
-        
-        json.append("  ],\n");
-        json.append("  \"sample_data\": ");
-        
-        // サンプルデータをフォーマット
-        if (samples != null && !samples.isEmpty()) {
-            json.append("[\n");
-            for (int i = 0; i < samples.size(); i++) {
-                Vector<String> row = samples.get(i);
-                json.append("    [");
-                for (int j = 0; j < row.size(); j++) {
-                    String value = row.get(j);
-                    if (value == null) {
-                        json.append("null");
-                    } else {
-                        json.append("\"").append(escapeJson(value)).append("\"");
-                    }
-                    if (j < row.size() - 1) {
-                        json.append(", ");
-                    }
-                }
-                json.append("]");
-                if (i < samples.size() - 1) {
-                    json.append(",");
+    }
+    
+    /**
+     * 複数テーブルのメタデータをJSONとしてフォーマット
+     * 
+     * テーブルごとのオブジェクトは get_metadata の単一テーブルの結果と同じ項目を1行にまとめ、
+     * 取得に失敗したテーブルは table と error のみを出力します。
+     * 
+     * 出力例:
+     * <pre>
+     * {
+     *   "database": "SALES",
+     *   "tables": [
+     *     {"table": "orders", "columns": [...], "sample_data": [...]},
+     *     {"table": "missing", "error": "Table not found or has no columns: missing"}
+     *   ],
+     *   "table_count": 2,
+     *   "error_count": 1
+     * }
+     * </pre>
+     * 
+     * @param dbName データベース名
+     * @param tableNames テーブル名（出力する順）
+     * @param results テーブル名から取得結果へのマップ
+     * @return JSON文字列
+     */
+    static String formatMetadataBatchAsJson(String dbName, List<String> tableNames,
+                                            Map<String, TableMetadata> results) {
+        try (JsonOutput out = JsonOutput.pretty()) {
+            JsonGenerator gen = out.generator();
+            gen.writeStartObject();
+            gen.writeStringField("database", dbName);
+            
+            int errors = 0;
+            gen.writeArrayFieldStart("tables");
+            for (String tableName : tableNames) {
+                TableMetadata metadata = results.get(tableName);
+                if (metadata.error != null) {
+                    gen.writeStartObject();
+                    gen.writeStringField("table", tableName);
+                    gen.writeStringField("error", metadata.error);
+                    gen.writeEndObject();
+                    errors++;
+                } else {
+                    writeMetadata(gen, tableName, metadata.schema, metadata.samples);
                 }
-                json.append("\n");
             }
-            json.append("  ]\n");
-        } else {
-            json.append("[]\n");
+            gen.writeEndArray();
+            
+            gen.writeNumberField("table_count", tableNames.size());
+            gen.writeNumberField("error_count", errors);
+            gen.writeEndObject();
+            return out.toJson();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write table metadata", e);
         }
-        
-        json.append("}");
-        return json.toString();
     }
     
     /**
-     * Dr.Sum型コードを型名に変換
-     * 
-     * @param typeCode 型コード
-     * @return 型名
+     * 1テーブルのメタデータとサンプルデータをJSONオブジェクトとして書き込む
      */
-    private String getTypeName(int typeCode) {
-        switch (typeCode) {
-            case 0: return "VARCHAR";
-            case 1: return "INTEGER";
-            case 2: return "REAL";
-            case 3: return "DATE";
-            case 4: return "TIME";
-            case 5: return "TIMESTAMP";
-            case 6: return "OBJECT";
-            case 7: return "NUMERIC";
-            case 12: return "INTERVAL";
-            default: return "UNKNOWN(" + typeCode + ")";
+    private static void writeMetadata(JsonGenerator gen, String tableName,
+                                      jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] schema,
+                                      Vector<Vector<String>> samples) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("table", tableName);
+        
+        // カラムをフォーマット
+        List<ResultColumn> columns = ResultColumn.fromSchema(schema);
+        gen.writeArrayFieldStart("columns");
+        for (ResultColumn col : columns) {
+            gen.writeStartObject();
+            gen.writeStringField("name", col.getName());
+            gen.writeStringField("display_name", col.getDisplayName());
+            gen.writeNumberField("type", col.getType());
+            gen.writeStringField("type_name", DrSumTypes.getTypeName(col.getType()));
+            gen.writeBooleanField("unique", col.isUnique());
+            gen.writeBooleanField("nullable", col.isNullable());
+            gen.writeNumberField("precision", col.getPrecision());
+            gen.writeNumberField("scale", col.getScale());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        
+        // サンプルデータをフォーマット（クエリ結果と同じく数値型は数値として出力）
+        gen.writeArrayFieldStart("sample_data");
+        if (samples != null) {
+            for (Vector<String> row : samples) {
+                QueryResultFormatter.writeRow(gen, columns, row);
+            }
         }
+        gen.writeEndArray();
+        
+        gen.writeEndObject();
     }
     
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
     /**
-     * JSON用に文字列をエスケープ
-     * 
-     * 特殊文字をエスケープしてJSON文字列として安全に使用できるようにします。
-     * 
-     * @param value エスケープする文字列
-     * @return エスケープされた文字列
+     * 1テーブルの取得結果（取得に失敗した場合は error のみ）
      */
-    private static String escapeJson(String value) {
-        if (value == null) {
-            return "";
+    static final class TableMetadata {
+        final jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] schema;
+        final Vector<Vector<String>> samples;
+        final String error;
+        
+        TableMetadata(jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] schema, Vector<Vector<String>> samples,
+                      String error) {
+            this.schema = schema;
+            this.samples = samples;
+            this.error = error;
+        }
+        
+        static TableMetadata failed(String error) {
+            return new TableMetadata(null, null, error != null ? error : "Failed to retrieve metadata");
         }
-        return value.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
     }
 }
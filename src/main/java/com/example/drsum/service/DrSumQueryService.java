@@ -1,11 +1,20 @@
 package com.example.drsum.service;
 
+import com.example.drsum.backend.BackendCursor;
 import com.example.drsum.connection.DrSumConnection;
+import com.example.drsum.metrics.CallMetrics;
+import com.example.drsum.metrics.Phase;
+import com.example.drsum.model.ResultColumn;
 import jp.co.dw_sapporo.drsum_ea.DWException;
-import jp.co.dw_sapporo.drsum_ea.dbi.DWDbiCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 /**
@@ -15,25 +24,91 @@ import java.util.Vector;
  * 
  * 【責務】
  * - SQLクエリの実行
- * - クエリ結果のJSON整形
+ * - 行数制限（max_rows）、読み飛ばし（offset）、ページング（page_size）、応答サイズの上限（max_response_bytes）の適用
+ * - クエリ結果の整形（JSON、カラム形式、CSV/TSV）
+ * 
+ * 結果行はfetchmanyで一定行数ずつ取得し、取得したチャンクをそのまま出力に書き込みます。
+ * 結果全体を行リストとして保持しないため、ヒープ使用量はチャンクサイズと出力バッファで抑えられます。
+ * ページングを指定した場合のみ、2ページ目以降の行を QueryResultStore に保存します。
+ * 保存する行がストアのバイト数の予算を超えた場合は、行を一時ファイルに退避します（SpilledRows）。
+ * 
+ * 応答サイズの上限（max_response_bytes）を指定した場合、出力が上限に達した時点で行の出力をやめます。
+ * ページングなしでは残りの行も最後まで取得して行数を数え、カラムごとの要約（ColumnSummaries）を
+ * 同じ走査で集計して結果に付けます。ページングありではページを早めに終え、残りの行を保存します。
+ * 
+ * 実行・行の取得・整形の時間と取得した行数は、呼び出し元のスレッドで計測中の CallMetrics に記録します。
+ * 
+ * 中断制御（QueryCancellation）を指定した場合、タイムアウトやキャンセルで中断されるとカーソルと接続を閉じ、
+ * QueryCancelledException を投げます。閉じた接続は再利用できないため、呼び出し元で破棄してください。
  */
 public class DrSumQueryService {
     
     private static final Logger logger = LoggerFactory.getLogger(DrSumQueryService.class);
     
+    /**
+     * デフォルトのフェッチサイズ（1回のfetchmanyで取得する行数）
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    
     private final DrSumConnection dsConnection;
+    private final int fetchSize;
+    private final QueryResultStore resultStore;
+    private final QueryCancellation cancellation;
     
     /**
-     * コンストラクタ
+     * コンストラクタ（デフォルトのフェッチサイズを使用、ページングなし）
      * 
      * @param connection Dr.Sum接続
      * @throws IllegalArgumentException connectionがnullの場合
      */
     public DrSumQueryService(DrSumConnection connection) {
+        this(connection, DEFAULT_FETCH_SIZE);
+    }
+    
+    /**
+     * コンストラクタ（ページングなし）
+     * 
+     * @param connection Dr.Sum接続
+     * @param fetchSize 1回のfetchmanyで取得する行数
+     * @throws IllegalArgumentException connectionがnull、またはfetchSizeが1未満の場合
+     */
+    public DrSumQueryService(DrSumConnection connection, int fetchSize) {
+        this(connection, fetchSize, null);
+    }
+    
+    /**
+     * コンストラクタ（中断なし）
+     * 
+     * @param connection Dr.Sum接続
+     * @param fetchSize 1回のfetchmanyで取得する行数
+     * @param resultStore ページングした結果の保存先（nullの場合はページング不可）
+     * @throws IllegalArgumentException connectionがnull、またはfetchSizeが1未満の場合
+     */
+    public DrSumQueryService(DrSumConnection connection, int fetchSize, QueryResultStore resultStore) {
+        this(connection, fetchSize, resultStore, null);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param connection Dr.Sum接続
+     * @param fetchSize 1回のfetchmanyで取得する行数
+     * @param resultStore ページングした結果の保存先（nullの場合はページング不可）
+     * @param cancellation 呼び出しの中断制御（nullの場合は中断しない）
+     * @throws IllegalArgumentException connectionがnull、またはfetchSizeが1未満の場合
+     */
+    public DrSumQueryService(DrSumConnection connection, int fetchSize, QueryResultStore resultStore,
+                             QueryCancellation cancellation) {
         if (connection == null) {
             throw new IllegalArgumentException("DrSumConnection cannot be null");
         }
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
         this.dsConnection = connection;
+        this.fetchSize = fetchSize;
+        this.resultStore = resultStore;
+        this.cancellation = cancellation;
     }
     
     // ========================================================================
@@ -41,7 +116,7 @@ public class DrSumQueryService {
     // ========================================================================
     
     /**
-     * SQLクエリを実行
+     * SQLクエリを実行し、全ての行を返す
      * 
      * @param sql SQLクエリ文字列
      * @return JSON文字列としてのクエリ結果
@@ -50,10 +125,37 @@ public class DrSumQueryService {
      * @throws IllegalArgumentException SQLがnullまたは空の場合
      */
     public String executeQuery(String sql) throws DWException {
+        return executeQuery(sql, QueryOptions.defaults());
+    }
+    
+    /**
+     * SQLクエリを実行
+     * 
+     * ページングを指定した場合、最初のページを返し、残りの行（max_rows まで）を保存して
+     * 継続トークンを返します。
+     * 
+     * ページングなしで応答サイズの上限に達した場合は、"truncated": true、全体の行数（total_row_count）、
+     * カラムごとの要約（column_summaries）を付けて返します。
+     * 
+     * @param sql SQLクエリ文字列
+     * @param options 行数制限・ページング・出力形式・応答サイズの上限のオプション
+     * @return 出力形式（options.getOutputFormat()）に従ったクエリ結果
+     * @throws DWException クエリ実行に失敗した場合
+     * @throws IllegalStateException 接続されていない、またはページングが利用できない場合
+     * @throws IllegalArgumentException SQLがnullまたは空の場合
+     * @throws QueryCancelledException タイムアウトまたはキャンセルで中断された場合
+     */
+    public String executeQuery(String sql, QueryOptions options) throws DWException {
         // パラメータを先に検証
         if (sql == null || sql.trim().isEmpty()) {
             throw new IllegalArgumentException("SQL query cannot be null or empty");
         }
+        if (options == null) {
+            options = QueryOptions.defaults();
+        }
+        if (options.isPaged() && resultStore == null) {
+            throw new IllegalStateException("Paging is not available: no result store configured");
+        }
         
         // 接続をチェック
         if (!dsConnection.isConnected()) {
@@ -62,28 +164,73 @@ public class DrSumQueryService {
         
         logger.info("Executing SQL query: {}", sql.substring(0, Math.min(sql.length(), 100)));
         
-        jp.co.dw_sapporo.drsum_ea.dbi.DWDbiConnection conn = dsConnection.getConnection();
-        DWDbiCursor cursor = conn.cursor();
+        BackendCursor cursor = dsConnection.getConnection().cursor();
+        if (cancellation != null) {
+            // 中断時はカーソルと接続を閉じ、execute/fetchmanyで待っているこのスレッドを解放する
+            cancellation.onAbort(() -> abort(cursor));
+        }
         
         try {
+            checkCancelled();
+            
             // クエリを実行
+            long executeStart = System.nanoTime();
             cursor.execute(sql);
+            CallMetrics.current().addSince(Phase.EXECUTE, executeStart);
             
             // スキーマを取得
-            jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] schema = cursor.m_oDescription;
+            List<ResultColumn> schema = ResultColumn.fromSchema(cursor.getDescription());
             
-            // 全結果を取得（大きな結果セットには注意）
-            Vector<Vector<String>> results = cursor.fetchall();
-            
-            // JSONとしてフォーマット
-            return formatQueryResultsAsJson(schema, results);
+            // 結果をチャンク単位で取得しながら出力形式に従ってフォーマット
+            return formatQueryResults(schema, cursor, options);
             
         } catch (DWException e) {
+            // 中断で閉じられたことによるエラーはタイムアウト／キャンセルとして報告
+            checkCancelled();
             logger.error("Failed to execute query: {}", e.getMessage());
             throw e;
+        } catch (RuntimeException e) {
+            checkCancelled();
+            throw e;
         } finally {
-            cursor.close();
+            closeCursor(cursor);
+        }
+    }
+    
+    /**
+     * 参照のみのSQL（SELECT または WITH で始まる文）かどうかを判定
+     * 
+     * 先頭の空白・行コメント・ブロックコメント・括弧は読み飛ばします。
+     * 引用符・コメントの外のセミコロンの後に別の文が続く場合（SELECT 1; DELETE ...）は参照のみとみなしません。
+     * 同じ結果を共有してよいかの判断に使用するため、判定できない場合はfalseを返します。
+     * 
+     * @param sql SQLクエリ文字列
+     * @return 参照のみのSQLの場合true
+     */
+    public static boolean isReadOnly(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c) || c == '(') {
+                i++;
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else {
+                break;
+            }
+        }
+        if (!startsWithKeyword(sql, i, "SELECT") && !startsWithKeyword(sql, i, "WITH")) {
+            return false;
         }
+        return !hasFollowingStatement(sql, i);
     }
     
     // ========================================================================
@@ -91,80 +238,260 @@ public class DrSumQueryService {
     // ========================================================================
     
     /**
-     * クエリ結果をJSONとしてフォーマット
+     * クエリ結果を出力形式に従ってフォーマット
+     * 
+     * カーソルからfetchSize行ずつ取得し、各チャンクを出力に書き込んだ後に破棄します。
+     * 行数の上限に達した時点で取得を打ち切ります。
      * 
      * @param schema カラム情報
-     * @param results 結果行
-     * @return JSON文字列
+     * @param cursor 実行済みのカーソル
+     * @param options 行数制限・ページングのオプション
+     * @return 結果の文字列
+     * @throws DWException 行の取得に失敗した場合
      */
-    private String formatQueryResultsAsJson(jp.co.dw_sapporo.drsum_ea.DWColumnInfo[] schema,
-                                           Vector<Vector<String>> results) {
-        StringBuilder json = new StringBuilder();
-        json.append("{\n");
+    private String formatQueryResults(List<ResultColumn> schema,
+                                           BackendCursor cursor,
+                                           QueryOptions options) throws DWException {
+        int pageSize = options.getPageSize();
+        long limit = options.getMaxRows() > 0 ? options.getMaxRows() : Long.MAX_VALUE;
+        if (options.isPaged()) {
+            // 保存する行数はストアの上限まで
+            limit = Math.min(limit, (long) pageSize + resultStore.getMaxRowsPerResult());
+        }
         
-        // カラム情報をフォーマット
-        json.append("  \"columns\": [\n");
-        for (int i = 0; i < schema.length; i++) {
-            jp.co.dw_sapporo.drsum_ea.DWColumnInfo col = schema[i];
-            json.append("    {");
-            json.append("\"name\": \"").append(escapeJson(col.m_sName)).append("\", ");
-            json.append("\"display_name\": \"").append(escapeJson(col.m_sDisplay)).append("\", ");
-            json.append("\"type\": ").append(col.m_iType);
-            json.append("}");
-            if (i < schema.length - 1) {
-                json.append(",");
-            }
-            json.append("\n");
+        try (QueryResultWriter writer = QueryResultWriter.create(options.getOutputFormat())) {
+            writer.begin(schema);
+            return writeRows(writer, schema, cursor, options, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write query result", e);
         }
-        json.append("  ],\n");
+    }
+    
+    /**
+     * カーソルの行を書き込み、結果を閉じる
+     * 
+     * @param writer 出力先（書き込み開始済み）
+     * @param schema カラム情報
+     * @param cursor 実行済みのカーソル
+     * @param options 行数制限・ページングのオプション
+     * @param limit 受け付ける行数の上限（保存分を含む）
+     * @return 出力形式に従った結果の文字列
+     * @throws DWException 行の取得に失敗した場合
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private String writeRows(QueryResultWriter writer, List<ResultColumn> schema, BackendCursor cursor,
+                             QueryOptions options, long limit) throws DWException, IOException {
+        int pageSize = options.getPageSize();
+        int budget = options.getMaxResponseBytes();
         
-        // 結果データをフォーマット
-        json.append("  \"rows\": [\n");
-        if (results != null) {
-            for (int i = 0; i < results.size(); i++) {
-                Vector<String> row = results.get(i);
-                json.append("    [");
-                for (int j = 0; j < row.size(); j++) {
-                    String value = row.get(j);
-                    if (value == null) {
-                        json.append("null");
-                    } else {
-                        json.append("\"").append(escapeJson(value)).append("\"");
-                    }
-                    if (j < row.size() - 1) {
-                        json.append(", ");
+        long toSkip = options.getOffset();
+        long accepted = 0;
+        int emitted = 0;
+        boolean truncated = false;
+        boolean overBudget = false;
+        // 上限で切り詰めた場合に出力しなかった行も含めて要約するため、全行を集計する
+        // （ページングでは残りの行を保存して後続のページで返すため不要）
+        ColumnSummaries summaries = budget > 0 && !options.isPaged() ? new ColumnSummaries(schema) : null;
+        List<Vector<String>> remaining = null;
+        long remainingBytes = 0;
+        SpilledRows.Writer spill = null;
+        CallMetrics metrics = CallMetrics.current();
+        
+        try {
+            // 結果データをチャンク単位でフォーマット
+            fetchLoop:
+            while (true) {
+                long fetchStart = System.nanoTime();
+                Vector<Vector<String>> chunk = cursor.fetchmany(fetchSize);
+                metrics.addSince(Phase.FETCH, fetchStart);
+                checkCancelled();
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                metrics.addRows(chunk.size());
+                long formatStart = System.nanoTime();
+                try {
+                    for (Vector<String> row : chunk) {
+                        if (toSkip > 0) {
+                            toSkip--;
+                            continue;
+                        }
+                        if (accepted >= limit) {
+                            truncated = true;
+                            break fetchLoop;
+                        }
+                        accepted++;
+                        if (summaries != null) {
+                            summaries.add(row);
+                        }
+                        if (!overBudget && (!options.isPaged() || emitted < pageSize)) {
+                            writer.writeRow(row);
+                            emitted++;
+                            overBudget = budget > 0 && writer.outputBytes() >= budget;
+                        } else if (!options.isPaged()) {
+                            continue;  // 上限を超えた行は出力せず、行数と要約だけを集計する
+                        } else if (spill != null) {
+                            spill.add(row);
+                        } else {
+                            if (remaining == null) {
+                                remaining = new ArrayList<>();
+                            }
+                            remaining.add(row);
+                            remainingBytes += SpilledRows.estimateHeapBytes(row);
+                            if (shouldSpill(remainingBytes)) {
+                                // 予算を超えたら保持中の行ごと一時ファイルに移す
+                                spill = SpilledRows.writer(resultStore.getSpillDirectory());
+                                for (Vector<String> held : remaining) {
+                                    spill.add(held);
+                                }
+                                remaining = null;
+                            }
+                        }
                     }
+                } finally {
+                    metrics.addSince(Phase.FORMAT, formatStart);
                 }
-                json.append("]");
-                if (i < results.size() - 1) {
-                    json.append(",");
+                if (chunk.size() < fetchSize) {
+                    break;  // 最終チャンク
                 }
-                json.append("\n");
+            }
+            if (spill != null) {
+                remaining = spill.finish();
+            }
+        } finally {
+            if (spill != null) {
+                spill.close();
             }
         }
-        json.append("  ],\n");
-        json.append("  \"row_count\": ").append(results != null ? results.size() : 0).append("\n");
-        json.append("}");
         
-        return json.toString();
+        Map<String, Object> extras = new LinkedHashMap<>();
+        if (options.isPaged() || options.getOffset() > 0) {
+            extras.put("offset", options.getOffset());
+        }
+        if (options.isPaged()) {
+            boolean hasMore = remaining != null;
+            extras.put("has_more", hasMore);
+            if (hasMore) {
+                int startIndex = options.getOffset() + emitted;
+                String token = resultStore.put(new QueryResultStore.StoredResult(
+                        schema, remaining, startIndex, pageSize, truncated));
+                extras.put("continuation_token", token);
+                logger.info("Stored {} remaining row(s) for paging{}", remaining.size(),
+                           spill != null ? " (spilled to disk)" : "");
+            }
+        }
+        boolean budgetTruncated = !options.isPaged() && accepted > emitted;
+        if ((truncated || budgetTruncated) && (remaining == null)) {
+            extras.put("truncated", true);
+        }
+        if (budgetTruncated) {
+            extras.put("total_row_count", accepted);
+            extras.put("max_response_bytes", budget);
+            extras.put("column_summaries", summaries);
+            logger.info("Response reached max_response_bytes ({}) after {} of {} row(s)",
+                       budget, emitted, accepted);
+        }
+        logger.info("Fetched {} row(s) in chunks of {}{}", accepted, fetchSize,
+                   truncated ? " (truncated)" : "");
+        long finishStart = System.nanoTime();
+        String json = writer.finish(emitted, extras);
+        metrics.addSince(Phase.FORMAT, finishStart);
+        return json;
     }
     
     /**
-     * JSON用に文字列をエスケープ
-     * 
-     * 特殊文字をエスケープしてJSON文字列として安全に使用できるようにします。
+     * 中断されている場合に QueryCancelledException を投げる
+     */
+    private void checkCancelled() {
+        if (cancellation != null) {
+            cancellation.throwIfCancelled();
+        }
+    }
+    
+    /**
+     * 中断処理: カーソルと接続を閉じる（別スレッドから呼び出される）
+     */
+    private void abort(BackendCursor cursor) {
+        try {
+            cursor.close();
+        } catch (Exception e) {
+            logger.warn("Failed to close aborted cursor: {}", e.getMessage());
+        }
+        dsConnection.abort();
+    }
+    
+    /**
+     * カーソルを閉じ、以降は中断時に接続を閉じない
      * 
-     * @param value エスケープする文字列
-     * @return エスケープされた文字列
-     */
-    private static String escapeJson(String value) {
-        if (value == null) {
-            return "";
-        }
-        return value.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
+     * 中断された場合はカーソルが既に閉じられているため、クローズのエラーを無視します。
+     */
+    private void closeCursor(BackendCursor cursor) throws DWException {
+        if (cancellation == null) {
+            cursor.close();
+            return;
+        }
+        cancellation.onAbort(null);
+        if (!cancellation.isCancelled()) {
+            cursor.close();
+            return;
+        }
+        try {
+            cursor.close();
+        } catch (Exception e) {
+            logger.debug("Ignoring close error of aborted cursor: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 保存する行のバイト数がストアの予算を超えたかどうか
+     */
+    private boolean shouldSpill(long remainingBytes) {
+        long threshold = resultStore.getSpillThresholdBytes();
+        return threshold > 0 && remainingBytes > threshold;
+    }
+    
+    /**
+     * 指定位置から大文字小文字を区別せずにキーワードが始まり、その後に識別子が続かないかどうか
+     */
+    /**
+     * 引用符・コメントの外のセミコロンの後に、空白・コメント・セミコロン以外が続くかどうか
+     */
+    private static boolean hasFollowingStatement(String sql, int start) {
+        boolean separated = false;
+        int i = start;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == ';') {
+                separated = true;
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (separated) {
+                return true;
+            } else if (c == '\'' || c == '"') {
+                // 引用符の2連続はエスケープとして扱う
+                int end = sql.indexOf(c, i + 1);
+                while (end >= 0 && end + 1 < length && sql.charAt(end + 1) == c) {
+                    end = sql.indexOf(c, end + 2);
+                }
+                i = end < 0 ? length : end + 1;
+            } else {
+                i++;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean startsWithKeyword(String sql, int index, String keyword) {
+        int end = index + keyword.length();
+        return sql.regionMatches(true, index, keyword, 0, keyword.length())
+                && (end == sql.length() || !Character.isJavaIdentifierPart(sql.charAt(end)));
     }
 }
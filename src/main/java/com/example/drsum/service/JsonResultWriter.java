@@ -0,0 +1,54 @@
+package com.example.drsum.service;
+
+import com.example.drsum.format.JsonOutput;
+import com.example.drsum.model.ResultColumn;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * 行単位のJSON出力（json, json_compact）
+ * 
+ * 各行を取得した時点でJsonGeneratorに書き込みます。
+ */
+final class JsonResultWriter implements QueryResultWriter {
+    
+    private final JsonOutput out;
+    private List<ResultColumn> columns;
+    
+    /**
+     * @param out 出力先（整形あり・なし）
+     */
+    JsonResultWriter(JsonOutput out) {
+        this.out = out;
+    }
+    
+    @Override
+    public void begin(List<ResultColumn> columns) throws IOException {
+        this.columns = columns;
+        QueryResultFormatter.beginResult(out.generator(), columns);
+    }
+    
+    @Override
+    public void writeRow(Vector<String> row) throws IOException {
+        QueryResultFormatter.writeRow(out.generator(), columns, row);
+    }
+    
+    @Override
+    public long outputBytes() throws IOException {
+        return out.byteLength();
+    }
+    
+    @Override
+    public String finish(int rowCount, Map<String, Object> extras) throws IOException {
+        QueryResultFormatter.endResult(out.generator(), rowCount, extras);
+        return out.toJson();
+    }
+    
+    @Override
+    public void close() {
+        out.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.drsum.service;
+
+import java.util.Locale;
+
+/**
+ * クエリ結果の出力形式
+ * 
+ * execute_query の output_format パラメータの値に対応します。
+ */
+public enum OutputFormat {
+    
+    /** 整形したJSON（1行1レコード） */
+    JSON("json"),
+    
+    /** 空白を含まないJSON */
+    JSON_COMPACT("json_compact"),
+    
+    /** カラムごとに値の配列を持つJSON（重複の多い文字列カラムは辞書化） */
+    COLUMNAR("columnar"),
+    
+    /** カンマ区切り（RFC 4180形式） */
+    CSV("csv"),
+    
+    /** タブ区切り */
+    TSV("tsv");
+    
+    private final String parameterValue;
+    
+    OutputFormat(String parameterValue) {
+        this.parameterValue = parameterValue;
+    }
+    
+    /**
+     * output_format パラメータでの名前を取得
+     */
+    public String getParameterValue() {
+        return parameterValue;
+    }
+    
+    /**
+     * output_format パラメータの値から出力形式を取得
+     * 
+     * @param value パラメータの値（nullまたは空の場合はJSON）
+     * @return 出力形式
+     * @throws IllegalArgumentException 未知の値の場合
+     */
+    public static OutputFormat fromParameter(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return JSON;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (OutputFormat format : values()) {
+            if (format.parameterValue.equals(normalized)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown output_format: " + value +
+                                           " (expected json, json_compact, columnar, csv or tsv)");
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.drsum.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ツール呼び出しの中断制御
+ * 
+ * 1回のツール呼び出しを、タイムアウトまたはMCPクライアントからのキャンセル要求で中断します。
+ * 中断時は登録された処理（カーソルと接続を閉じる処理）を呼び出し元とは別のスレッドで実行し、
+ * Dr.Sumの応答を待ってブロックしているスレッドを解放します。
+ * 
+ * 【責務】
+ * - 実行中・完了・中断（タイムアウト／キャンセル）の状態管理
+ * - 中断時の処理の実行（中断後に登録された場合は登録時に実行）
+ * - 完了時のタイマーの解除
+ * 
+ * 完了（finish()）した後の中断要求は無視されるため、結果を返し終えた接続が閉じられることはありません。
+ */
+public final class QueryCancellation {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueryCancellation.class);
+    
+    /**
+     * 中断の理由
+     */
+    public enum Reason {
+        /** 制限時間（timeout_ms）を超えた */
+        TIMEOUT,
+        /** MCPクライアントがキャンセルした */
+        CANCELLED
+    }
+    
+    private final long startNanos = System.nanoTime();
+    
+    // 以下はthisで保護
+    private Reason reason;
+    private boolean finished;
+    private Runnable abortAction;
+    private Future<?> timer;
+    private long timeoutMs;
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 呼び出しを中断
+     * 
+     * 登録済みの中断処理をこのスレッドで実行します。
+     * 既に完了または中断している場合は何もしません。
+     * 
+     * @param reason 中断の理由
+     * @return 中断した場合true
+     * @throws IllegalArgumentException reasonがnullの場合
+     */
+    public boolean cancel(Reason reason) {
+        if (reason == null) {
+            throw new IllegalArgumentException("Reason cannot be null");
+        }
+        Runnable action;
+        Future<?> pendingTimer;
+        synchronized (this) {
+            if (finished || this.reason != null) {
+                return false;
+            }
+            this.reason = reason;
+            action = abortAction;
+            abortAction = null;
+            pendingTimer = timer;
+        }
+        if (pendingTimer != null && reason != Reason.TIMEOUT) {
+            pendingTimer.cancel(false);
+        }
+        logger.warn("Aborting tool call after {} ms ({})", getElapsedMs(), reason);
+        runQuietly(action);
+        return true;
+    }
+    
+    /**
+     * 中断時に実行する処理を登録（登録済みの処理は置き換える）
+     * 
+     * 既に中断している場合は、このスレッドで直ちに実行します。
+     * 
+     * @param action 中断時に実行する処理（ブロックしている処理を解放するもの）
+     */
+    public void onAbort(Runnable action) {
+        boolean runNow;
+        synchronized (this) {
+            runNow = reason != null;
+            if (!runNow && !finished) {
+                abortAction = action;
+            }
+        }
+        if (runNow) {
+            runQuietly(action);
+        }
+    }
+    
+    /**
+     * 呼び出しの完了を記録（以降の中断要求は無視し、タイマーを解除）
+     */
+    public void finish() {
+        Future<?> pendingTimer;
+        synchronized (this) {
+            finished = true;
+            abortAction = null;
+            pendingTimer = timer;
+            timer = null;
+        }
+        if (pendingTimer != null) {
+            pendingTimer.cancel(false);
+        }
+    }
+    
+    /**
+     * 中断されている場合に例外を投げる
+     * 
+     * @throws QueryCancelledException 中断されている場合
+     */
+    public void throwIfCancelled() {
+        Reason current;
+        long limit;
+        synchronized (this) {
+            current = reason;
+            limit = timeoutMs;
+        }
+        if (current != null) {
+            throw new QueryCancelledException(current, limit, getElapsedMs());
+        }
+    }
+    
+    /**
+     * 中断されているかどうか
+     */
+    public synchronized boolean isCancelled() {
+        return reason != null;
+    }
+    
+    /**
+     * 中断の理由（中断されていない場合はnull）
+     */
+    public synchronized Reason getReason() {
+        return reason;
+    }
+    
+    /**
+     * 設定された制限時間（ミリ秒、0は制限なし）
+     */
+    public synchronized long getTimeoutMs() {
+        return timeoutMs;
+    }
+    
+    /**
+     * 作成からの経過時間（ミリ秒）
+     */
+    public long getElapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+    
+    // ========================================================================
+    // パッケージプライベートメソッド（QueryWatchdog用）
+    // ========================================================================
+    
+    /**
+     * 制限時間を記録（タイマーを開始する前に呼び出す）
+     * 
+     * @return 記録した場合true（既に完了または中断している場合はfalse）
+     */
+    synchronized boolean setTimeoutMs(long timeoutMs) {
+        if (finished || reason != null) {
+            return false;
+        }
+        this.timeoutMs = timeoutMs;
+        return true;
+    }
+    
+    /**
+     * 完了時に解除するタイマーを設定
+     * 
+     * @return 設定した場合true（既に完了している場合はfalse、呼び出し元でタイマーを解除する）
+     */
+    synchronized boolean setTimer(Future<?> timer) {
+        if (finished) {
+            return false;
+        }
+        this.timer = timer;
+        return true;
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * 中断処理を実行（例外はログのみ）
+     */
+    private static void runQuietly(Runnable action) {
+        if (action == null) {
+            return;
+        }
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            logger.warn("Abort action failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.drsum.service;
+
+/**
+ * ツール呼び出しがタイムアウトまたはキャンセルにより中断されたことを示す例外
+ * 
+ * 中断時は実行中の接続を閉じているため、この例外を受け取った呼び出し元は接続を再利用せずに破棄します。
+ */
+public class QueryCancelledException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final QueryCancellation.Reason reason;
+    private final long timeoutMs;
+    private final long elapsedMs;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param reason 中断の理由
+     * @param timeoutMs 設定されていた制限時間（ミリ秒、0は制限なし）
+     * @param elapsedMs 中断までの経過時間（ミリ秒）
+     */
+    public QueryCancelledException(QueryCancellation.Reason reason, long timeoutMs, long elapsedMs) {
+        super(reason == QueryCancellation.Reason.TIMEOUT
+                ? "Query timed out after " + elapsedMs + " ms (timeout_ms=" + timeoutMs + ")"
+                : "Query was cancelled by the client after " + elapsedMs + " ms");
+        this.reason = reason;
+        this.timeoutMs = timeoutMs;
+        this.elapsedMs = elapsedMs;
+    }
+    
+    /**
+     * 中断の理由
+     */
+    public QueryCancellation.Reason getReason() {
+        return reason;
+    }
+    
+    /**
+     * 設定されていた制限時間（ミリ秒、0は制限なし）
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+    
+    /**
+     * 中断までの経過時間（ミリ秒）
+     */
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.drsum.service;
+
+/**
+ * クエリ実行オプション
+ * 
+ * execute_query の行数制限、ページング、出力形式、応答サイズの上限のパラメータを保持します。
+ * インスタンスは builder() で作成します。
+ */
+public final class QueryOptions {
+    
+    private static final QueryOptions DEFAULTS = builder().build();
+    
+    private final int maxRows;
+    private final int offset;
+    private final int pageSize;
+    private final OutputFormat outputFormat;
+    private final int maxResponseBytes;
+    
+    private QueryOptions(Builder builder) {
+        this.maxRows = builder.maxRows;
+        this.offset = builder.offset;
+        this.pageSize = builder.pageSize;
+        this.outputFormat = builder.outputFormat;
+        this.maxResponseBytes = builder.maxResponseBytes;
+    }
+    
+    /**
+     * 制限なし・ページングなしのデフォルトオプションを取得
+     */
+    public static QueryOptions defaults() {
+        return DEFAULTS;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    // ========================================================================
+    // Getter メソッド
+    // ========================================================================
+    
+    /**
+     * 取得する最大行数（offset適用後、0は無制限）
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+    
+    /**
+     * 読み飛ばす先頭行数
+     */
+    public int getOffset() {
+        return offset;
+    }
+    
+    /**
+     * 1ページの行数（0はページングなし）
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+    
+    /**
+     * ページングが有効かどうか
+     */
+    public boolean isPaged() {
+        return pageSize > 0;
+    }
+    
+    /**
+     * 結果の出力形式
+     */
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+    
+    /**
+     * 応答のうち行データに使う最大バイト数（UTF-8、0は無制限）
+     */
+    public int getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+    
+    /**
+     * QueryOptionsのビルダー
+     */
+    public static final class Builder {
+        private int maxRows;
+        private int offset;
+        private int pageSize;
+        private OutputFormat outputFormat = OutputFormat.JSON;
+        private int maxResponseBytes;
+        
+        private Builder() {
+        }
+        
+        /**
+         * @param maxRows 取得する最大行数（0は無制限）
+         * @throws IllegalArgumentException 負の値の場合
+         */
+        public Builder maxRows(int maxRows) {
+            if (maxRows < 0) {
+                throw new IllegalArgumentException("max_rows must be non-negative");
+            }
+            this.maxRows = maxRows;
+            return this;
+        }
+        
+        /**
+         * @param offset 読み飛ばす先頭行数
+         * @throws IllegalArgumentException 負の値の場合
+         */
+        public Builder offset(int offset) {
+            if (offset < 0) {
+                throw new IllegalArgumentException("offset must be non-negative");
+            }
+            this.offset = offset;
+            return this;
+        }
+        
+        /**
+         * @param pageSize 1ページの行数（0はページングなし）
+         * @throws IllegalArgumentException 負の値の場合
+         */
+        public Builder pageSize(int pageSize) {
+            if (pageSize < 0) {
+                throw new IllegalArgumentException("page_size must be non-negative");
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+        
+        /**
+         * @param outputFormat 結果の出力形式
+         * @throws IllegalArgumentException nullの場合
+         */
+        public Builder outputFormat(OutputFormat outputFormat) {
+            if (outputFormat == null) {
+                throw new IllegalArgumentException("output_format cannot be null");
+            }
+            this.outputFormat = outputFormat;
+            return this;
+        }
+        
+        /**
+         * @param maxResponseBytes 応答のうち行データに使う最大バイト数（0は無制限）
+         * @throws IllegalArgumentException 負の値の場合
+         */
+        public Builder maxResponseBytes(int maxResponseBytes) {
+            if (maxResponseBytes < 0) {
+                throw new IllegalArgumentException("max_response_bytes must be non-negative");
+            }
+            this.maxResponseBytes = maxResponseBytes;
+            return this;
+        }
+        
+        public QueryOptions build() {
+            return new QueryOptions(this);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.drsum.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * クエリ結果ページサービス
+ * 
+ * 継続トークンが指すページを QueryResultStore から返します。
+ * クエリは再実行せず、Dr.Sumへの接続も不要です。
+ * 
+ * 【責務】
+ * - 継続トークンの検証
+ * - 保存された結果からのページ切り出しと整形
+ * 
+ * 応答サイズの上限（max_response_bytes）を指定した場合、出力が上限に達した行でページを終え、
+ * 続きの行を指す継続トークンを返します。
+ */
+public class QueryPageService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueryPageService.class);
+    
+    private final QueryResultStore resultStore;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param resultStore クエリ結果ストア
+     * @throws IllegalArgumentException resultStoreがnullの場合
+     */
+    public QueryPageService(QueryResultStore resultStore) {
+        if (resultStore == null) {
+            throw new IllegalArgumentException("QueryResultStore cannot be null");
+        }
+        this.resultStore = resultStore;
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 継続トークンが指すページをJSONとして取得
+     * 
+     * @param continuationToken execute_query が返した継続トークン
+     * @param pageSize ページの行数（0の場合はクエリ実行時のページサイズ）
+     * @return JSON文字列としてのページ
+     * @throws IllegalArgumentException トークンが不正、期限切れ、または範囲外の場合
+     */
+    public String fetchPage(String continuationToken, int pageSize) {
+        return fetchPage(continuationToken, pageSize, OutputFormat.JSON);
+    }
+    
+    /**
+     * 継続トークンが指すページを取得
+     * 
+     * @param continuationToken execute_query が返した継続トークン
+     * @param pageSize ページの行数（0の場合はクエリ実行時のページサイズ）
+     * @param outputFormat ページの出力形式
+     * @return 出力形式に従ったページ
+     * @throws IllegalArgumentException トークンが不正、期限切れ、または範囲外の場合
+     */
+    public String fetchPage(String continuationToken, int pageSize, OutputFormat outputFormat) {
+        return fetchPage(continuationToken, pageSize, outputFormat, 0);
+    }
+    
+    /**
+     * 継続トークンが指すページを応答サイズの上限内で取得
+     * 
+     * @param continuationToken execute_query が返した継続トークン
+     * @param pageSize ページの行数（0の場合はクエリ実行時のページサイズ）
+     * @param outputFormat ページの出力形式
+     * @param maxResponseBytes 行データに使う最大バイト数（0は無制限、少なくとも1行は返す）
+     * @return 出力形式に従ったページ
+     * @throws IllegalArgumentException トークンが不正、期限切れ、または範囲外の場合
+     */
+    public String fetchPage(String continuationToken, int pageSize, OutputFormat outputFormat,
+                            int maxResponseBytes) {
+        if (continuationToken == null || continuationToken.trim().isEmpty()) {
+            throw new IllegalArgumentException("Continuation token cannot be null or empty");
+        }
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("page_size must be non-negative");
+        }
+        if (outputFormat == null) {
+            throw new IllegalArgumentException("output_format cannot be null");
+        }
+        if (maxResponseBytes < 0) {
+            throw new IllegalArgumentException("max_response_bytes must be non-negative");
+        }
+        
+        QueryResultStore.Token token = QueryResultStore.Token.parse(continuationToken.trim());
+        QueryResultStore.StoredResult result = resultStore.get(token.getId());
+        if (result == null) {
+            throw new IllegalArgumentException(
+                "Continuation token has expired or is unknown. Please re-run the query.");
+        }
+        
+        int from = token.getOffset();
+        if (from < result.getStartIndex() || from > result.getEndIndex()) {
+            throw new IllegalArgumentException("Continuation token is out of range: " + continuationToken);
+        }
+        
+        int size = pageSize > 0 ? pageSize : result.getPageSize();
+        int end = (int) Math.min((long) from + size, result.getEndIndex());
+        
+        try (QueryResultWriter writer = QueryResultWriter.create(outputFormat)) {
+            writer.begin(result.getSchema());
+            int to = from;
+            while (to < end) {
+                writer.writeRow(result.getRow(to++));
+                if (maxResponseBytes > 0 && writer.outputBytes() >= maxResponseBytes) {
+                    break;  // 上限に達したら残りは次のページに回す
+                }
+            }
+            boolean hasMore = to < result.getEndIndex();
+            
+            logger.info("Serving rows {}-{} from stored result {}", from, to, token.getId());
+            
+            Map<String, Object> extras = new LinkedHashMap<>();
+            extras.put("offset", from);
+            extras.put("has_more", hasMore);
+            if (hasMore) {
+                extras.put("continuation_token", new QueryResultStore.Token(token.getId(), to).toString());
+            } else if (result.isTruncated()) {
+                extras.put("truncated", true);
+            }
+            return writer.finish(to - from, extras);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write result page", e);
+        }
+    }
+}
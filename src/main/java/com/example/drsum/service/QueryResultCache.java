@@ -0,0 +1,248 @@
+package com.example.drsum.service;
+
+import com.example.drsum.cache.TtlLruCache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * クエリ結果キャッシュ
+ * 
+ * 参照系SQL（SELECT/WITH）の整形済みの結果を、SQLのフィンガープリントと
+ * 結果に影響するオプション（max_rows, offset, output_format）をキーとして保持します。
+ * 夜間にのみ更新されるテーブルへの同じ集計クエリを、Dr.Sumに再実行させずに返せます。
+ * 
+ * 【責務】
+ * - 結果の保持と有効期限（登録からのTTL）の管理
+ * - 合計サイズ（バイト数の概算）の上限管理（最も長く参照されていない結果から破棄）
+ * - テーブル単位・全体の無効化（更新系SQLの実行後は対象テーブル単位）
+ * - ヒット・ミス・破棄件数の集計
+ * 
+ * 継続トークンを含む結果（page_size 指定時）は、トークンの有効期限と一致しないためキャッシュしません。
+ * サイズはJavaの文字列が1文字2バイトであることに基づくヒープ使用量の概算です。
+ */
+public class QueryResultCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueryResultCache.class);
+    
+    // 1エントリあたりのキー・管理情報の概算バイト数
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    
+    private final long ttlMs;
+    private final long maxBytes;
+    private final LongSupplier clock;
+    
+    // アクセス順（古い順）に保持
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param ttlMs 登録から結果を破棄するまでの時間（ミリ秒）
+     * @param maxBytes 保持する結果の合計サイズの上限（バイト）
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public QueryResultCache(long ttlMs, long maxBytes) {
+        this(ttlMs, maxBytes, System::currentTimeMillis);
+    }
+    
+    /**
+     * テスト用コンストラクタ
+     */
+    QueryResultCache(long ttlMs, long maxBytes, LongSupplier clock) {
+        if (ttlMs <= 0) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Max bytes must be positive");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.ttlMs = ttlMs;
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * SQLとオプションがキャッシュの対象かどうか
+     * 
+     * @param sql SQLクエリ文字列
+     * @param options 実行オプション
+     * @return 参照系SQLで、ページングを指定していない場合true
+     */
+    public static boolean isCacheable(String sql, QueryOptions options) {
+        return DrSumQueryService.isReadOnly(sql) && (options == null || !options.isPaged());
+    }
+    
+    /**
+     * キャッシュされた結果を取得
+     * 
+     * @param fingerprint SQLのフィンガープリント
+     * @param options 実行オプション
+     * @return キャッシュされた結果、存在しないか期限切れの場合はnull
+     */
+    public synchronized String get(SqlFingerprint fingerprint, QueryOptions options) {
+        String key = key(fingerprint, options);
+        Entry entry = entries.get(key);
+        if (entry != null && clock.getAsLong() - entry.createdAt < ttlMs) {
+            hits++;
+            return entry.result;
+        }
+        if (entry != null) {
+            remove(key);
+        }
+        misses++;
+        return null;
+    }
+    
+    /**
+     * 結果を登録（既存の結果は置き換え）
+     * 
+     * 1件で上限を超える結果は登録しません。
+     * 
+     * @param fingerprint SQLのフィンガープリント
+     * @param options 実行オプション
+     * @param result 整形済みのクエリ結果
+     * @return 登録した場合true
+     */
+    public synchronized boolean put(SqlFingerprint fingerprint, QueryOptions options, String result) {
+        String key = key(fingerprint, options);
+        long bytes = estimateBytes(key, result);
+        if (bytes > maxBytes) {
+            logger.debug("Query result of {} bytes exceeds the cache limit; not cached", bytes);
+            return false;
+        }
+        remove(key);
+        entries.put(key, new Entry(result, fingerprint.getTables(), bytes, clock.getAsLong()));
+        totalBytes += bytes;
+        
+        // 上限を超えた分を参照の古い順に破棄
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Entry evicted = it.next().getValue();
+            it.remove();
+            totalBytes -= evicted.bytes;
+            evictions++;
+        }
+        return true;
+    }
+    
+    /**
+     * 指定したテーブルを参照する結果を破棄
+     * 
+     * @param table テーブル名（大文字小文字は区別しない）
+     * @return 破棄した結果の数
+     */
+    public synchronized int invalidateTable(String table) {
+        int removed = 0;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.tables.stream().anyMatch(name -> name.equalsIgnoreCase(table))) {
+                it.remove();
+                totalBytes -= entry.bytes;
+                removed++;
+            }
+        }
+        logger.info("Invalidated {} cached query results for table {}", removed, table);
+        return removed;
+    }
+    
+    /**
+     * 更新系SQLの実行後に、対象テーブルを参照する結果を破棄
+     * 
+     * 対象テーブルを判定できない場合（CALL 等）は全ての結果を破棄します。
+     * 
+     * @param sql 実行した更新系SQL
+     * @return 破棄した結果の数
+     */
+    public synchronized int invalidateAfterWrite(String sql) {
+        String table = SqlFingerprint.writeTarget(sql);
+        return table != null ? invalidateTable(table) : invalidateAll();
+    }
+    
+    /**
+     * 全ての結果を破棄
+     * 
+     * @return 破棄した結果の数
+     */
+    public synchronized int invalidateAll() {
+        int removed = entries.size();
+        entries.clear();
+        totalBytes = 0;
+        logger.info("Invalidated all {} cached query results", removed);
+        return removed;
+    }
+    
+    /**
+     * 保持している結果の合計サイズ（バイト数の概算）
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    /**
+     * 集計値のスナップショットを取得
+     */
+    public synchronized TtlLruCache.Stats getStats() {
+        return new TtlLruCache.Stats(hits, misses, evictions, entries.size());
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.bytes;
+        }
+    }
+    
+    /**
+     * 結果に影響するオプションを含めたキーを作成
+     */
+    private static String key(SqlFingerprint fingerprint, QueryOptions options) {
+        QueryOptions effective = options == null ? QueryOptions.defaults() : options;
+        return effective.getMaxRows() + "|" + effective.getOffset() + "|"
+                + effective.getOutputFormat().getParameterValue() + "|" + effective.getMaxResponseBytes() + "|"
+                + fingerprint.getNormalized();
+    }
+    
+    private static long estimateBytes(String key, String result) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (key.length() + result.length());
+    }
+    
+    /**
+     * 結果と参照テーブル、サイズ、登録時刻
+     */
+    private static final class Entry {
+        final String result;
+        final Set<String> tables;
+        final long bytes;
+        final long createdAt;
+        
+        Entry(String result, Set<String> tables, long bytes, long createdAt) {
+            this.result = result;
+            this.tables = tables;
+            this.bytes = bytes;
+            this.createdAt = createdAt;
+        }
+    }
+}
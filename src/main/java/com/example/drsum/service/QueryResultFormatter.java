@@ -0,0 +1,145 @@
+package com.example.drsum.service;
+
+import com.example.drsum.format.JsonNumbers;
+import com.example.drsum.model.DrSumTypes;
+import com.example.drsum.model.ResultColumn;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * クエリ結果のJSON整形ヘルパー
+ * 
+ * クエリ実行時とページ取得時で同じ形式のJSONを出力するため、
+ * 整形処理を開始・行追加・終了の3段階に分けて提供します。
+ * 各行は取得した時点でJsonGeneratorに書き込み、結果全体を文字列として組み立て直しません。
+ */
+final class QueryResultFormatter {
+    
+    private QueryResultFormatter() {
+    }
+    
+    /**
+     * 結果JSONの先頭（カラム情報と rows 配列の開始）を書き込む
+     * 
+     * @param gen 出力先
+     * @param columns カラム情報
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void beginResult(JsonGenerator gen, List<ResultColumn> columns) throws IOException {
+        gen.writeStartObject();
+        writeColumns(gen, columns);
+        gen.writeArrayFieldStart("rows");
+    }
+    
+    /**
+     * カラム情報（columns フィールド）を現在のオブジェクトに書き込む
+     * 
+     * @param gen 出力先（オブジェクトの中）
+     * @param columns カラム情報
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void writeColumns(JsonGenerator gen, List<ResultColumn> columns) throws IOException {
+        gen.writeArrayFieldStart("columns");
+        for (ResultColumn col : columns) {
+            gen.writeStartObject();
+            gen.writeStringField("name", col.getName());
+            gen.writeStringField("display_name", col.getDisplayName());
+            gen.writeNumberField("type", col.getType());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+    
+    /**
+     * 1行分の値をJSON配列として書き込む
+     * 
+     * 数値型（INTEGER、REAL、NUMERIC）のカラムの値はJSONの数値として、
+     * それ以外は文字列として書き込みます。数値型でも数値リテラルとして不正な値
+     * （"NaN" など）は文字列のまま書き込みます。
+     * 
+     * @param gen 出力先
+     * @param columns カラム情報
+     * @param row 行データ
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void writeRow(JsonGenerator gen, List<ResultColumn> columns, Vector<String> row)
+            throws IOException {
+        gen.writeStartArray();
+        for (int j = 0; j < row.size(); j++) {
+            writeValue(gen, j < columns.size() && isNumeric(columns.get(j)), row.get(j));
+        }
+        gen.writeEndArray();
+    }
+    
+    /**
+     * 1つの値を書き込む（nullはnull、数値カラムの数値はJSONの数値、それ以外は文字列）
+     * 
+     * @param gen 出力先
+     * @param numeric 数値型のカラムの値の場合true
+     * @param value 値
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void writeValue(JsonGenerator gen, boolean numeric, String value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (numeric && JsonNumbers.isJsonNumber(value)) {
+            gen.writeNumber(value);
+        } else {
+            gen.writeString(value);
+        }
+    }
+    
+    /**
+     * 値をJSONの数値として出力するカラムかどうか
+     */
+    static boolean isNumeric(ResultColumn column) {
+        return DrSumTypes.isNumeric(column.getType());
+    }
+    
+    /**
+     * 結果JSONの末尾（rows 配列の終了、行数、追加フィールド）を書き込む
+     * 
+     * @param gen 出力先
+     * @param rowCount 出力した行数
+     * @param extras 末尾に追加するフィールド（値は文字列・数値・真偽値・ColumnSummaries）
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void endResult(JsonGenerator gen, int rowCount, Map<String, Object> extras) throws IOException {
+        gen.writeEndArray();
+        writeSummary(gen, rowCount, extras);
+        gen.writeEndObject();
+    }
+    
+    /**
+     * 行数と追加フィールドを現在のオブジェクトに書き込む
+     * 
+     * @param gen 出力先（オブジェクトの中）
+     * @param rowCount 出力した行数
+     * @param extras 追加フィールド（値は文字列・数値・真偽値・ColumnSummaries）
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void writeSummary(JsonGenerator gen, int rowCount, Map<String, Object> extras) throws IOException {
+        gen.writeNumberField("row_count", rowCount);
+        for (Map.Entry<String, Object> extra : extras.entrySet()) {
+            gen.writeFieldName(extra.getKey());
+            Object value = extra.getValue();
+            if (value instanceof String) {
+                gen.writeString((String) value);
+            } else if (value instanceof Boolean) {
+                gen.writeBoolean((Boolean) value);
+            } else if (value instanceof Integer) {
+                gen.writeNumber((Integer) value);
+            } else if (value instanceof Long) {
+                gen.writeNumber((Long) value);
+            } else if (value instanceof ColumnSummaries) {
+                ((ColumnSummaries) value).write(gen);
+            } else {
+                gen.writeNumber(String.valueOf(value));
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.drsum.service;
+
+import com.example.drsum.model.ResultColumn;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.Vector;
+import java.util.function.LongSupplier;
+
+/**
+ * クエリ結果ストア
+ * 
+ * ページングされたクエリ結果の2ページ目以降の行を保持し、
+ * 継続トークンから再実行なしでページを取り出せるようにします。
+ * 
+ * 【責務】
+ * - 結果の保持と有効期限（最終アクセスからのTTL）の管理
+ * - 保持件数の上限管理（古い結果から破棄）
+ * - 継続トークンの生成と解析
+ * - 大きな結果を一時ファイルに退避する基準（バイト数の予算）の提供
+ * 
+ * 破棄した結果が一時ファイルに退避されていた場合は、そのファイルも削除します。
+ */
+public class QueryResultStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueryResultStore.class);
+    
+    private final long ttlMs;
+    private final int maxEntries;
+    private final int maxRowsPerResult;
+    private final long spillThresholdBytes;
+    private final Path spillDirectory;
+    private final LongSupplier clock;
+    
+    // 挿入順（古い順）に保持
+    private final LinkedHashMap<String, StoredResult> results = new LinkedHashMap<>();
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param ttlMs 最終アクセスから結果を破棄するまでの時間（ミリ秒）
+     * @param maxEntries 同時に保持する結果の最大数
+     * @param maxRowsPerResult 1つの結果で保持する最大行数
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public QueryResultStore(long ttlMs, int maxEntries, int maxRowsPerResult) {
+        this(ttlMs, maxEntries, maxRowsPerResult, 0, defaultSpillDirectory(), System::currentTimeMillis);
+    }
+    
+    /**
+     * 大きな結果を一時ファイルに退避するストアを作成
+     * 
+     * @param ttlMs 最終アクセスから結果を破棄するまでの時間（ミリ秒）
+     * @param maxEntries 同時に保持する結果の最大数
+     * @param maxRowsPerResult 1つの結果で保持する最大行数
+     * @param spillThresholdBytes ヒープに保持する1つの結果のバイト数の上限（超えた結果は一時ファイルに退避、0は退避しない）
+     * @param spillDirectory 一時ファイルを作成するディレクトリ
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public QueryResultStore(long ttlMs, int maxEntries, int maxRowsPerResult,
+                            long spillThresholdBytes, Path spillDirectory) {
+        this(ttlMs, maxEntries, maxRowsPerResult, spillThresholdBytes, spillDirectory, System::currentTimeMillis);
+    }
+    
+    /**
+     * テスト用コンストラクタ
+     */
+    QueryResultStore(long ttlMs, int maxEntries, int maxRowsPerResult, LongSupplier clock) {
+        this(ttlMs, maxEntries, maxRowsPerResult, 0, defaultSpillDirectory(), clock);
+    }
+    
+    /**
+     * テスト用コンストラクタ
+     */
+    QueryResultStore(long ttlMs, int maxEntries, int maxRowsPerResult,
+                     long spillThresholdBytes, Path spillDirectory, LongSupplier clock) {
+        if (ttlMs <= 0) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be positive");
+        }
+        if (maxRowsPerResult <= 0) {
+            throw new IllegalArgumentException("Max rows per result must be positive");
+        }
+        if (spillThresholdBytes < 0) {
+            throw new IllegalArgumentException("Spill threshold cannot be negative");
+        }
+        if (spillDirectory == null) {
+            throw new IllegalArgumentException("Spill directory cannot be null");
+        }
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+        this.maxRowsPerResult = maxRowsPerResult;
+        this.spillThresholdBytes = spillThresholdBytes;
+        this.spillDirectory = spillDirectory;
+        this.clock = clock;
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 結果を保存し、最初の行を指す継続トークンを返す
+     * 
+     * @param result 保存する結果
+     * @return 継続トークン
+     */
+    public synchronized String put(StoredResult result) {
+        long now = clock.getAsLong();
+        purgeExpired(now);
+        while (results.size() >= maxEntries) {
+            Iterator<String> oldest = results.keySet().iterator();
+            String id = oldest.next();
+            results.get(id).release();
+            oldest.remove();
+            logger.info("Result store full - discarding oldest result {}", id);
+        }
+        
+        String id = UUID.randomUUID().toString().replace("-", "");
+        result.lastAccessAt = now;
+        results.put(id, result);
+        return new Token(id, result.getStartIndex()).toString();
+    }
+    
+    /**
+     * 結果を取得（有効期限を延長）
+     * 
+     * @param id 結果ID
+     * @return 保存された結果、存在しないか期限切れの場合はnull
+     */
+    public synchronized StoredResult get(String id) {
+        long now = clock.getAsLong();
+        StoredResult result = results.get(id);
+        if (result == null) {
+            return null;
+        }
+        if (now - result.lastAccessAt >= ttlMs) {
+            results.remove(id).release();
+            return null;
+        }
+        result.lastAccessAt = now;
+        return result;
+    }
+    
+    /**
+     * 保持している結果の数を取得
+     */
+    public synchronized int size() {
+        purgeExpired(clock.getAsLong());
+        return results.size();
+    }
+    
+    /**
+     * 全ての結果を破棄
+     */
+    public synchronized void clear() {
+        results.values().forEach(StoredResult::release);
+        results.clear();
+    }
+    
+    /**
+     * 1つの結果で保持する最大行数を取得
+     */
+    public int getMaxRowsPerResult() {
+        return maxRowsPerResult;
+    }
+    
+    /**
+     * ヒープに保持する1つの結果のバイト数の上限（0は一時ファイルに退避しない）
+     */
+    public long getSpillThresholdBytes() {
+        return spillThresholdBytes;
+    }
+    
+    /**
+     * 一時ファイルを作成するディレクトリ
+     */
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+    
+    /**
+     * 一時ファイルの既定のディレクトリ（java.io.tmpdir）
+     */
+    public static Path defaultSpillDirectory() {
+        return Paths.get(System.getProperty("java.io.tmpdir"));
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    private void purgeExpired(long now) {
+        Iterator<Map.Entry<String, StoredResult>> it = results.entrySet().iterator();
+        while (it.hasNext()) {
+            StoredResult result = it.next().getValue();
+            if (now - result.lastAccessAt >= ttlMs) {
+                result.release();
+                it.remove();
+            }
+        }
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * 保存されたクエリ結果
+     * 
+     * 結果全体のうち startIndex 以降の行を保持します。
+     * 行は通常のリストか、一時ファイルに退避した行（SpilledRows）です。
+     */
+    public static final class StoredResult {
+        private final List<ResultColumn> schema;
+        private final List<Vector<String>> rows;
+        private final int startIndex;
+        private final int pageSize;
+        private final boolean truncated;
+        private long lastAccessAt;
+        
+        /**
+         * @param schema カラム情報
+         * @param rows startIndex以降の行（SpilledRows の場合は結果の破棄時に一時ファイルを削除）
+         * @param startIndex 最初の行の結果全体での位置
+         * @param pageSize デフォルトのページサイズ
+         * @param truncated max_rowsなどで結果が切り詰められた場合true
+         */
+        public StoredResult(List<ResultColumn> schema, List<Vector<String>> rows,
+                            int startIndex, int pageSize, boolean truncated) {
+            this.schema = schema;
+            this.rows = rows;
+            this.startIndex = startIndex;
+            this.pageSize = pageSize;
+            this.truncated = truncated;
+        }
+        
+        public List<ResultColumn> getSchema() {
+            return schema;
+        }
+        
+        public int getStartIndex() {
+            return startIndex;
+        }
+        
+        /**
+         * 保持している最後の行の次の位置
+         */
+        public int getEndIndex() {
+            return startIndex + rows.size();
+        }
+        
+        public int getPageSize() {
+            return pageSize;
+        }
+        
+        public boolean isTruncated() {
+            return truncated;
+        }
+        
+        /**
+         * 結果全体での位置を指定して行を取得
+         * 
+         * @param index startIndex以上getEndIndex()未満の位置
+         * @return 行データ
+         */
+        public Vector<String> getRow(int index) {
+            return rows.get(index - startIndex);
+        }
+        
+        /**
+         * 一時ファイルに退避しているかどうか
+         */
+        public boolean isSpilled() {
+            return rows instanceof SpilledRows;
+        }
+        
+        /**
+         * 結果の破棄時に一時ファイルを削除
+         */
+        void release() {
+            if (rows instanceof SpilledRows) {
+                ((SpilledRows) rows).close();
+            }
+        }
+    }
+    
+    /**
+     * 継続トークン（結果IDと次に返す行の位置）
+     * 
+     * 文字列表現は "結果ID:位置" です。同じトークンは何度でも同じページを返します。
+     */
+    public static final class Token {
+        private final String id;
+        private final int offset;
+        
+        public Token(String id, int offset) {
+            this.id = id;
+            this.offset = offset;
+        }
+        
+        /**
+         * トークン文字列を解析
+         * 
+         * @param token トークン文字列
+         * @return 解析結果
+         * @throws IllegalArgumentException 形式が不正な場合
+         */
+        public static Token parse(String token) {
+            if (token == null) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            int sep = token.lastIndexOf(':');
+            if (sep <= 0 || sep == token.length() - 1) {
+                throw new IllegalArgumentException("Invalid continuation token: " + token);
+            }
+            try {
+                int offset = Integer.parseInt(token.substring(sep + 1));
+                if (offset < 0) {
+                    throw new IllegalArgumentException("Invalid continuation token: " + token);
+                }
+                return new Token(token.substring(0, sep), offset);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid continuation token: " + token);
+            }
+        }
+        
+        public String getId() {
+            return id;
+        }
+        
+        public int getOffset() {
+            return offset;
+        }
+        
+        @Override
+        public String toString() {
+            return id + ":" + offset;
+        }
+    }
+}
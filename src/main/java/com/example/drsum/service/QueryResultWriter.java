@@ -0,0 +1,85 @@
+package com.example.drsum.service;
+
+import com.example.drsum.format.JsonOutput;
+import com.example.drsum.model.ResultColumn;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * クエリ結果の出力形式ごとの書き込み処理
+ * 
+ * クエリ実行時とページ取得時で同じ手順（開始・行追加・終了）で書き込めるよう、
+ * 出力形式の違いをこのインターフェースの実装に閉じ込めます。
+ * 
+ * 使用後は close() でバッファを返却してください（finish() 済みの場合も呼び出して問題ありません）。
+ */
+interface QueryResultWriter extends AutoCloseable {
+    
+    /**
+     * 出力形式に対応する書き込み処理を作成
+     * 
+     * @param format 出力形式
+     * @return 書き込み処理
+     */
+    static QueryResultWriter create(OutputFormat format) {
+        switch (format) {
+            case JSON_COMPACT:
+                return new JsonResultWriter(JsonOutput.compact());
+            case COLUMNAR:
+                return new ColumnarResultWriter();
+            case CSV:
+                return new DelimitedResultWriter(',');
+            case TSV:
+                return new DelimitedResultWriter('\t');
+            case JSON:
+            default:
+                return new JsonResultWriter(JsonOutput.pretty());
+        }
+    }
+    
+    /**
+     * 結果の書き込みを開始
+     * 
+     * @param columns カラム情報
+     * @throws IOException 書き込みに失敗した場合
+     */
+    void begin(List<ResultColumn> columns) throws IOException;
+    
+    /**
+     * 1行分の値を書き込む
+     * 
+     * @param row 行データ
+     * @throws IOException 書き込みに失敗した場合
+     */
+    void writeRow(Vector<String> row) throws IOException;
+    
+    /**
+     * これまでに書き込んだ出力のUTF-8でのバイト数を取得
+     * 
+     * 応答サイズの上限（max_response_bytes）の判定に使用します。
+     * 全行を読み終えるまで出力を組み立てない形式では、finish() 時の大きさの概算（上限寄り）を返します。
+     * 
+     * @return バイト数（末尾の行数などは含まない）
+     * @throws IOException 書き込みに失敗した場合
+     */
+    long outputBytes() throws IOException;
+    
+    /**
+     * 結果の書き込みを終了し、出力全体を取得
+     * 
+     * @param rowCount 出力した行数
+     * @param extras 末尾に追加するフィールド（値は文字列・数値・真偽値・ColumnSummaries）
+     * @return 出力形式に従った結果の文字列
+     * @throws IOException 書き込みに失敗した場合
+     */
+    String finish(int rowCount, Map<String, Object> extras) throws IOException;
+    
+    /**
+     * バッファを返却
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,95 @@
+package com.example.drsum.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ツール呼び出しのタイムアウト監視
+ * 
+ * 1つのデーモンスレッドで全呼び出しの制限時間を管理し、時間を超えた呼び出しを
+ * QueryCancellation.Reason.TIMEOUT で中断します。
+ * 中断処理（カーソルと接続のクローズ）は別のスレッドプールで実行し、応答しない接続の
+ * クローズが他の呼び出しのタイムアウトを遅らせないようにします。
+ */
+public class QueryWatchdog implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueryWatchdog.class);
+    
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ExecutorService aborter;
+    
+    /**
+     * コンストラクタ
+     */
+    public QueryWatchdog() {
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "drsum-query-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        // 完了した呼び出しのタイマーを待ち行列に残さない
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.aborter = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "drsum-query-abort");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+    
+    /**
+     * 呼び出しの制限時間の監視を開始
+     * 
+     * 呼び出しが完了（QueryCancellation.finish()）した時点で監視は解除されます。
+     * 
+     * @param cancellation 呼び出しの中断制御
+     * @param timeoutMs 制限時間（ミリ秒、0以下は監視しない）
+     * @throws IllegalArgumentException cancellationがnullの場合
+     */
+    public void watch(QueryCancellation cancellation, long timeoutMs) {
+        if (cancellation == null) {
+            throw new IllegalArgumentException("QueryCancellation cannot be null");
+        }
+        if (timeoutMs <= 0 || !cancellation.setTimeoutMs(timeoutMs)) {
+            return;
+        }
+        ScheduledFuture<?> timer = scheduler.schedule(
+                () -> abort(cancellation), timeoutMs, TimeUnit.MILLISECONDS);
+        if (!cancellation.setTimer(timer)) {
+            timer.cancel(false);
+        }
+    }
+    
+    /**
+     * 監視を停止（未発火のタイマーは破棄し、実行中の中断処理は完了を待たない）
+     */
+    @Override
+    public void close() {
+        int dropped = scheduler.shutdownNow().size();
+        aborter.shutdown();
+        if (dropped > 0) {
+            logger.info("Dropped {} pending query timeout(s) on shutdown", dropped);
+        }
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * 中断処理を監視スレッドから切り離して実行
+     */
+    private void abort(QueryCancellation cancellation) {
+        try {
+            aborter.execute(() -> cancellation.cancel(QueryCancellation.Reason.TIMEOUT));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Watchdog is closed; timeout abort skipped");
+        }
+    }
+}
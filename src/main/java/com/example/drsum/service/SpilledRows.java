@@ -0,0 +1,350 @@
+package com.example.drsum.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+
+/**
+ * 一時ファイルに退避したクエリ結果の行
+ * 
+ * ページング用に保存する行がヒープの予算を超えた場合に、行をコンパクトなバイナリ形式で
+ * 一時ファイルに書き出し、読み取り専用のメモリマップ（MappedByteBuffer）経由で参照します。
+ * 行データはヒープ外（OSのページキャッシュ）に置かれるため、巨大な結果を複数保持しても
+ * フルGCやOutOfMemoryErrorの原因になりません。ヒープに保持するのは行の位置の索引だけです。
+ * 
+ * 【責務】
+ * - 行のバイナリ形式での書き出し（Writer）
+ * - メモリマップからの行の読み出し（List として参照）
+ * - 一時ファイルの削除
+ * 
+ * 行の形式は「セル数（可変長整数）」に続けて、セルごとに「長さ+1（可変長整数、0はnull）」と
+ * UTF-8のバイト列を並べたものです。ファイルは最大1GiBのセグメントに分けてマップし、
+ * 行がセグメントをまたがないように配置します。
+ * 読み出しはマップ上のバイト列から直接文字列を復元します（ヒープに作られるのは返す行だけです）。
+ * 
+ * マップ後のファイルは可能であればすぐに削除します（マップはGCで解放されるまで有効）。
+ * 削除できないOS（Windows）では、close() またはJVMの終了時に削除します。
+ */
+public final class SpilledRows extends AbstractList<Vector<String>> implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SpilledRows.class);
+    
+    // 1つのマップの最大サイズ（1行はこれを超えられない）
+    static final int DEFAULT_SEGMENT_BYTES = 1 << 30;
+    
+    private final Path file;
+    private final MappedByteBuffer[] segments;
+    private final int segmentBytes;
+    private final long[] offsets;
+    private final int rowCount;
+    private final long fileBytes;
+    
+    private SpilledRows(Path file, MappedByteBuffer[] segments, int segmentBytes,
+                        long[] offsets, int rowCount, long fileBytes) {
+        this.file = file;
+        this.segments = segments;
+        this.segmentBytes = segmentBytes;
+        this.offsets = offsets;
+        this.rowCount = rowCount;
+        this.fileBytes = fileBytes;
+    }
+    
+    /**
+     * 一時ファイルへの書き出しを開始
+     * 
+     * @param directory 一時ファイルを作成するディレクトリ
+     * @return 行の書き出し先
+     * @throws IOException 一時ファイルを作成できない場合
+     */
+    public static Writer writer(Path directory) throws IOException {
+        return new Writer(directory, DEFAULT_SEGMENT_BYTES);
+    }
+    
+    /**
+     * 行をヒープに保持した場合の概算バイト数
+     * 
+     * Vector と String のオブジェクトヘッダ、1文字2バイトの文字データを含めた概算です。
+     * 
+     * @param row 行データ
+     * @return 概算バイト数
+     */
+    public static long estimateHeapBytes(List<String> row) {
+        long bytes = 32 + 8L * row.size();
+        for (String value : row) {
+            if (value != null) {
+                bytes += 40 + 2L * value.length();
+            }
+        }
+        return bytes;
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 行を読み出す
+     * 
+     * @param index 行の位置（0始まり）
+     * @return 行データ（呼び出しごとに新しいVector）
+     * @throws IndexOutOfBoundsException 位置が範囲外の場合
+     */
+    @Override
+    public Vector<String> get(int index) {
+        if (index < 0 || index >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + index + " out of " + rowCount);
+        }
+        long offset = offsets[index];
+        // duplicate() は位置を独立に持つため、複数スレッドから同時に読み出せる
+        ByteBuffer buffer = segments[(int) (offset / segmentBytes)].duplicate();
+        buffer.position((int) (offset % segmentBytes));
+        
+        int cells = readVarInt(buffer);
+        Vector<String> row = new Vector<>(cells);
+        for (int i = 0; i < cells; i++) {
+            int length = readVarInt(buffer) - 1;
+            if (length < 0) {
+                row.add(null);
+            } else {
+                row.add(decode(buffer, length));
+            }
+        }
+        return row;
+    }
+    
+    @Override
+    public int size() {
+        return rowCount;
+    }
+    
+    /**
+     * 一時ファイルのサイズ（バイト）
+     */
+    public long getFileBytes() {
+        return fileBytes;
+    }
+    
+    /**
+     * 一時ファイルを削除（マップはGCで解放されるまで有効なため、読み出し中の呼び出しは継続できる）
+     */
+    @Override
+    public void close() {
+        deleteQuietly(file);
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * マップ上のUTF-8バイト列から文字列を復元
+     */
+    private static String decode(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+    
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+    
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // マップ中のファイルを削除できないOSでは、JVMの終了時に削除する
+            file.toFile().deleteOnExit();
+        }
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * 行の書き出し先
+     * 
+     * finish() を呼ばずに close() した場合は一時ファイルを削除します。
+     */
+    public static final class Writer implements AutoCloseable {
+        private final Path file;
+        private final OutputStream out;
+        private final int segmentBytes;
+        private final RowEncoder encoder = new RowEncoder();
+        private long[] offsets = new long[1024];
+        private int rowCount;
+        private long position;
+        private boolean finished;
+        
+        /**
+         * @param directory 一時ファイルを作成するディレクトリ
+         * @param segmentBytes 1つのマップの最大サイズ
+         */
+        Writer(Path directory, int segmentBytes) throws IOException {
+            if (segmentBytes <= 0) {
+                throw new IllegalArgumentException("Segment size must be positive");
+            }
+            Files.createDirectories(directory);
+            this.file = Files.createTempFile(directory, "drsum-result-", ".rows");
+            this.out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+            this.segmentBytes = segmentBytes;
+        }
+        
+        /**
+         * 行を追加
+         * 
+         * @param row 行データ
+         * @throws IOException 書き込みに失敗した場合
+         * @throws IllegalStateException 1行がセグメントの最大サイズを超える場合
+         */
+        public void add(List<String> row) throws IOException {
+            if (finished) {
+                throw new IllegalStateException("Writer already finished");
+            }
+            encoder.encode(row);
+            int length = encoder.size();
+            if (length > segmentBytes) {
+                throw new IllegalStateException("Row of " + length + " bytes is too large to spill");
+            }
+            
+            // 行がセグメントの境界をまたぐ場合は、次のセグメントの先頭まで埋める
+            long used = position % segmentBytes;
+            if (used + length > segmentBytes) {
+                long padding = segmentBytes - used;
+                for (long i = 0; i < padding; i++) {
+                    out.write(0);
+                }
+                position += padding;
+            }
+            
+            if (rowCount == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[rowCount++] = position;
+            encoder.writeTo(out);
+            position += length;
+        }
+        
+        /**
+         * 書き出した行数
+         */
+        public int size() {
+            return rowCount;
+        }
+        
+        /**
+         * 書き出しを終え、読み出し用にマップ
+         * 
+         * @return 書き出した行
+         * @throws IOException マップに失敗した場合
+         */
+        public SpilledRows finish() throws IOException {
+            if (finished) {
+                throw new IllegalStateException("Writer already finished");
+            }
+            finished = true;
+            out.close();
+            
+            int segmentCount = (int) ((position + segmentBytes - 1) / segmentBytes);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                for (int i = 0; i < segmentCount; i++) {
+                    long start = (long) i * segmentBytes;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                                              Math.min(segmentBytes, position - start));
+                }
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(file);
+                throw e;
+            }
+            deleteQuietly(file);
+            logger.info("Spilled {} row(s) ({} bytes) to a memory-mapped file", rowCount, position);
+            return new SpilledRows(file, segments, segmentBytes, Arrays.copyOf(offsets, rowCount),
+                                   rowCount, position);
+        }
+        
+        /**
+         * 書き出しを中止した場合に一時ファイルを削除
+         */
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                finished = true;
+                out.close();
+                deleteQuietly(file);
+            }
+        }
+    }
+    
+    /**
+     * 1行分のバイト列を組み立てるバッファ（再利用してガベージを減らす）
+     */
+    private static final class RowEncoder {
+        private byte[] bytes = new byte[256];
+        private int size;
+        
+        void encode(List<String> row) {
+            size = 0;
+            writeVarInt(row.size());
+            for (String value : row) {
+                if (value == null) {
+                    writeVarInt(0);
+                } else {
+                    byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                    writeVarInt(encoded.length + 1);
+                    ensureCapacity(encoded.length);
+                    System.arraycopy(encoded, 0, bytes, size, encoded.length);
+                    size += encoded.length;
+                }
+            }
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+        }
+        
+        private void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+        
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+    }
+}
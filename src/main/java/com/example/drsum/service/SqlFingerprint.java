@@ -0,0 +1,255 @@
+package com.example.drsum.service;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * SQLのフィンガープリント
+ * 
+ * 書き方の違いだけで結果が変わらないSQLを同じ文字列に正規化し、クエリ結果キャッシュのキーに使用します。
+ * 
+ * 【責務】
+ * - SQLの正規化（空白の統一、コメントの除去、キーワードの大文字化、末尾のセミコロンの除去）
+ * - FROM句・JOIN句で参照されるテーブル名の抽出（テーブル単位の無効化に使用）
+ * - 更新系SQL（INSERT INTO / UPDATE / DELETE FROM）の対象テーブル名の抽出
+ * 
+ * 文字列リテラル（'...'）と引用符付き識別子（"..."）はそのまま残し、語の並び順も変更しません。
+ * キーワード以外の識別子は大文字小文字を区別したまま残します。
+ * テーブル名の抽出は字句レベルの簡易的なもので、全ての構文を解釈するものではありません。
+ */
+public final class SqlFingerprint {
+    
+    // 大文字に統一するキーワード（識別子として使われても結果は変わらない）
+    private static final Set<String> KEYWORDS = Set.of(
+            "SELECT", "FROM", "WHERE", "GROUP", "BY", "ORDER", "HAVING", "LIMIT", "OFFSET",
+            "JOIN", "INNER", "LEFT", "RIGHT", "FULL", "OUTER", "CROSS", "ON", "USING", "AS",
+            "AND", "OR", "NOT", "IN", "IS", "NULL", "LIKE", "BETWEEN", "EXISTS", "ANY", "SOME",
+            "CASE", "WHEN", "THEN", "ELSE", "END", "DISTINCT", "ALL", "UNION", "EXCEPT", "INTERSECT",
+            "WITH", "ASC", "DESC", "CAST", "COUNT", "SUM", "AVG", "MIN", "MAX", "TRUE", "FALSE");
+    
+    // FROM句のテーブル並びで、別名として扱う語（テーブル並びを終えない）
+    private static final String ALIAS_KEYWORD = "AS";
+    
+    private final String normalized;
+    private final Set<String> tables;
+    
+    private SqlFingerprint(String normalized, Set<String> tables) {
+        this.normalized = normalized;
+        this.tables = tables;
+    }
+    
+    /**
+     * SQLを解析してフィンガープリントを作成
+     * 
+     * @param sql SQLクエリ文字列
+     * @return フィンガープリント
+     * @throws IllegalArgumentException SQLがnullまたは空の場合
+     */
+    public static SqlFingerprint of(String sql) {
+        if (sql == null || sql.trim().isEmpty()) {
+            throw new IllegalArgumentException("SQL query cannot be null or empty");
+        }
+        StringBuilder out = new StringBuilder(sql.length());
+        Set<String> tables = new LinkedHashSet<>();
+        boolean previousWord = false;
+        boolean expectTable = false;
+        boolean inTableList = false;
+        
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '\'' || c == '"') {
+                int end = skipQuoted(sql, i, c);
+                if (previousWord) {
+                    out.append(' ');
+                }
+                out.append(sql, i, end);
+                if (c == '"' && expectTable) {
+                    tables.add(unquote(sql.substring(i, end)).toUpperCase(Locale.ROOT));
+                }
+                expectTable = false;
+                previousWord = true;
+                i = end;
+            } else if (isWordPart(c)) {
+                int end = i;
+                while (end < length && (isWordPart(sql.charAt(end)) || sql.charAt(end) == '.')) {
+                    end++;
+                }
+                String word = sql.substring(i, end);
+                String upper = word.toUpperCase(Locale.ROOT);
+                boolean keyword = KEYWORDS.contains(upper);
+                if (previousWord) {
+                    out.append(' ');
+                }
+                out.append(keyword ? upper : word);
+                
+                if (keyword) {
+                    expectTable = upper.equals("FROM") || upper.equals("JOIN");
+                    inTableList = upper.equals("FROM") || (inTableList && upper.equals(ALIAS_KEYWORD));
+                } else if (expectTable) {
+                    // スキーマ修飾（schema.table）の場合は最後の部分をテーブル名とする
+                    tables.add(upper.substring(upper.lastIndexOf('.') + 1));
+                    expectTable = false;
+                }
+                previousWord = true;
+                i = end;
+            } else {
+                // FROM a, b のようにテーブルが並ぶ場合は次の語もテーブル名
+                expectTable = c == ',' && inTableList;
+                if (c != ',') {
+                    inTableList = false;
+                }
+                out.append(c);
+                previousWord = false;
+                i++;
+            }
+        }
+        
+        // 末尾のセミコロンは結果に影響しない
+        int end = out.length();
+        while (end > 0 && out.charAt(end - 1) == ';') {
+            end--;
+        }
+        out.setLength(end);
+        return new SqlFingerprint(out.toString(), Collections.unmodifiableSet(tables));
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 正規化したSQL
+     */
+    public String getNormalized() {
+        return normalized;
+    }
+    
+    /**
+     * FROM句・JOIN句で参照されるテーブル名（大文字、出現順）
+     */
+    public Set<String> getTables() {
+        return tables;
+    }
+    
+    @Override
+    public String toString() {
+        return normalized;
+    }
+    
+    /**
+     * 更新系SQLの対象テーブル名を抽出
+     * 
+     * 先頭の空白・コメントを読み飛ばし、INSERT INTO / UPDATE / DELETE [FROM] に続くテーブル名を返します。
+     * 
+     * @param sql SQLクエリ文字列
+     * @return 対象テーブル名（大文字、スキーマ修飾は除く）、判定できない場合はnull
+     */
+    public static String writeTarget(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        int i = skipIgnorable(sql, 0);
+        String verb = wordAt(sql, i);
+        if (verb == null) {
+            return null;
+        }
+        i = skipIgnorable(sql, i + verb.length());
+        verb = verb.toUpperCase(Locale.ROOT);
+        String next = wordAt(sql, i);
+        if (verb.equals("INSERT") || verb.equals("DELETE")) {
+            String preposition = verb.equals("INSERT") ? "INTO" : "FROM";
+            if (next != null && next.equalsIgnoreCase(preposition)) {
+                i = skipIgnorable(sql, i + next.length());
+                next = wordAt(sql, i);
+            } else if (verb.equals("INSERT")) {
+                return null;
+            }
+        } else if (!verb.equals("UPDATE")) {
+            return null;
+        }
+        if (i < sql.length() && sql.charAt(i) == '"') {
+            return unquote(sql.substring(i, skipQuoted(sql, i, '"'))).toUpperCase(Locale.ROOT);
+        }
+        if (next == null) {
+            return null;
+        }
+        String upper = next.toUpperCase(Locale.ROOT);
+        return upper.substring(upper.lastIndexOf('.') + 1);
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+    
+    /**
+     * 空白とコメントを読み飛ばした位置を返す
+     */
+    private static int skipIgnorable(String sql, int start) {
+        int i = start;
+        int length = sql.length();
+        while (i < length) {
+            if (Character.isWhitespace(sql.charAt(i))) {
+                i++;
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+    
+    /**
+     * 指定位置から始まる語（schema.table のような修飾を含む）を返す、語でない場合はnull
+     */
+    private static String wordAt(String sql, int start) {
+        int end = start;
+        while (end < sql.length() && (isWordPart(sql.charAt(end)) || (end > start && sql.charAt(end) == '.'))) {
+            end++;
+        }
+        return end > start ? sql.substring(start, end) : null;
+    }
+    
+    /**
+     * 引用符で囲まれた部分の終端（閉じ引用符の次）を返す（引用符の2連続はエスケープとして扱う）
+     */
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+    
+    private static String unquote(String quoted) {
+        String body = quoted.length() >= 2 ? quoted.substring(1, quoted.length() - 1) : quoted;
+        return body.replace("\"\"", "\"");
+    }
+}
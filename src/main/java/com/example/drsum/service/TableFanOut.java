@@ -0,0 +1,281 @@
+package com.example.drsum.service;
+
+import com.example.drsum.connection.ConnectionProvider;
+import com.example.drsum.connection.DrSumConnection;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * テーブルごとの処理の並列実行
+ * 
+ * Dr.Sum EA のDBIはテーブル単位のAPI（getViewInfo()、getSchema() など）が中心のため、
+ * 多数のテーブルを扱う処理はテーブルごとの往復を繰り返すことになります。
+ * このクラスは呼び出し元の接続に加えて、接続プールからすぐに借りられる接続を最大
+ * (parallelism - 1) 本使い、対象のテーブルを共有キューから並列に処理します。
+ * 
+ * 【責務】
+ * - テーブルごとの処理の並列実行と結果の収集
+ * - 追加接続の取得・返却（取得できない場合は呼び出し元の接続のみで処理）
+ * 
+ * 追加接続は ConnectionProvider.tryAcquire() で取得するため、
+ * プールが枯渇していても待たずに呼び出し元の接続だけで処理を続けます。
+ * QueryCancellation を指定した場合、中断時は呼び出し元の接続に加えて借りている追加接続も閉じます。
+ * 
+ * @see ViewClassifier
+ */
+public class TableFanOut implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TableFanOut.class);
+    
+    private final ConnectionProvider connectionProvider;
+    private final int parallelism;
+    private final ExecutorService executor;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param connectionProvider 追加接続を借りる接続プロバイダー
+     * @param parallelism 呼び出し元を含めた最大並列数
+     * @param threadName ワーカースレッドの名前（連番を付ける）
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public TableFanOut(ConnectionProvider connectionProvider, int parallelism, String threadName) {
+        if (connectionProvider == null) {
+            throw new IllegalArgumentException("ConnectionProvider cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.connectionProvider = connectionProvider;
+        this.parallelism = parallelism;
+        
+        if (parallelism > 1) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(parallelism - 1, r -> {
+                Thread t = new Thread(r, threadName + "-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 呼び出し元を含めた最大並列数
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+    
+    /**
+     * テーブルごとの処理を並列に実行
+     * 
+     * 1つのテーブルの処理が例外を投げた場合は残りのテーブルを処理せず、
+     * 全ワーカーの完了を待ってから最初の例外を再送出します。
+     * テーブルごとの失敗を結果に含めたい場合は、処理の中で例外を捕捉してください。
+     * 
+     * @param <T> テーブルごとの結果の型
+     * @param connection 呼び出し元が使用中の接続
+     * @param tableNames 処理するテーブル名（重複しないこと）
+     * @param task 1テーブルの処理（nullを返してはいけない）
+     * @return テーブル名から結果へのマップ（順序は不定）
+     * @throws DWException いずれかのテーブルの処理に失敗した場合
+     */
+    public <T> Map<String, T> run(DrSumConnection connection, Collection<String> tableNames,
+                                  TableTask<T> task) throws DWException {
+        return run(connection, tableNames, task, null);
+    }
+    
+    /**
+     * テーブルごとの処理を並列に実行（中断可能）
+     * 
+     * 実行中は cancellation の中断処理を、呼び出し元の接続と借りている追加接続を閉じる処理に置き換え、
+     * 終了後は呼び出し元の接続を閉じる処理に戻します。
+     * 中断された後は追加接続を借りず、中断で閉じた追加接続は返却せずに破棄します。
+     * 
+     * @param <T> テーブルごとの結果の型
+     * @param connection 呼び出し元が使用中の接続
+     * @param tableNames 処理するテーブル名（重複しないこと）
+     * @param task 1テーブルの処理（nullを返してはいけない）
+     * @param cancellation 呼び出しの中断制御（nullの場合は中断しない）
+     * @return テーブル名から結果へのマップ（順序は不定）
+     * @throws DWException いずれかのテーブルの処理に失敗した場合（中断で接続が閉じられた場合を含む）
+     */
+    public <T> Map<String, T> run(DrSumConnection connection, Collection<String> tableNames,
+                                  TableTask<T> task, QueryCancellation cancellation) throws DWException {
+        Map<String, T> result = new ConcurrentHashMap<>();
+        Queue<String> pending = new ConcurrentLinkedQueue<>(tableNames);
+        Set<DrSumConnection> borrowed = ConcurrentHashMap.newKeySet();
+        if (cancellation != null) {
+            cancellation.onAbort(() -> {
+                connection.abort();
+                borrowed.forEach(DrSumConnection::abort);
+            });
+        }
+        
+        // 追加接続のワーカーを起動（呼び出し元と合わせてテーブル数を超えないように制限）
+        List<Future<?>> workers = new ArrayList<>();
+        int extraWorkers = executor == null ? 0 : Math.min(parallelism - 1, tableNames.size() - 1);
+        Throwable failure = null;
+        try {
+            for (int i = 0; i < extraWorkers; i++) {
+                workers.add(executor.submit(() -> {
+                    runWorker(pending, result, task, cancellation, borrowed);
+                    return null;
+                }));
+            }
+            
+            // 呼び出し元の接続でもキューを処理（失敗した場合は残りを破棄してワーカーを止める）
+            drain(connection, pending, result, task);
+        } catch (DWException | RuntimeException e) {
+            pending.clear();
+            failure = e;
+        }
+        
+        // 失敗した場合も全ワーカーの完了を待つ（借りた接続を返却するまで中断処理の対象に残す）
+        boolean interrupted = false;
+        for (Future<?> worker : workers) {
+            while (true) {
+                try {
+                    worker.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (cancellation != null) {
+            cancellation.onAbort(connection::abort);
+        }
+        
+        // 最初の失敗を再送出
+        if (failure instanceof DWException) {
+            throw (DWException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Table processing failed", failure);
+        }
+        
+        logger.info("Processed {} tables using up to {} connection(s)", result.size(), extraWorkers + 1);
+        return result;
+    }
+    
+    /**
+     * ワーカースレッドを停止
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * 追加接続を借りてキューを処理（借りられない場合は何もしない）
+     */
+    private <T> void runWorker(Queue<String> pending, Map<String, T> result, TableTask<T> task,
+                               QueryCancellation cancellation, Set<DrSumConnection> borrowed) throws DWException {
+        if (pending.isEmpty() || isCancelled(cancellation)) {
+            return;
+        }
+        DrSumConnection extra = connectionProvider.tryAcquire();
+        if (extra == null) {
+            return;
+        }
+        
+        // 登録後に中断を確認し、中断処理が閉じ損ねた接続を使わないようにする
+        borrowed.add(extra);
+        
+        // Dr.Sumエラーは接続を返却し、予期しない例外や中断で閉じた場合は破棄する
+        boolean reusable = false;
+        try {
+            if (!isCancelled(cancellation)) {
+                drain(extra, pending, result, task);
+            }
+            reusable = true;
+        } catch (DWException e) {
+            reusable = true;
+            throw e;
+        } finally {
+            borrowed.remove(extra);
+            if (reusable && !isCancelled(cancellation)) {
+                connectionProvider.release(extra);
+            } else {
+                connectionProvider.invalidate(extra);
+            }
+        }
+    }
+    
+    private static boolean isCancelled(QueryCancellation cancellation) {
+        return cancellation != null && cancellation.isCancelled();
+    }
+    
+    /**
+     * キューが空になるまでテーブルを1件ずつ処理（失敗した場合はキューを空にする）
+     */
+    private static <T> void drain(DrSumConnection connection, Queue<String> pending,
+                                  Map<String, T> result, TableTask<T> task) throws DWException {
+        String tableName;
+        try {
+            while ((tableName = pending.poll()) != null) {
+                result.put(tableName, task.apply(connection, tableName));
+            }
+        } catch (DWException | RuntimeException e) {
+            // 他の接続で残りのテーブルを処理しないよう破棄
+            pending.clear();
+            throw e;
+        }
+    }
+    
+    // ========================================================================
+    // 内部インターフェース
+    // ========================================================================
+    
+    /**
+     * 1テーブルの処理
+     * 
+     * @param <T> 結果の型
+     */
+    @FunctionalInterface
+    public interface TableTask<T> {
+        T apply(DrSumConnection connection, String tableName) throws DWException;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.drsum.service;
+
+import com.example.drsum.backend.BackendConnection;
+import com.example.drsum.connection.ConnectionProvider;
+import com.example.drsum.connection.DrSumConnection;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * テーブル・ビュー判定の並列実行
+ * 
+ * Dr.Sum EA のDBIにはビュー一覧をまとめて取得するAPIがないため、
+ * テーブルごとに getViewInfo() を呼び出す必要があります。
+ * このクラスは判定対象のテーブルを複数の接続で並列に処理します。
+ * 追加接続の取得・返却と並列実行は TableFanOut に委譲します。
+ * 
+ * 【責務】
+ * - テーブル名のリストをビューかどうかに分類
+ * 
+ * @see TableFanOut
+ */
+public class ViewClassifier implements AutoCloseable {
+    
+    private final TableFanOut fanOut;
+    private final ViewCheck viewCheck;
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param connectionProvider 追加接続を借りる接続プロバイダー
+     * @param parallelism 呼び出し元を含めた最大並列数
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public ViewClassifier(ConnectionProvider connectionProvider, int parallelism) {
+        this(connectionProvider, parallelism,
+             (connection, dbName, tableName) -> isView(connection.getConnection(), dbName, tableName));
+    }
+    
+    /**
+     * テスト用コンストラクタ
+     * 
+     * @param connectionProvider 追加接続を借りる接続プロバイダー
+     * @param parallelism 呼び出し元を含めた最大並列数
+     * @param viewCheck 1テーブルの判定処理
+     */
+    ViewClassifier(ConnectionProvider connectionProvider, int parallelism, ViewCheck viewCheck) {
+        this.fanOut = new TableFanOut(connectionProvider, parallelism, "drsum-view-classifier");
+        this.viewCheck = viewCheck;
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * テーブル名をビューかどうかに分類
+     * 
+     * @param connection 呼び出し元が使用中の接続
+     * @param dbName データベース名
+     * @param tableNames 分類するテーブル名
+     * @return テーブル名からビューかどうかへのマップ
+     * @throws DWException ビュー情報の取得に失敗した場合
+     */
+    public Map<String, Boolean> classify(DrSumConnection connection, String dbName,
+                                        Collection<String> tableNames) throws DWException {
+        return classify(connection, dbName, tableNames, null);
+    }
+    
+    /**
+     * テーブル名をビューかどうかに分類（中断可能）
+     * 
+     * @param connection 呼び出し元が使用中の接続
+     * @param dbName データベース名
+     * @param tableNames 分類するテーブル名
+     * @param cancellation 呼び出しの中断制御（nullの場合は中断しない）
+     * @return テーブル名からビューかどうかへのマップ
+     * @throws DWException ビュー情報の取得に失敗した場合
+     * @see TableFanOut#run(DrSumConnection, Collection, TableFanOut.TableTask, QueryCancellation)
+     */
+    public Map<String, Boolean> classify(DrSumConnection connection, String dbName,
+                                        Collection<String> tableNames, QueryCancellation cancellation)
+            throws DWException {
+        return fanOut.run(connection, tableNames,
+                          (tableConnection, tableName) -> viewCheck.isView(tableConnection, dbName, tableName),
+                          cancellation);
+    }
+    
+    /**
+     * ワーカースレッドを停止
+     */
+    @Override
+    public void close() {
+        fanOut.close();
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * ビュー情報を取得してビューかどうかを判定
+     * 
+     * @param connection 使用する接続
+     * @param dbName データベース名
+     * @param tableName テーブル名
+     * @return ビューの場合true
+     * @throws DWException ビュー情報の取得に失敗した場合
+     */
+    static boolean isView(BackendConnection connection, String dbName, String tableName) throws DWException {
+        jp.co.dw_sapporo.drsum_ea.DWViewInfo viewInfo = connection.getViewInfo(dbName, tableName);
+        return viewInfo != null && viewInfo.m_iType != 0;
+    }
+    
+    // ========================================================================
+    // 内部インターフェース
+    // ========================================================================
+    
+    /**
+     * 1テーブルがビューかどうかを判定する処理
+     */
+    @FunctionalInterface
+    interface ViewCheck {
+        boolean isView(DrSumConnection connection, String dbName, String tableName) throws DWException;
+    }
+}
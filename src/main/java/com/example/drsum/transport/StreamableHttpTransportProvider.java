@@ -0,0 +1,722 @@
+package com.example.drsum.transport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.modelcontextprotocol.json.McpJsonMapper;
+import io.modelcontextprotocol.json.TypeRef;
+import io.modelcontextprotocol.spec.HttpHeaders;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpStreamableServerSession;
+import io.modelcontextprotocol.spec.McpStreamableServerTransport;
+import io.modelcontextprotocol.spec.McpStreamableServerTransportProvider;
+import io.modelcontextprotocol.spec.ProtocolVersions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streamable HTTP トランスポート
+ * 
+ * MCPの Streamable HTTP 仕様に従い、1つのエンドポイント（既定: /mcp）で複数のクライアントを受け付けます。
+ * 1つのサーバープロセスを複数のエージェントで共有できるため、JVM・メタデータキャッシュ・接続プールが
+ * 全クライアントで共有され、起動後は温まった状態で使われます。
+ * HTTPサーバーにはJDK標準の com.sun.net.httpserver を使用し、サーブレットコンテナは不要です。
+ * 
+ * 【責務】
+ * - POST: JSON-RPCメッセージの受信（initialize でセッションを作成し、リクエストの応答はSSEで返す）
+ * - GET: サーバーからの通知を送るSSEストリームの提供
+ * - DELETE: セッションの終了
+ * - セッションID（Mcp-Session-Id ヘッダー）によるセッションごとの状態管理
+ * - notifications/cancelled を受け取ったリクエストの応答の購読解除（実行中のツール呼び出しを中断）
+ * - 一定時間使われていないセッションの破棄（DELETEを送らずに終了したクライアントの分）
+ * 
+ * SSEストリームは応答が終わるまでスレッドを占有するため、同時に処理するリクエスト数に上限を設け、
+ * 上限を超えたリクエストは 503 で拒否します（スレッド数は上限に少数の拒否応答用を加えた数まで）。
+ * ネットワーク越しに共有されるため、リクエスト本文の大きさ（上限を超えると 413）と
+ * 同時に存在するセッション数（上限を超えた initialize は 503）にも上限を設けます。
+ * 
+ * ブラウザ経由のDNSリバインディング攻撃を防ぐため、Origin ヘッダーがある場合は
+ * ループバックアドレス（localhost, 127.0.0.1, ::1）以外からのリクエストを拒否します。
+ */
+public class StreamableHttpTransportProvider implements McpStreamableServerTransportProvider {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StreamableHttpTransportProvider.class);
+    
+    /**
+     * 既定のMCPエンドポイントのパス
+     */
+    public static final String DEFAULT_ENDPOINT = "/mcp";
+    
+    private static final String APPLICATION_JSON = "application/json";
+    private static final String TEXT_EVENT_STREAM = "text/event-stream";
+    private static final String MESSAGE_EVENT = "message";
+    private static final String METHOD_NOTIFICATION_CANCELLED = "notifications/cancelled";
+    
+    /**
+     * 既定のセッションの有効期限（最後のリクエストからの時間）
+     */
+    public static final Duration DEFAULT_SESSION_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    
+    /**
+     * 既定の同時に処理するリクエスト数の上限（SSEストリームを含む）
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
+    
+    /**
+     * 既定の同時に存在するセッション数の上限
+     */
+    public static final int DEFAULT_MAX_SESSIONS = 256;
+    
+    /**
+     * POSTで受け付けるリクエスト本文の上限（バイト）
+     */
+    public static final int MAX_REQUEST_BODY_BYTES = 4 * 1024 * 1024;
+    
+    // SSEストリームの切断を検出するためのキープアライブ間隔
+    private static final Duration KEEP_ALIVE_INTERVAL = Duration.ofSeconds(30);
+    
+    // 期限切れのセッションを探す間隔の上限
+    private static final Duration MAX_SWEEP_INTERVAL = Duration.ofMinutes(1);
+    
+    // 上限を超えたリクエストに 503 を返すためのスレッド数
+    private static final int REJECT_THREADS = 2;
+    
+    private final McpJsonMapper jsonMapper;
+    private final String endpoint;
+    private final Duration sessionIdleTimeout;
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService sweeper;
+    private final Semaphore admission;
+    private final int maxSessions;
+    private final Map<String, SessionEntry> sessions = new ConcurrentHashMap<>();
+    
+    // 応答待ちのリクエスト（セッションIDとリクエストIDのキー → 応答の購読）
+    private final Map<String, Disposable> inFlight = new ConcurrentHashMap<>();
+    
+    private volatile McpStreamableServerSession.Factory sessionFactory;
+    private volatile boolean closing;
+    
+    /**
+     * コンストラクタ（セッションの有効期限・同時リクエスト数・セッション数の上限は既定値、待ち受けはstart()で開始）
+     * 
+     * @param jsonMapper JSON-RPCメッセージの変換に使うマッパー
+     * @param address 待ち受けるアドレス（ポート0の場合は空いているポート）
+     * @param endpoint MCPエンドポイントのパス
+     * @throws IOException ポートを確保できない場合
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public StreamableHttpTransportProvider(McpJsonMapper jsonMapper, InetSocketAddress address, String endpoint)
+            throws IOException {
+        this(jsonMapper, address, endpoint, DEFAULT_SESSION_IDLE_TIMEOUT, DEFAULT_MAX_CONCURRENT_REQUESTS,
+             DEFAULT_MAX_SESSIONS);
+    }
+    
+    /**
+     * コンストラクタ（待ち受けはstart()で開始）
+     * 
+     * @param jsonMapper JSON-RPCメッセージの変換に使うマッパー
+     * @param address 待ち受けるアドレス（ポート0の場合は空いているポート）
+     * @param endpoint MCPエンドポイントのパス
+     * @param sessionIdleTimeout リクエストもストリームもないセッションを破棄するまでの時間
+     * @param maxConcurrentRequests 同時に処理するリクエスト数の上限（SSEストリームを含む）
+     * @param maxSessions 同時に存在するセッション数の上限
+     * @throws IOException ポートを確保できない場合
+     * @throws IllegalArgumentException パラメータが不正な場合
+     */
+    public StreamableHttpTransportProvider(McpJsonMapper jsonMapper, InetSocketAddress address, String endpoint,
+                                           Duration sessionIdleTimeout, int maxConcurrentRequests, int maxSessions)
+            throws IOException {
+        if (jsonMapper == null) {
+            throw new IllegalArgumentException("McpJsonMapper cannot be null");
+        }
+        if (address == null) {
+            throw new IllegalArgumentException("Address cannot be null");
+        }
+        if (endpoint == null || !endpoint.startsWith("/")) {
+            throw new IllegalArgumentException("Endpoint must start with '/': " + endpoint);
+        }
+        if (sessionIdleTimeout == null || sessionIdleTimeout.isNegative() || sessionIdleTimeout.isZero()) {
+            throw new IllegalArgumentException("Session idle timeout must be positive");
+        }
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("Max concurrent requests must be positive");
+        }
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Max sessions must be positive");
+        }
+        this.jsonMapper = jsonMapper;
+        this.endpoint = endpoint;
+        this.sessionIdleTimeout = sessionIdleTimeout;
+        this.admission = new Semaphore(maxConcurrentRequests);
+        this.maxSessions = maxSessions;
+        this.server = HttpServer.create(address, 0);
+        
+        // SSEストリームは応答が終わるまでスレッドを占有するため、リクエストごとにスレッドを割り当てる
+        // （上限を超えた分は待たせずに 503 を返すので、スレッド数は上限＋拒否応答用まで）
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = maxConcurrentRequests + REJECT_THREADS;
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                                               new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "drsum-http-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "drsum-http-session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext(endpoint, this::handle);
+    }
+    
+    // ========================================================================
+    // パブリックメソッド
+    // ========================================================================
+    
+    /**
+     * 待ち受けを開始
+     */
+    public void start() {
+        long sweepMillis = Math.min(sessionIdleTimeout.toMillis(), MAX_SWEEP_INTERVAL.toMillis());
+        sweeper.scheduleWithFixedDelay(this::expireIdleSessions, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        server.start();
+        logger.info("Listening for MCP Streamable HTTP on http://{}:{}{}",
+                    server.getAddress().getHostString(), server.getAddress().getPort(), endpoint);
+    }
+    
+    /**
+     * 待ち受けているアドレス（ポート0を指定した場合は実際のポート）
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+    
+    /**
+     * 応答待ちのリクエスト数
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+    
+    /**
+     * 有効なセッション数
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+    
+    /**
+     * 最後のリクエストから有効期限が過ぎ、処理中のリクエストもストリームもないセッションを破棄
+     * 
+     * start()で定期的に実行します。
+     * 
+     * @return 破棄したセッション数
+     */
+    int expireIdleSessions() {
+        long now = System.nanoTime();
+        int expired = 0;
+        for (SessionEntry entry : sessions.values()) {
+            if (entry.isIdle(now, sessionIdleTimeout.toNanos()) && sessions.remove(entry.session.getId(), entry)) {
+                expired++;
+                logger.info("MCP HTTP session {} expired after {} s idle ({} active)",
+                            entry.session.getId(), sessionIdleTimeout.toSeconds(), sessions.size());
+                entry.session.closeGracefully().subscribe(null, e -> logger.warn(
+                        "Failed to close expired session {}: {}", entry.session.getId(), e.getMessage()));
+            }
+        }
+        return expired;
+    }
+    
+    @Override
+    public List<String> protocolVersions() {
+        return List.of(ProtocolVersions.MCP_2025_03_26, ProtocolVersions.MCP_2025_06_18);
+    }
+    
+    @Override
+    public void setSessionFactory(McpStreamableServerSession.Factory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+    
+    @Override
+    public Mono<Void> notifyClients(String method, Object params) {
+        return Flux.fromIterable(sessions.values())
+                .flatMap(entry -> entry.session.sendNotification(method, params)
+                        .onErrorResume(e -> {
+                            logger.warn("Failed to notify session {}: {}", entry.session.getId(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+    
+    @Override
+    public Mono<Void> closeGracefully() {
+        return Mono.defer(() -> {
+            closing = true;
+            logger.info("Closing {} MCP HTTP sessions", sessions.size());
+            return Flux.fromIterable(sessions.values())
+                    .flatMap(entry -> entry.session.closeGracefully())
+                    .then();
+        }).doFinally(signal -> {
+            sessions.clear();
+            server.stop(0);
+            sweeper.shutdownNow();
+            executor.shutdownNow();
+        });
+    }
+    
+    // ========================================================================
+    // リクエスト処理
+    // ========================================================================
+    
+    /**
+     * HTTPリクエストをメソッドごとに振り分け（応答を書き終えてから返る）
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!endpoint.equals(exchange.getRequestURI().getPath())) {
+                sendError(exchange, 404, "Not found");
+            } else if (closing) {
+                sendError(exchange, 503, "Server is shutting down");
+            } else if (!isAllowedOrigin(exchange.getRequestHeaders().getFirst("Origin"))) {
+                sendError(exchange, 403, "Origin not allowed");
+            } else if (!admission.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Too many concurrent requests");
+            } else {
+                try {
+                    switch (exchange.getRequestMethod()) {
+                        case "POST":
+                            handlePost(exchange);
+                            break;
+                        case "GET":
+                            handleGet(exchange);
+                            break;
+                        case "DELETE":
+                            handleDelete(exchange);
+                            break;
+                        default:
+                            exchange.getResponseHeaders().set("Allow", "GET, POST, DELETE");
+                            sendError(exchange, 405, "Method not allowed");
+                    }
+                } finally {
+                    admission.release();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to handle MCP HTTP request", e);
+            if (exchange.getResponseCode() == -1) {
+                sendError(exchange, 500, "Internal server error");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    /**
+     * POST: クライアントからのJSON-RPCメッセージを処理
+     */
+    private void handlePost(HttpExchange exchange) throws IOException, InterruptedException {
+        String accept = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains(APPLICATION_JSON) || !accept.contains(TEXT_EVENT_STREAM)) {
+            sendError(exchange, 400, "Accept header must include application/json and text/event-stream");
+            return;
+        }
+        
+        // 本文は上限までしか読まない（Content-Length が上限を超える場合は読まずに拒否）
+        if (exceedsBodyLimit(exchange.getRequestHeaders().getFirst("Content-Length"))) {
+            sendError(exchange, 413, "Request body exceeds " + MAX_REQUEST_BODY_BYTES + " bytes");
+            return;
+        }
+        McpSchema.JSONRPCMessage message;
+        try {
+            byte[] bytes = exchange.getRequestBody().readNBytes(MAX_REQUEST_BODY_BYTES + 1);
+            if (bytes.length > MAX_REQUEST_BODY_BYTES) {
+                sendError(exchange, 413, "Request body exceeds " + MAX_REQUEST_BODY_BYTES + " bytes");
+                return;
+            }
+            String body = new String(bytes, StandardCharsets.UTF_8);
+            message = McpSchema.deserializeJsonRpcMessage(jsonMapper, body);
+        } catch (IOException | IllegalArgumentException e) {
+            sendError(exchange, 400, "Invalid JSON-RPC message: " + e.getMessage());
+            return;
+        }
+        
+        // initialize は新しいセッションを作成してJSONで応答
+        if (message instanceof McpSchema.JSONRPCRequest
+                && McpSchema.METHOD_INITIALIZE.equals(((McpSchema.JSONRPCRequest) message).method())) {
+            initializeSession(exchange, (McpSchema.JSONRPCRequest) message);
+            return;
+        }
+        
+        SessionEntry entry = findSession(exchange);
+        if (entry == null) {
+            return;
+        }
+        McpStreamableServerSession session = entry.session;
+        entry.begin();
+        try {
+            if (message instanceof McpSchema.JSONRPCResponse) {
+                session.accept((McpSchema.JSONRPCResponse) message).block();
+                sendStatus(exchange, 202);
+            } else if (message instanceof McpSchema.JSONRPCNotification) {
+                McpSchema.JSONRPCNotification notification = (McpSchema.JSONRPCNotification) message;
+                if (METHOD_NOTIFICATION_CANCELLED.equals(notification.method())) {
+                    cancelRequest(session.getId(), notification.params());
+                }
+                session.accept(notification).block();
+                sendStatus(exchange, 202);
+            } else {
+                // リクエストの応答（と処理中の通知）はSSEで返す
+                McpSchema.JSONRPCRequest request = (McpSchema.JSONRPCRequest) message;
+                SseTransport transport = openEventStream(exchange, session.getId());
+                awaitResponse(session.getId(), request.id(), session.responseStream(request, transport));
+            }
+        } finally {
+            entry.end();
+        }
+    }
+    
+    /**
+     * リクエストの応答を送り終えるか、キャンセルされるまで待機
+     * 
+     * 応答の購読はキャンセル通知で解除できるよう、完了まで登録しておきます。
+     */
+    private void awaitResponse(String sessionId, Object requestId, Mono<Void> response)
+            throws InterruptedException {
+        String key = inFlightKey(sessionId, requestId);
+        CountDownLatch done = new CountDownLatch(1);
+        Disposable subscription = response
+                .doFinally(signal -> done.countDown())
+                .subscribe(null, e -> logger.warn("Failed to respond to request {} of session {}: {}",
+                                                  requestId, sessionId, e.getMessage()));
+        inFlight.put(key, subscription);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            subscription.dispose();
+            throw e;
+        } finally {
+            inFlight.remove(key, subscription);
+        }
+    }
+    
+    /**
+     * notifications/cancelled で指定されたリクエストの応答の購読を解除
+     * 
+     * 購読を解除するとツール呼び出しの処理が中断され、応答は送信されません（MCPの仕様どおり）。
+     * 既に完了したリクエストや不明なリクエストの場合は何もしません。
+     */
+    private void cancelRequest(String sessionId, Object params) {
+        if (!(params instanceof Map)) {
+            return;
+        }
+        Map<?, ?> cancelParams = (Map<?, ?>) params;
+        Object requestId = cancelParams.get("requestId");
+        Disposable subscription = requestId == null ? null : inFlight.remove(inFlightKey(sessionId, requestId));
+        if (subscription != null) {
+            logger.info("Cancelling request {} of session {}: {}", requestId, sessionId, cancelParams.get("reason"));
+            subscription.dispose();
+        }
+    }
+    
+    /**
+     * GET: サーバーからの通知を送るSSEストリームを開く（切断されるまで返らない）
+     */
+    private void handleGet(HttpExchange exchange) throws IOException, InterruptedException {
+        String accept = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains(TEXT_EVENT_STREAM)) {
+            sendError(exchange, 400, "Accept header must include text/event-stream");
+            return;
+        }
+        SessionEntry entry = findSession(exchange);
+        if (entry == null) {
+            return;
+        }
+        McpStreamableServerSession session = entry.session;
+        
+        // ストリームを開いている間はセッションを破棄しない
+        entry.begin();
+        try {
+            SseTransport transport = openEventStream(exchange, session.getId());
+            McpStreamableServerSession.McpStreamableServerSessionStream stream = session.listeningStream(transport);
+            String lastEventId = exchange.getRequestHeaders().getFirst(HttpHeaders.LAST_EVENT_ID);
+            if (lastEventId != null) {
+                session.replay(lastEventId).concatMap(transport::sendMessage).then().block();
+            }
+            transport.awaitClose();
+            stream.close();
+        } finally {
+            entry.end();
+        }
+    }
+    
+    /**
+     * DELETE: セッションを終了
+     */
+    private void handleDelete(HttpExchange exchange) throws IOException {
+        SessionEntry entry = findSession(exchange);
+        if (entry == null) {
+            return;
+        }
+        McpStreamableServerSession session = entry.session;
+        session.delete().block();
+        sessions.remove(session.getId());
+        logger.info("MCP HTTP session {} deleted ({} active)", session.getId(), sessions.size());
+        sendStatus(exchange, 200);
+    }
+    
+    // ========================================================================
+    // プライベートヘルパーメソッド
+    // ========================================================================
+    
+    /**
+     * initialize リクエストからセッションを作成し、結果とセッションIDを返す
+     */
+    private void initializeSession(HttpExchange exchange, McpSchema.JSONRPCRequest request) throws IOException {
+        McpSchema.InitializeRequest initializeRequest = jsonMapper.convertValue(
+                request.params(), new TypeRef<McpSchema.InitializeRequest>() {
+                });
+        // 上限の確認と登録の間に他の initialize が割り込まないようにする
+        McpStreamableServerSession.McpStreamableServerSessionInit init = null;
+        synchronized (sessions) {
+            if (sessions.size() < maxSessions) {
+                init = sessionFactory.startSession(initializeRequest);
+                sessions.put(init.session().getId(), new SessionEntry(init.session()));
+            }
+        }
+        if (init == null) {
+            sendError(exchange, 503, "Too many sessions (limit " + maxSessions + ")");
+            return;
+        }
+        String sessionId = init.session().getId();
+        
+        McpSchema.InitializeResult result = init.initResult().block();
+        byte[] body = jsonMapper.writeValueAsBytes(
+                new McpSchema.JSONRPCResponse(McpSchema.JSONRPC_VERSION, request.id(), result, null));
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON);
+        exchange.getResponseHeaders().set(HttpHeaders.MCP_SESSION_ID, sessionId);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        logger.info("MCP HTTP session {} created ({} active)", sessionId, sessions.size());
+    }
+    
+    /**
+     * Mcp-Session-Id ヘッダーのセッションを取得（見つからない場合はエラーを返してnull）
+     */
+    private SessionEntry findSession(HttpExchange exchange) throws IOException {
+        String sessionId = exchange.getRequestHeaders().getFirst(HttpHeaders.MCP_SESSION_ID);
+        if (sessionId == null || sessionId.isBlank()) {
+            sendError(exchange, 400, "Missing " + HttpHeaders.MCP_SESSION_ID + " header");
+            return null;
+        }
+        SessionEntry entry = sessions.get(sessionId);
+        if (entry == null) {
+            sendError(exchange, 404, "Session not found: " + sessionId);
+        }
+        return entry;
+    }
+    
+    /**
+     * SSEの応答ヘッダーを送信し、イベントを書き込むトランスポートを作成
+     */
+    private SseTransport openEventStream(HttpExchange exchange, String sessionId) throws IOException {
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, TEXT_EVENT_STREAM);
+        exchange.getResponseHeaders().set(HttpHeaders.CACHE_CONTROL, "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        return new SseTransport(sessionId, exchange.getResponseBody());
+    }
+    
+    /**
+     * Origin ヘッダーが許可されたものかどうか（ヘッダーがない場合は許可）
+     */
+    static boolean isAllowedOrigin(String origin) {
+        if (origin == null) {
+            return true;
+        }
+        try {
+            String host = URI.create(origin).getHost();
+            return "localhost".equalsIgnoreCase(host) || "127.0.0.1".equals(host)
+                    || "[::1]".equals(host) || "::1".equals(host);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 応答待ちのリクエストのキー（数値のIDは 1 と 1.0 を同じものとして扱う）
+     */
+    /**
+     * Content-Length ヘッダーが本文の上限を超えているかどうか（不正な値は読み込み時の上限に任せる）
+     */
+    static boolean exceedsBodyLimit(String contentLength) {
+        if (contentLength == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(contentLength.trim()) > MAX_REQUEST_BODY_BYTES;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    private static String inFlightKey(String sessionId, Object requestId) {
+        String id = requestId instanceof Number
+                ? "n:" + ((Number) requestId).longValue()
+                : "s:" + requestId;
+        return sessionId + "\n" + id;
+    }
+    
+    private static void sendStatus(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+    
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+    
+    // ========================================================================
+    // 内部クラス
+    // ========================================================================
+    
+    /**
+     * セッションと、その利用状況（期限切れの判定に使う）
+     */
+    private static final class SessionEntry {
+        
+        final McpStreamableServerSession session;
+        private final AtomicInteger active = new AtomicInteger();
+        private volatile long lastActivityNanos = System.nanoTime();
+        
+        SessionEntry(McpStreamableServerSession session) {
+            this.session = session;
+        }
+        
+        /**
+         * リクエストまたはストリームの開始
+         */
+        void begin() {
+            active.incrementAndGet();
+            lastActivityNanos = System.nanoTime();
+        }
+        
+        /**
+         * リクエストまたはストリームの終了
+         */
+        void end() {
+            lastActivityNanos = System.nanoTime();
+            active.decrementAndGet();
+        }
+        
+        /**
+         * 処理中のものがなく、最後の利用から指定時間が過ぎたかどうか
+         */
+        boolean isIdle(long nowNanos, long timeoutNanos) {
+            return active.get() == 0 && nowNanos - lastActivityNanos >= timeoutNanos;
+        }
+    }
+    
+    /**
+     * 1つのSSEストリームにJSON-RPCメッセージを書き込むトランスポート
+     */
+    private final class SseTransport implements McpStreamableServerTransport {
+        
+        private final String sessionId;
+        private final OutputStream out;
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final CountDownLatch closed = new CountDownLatch(1);
+        
+        SseTransport(String sessionId, OutputStream out) {
+            this.sessionId = sessionId;
+            this.out = out;
+        }
+        
+        @Override
+        public Mono<Void> sendMessage(McpSchema.JSONRPCMessage message) {
+            return sendMessage(message, null);
+        }
+        
+        @Override
+        public Mono<Void> sendMessage(McpSchema.JSONRPCMessage message, String messageId) {
+            return Mono.fromRunnable(() -> {
+                try {
+                    String json = jsonMapper.writeValueAsString(message);
+                    write("id: " + (messageId != null ? messageId : sessionId) + "\n"
+                          + "event: " + MESSAGE_EVENT + "\n"
+                          + "data: " + json + "\n\n");
+                } catch (IOException e) {
+                    close();
+                    throw new IllegalStateException("Failed to send SSE event to session " + sessionId, e);
+                }
+            });
+        }
+        
+        @Override
+        public <T> T unmarshalFrom(Object data, TypeRef<T> typeRef) {
+            return jsonMapper.convertValue(data, typeRef);
+        }
+        
+        @Override
+        public Mono<Void> closeGracefully() {
+            return Mono.fromRunnable(this::close);
+        }
+        
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+        
+        /**
+         * ストリームが閉じられるまで待機（定期的にコメント行を送り、切断を検出したら閉じる）
+         */
+        void awaitClose() throws InterruptedException {
+            while (!closed.await(KEEP_ALIVE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)) {
+                try {
+                    write(": keep-alive\n\n");
+                } catch (IOException e) {
+                    logger.info("SSE stream of session {} disconnected", sessionId);
+                    close();
+                }
+            }
+        }
+        
+        private void write(String event) throws IOException {
+            writeLock.lock();
+            try {
+                out.write(event.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+}
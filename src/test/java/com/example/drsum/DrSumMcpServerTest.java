@@ -12,6 +12,10 @@ import com.example.drsum.connection.DrSumConnection;
 import com.example.drsum.connection.ScopeDefinitions;
 import com.example.drsum.service.DrSumQueryService;
 import com.example.drsum.service.DrSumMetadataService;
+import com.example.drsum.service.QueryCancellation;
+import com.example.drsum.service.QueryCancelledException;
+import com.example.drsum.format.ObjectMappers;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import java.util.Map;
 import java.util.List;
@@ -413,6 +417,123 @@ class DrSumMcpServerTest {
         assertTrue(request.arguments().isEmpty());
     }
 
+    // ========================================================================
+    // Request Coalescing Tests
+    // ========================================================================
+    
+    @Test
+    @DisplayName("coalescingKey() should ignore argument order and numeric representation")
+    void testCoalescingKey_Normalized() {
+        Map<String, Object> first = new java.util.LinkedHashMap<>();
+        first.put("table_name", "sales");
+        first.put("sample_rows", 5);
+        Map<String, Object> second = new java.util.LinkedHashMap<>();
+        second.put("sample_rows", 5.0);
+        second.put("table_name", "sales");
+        
+        assertEquals(DrSumMcpServer.coalescingKey("get_metadata", first),
+                     DrSumMcpServer.coalescingKey("get_metadata", second));
+    }
+    
+    @Test
+    @DisplayName("coalescingKey() should distinguish tools and argument values")
+    void testCoalescingKey_Distinct() {
+        Map<String, Object> arguments = Map.of("table_name", "sales");
+        
+        assertNotEquals(DrSumMcpServer.coalescingKey("get_metadata", arguments),
+                        DrSumMcpServer.coalescingKey("list_tables", arguments));
+        assertNotEquals(DrSumMcpServer.coalescingKey("get_metadata", arguments),
+                        DrSumMcpServer.coalescingKey("get_metadata", Map.of("table_name", "sales ")));
+        assertNotEquals(DrSumMcpServer.coalescingKey("get_metadata", Map.of("sample_rows", 1.5)),
+                        DrSumMcpServer.coalescingKey("get_metadata", Map.of("sample_rows", 1)));
+    }
+    
+    @Test
+    @DisplayName("isCoalescable() should allow only read-only SQL to be shared")
+    void testIsCoalescable() {
+        assertTrue(DrSumMcpServer.isCoalescable(Map.of("table_name", "sales")));
+        assertTrue(DrSumMcpServer.isCoalescable(Map.of("sql_query", "SELECT * FROM sales")));
+        assertFalse(DrSumMcpServer.isCoalescable(Map.of("sql_query", "DELETE FROM sales")));
+    }
+    
+    // ========================================================================
+    // Error Handling Tests
+    // ========================================================================
+    
+    @Test
+    @DisplayName("unwrapDrSumError() should return the DWException wrapped by a handler")
+    void testUnwrapDrSumError() {
+        DWException cause = new DWException("table not found");
+        
+        assertSame(cause, DrSumMcpServer.unwrapDrSumError(new RuntimeException(cause)));
+        assertNull(DrSumMcpServer.unwrapDrSumError(new RuntimeException("unexpected")));
+        assertNull(DrSumMcpServer.unwrapDrSumError(
+                new RuntimeException(new IllegalStateException("unexpected"))));
+    }
+    
+    @Test
+    @DisplayName("createCancelledResult() should report the reason and timings as a JSON error")
+    void testCreateCancelledResult() throws Exception {
+        McpSchema.CallToolResult timeout = DrSumMcpServer.createCancelledResult(
+                new QueryCancelledException(QueryCancellation.Reason.TIMEOUT, 1000, 1005));
+        JsonNode timeoutJson = ObjectMappers.shared().readTree(
+                ((McpSchema.TextContent) timeout.content().get(0)).text());
+        
+        assertTrue(timeout.isError());
+        assertEquals("timeout", timeoutJson.get("error").asText());
+        assertTrue(timeoutJson.get("message").asText().contains("timeout_ms"));
+        assertEquals(1000, timeoutJson.get("timeout_ms").asLong());
+        assertEquals(1005, timeoutJson.get("elapsed_ms").asLong());
+        
+        McpSchema.CallToolResult cancelled = DrSumMcpServer.createCancelledResult(
+                new QueryCancelledException(QueryCancellation.Reason.CANCELLED, 1000, 20));
+        JsonNode cancelledJson = ObjectMappers.shared().readTree(
+                ((McpSchema.TextContent) cancelled.content().get(0)).text());
+        
+        assertEquals("cancelled", cancelledJson.get("error").asText());
+        assertFalse(cancelledJson.has("timeout_ms"));
+        assertEquals(20, cancelledJson.get("elapsed_ms").asLong());
+    }
+    
+    @Test
+    @DisplayName("getIntArgument() should reject non-numeric, fractional and out-of-range values")
+    void testGetIntArgument() {
+        assertEquals(0, DrSumMcpServer.getIntArgument(Map.of(), "max_rows", 0));
+        assertEquals(100, DrSumMcpServer.getIntArgument(Map.of("max_rows", 100), "max_rows", 0));
+        assertEquals(100, DrSumMcpServer.getIntArgument(Map.of("max_rows", 100.0), "max_rows", 0));
+        assertEquals(Integer.MAX_VALUE,
+                DrSumMcpServer.getIntArgument(Map.of("offset", (long) Integer.MAX_VALUE), "offset", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> DrSumMcpServer.getIntArgument(Map.of("max_rows", "100"), "max_rows", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> DrSumMcpServer.getIntArgument(Map.of("page_size", 10.5), "page_size", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> DrSumMcpServer.getIntArgument(Map.of("offset", 3_000_000_000L), "offset", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> DrSumMcpServer.getIntArgument(Map.of("max_rows", -1), "max_rows", 0));
+    }
+    
+    @Test
+    @DisplayName("getIntArgument() should not wrap max_response_bytes above the int range")
+    void testGetIntArgumentMaxResponseBytes() {
+        assertEquals(65536, DrSumMcpServer.getIntArgument(Map.of(), "max_response_bytes", 65536));
+        assertEquals(4096, DrSumMcpServer.getIntArgument(Map.of("max_response_bytes", 4096L), "max_response_bytes", 65536));
+        assertThrows(IllegalArgumentException.class, () -> DrSumMcpServer.getIntArgument(
+                Map.of("max_response_bytes", 4_294_971_392L), "max_response_bytes", 65536));
+    }
+    
+    @Test
+    @DisplayName("getTimeoutArgument() should reject non-numeric and negative values without truncating")
+    void testGetTimeoutArgument() {
+        assertEquals(30000L, DrSumMcpServer.getTimeoutArgument(Map.of(), 30000));
+        assertEquals(5000L, DrSumMcpServer.getTimeoutArgument(Map.of("timeout_ms", 5000), 30000));
+        assertEquals(3_000_000_000L, DrSumMcpServer.getTimeoutArgument(Map.of("timeout_ms", 3_000_000_000L), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> DrSumMcpServer.getTimeoutArgument(Map.of("timeout_ms", "5000"), 30000));
+        assertThrows(IllegalArgumentException.class,
+                () -> DrSumMcpServer.getTimeoutArgument(Map.of("timeout_ms", -1), 30000));
+    }
+    
     // ========================================================================
     // Environment Variable Tests (Phase 5/6)
     // ========================================================================
@@ -0,0 +1,62 @@
+package com.example.drsum;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * PinningMonitorクラスのユニットテスト
+ */
+class PinningMonitorTest {
+    
+    @Test
+    @DisplayName("Monitor should start and stop with no pinning reported")
+    void testStartAndClose() {
+        try (PinningMonitor monitor = new PinningMonitor(Duration.ofMillis(20))) {
+            assertEquals(0, monitor.getPinnedCount());
+            assertEquals(0, monitor.getPinnedTotalMillis());
+        }
+    }
+    
+    @Test
+    @DisplayName("Negative threshold should be rejected")
+    void testNegativeThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new PinningMonitor(Duration.ofMillis(-1)));
+    }
+    
+    @Test
+    @DisplayName("Blocking inside synchronized on a virtual thread should be reported")
+    void testReportsPinning() throws Exception {
+        assumeTrue(ToolWorkerPool.isVirtualThreadSupported());
+        // Java 24以降は synchronized 内のブロックでピン留めされないため対象外
+        assumeTrue(Runtime.version().feature() < 24);
+        
+        try (PinningMonitor monitor = new PinningMonitor(Duration.ofMillis(10))) {
+            Object lock = new Object();
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            executor.submit(() -> {
+                synchronized (lock) {
+                    Thread.sleep(50);
+                }
+                return null;
+            }).get(10, TimeUnit.SECONDS);
+            executor.shutdown();
+            
+            // JFRのイベントは非同期に配信されるため、届くまで待つ
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (monitor.getPinnedCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(monitor.getPinnedCount() >= 1);
+            assertTrue(monitor.getPinnedTotalMillis() >= 10);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.drsum;
+
+import com.example.drsum.service.DrSumQueryService;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ServerSettingsクラスのユニットテスト
+ */
+class ServerSettingsTest {
+    
+    @Test
+    void testFromMapUsesDefaults() {
+        ServerSettings settings = ServerSettings.fromMap(Map.of());
+        
+        assertEquals(DrSumQueryService.DEFAULT_FETCH_SIZE, settings.getFetchSize());
+        assertEquals(300, settings.getResultTtlSeconds());
+        assertEquals(32, settings.getResultStoreMaxEntries());
+        assertEquals(100000, settings.getResultStoreMaxRows());
+        assertEquals(600, settings.getMetadataCacheTtlSeconds());
+        assertEquals(1000, settings.getMetadataCacheMaxEntries());
+    }
+    
+    @Test
+    void testFromMapReadsFetchSize() {
+        ServerSettings settings = ServerSettings.fromMap(Map.of("DRSUM_FETCH_SIZE", "250"));
+        
+        assertEquals(250, settings.getFetchSize());
+    }
+    
+    @Test
+    void testFromMapRejectsNonNumericFetchSize() {
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_FETCH_SIZE", "lots"));
+        });
+        assertTrue(exception.getMessage().contains("DRSUM_FETCH_SIZE"));
+    }
+    
+    @Test
+    void testFromMapRejectsFetchSizeOutOfIntRange() {
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_FETCH_SIZE", "4294967297"));
+        });
+        assertTrue(exception.getMessage().contains("DRSUM_FETCH_SIZE"));
+    }
+    
+    @Test
+    void testFromMapRejectsZeroFetchSize() {
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_FETCH_SIZE", "0"));
+        });
+    }
+    
+    @Test
+    void testFromMapReadsResultStoreSettings() {
+        ServerSettings settings = ServerSettings.fromMap(Map.of(
+            "DRSUM_RESULT_TTL_SECONDS", "60",
+            "DRSUM_RESULT_STORE_MAX_ENTRIES", "8",
+            "DRSUM_RESULT_STORE_MAX_ROWS", "5000"
+        ));
+        
+        assertEquals(60, settings.getResultTtlSeconds());
+        assertEquals(8, settings.getResultStoreMaxEntries());
+        assertEquals(5000, settings.getResultStoreMaxRows());
+    }
+    
+    @Test
+    void testFromMapRejectsZeroResultTtl() {
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_RESULT_TTL_SECONDS", "0"));
+        });
+    }
+    
+    @Test
+    void testFromMapAllowsDisablingMetadataCache() {
+        ServerSettings settings = ServerSettings.fromMap(Map.of("DRSUM_METADATA_CACHE_TTL_SECONDS", "0"));
+        
+        assertEquals(0, settings.getMetadataCacheTtlSeconds());
+    }
+    
+    @Test
+    void testFromMapRejectsNegativeMetadataCacheTtl() {
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_METADATA_CACHE_TTL_SECONDS", "-1"));
+        });
+    }
+    
+    @Test
+    void testFromMapDefaultsToSyncMode() {
+        ServerSettings settings = ServerSettings.fromMap(Map.of());
+        
+        assertEquals(ServerSettings.ServerMode.SYNC, settings.getServerMode());
+        assertEquals(4, settings.getWorkerThreads());
+        assertEquals(32, settings.getWorkerQueueSize());
+    }
+    
+    @Test
+    void testFromMapReadsAsyncModeSettings() {
+        ServerSettings settings = ServerSettings.fromMap(Map.of(
+            "DRSUM_SERVER_MODE", "Async",
+            "DRSUM_WORKER_THREADS", "8",
+            "DRSUM_WORKER_QUEUE_SIZE", "0"
+        ));
+        
+        assertEquals(ServerSettings.ServerMode.ASYNC, settings.getServerMode());
+        assertEquals(8, settings.getWorkerThreads());
+        assertEquals(0, settings.getWorkerQueueSize());
+    }
+    
+    @Test
+    void testFromMapRejectsUnknownServerMode() {
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_SERVER_MODE", "reactive"));
+        });
+        assertTrue(exception.getMessage().contains("DRSUM_SERVER_MODE"));
+    }
+    
+    @Test
+    void testFromMapRejectsZeroWorkerThreads() {
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_WORKER_THREADS", "0"));
+        });
+    }
+    
+    @Test
+    void testFromMapReadsVirtualModeSettings() {
+        ServerSettings settings = ServerSettings.fromMap(Map.of(
+            "DRSUM_SERVER_MODE", "virtual",
+            "DRSUM_PINNING_THRESHOLD_MS", "5"
+        ));
+        
+        assertEquals(ServerSettings.ServerMode.VIRTUAL, settings.getServerMode());
+        assertEquals(5, settings.getPinningThresholdMs());
+    }
+    
+    @Test
+    void testFromMapRejectsNegativePinningThreshold() {
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_PINNING_THRESHOLD_MS", "-1"));
+        });
+    }
+    
+    @Test
+    void testFromMapDefaultsToStdioTransport() {
+        ServerSettings settings = ServerSettings.fromMap(Map.of());
+        
+        assertEquals(ServerSettings.Transport.STDIO, settings.getTransport());
+        assertEquals("127.0.0.1", settings.getHttpHost());
+        assertEquals(8080, settings.getHttpPort());
+        assertEquals(1800, settings.getHttpSessionIdleTimeoutSeconds());
+        assertEquals(64, settings.getHttpMaxConcurrentRequests());
+        assertEquals(256, settings.getHttpMaxSessions());
+    }
+    
+    @Test
+    void testFromMapReadsHttpTransportSettings() {
+        ServerSettings settings = ServerSettings.fromMap(Map.of(
+            "DRSUM_TRANSPORT", "HTTP",
+            "DRSUM_HTTP_HOST", "0.0.0.0",
+            "DRSUM_HTTP_PORT", "9090",
+            "DRSUM_HTTP_SESSION_IDLE_TIMEOUT_SECONDS", "600",
+            "DRSUM_HTTP_MAX_CONCURRENT_REQUESTS", "16",
+            "DRSUM_HTTP_MAX_SESSIONS", "8"
+        ));
+        
+        assertEquals(ServerSettings.Transport.HTTP, settings.getTransport());
+        assertEquals("0.0.0.0", settings.getHttpHost());
+        assertEquals(9090, settings.getHttpPort());
+        assertEquals(600, settings.getHttpSessionIdleTimeoutSeconds());
+        assertEquals(16, settings.getHttpMaxConcurrentRequests());
+        assertEquals(8, settings.getHttpMaxSessions());
+    }
+    
+    @Test
+    void testFromMapRejectsInvalidTransportSettings() {
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_TRANSPORT", "websocket"));
+        });
+        assertTrue(exception.getMessage().contains("DRSUM_TRANSPORT"));
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_HTTP_PORT", "70000"));
+        });
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_HTTP_SESSION_IDLE_TIMEOUT_SECONDS", "0"));
+        });
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_HTTP_MAX_CONCURRENT_REQUESTS", "0"));
+        });
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_HTTP_MAX_SESSIONS", "0"));
+        });
+    }
+    
+    @Test
+    void testFromMapReadsCoalesceRequests() {
+        assertTrue(ServerSettings.fromMap(Map.of()).isCoalesceRequests());
+        assertFalse(ServerSettings.fromMap(Map.of("DRSUM_COALESCE_REQUESTS", "FALSE")).isCoalesceRequests());
+        
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_COALESCE_REQUESTS", "maybe"));
+        });
+        assertTrue(exception.getMessage().contains("DRSUM_COALESCE_REQUESTS"));
+    }
+    
+    @Test
+    void testFromMapReadsQueryCacheSettings() {
+        ServerSettings defaults = ServerSettings.fromMap(Map.of());
+        assertEquals(0, defaults.getQueryCacheTtlSeconds());
+        assertEquals(64L * 1024 * 1024, defaults.getQueryCacheMaxBytes());
+        
+        ServerSettings settings = ServerSettings.fromMap(Map.of(
+            "DRSUM_QUERY_CACHE_TTL_SECONDS", "3600",
+            "DRSUM_QUERY_CACHE_MAX_BYTES", "1048576"
+        ));
+        assertEquals(3600, settings.getQueryCacheTtlSeconds());
+        assertEquals(1048576L, settings.getQueryCacheMaxBytes());
+        
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_QUERY_CACHE_MAX_BYTES", "0"));
+        });
+    }
+    
+    @Test
+    void testFromMapReadsResultSpillSettings() {
+        ServerSettings defaults = ServerSettings.fromMap(Map.of());
+        assertEquals(32L * 1024 * 1024, defaults.getResultSpillBytes());
+        assertEquals(Path.of(System.getProperty("java.io.tmpdir")), defaults.getResultSpillDirectory());
+        
+        ServerSettings settings = ServerSettings.fromMap(Map.of(
+            "DRSUM_RESULT_SPILL_BYTES", "0",
+            "DRSUM_RESULT_SPILL_DIR", "/var/tmp/drsum"
+        ));
+        assertEquals(0L, settings.getResultSpillBytes());
+        assertEquals(Path.of("/var/tmp/drsum"), settings.getResultSpillDirectory());
+        
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_RESULT_SPILL_BYTES", "-1"));
+        });
+    }
+    
+    @Test
+    void testFromMapReadsQueryTimeout() {
+        assertEquals(300000L, ServerSettings.fromMap(Map.of()).getQueryTimeoutMs());
+        assertEquals(0L, ServerSettings.fromMap(Map.of("DRSUM_QUERY_TIMEOUT_MS", "0")).getQueryTimeoutMs());
+        assertEquals(15000L, ServerSettings.fromMap(Map.of("DRSUM_QUERY_TIMEOUT_MS", "15000")).getQueryTimeoutMs());
+        
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_QUERY_TIMEOUT_MS", "-1"));
+        });
+    }
+    
+    @Test
+    void testFromMapReadsMaxResponseBytes() {
+        assertEquals(1048576, ServerSettings.fromMap(Map.of()).getMaxResponseBytes());
+        assertEquals(0, ServerSettings.fromMap(Map.of("DRSUM_MAX_RESPONSE_BYTES", "0")).getMaxResponseBytes());
+        assertEquals(65536, ServerSettings.fromMap(Map.of("DRSUM_MAX_RESPONSE_BYTES", "65536")).getMaxResponseBytes());
+        
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_MAX_RESPONSE_BYTES", "-1"));
+        });
+    }
+    
+    @Test
+    void testFromMapReadsStatsLogInterval() {
+        assertEquals(0, ServerSettings.fromMap(Map.of()).getStatsLogIntervalSeconds());
+        assertEquals(60, ServerSettings.fromMap(Map.of("DRSUM_STATS_LOG_INTERVAL_SECONDS", "60"))
+                .getStatsLogIntervalSeconds());
+        
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_STATS_LOG_INTERVAL_SECONDS", "-1"));
+        });
+    }
+    
+    @Test
+    void testFromMapReadsMetadataBatchSettings() {
+        ServerSettings defaults = ServerSettings.fromMap(Map.of());
+        assertEquals(4, defaults.getMetadataBatchParallelism());
+        assertEquals(50, defaults.getMetadataBatchMaxTables());
+        
+        ServerSettings settings = ServerSettings.fromMap(Map.of(
+                "DRSUM_METADATA_BATCH_PARALLELISM", "1",
+                "DRSUM_METADATA_BATCH_MAX_TABLES", "200"));
+        assertEquals(1, settings.getMetadataBatchParallelism());
+        assertEquals(200, settings.getMetadataBatchMaxTables());
+        
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_METADATA_BATCH_PARALLELISM", "0"));
+        });
+        assertThrows(IllegalStateException.class, () -> {
+            ServerSettings.fromMap(Map.of("DRSUM_METADATA_BATCH_MAX_TABLES", "0"));
+        });
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.drsum;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * ToolWorkerPoolクラスのユニットテスト
+ */
+class ToolWorkerPoolTest {
+    
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    
+    private ToolWorkerPool pool;
+    
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("submit() should run the handler on a worker thread")
+    void testSubmitRunsOnWorker() {
+        pool = new ToolWorkerPool(1, 1);
+        
+        String threadName = pool.submit(() -> Thread.currentThread().getName()).block(TIMEOUT);
+        
+        assertTrue(threadName.startsWith("drsum-tool-worker-"));
+    }
+    
+    @Test
+    @DisplayName("submit() should not run the handler until subscribed")
+    void testSubmitIsLazy() {
+        pool = new ToolWorkerPool(1, 1);
+        AtomicInteger calls = new AtomicInteger();
+        
+        Mono<Integer> result = pool.submit(calls::incrementAndGet);
+        assertEquals(0, calls.get());
+        
+        assertEquals(1, result.block(TIMEOUT));
+    }
+    
+    @Test
+    @DisplayName("Handlers should overlap up to the number of worker threads")
+    void testHandlersOverlap() {
+        pool = new ToolWorkerPool(2, 0);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        
+        // 2つのハンドラが互いの開始を待つため、同時に実行されなければ完了しない
+        Mono<Boolean> first = pool.submit(() -> {
+            bothStarted.countDown();
+            return awaitQuietly(bothStarted);
+        });
+        Mono<Boolean> second = pool.submit(() -> {
+            bothStarted.countDown();
+            return awaitQuietly(bothStarted);
+        });
+        
+        assertEquals(Boolean.TRUE, Mono.zip(first, second, (a, b) -> a && b).block(TIMEOUT));
+    }
+    
+    @Test
+    @DisplayName("Calls beyond the worker threads and queue should fail with RejectedExecutionException")
+    void testRejectWhenQueueIsFull() throws InterruptedException {
+        pool = new ToolWorkerPool(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        
+        Mono<Boolean> running = pool.submit(() -> {
+            started.countDown();
+            return awaitQuietly(release);
+        }).cache();
+        running.subscribe();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        Mono<Boolean> queued = pool.submit(() -> true).cache();
+        queued.subscribe();
+        assertEquals(1, pool.getQueuedCount());
+        
+        assertThrows(RejectedExecutionException.class, () -> pool.submit(() -> true).block(TIMEOUT));
+        
+        release.countDown();
+        assertEquals(Boolean.TRUE, running.block(TIMEOUT));
+        assertEquals(Boolean.TRUE, queued.block(TIMEOUT));
+    }
+    
+    @Test
+    @DisplayName("Exceptions thrown by the handler should be propagated")
+    void testHandlerFailure() {
+        pool = new ToolWorkerPool(1, 1);
+        
+        Mono<String> result = pool.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        
+        Exception exception = assertThrows(IllegalStateException.class, () -> result.block(TIMEOUT));
+        assertEquals("boom", exception.getMessage());
+    }
+    
+    @Test
+    @DisplayName("Constructor should reject invalid sizes")
+    void testInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new ToolWorkerPool(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ToolWorkerPool(1, -1));
+    }
+    
+    @Test
+    @DisplayName("isVirtualThreadSupported() should reflect the running Java version")
+    void testVirtualThreadSupport() {
+        assertEquals(Runtime.version().feature() >= 21, ToolWorkerPool.isVirtualThreadSupported());
+    }
+    
+    @Test
+    @DisplayName("virtual() should fail on Java versions without virtual threads")
+    void testVirtualUnsupported() {
+        assumeFalse(ToolWorkerPool.isVirtualThreadSupported());
+        
+        assertThrows(IllegalStateException.class, () -> ToolWorkerPool.virtual(2, 2));
+    }
+    
+    @Test
+    @DisplayName("Virtual pool should run handlers on virtual threads limited by the semaphore")
+    void testVirtualPoolLimitsConcurrency() throws InterruptedException {
+        assumeTrue(ToolWorkerPool.isVirtualThreadSupported());
+        pool = ToolWorkerPool.virtual(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        
+        Mono<Boolean> running = pool.submit(() -> {
+            started.countDown();
+            return awaitQuietly(release);
+        }).cache();
+        running.subscribe();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(pool.isVirtual());
+        assertEquals(1, pool.getActiveCount());
+        
+        // 2件目は許可を待ち、3件目は待機数の上限を超えるため拒否される
+        Mono<String> waiting = pool.submit(() -> Thread.currentThread().toString()).cache();
+        waiting.subscribe();
+        assertThrows(RejectedExecutionException.class, () -> pool.submit(() -> "").block(TIMEOUT));
+        
+        release.countDown();
+        assertEquals(Boolean.TRUE, running.block(TIMEOUT));
+        assertTrue(waiting.block(TIMEOUT).startsWith("VirtualThread"));
+        assertEquals(0, pool.getActiveCount());
+    }
+    
+    @Test
+    @DisplayName("Virtual pool should return the slot of a call cancelled before it runs")
+    void testVirtualPoolCancelledCallReturnsSlot() {
+        assumeTrue(ToolWorkerPool.isVirtualThreadSupported());
+        pool = ToolWorkerPool.virtual(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        Mono<Boolean> running = pool.submit(() -> awaitQuietly(release)).cache();
+        running.subscribe();
+        
+        // 許可を待つ間にキャンセルされた呼び出しが待機数を占有し続けないこと
+        for (int i = 0; i < 20; i++) {
+            pool.submit(() -> "cancelled").subscribe().dispose();
+        }
+        Mono<String> waiting = pool.submit(() -> "accepted").cache();
+        waiting.subscribe();
+        
+        release.countDown();
+        assertEquals(Boolean.TRUE, running.block(TIMEOUT));
+        assertEquals("accepted", waiting.block(TIMEOUT));
+    }
+    
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.drsum.backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InMemoryBackendConfig・DrSumBackendクラスのユニットテスト
+ */
+class InMemoryBackendConfigTest {
+    
+    // ========================================================================
+    // InMemoryBackendConfigのテスト
+    // ========================================================================
+    
+    @Test
+    void testDefaults() {
+        InMemoryBackendConfig config = InMemoryBackendConfig.defaults();
+        
+        assertEquals(20, config.getTables());
+        assertEquals(5, config.getViews());
+        assertEquals(8, config.getColumns());
+        assertEquals(1000, config.getRows());
+        assertEquals(0, config.getConnectLatencyMs());
+        assertEquals(0, config.getMetadataLatencyMs());
+        assertEquals(0, config.getExecuteLatencyMs());
+        assertEquals(0, config.getFetchLatencyMs());
+    }
+    
+    @Test
+    void testFromMap() {
+        Map<String, String> env = new HashMap<>();
+        env.put("DRSUM_MEMORY_TABLES", "3");
+        env.put("DRSUM_MEMORY_VIEWS", "0");
+        env.put("DRSUM_MEMORY_COLUMNS", "4");
+        env.put("DRSUM_MEMORY_ROWS", " 250 ");
+        env.put("DRSUM_MEMORY_CONNECT_LATENCY_MS", "10");
+        env.put("DRSUM_MEMORY_METADATA_LATENCY_MS", "2");
+        env.put("DRSUM_MEMORY_EXECUTE_LATENCY_MS", "5");
+        env.put("DRSUM_MEMORY_FETCH_LATENCY_MS", "1");
+        
+        InMemoryBackendConfig config = InMemoryBackendConfig.fromMap(env);
+        
+        assertEquals(3, config.getTables());
+        assertEquals(0, config.getViews());
+        assertEquals(4, config.getColumns());
+        assertEquals(250, config.getRows());
+        assertEquals(10, config.getConnectLatencyMs());
+        assertEquals(2, config.getMetadataLatencyMs());
+        assertEquals(5, config.getExecuteLatencyMs());
+        assertEquals(1, config.getFetchLatencyMs());
+    }
+    
+    @Test
+    void testFromMapWithEmptyMapUsesDefaults() {
+        InMemoryBackendConfig config = InMemoryBackendConfig.fromMap(new HashMap<>());
+        
+        assertEquals(20, config.getTables());
+        assertEquals(1000, config.getRows());
+    }
+    
+    @Test
+    void testFromMapRejectsNonNumericValue() {
+        Map<String, String> env = new HashMap<>();
+        env.put("DRSUM_MEMORY_ROWS", "many");
+        
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            InMemoryBackendConfig.fromMap(env);
+        });
+        assertTrue(exception.getMessage().contains("DRSUM_MEMORY_ROWS"));
+    }
+    
+    @Test
+    void testFromMapRejectsZeroColumns() {
+        Map<String, String> env = new HashMap<>();
+        env.put("DRSUM_MEMORY_COLUMNS", "0");
+        
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            InMemoryBackendConfig.fromMap(env);
+        });
+        assertTrue(exception.getMessage().contains("カラム数"));
+    }
+    
+    @Test
+    void testBuilderRejectsNegativeLatency() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            InMemoryBackendConfig.builder().fetchLatencyMs(-1).build();
+        });
+    }
+    
+    @Test
+    void testBuilderRejectsNegativeRows() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            InMemoryBackendConfig.builder().rows(-1).build();
+        });
+    }
+    
+    // ========================================================================
+    // DrSumBackend.fromMap()のテスト
+    // ========================================================================
+    
+    @Test
+    void testBackendDefaultsToDrSum() {
+        assertTrue(DrSumBackend.fromMap(new HashMap<>()) instanceof DrSumEaBackend);
+        
+        Map<String, String> env = new HashMap<>();
+        env.put("DRSUM_BACKEND", "DrSum");
+        assertTrue(DrSumBackend.fromMap(env) instanceof DrSumEaBackend);
+    }
+    
+    @Test
+    void testBackendMemory() {
+        Map<String, String> env = new HashMap<>();
+        env.put("DRSUM_BACKEND", "memory");
+        env.put("DRSUM_MEMORY_TABLES", "7");
+        
+        DrSumBackend backend = DrSumBackend.fromMap(env);
+        
+        assertTrue(backend instanceof InMemoryBackend);
+        assertEquals(7, ((InMemoryBackend) backend).getConfig().getTables());
+    }
+    
+    @Test
+    void testBackendRejectsUnknownName() {
+        Map<String, String> env = new HashMap<>();
+        env.put("DRSUM_BACKEND", "oracle");
+        
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            DrSumBackend.fromMap(env);
+        });
+        assertTrue(exception.getMessage().contains("DRSUM_BACKEND"));
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.drsum.backend;
+
+import com.example.drsum.connection.ConnectionConfig;
+import com.example.drsum.model.DrSumTypes;
+import jp.co.dw_sapporo.drsum_ea.DWColumnInfo;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+import jp.co.dw_sapporo.drsum_ea.DWTableInfo;
+import jp.co.dw_sapporo.drsum_ea.DWViewInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InMemoryBackendクラスのユニットテスト
+ */
+class InMemoryBackendTest {
+    
+    private static final ConnectionConfig CONFIG = InMemoryBackend.defaultConfig(null);
+    
+    private InMemoryBackend backend;
+    private BackendConnection connection;
+    
+    @BeforeEach
+    void setUp() throws DWException {
+        backend = new InMemoryBackend(InMemoryBackendConfig.builder()
+                .tables(3)
+                .views(2)
+                .columns(5)
+                .rows(120)
+                .build());
+        connection = backend.open(CONFIG);
+    }
+    
+    @AfterEach
+    void tearDown() throws DWException {
+        connection.close();
+    }
+    
+    // ========================================================================
+    // 接続のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("defaultConfig() should fall back to the MEMORY database")
+    void testDefaultConfig() {
+        assertEquals("MEMORY", InMemoryBackend.defaultConfig(null).getDatabase());
+        assertEquals("MEMORY", InMemoryBackend.defaultConfig(" ").getDatabase());
+        assertEquals("SALES", InMemoryBackend.defaultConfig("SALES").getDatabase());
+    }
+    
+    @Test
+    @DisplayName("open() and close() should be reflected in the connection counts")
+    void testConnectionCounts() throws DWException {
+        BackendConnection second = backend.open(CONFIG);
+        assertEquals(2, backend.getOpenedCount());
+        assertEquals(2, backend.getOpenCount());
+        assertEquals("MEMORY", second.getDatabase());
+        
+        second.close();
+        second.close();
+        
+        assertFalse(second.isOpen());
+        assertEquals(2, backend.getOpenedCount());
+        assertEquals(1, backend.getOpenCount());
+    }
+    
+    @Test
+    @DisplayName("Operations on a closed connection should throw DWException")
+    void testClosedConnection() throws DWException {
+        connection.close();
+        
+        assertThrows(DWException.class, () -> connection.getTableList("MEMORY"));
+        assertThrows(DWException.class, () -> connection.cursor());
+    }
+    
+    @Test
+    @DisplayName("Closing the connection should abort an operation waiting on latency")
+    void testCloseAbortsLatency() throws Exception {
+        InMemoryBackend slow = new InMemoryBackend(InMemoryBackendConfig.builder()
+                .executeLatencyMs(10_000)
+                .build());
+        BackendConnection slowConnection = slow.open(CONFIG);
+        BackendCursor cursor = slowConnection.cursor();
+        
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                cursor.execute("SELECT * FROM TABLE_001");
+            } catch (DWException e) {
+                throw new IllegalStateException(e.getMessage());
+            }
+        });
+        Thread.sleep(50);
+        slowConnection.close();
+        
+        Exception exception = assertThrows(Exception.class, () -> running.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause().getMessage().contains("Connection closed"));
+    }
+    
+    // ========================================================================
+    // メタデータのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("getTableList() should return tables followed by views")
+    void testGetTableList() throws DWException {
+        DWTableInfo[] tables = connection.getTableList("MEMORY");
+        
+        assertEquals(5, tables.length);
+        assertEquals("TABLE_001", tables[0].m_sName);
+        assertEquals("TABLE_003", tables[2].m_sName);
+        assertEquals("VIEW_001", tables[3].m_sName);
+        assertEquals("VIEW_002", tables[4].m_sName);
+    }
+    
+    @Test
+    @DisplayName("getViewInfo() should flag views and return null for unknown objects")
+    void testGetViewInfo() throws DWException {
+        DWViewInfo table = connection.getViewInfo("MEMORY", "TABLE_001");
+        DWViewInfo view = connection.getViewInfo("MEMORY", "view_002");
+        
+        assertEquals(0, table.m_iType);
+        assertNotEquals(0, view.m_iType);
+        assertNull(connection.getViewInfo("MEMORY", "MISSING"));
+    }
+    
+    @Test
+    @DisplayName("getSchema() should return an ID column followed by typed columns")
+    void testGetSchema() throws DWException {
+        DWColumnInfo[] schema = connection.getSchema("MEMORY", "TABLE_002");
+        
+        assertEquals(5, schema.length);
+        assertEquals("ID", schema[0].m_sName);
+        assertEquals(DrSumTypes.INTEGER, schema[0].m_iType);
+        assertEquals(1, schema[0].m_iUnique);
+        assertEquals(DrSumTypes.VARCHAR, schema[1].m_iType);
+        assertEquals(DrSumTypes.INTEGER, schema[2].m_iType);
+        assertEquals(DrSumTypes.NUMERIC, schema[3].m_iType);
+        assertEquals(2, schema[3].m_iScale);
+        assertEquals(DrSumTypes.DATE, schema[4].m_iType);
+        assertEquals(0, schema[4].m_iNull);
+        assertNull(connection.getSchema("MEMORY", "MISSING"));
+    }
+    
+    // ========================================================================
+    // カーソルのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("execute() and fetchmany() should return all rows in fetch-sized chunks")
+    void testExecuteAndFetch() throws DWException {
+        BackendCursor cursor = connection.cursor();
+        cursor.execute("SELECT ID, VARCHAR_1 FROM \"TABLE_001\" WHERE ID > 10");
+        
+        assertEquals(5, cursor.getDescription().length);
+        int total = 0;
+        Vector<Vector<String>> rows;
+        while (!(rows = cursor.fetchmany(50)).isEmpty()) {
+            assertEquals(Integer.toString(total + 1), rows.get(0).get(0));
+            assertEquals(5, rows.get(0).size());
+            total += rows.size();
+        }
+        assertEquals(120, total);
+        cursor.close();
+    }
+    
+    @Test
+    @DisplayName("A trailing LIMIT should cap the number of rows")
+    void testLimit() throws DWException {
+        BackendCursor cursor = connection.cursor();
+        cursor.execute("select * from view_001 limit 7;");
+        
+        assertEquals(7, cursor.fetchmany(100).size());
+        assertTrue(cursor.fetchmany(100).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("execute() should throw DWException for an unknown table")
+    void testExecuteUnknownTable() throws DWException {
+        BackendCursor cursor = connection.cursor();
+        
+        DWException exception = assertThrows(DWException.class, () -> {
+            cursor.execute("SELECT * FROM MISSING");
+        });
+        assertTrue(exception.getMessage().contains("MISSING"));
+    }
+    
+    @Test
+    @DisplayName("Statements other than SELECT should succeed without a result")
+    void testExecuteNonSelect() throws DWException {
+        BackendCursor cursor = connection.cursor();
+        cursor.execute("DELETE FROM TABLE_001");
+        
+        assertNull(cursor.getDescription());
+        assertTrue(cursor.fetchmany(10).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("A closed cursor should reject further fetches")
+    void testClosedCursor() throws DWException {
+        BackendCursor cursor = connection.cursor();
+        cursor.execute("SELECT * FROM TABLE_001");
+        cursor.close();
+        
+        assertThrows(DWException.class, () -> cursor.fetchmany(10));
+    }
+    
+    @Test
+    @DisplayName("value() should be deterministic and include periodic NULLs")
+    void testValueDeterminism() {
+        assertEquals("1", InMemoryBackend.value(0, 0));
+        assertEquals(InMemoryBackend.value(42, 3), InMemoryBackend.value(42, 3));
+        assertNull(InMemoryBackend.value(48, 1));
+        assertNotNull(InMemoryBackend.value(49, 0));
+        assertTrue(InMemoryBackend.value(5, 4).matches("\\d{4}-\\d{2}-\\d{2}"));
+        assertTrue(InMemoryBackend.value(5, 3).matches("\\d+\\.\\d{2}"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.drsum.cache;
+
+import jp.co.dw_sapporo.drsum_ea.DWColumnInfo;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+import jp.co.dw_sapporo.drsum_ea.DWTableInfo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MetadataCacheクラスのユニットテスト
+ * 
+ * Dr.Sumサーバーを使わずに、読み込み処理の呼び出し回数でキャッシュの動作を検証します。
+ */
+class MetadataCacheTest {
+    
+    private final AtomicLong now = new AtomicLong(0);
+    private final AtomicInteger loads = new AtomicInteger();
+    private MetadataCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        now.set(0);
+        loads.set(0);
+        cache = new MetadataCache(1000, 10, now::get);
+    }
+    
+    @Test
+    @DisplayName("Schema should be loaded once per database and table")
+    void testSchemaIsCachedPerTable() throws DWException {
+        DWColumnInfo[] schema = new DWColumnInfo[0];
+        
+        assertSame(schema, cache.getSchema("DB", "T1", () -> load(schema)));
+        assertSame(schema, cache.getSchema("DB", "T1", () -> load(schema)));
+        cache.getSchema("DB", "T2", () -> load(schema));
+        cache.getSchema("OTHER", "T1", () -> load(schema));
+        
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.getSchemaStats().getHits());
+    }
+    
+    @Test
+    @DisplayName("View flags should be merged per database")
+    void testViewFlagsAreMergedPerDatabase() {
+        assertTrue(cache.getViewFlags("DB").isEmpty());
+        
+        cache.putViewFlags("DB", Map.of("V1", true));
+        cache.putViewFlags("DB", Map.of("T1", false));
+        
+        assertEquals(Map.of("V1", true, "T1", false), cache.getViewFlags("DB"));
+        assertTrue(cache.getViewFlags("OTHER").isEmpty());
+        assertEquals(1, cache.getViewFlagStats().getSize());
+    }
+    
+    @Test
+    @DisplayName("View flags should expire with the database entry")
+    void testViewFlagsExpire() {
+        cache.putViewFlags("DB", Map.of("V1", true));
+        now.set(1000);
+        
+        assertTrue(cache.getViewFlags("DB").isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Table list should be reloaded after the TTL")
+    void testTableListExpires() throws DWException {
+        DWTableInfo[] tables = new DWTableInfo[0];
+        
+        cache.getTableList("DB", () -> load(tables));
+        now.set(1000);
+        cache.getTableList("DB", () -> load(tables));
+        
+        assertEquals(2, loads.get());
+    }
+    
+    @Test
+    @DisplayName("Failed load should not be cached")
+    void testFailedLoadIsNotCached() throws DWException {
+        assertThrows(DWException.class, () -> cache.getSchema("DB", "T1", () -> {
+            throw new DWException("table not found");
+        }));
+        
+        cache.getSchema("DB", "T1", () -> load(new DWColumnInfo[0]));
+        assertEquals(1, loads.get());
+    }
+    
+    @Test
+    @DisplayName("invalidateTable() should drop the table entries and all table lists")
+    void testInvalidateTable() throws DWException {
+        cache.getTableList("DB", () -> load(new DWTableInfo[0]));
+        cache.getSchema("DB", "T1", () -> load(new DWColumnInfo[0]));
+        cache.getSchema("DB", "T2", () -> load(new DWColumnInfo[0]));
+        cache.putViewFlags("DB", Map.of("T1", false, "T2", false));
+        
+        assertEquals(3, cache.invalidateTable("t1"));
+        assertEquals(1, cache.getSchemaStats().getSize());
+        assertEquals(0, cache.getTableListStats().getSize());
+        assertEquals(Map.of("T2", false), cache.getViewFlags("DB"));
+    }
+    
+    @Test
+    @DisplayName("invalidateAll() should drop every entry")
+    void testInvalidateAll() throws DWException {
+        cache.getTableList("DB", () -> load(new DWTableInfo[0]));
+        cache.getSchema("DB", "T1", () -> load(new DWColumnInfo[0]));
+        
+        assertEquals(2, cache.invalidateAll());
+        assertEquals(0, cache.getSchemaStats().getSize());
+    }
+    
+    private <V> V load(V value) {
+        loads.incrementAndGet();
+        return value;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.drsum.cache;
+
+import com.example.drsum.service.QueryCancellation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SingleFlightクラスのユニットテスト
+ */
+class SingleFlightTest {
+    
+    @Test
+    @DisplayName("Concurrent calls with the same key should share one execution")
+    void testConcurrentCallsShareExecution() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = executor.submit(() -> flights.execute("key", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                awaitQuietly(release);
+                return "result";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> flights.execute("key", () -> {
+                    executions.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+            waitForShared(flights, 3);
+            release.countDown();
+            
+            assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(1, flights.getExecutionCount());
+            assertEquals(3, flights.getSharedCount());
+            assertEquals(0, flights.getInFlightCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("Calls with different keys should run independently")
+    void testDifferentKeysRunIndependently() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        
+        assertEquals("a", flights.execute("a", () -> "a"));
+        assertEquals("b", flights.execute("b", () -> "b"));
+        assertEquals(2, flights.getExecutionCount());
+        assertEquals(0, flights.getSharedCount());
+    }
+    
+    @Test
+    @DisplayName("Completed calls should not be cached")
+    void testCompletedCallsAreNotCached() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        AtomicInteger counter = new AtomicInteger();
+        
+        assertEquals(1, flights.execute("key", counter::incrementAndGet));
+        assertEquals(2, flights.execute("key", counter::incrementAndGet));
+    }
+    
+    @Test
+    @DisplayName("Waiting calls should receive the exception thrown by the shared execution")
+    void testExceptionIsShared() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> flights.execute("key", () -> {
+                started.countDown();
+                awaitQuietly(release);
+                throw new IllegalStateException("boom");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> follower = executor.submit(() -> flights.execute("key", () -> "unused"));
+            waitForShared(flights, 1);
+            release.countDown();
+            
+            Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+            assertSame(leaderError.getCause(), followerError.getCause());
+            
+            // 失敗後はキーが解放され、再実行できる
+            assertEquals("retry", flights.execute("key", () -> "retry"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("A live waiting call should execute itself when the shared execution was cancelled")
+    void testCancelledResultIsNotShared() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        QueryCancellation leaderCancellation = new QueryCancellation();
+        QueryCancellation followerCancellation = new QueryCancellation();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> flights.execute("key", () -> {
+                started.countDown();
+                awaitQuietly(release);
+                return leaderCancellation.isCancelled() ? "cancelled" : "result";
+            }, result -> !leaderCancellation.isCancelled(), leaderCancellation::onAbort));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> follower = executor.submit(() -> flights.execute("key",
+                    () -> followerCancellation.isCancelled() ? "cancelled" : "own result",
+                    result -> !followerCancellation.isCancelled(), followerCancellation::onAbort));
+            waitForShared(flights, 1);
+            
+            leaderCancellation.cancel(QueryCancellation.Reason.CANCELLED);
+            release.countDown();
+            
+            assertEquals("cancelled", leader.get(5, TimeUnit.SECONDS));
+            assertEquals("own result", follower.get(5, TimeUnit.SECONDS));
+            assertEquals(2, flights.getExecutionCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("A waiting call should stop waiting and execute itself when it is abandoned")
+    void testAbandonedWaitEndsImmediately() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        AtomicReference<Runnable> abandon = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> flights.execute("key", () -> {
+                started.countDown();
+                awaitQuietly(release);
+                return "result";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> follower = executor.submit(() -> flights.execute("key",
+                    () -> "cancelled", result -> true, abandon::set));
+            waitForShared(flights, 1);
+            
+            abandon.get().run();
+            
+            // 実行中の処理の完了を待たずに返る
+            assertEquals("cancelled", follower.get(5, TimeUnit.SECONDS));
+            assertFalse(leader.isDone());
+            release.countDown();
+            assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("execute() should reject null key or operation")
+    void testRejectsNullArguments() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        
+        assertThrows(IllegalArgumentException.class, () -> flights.execute(null, () -> "x"));
+        assertThrows(IllegalArgumentException.class, () -> flights.execute("key", null));
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void waitForShared(SingleFlight<?, ?> flights, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flights.getSharedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, flights.getSharedCount());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.drsum.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TtlLruCacheクラスのユニットテスト
+ */
+class TtlLruCacheTest {
+    
+    private final AtomicLong now = new AtomicLong(0);
+    
+    // ========================================================================
+    // 取得と登録のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("getOrLoad() should load once and then serve from the cache")
+    void testGetOrLoadCachesValue() {
+        TtlLruCache<String, String> cache = new TtlLruCache<>(1000, 10, now::get);
+        AtomicInteger loads = new AtomicInteger();
+        
+        assertEquals("A", cache.getOrLoad("a", key -> { loads.incrementAndGet(); return "A"; }));
+        assertEquals("A", cache.getOrLoad("a", key -> { loads.incrementAndGet(); return "A"; }));
+        
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+    
+    @Test
+    @DisplayName("getOrLoad() should not cache null values")
+    void testGetOrLoadDoesNotCacheNull() {
+        TtlLruCache<String, String> cache = new TtlLruCache<>(1000, 10, now::get);
+        
+        assertNull(cache.getOrLoad("a", key -> null));
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    @DisplayName("getOrLoad() should propagate loader exceptions without caching")
+    void testGetOrLoadPropagatesException() {
+        TtlLruCache<String, String> cache = new TtlLruCache<>(1000, 10, now::get);
+        
+        assertThrows(Exception.class, () -> cache.getOrLoad("a", key -> {
+            throw new Exception("load failed");
+        }));
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    @DisplayName("Entry should expire after the TTL since it was stored")
+    void testEntryExpiresAfterTtl() {
+        TtlLruCache<String, String> cache = new TtlLruCache<>(1000, 10, now::get);
+        cache.put("a", "A");
+        
+        now.set(999);
+        assertEquals("A", cache.get("a"));
+        
+        // 参照しても有効期限は延長されない
+        now.set(1000);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    @DisplayName("Least recently used entry should be evicted when full")
+    void testLeastRecentlyUsedIsEvicted() {
+        TtlLruCache<String, String> cache = new TtlLruCache<>(1000, 2, now::get);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+        
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+    
+    // ========================================================================
+    // 無効化のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("invalidateIf() should remove only matching keys")
+    void testInvalidateIf() {
+        TtlLruCache<String, String> cache = new TtlLruCache<>(1000, 10, now::get);
+        cache.put("db1.a", "A");
+        cache.put("db1.b", "B");
+        cache.put("db2.a", "A");
+        
+        assertEquals(2, cache.invalidateIf(key -> key.endsWith(".a")));
+        assertEquals(1, cache.size());
+        assertEquals("B", cache.get("db1.b"));
+    }
+    
+    @Test
+    @DisplayName("invalidateAll() should remove every entry")
+    void testInvalidateAll() {
+        TtlLruCache<String, String> cache = new TtlLruCache<>(1000, 10, now::get);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        
+        assertEquals(2, cache.invalidateAll());
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    @DisplayName("Constructor should reject non-positive limits")
+    void testConstructorRejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new TtlLruCache<String, String>(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TtlLruCache<String, String>(1, 0));
+    }
+}
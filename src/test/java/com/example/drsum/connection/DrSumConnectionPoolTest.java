@@ -0,0 +1,234 @@
+package com.example.drsum.connection;
+
+import jp.co.dw_sapporo.drsum_ea.DWException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DrSumConnectionPoolクラスのユニットテスト
+ * 
+ * Dr.Sumサーバーを使わずにプールの動作を検証するため、
+ * 接続状態だけを模擬するFakeConnectionを使用します。
+ */
+class DrSumConnectionPoolTest {
+    
+    private final AtomicLong now = new AtomicLong(0);
+    private final List<FakeConnection> created = new ArrayList<>();
+    private DrSumConnectionPool pool;
+    
+    @BeforeEach
+    void setUp() {
+        now.set(0);
+        created.clear();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+    
+    // ========================================================================
+    // 貸し出しと返却のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("Released connection should be reused by the next acquire")
+    void testReleasedConnectionIsReused() throws DWException {
+        pool = createPool(0, 2, 2, 0, 0);
+        
+        DrSumConnection first = pool.acquire();
+        pool.release(first);
+        DrSumConnection second = pool.acquire();
+        
+        assertSame(first, second);
+        assertEquals(1, created.size());
+        assertEquals(1, pool.getActiveCount());
+        assertEquals(0, pool.getIdleCount());
+    }
+    
+    @Test
+    @DisplayName("Disconnected idle connection should be replaced on acquire")
+    void testDisconnectedConnectionIsReplaced() throws DWException {
+        pool = createPool(0, 2, 2, 0, 0);
+        
+        FakeConnection first = (FakeConnection) pool.acquire();
+        pool.release(first);
+        first.connected = false;
+        
+        DrSumConnection second = pool.acquire();
+        
+        assertNotSame(first, second);
+        assertEquals(2, created.size());
+        assertEquals(1, pool.getTotalCount());
+    }
+    
+    @Test
+    @DisplayName("Connection past its max lifetime should be closed on release")
+    void testExpiredConnectionIsClosedOnRelease() throws DWException {
+        pool = createPool(0, 2, 2, 1000, 0);
+        
+        FakeConnection connection = (FakeConnection) pool.acquire();
+        now.set(1000);
+        pool.release(connection);
+        
+        assertFalse(connection.isConnected());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getTotalCount());
+    }
+    
+    @Test
+    @DisplayName("Connections beyond maxIdle should be closed on release")
+    void testMaxIdleIsRespected() throws DWException {
+        pool = createPool(0, 1, 3, 0, 0);
+        
+        DrSumConnection a = pool.acquire();
+        DrSumConnection b = pool.acquire();
+        pool.release(a);
+        pool.release(b);
+        
+        assertEquals(1, pool.getIdleCount());
+        assertFalse(b.isConnected());
+    }
+    
+    @Test
+    @DisplayName("Invalidated connection should be closed and not reused")
+    void testInvalidate() throws DWException {
+        pool = createPool(0, 2, 2, 0, 0);
+        
+        DrSumConnection connection = pool.acquire();
+        pool.invalidate(connection);
+        
+        assertFalse(connection.isConnected());
+        assertEquals(0, pool.getTotalCount());
+        assertNotSame(connection, pool.acquire());
+    }
+    
+    @Test
+    @DisplayName("acquire() should fail when the pool is exhausted")
+    void testAcquireWhenExhausted() throws DWException {
+        pool = createPool(0, 1, 1, 0, 0);
+        pool.acquire();
+        
+        Exception exception = assertThrows(IllegalStateException.class, () -> pool.acquire());
+        assertTrue(exception.getMessage().contains("exhausted"));
+    }
+    
+    @Test
+    @DisplayName("tryAcquire() should return null instead of waiting when the pool is exhausted")
+    void testTryAcquireWhenExhausted() throws DWException {
+        pool = createPool(0, 1, 1, 0, 0);
+        
+        DrSumConnection connection = pool.tryAcquire();
+        assertNotNull(connection);
+        assertNull(pool.tryAcquire());
+        
+        pool.release(connection);
+        assertSame(connection, pool.tryAcquire());
+    }
+    
+    @Test
+    @DisplayName("Failed connection attempt should not consume pool capacity")
+    void testFactoryFailureReleasesCapacity() throws DWException {
+        pool = new DrSumConnectionPool(() -> {
+            throw new DWException("connection refused");
+        }, new PoolConfig(PoolConfig.Mode.POOLED, 0, 1, 1, 0, 0, 0), now::get, false);
+        
+        assertThrows(DWException.class, () -> pool.acquire());
+        assertThrows(DWException.class, () -> pool.acquire());
+        assertEquals(0, pool.getTotalCount());
+    }
+    
+    // ========================================================================
+    // 破棄処理のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("evict() should close idle connections past the idle timeout but keep minIdle")
+    void testEvictIdleConnections() throws DWException {
+        pool = createPool(1, 3, 3, 0, 500);
+        
+        DrSumConnection a = pool.acquire();
+        DrSumConnection b = pool.acquire();
+        pool.release(a);
+        pool.release(b);
+        assertEquals(2, pool.getIdleCount());
+        
+        now.set(500);
+        pool.evict();
+        
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getTotalCount());
+    }
+    
+    @Test
+    @DisplayName("evict() should replenish idle connections up to minIdle")
+    void testEvictReplenishesMinIdle() {
+        pool = createPool(2, 2, 4, 0, 0);
+        
+        pool.evict();
+        
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(2, created.size());
+    }
+    
+    @Test
+    @DisplayName("close() should disconnect idle connections and reject new acquires")
+    void testClose() throws DWException {
+        pool = createPool(0, 2, 2, 0, 0);
+        
+        DrSumConnection idle = pool.acquire();
+        DrSumConnection active = pool.acquire();
+        pool.release(idle);
+        pool.close();
+        
+        assertFalse(idle.isConnected());
+        assertThrows(IllegalStateException.class, () -> pool.acquire());
+        
+        // 貸し出し中の接続は返却時に切断される
+        pool.release(active);
+        assertFalse(active.isConnected());
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private DrSumConnectionPool createPool(int minIdle, int maxIdle, int maxTotal,
+                                           long maxLifetimeMs, long idleTimeoutMs) {
+        PoolConfig config = new PoolConfig(PoolConfig.Mode.POOLED, minIdle, maxIdle, maxTotal,
+                                           maxLifetimeMs, idleTimeoutMs, 0);
+        return new DrSumConnectionPool(() -> {
+            FakeConnection connection = new FakeConnection();
+            created.add(connection);
+            return connection;
+        }, config, now::get, false);
+    }
+    
+    /**
+     * 接続状態のみを模擬するDrSumConnection
+     */
+    private static class FakeConnection extends DrSumConnection {
+        boolean connected = true;
+        
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+        
+        @Override
+        public void disconnect() {
+            connected = false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.drsum.connection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EnvSettingsクラスのユニットテスト
+ */
+class EnvSettingsTest {
+    
+    @Test
+    @DisplayName("parseInt() and parseLong() should return the default for unset or blank values")
+    void testDefaults() {
+        assertEquals(7, EnvSettings.parseInt(Map.of(), "X", 7));
+        assertEquals(7, EnvSettings.parseInt(Map.of("X", "  "), "X", 7));
+        assertEquals(7L, EnvSettings.parseLong(Map.of(), "X", 7L));
+        assertEquals(7L, EnvSettings.parseLong(Map.of("X", ""), "X", 7L));
+    }
+    
+    @Test
+    @DisplayName("parseInt() and parseLong() should parse trimmed integer values")
+    void testParse() {
+        assertEquals(42, EnvSettings.parseInt(Map.of("X", " 42 "), "X", 0));
+        assertEquals(-1, EnvSettings.parseInt(Map.of("X", "-1"), "X", 0));
+        assertEquals(4294967297L, EnvSettings.parseLong(Map.of("X", "4294967297"), "X", 0L));
+    }
+    
+    @Test
+    @DisplayName("parseInt() should reject non-numeric and out-of-range values instead of truncating")
+    void testParseIntRejectsInvalidValues() {
+        Exception exception = assertThrows(IllegalStateException.class,
+                () -> EnvSettings.parseInt(Map.of("X", "4294967297"), "X", 0));
+        assertTrue(exception.getMessage().contains("X"));
+        assertTrue(exception.getMessage().contains("4294967297"));
+        assertThrows(IllegalStateException.class, () -> EnvSettings.parseInt(Map.of("X", "abc"), "X", 0));
+        assertThrows(IllegalStateException.class, () -> EnvSettings.parseInt(Map.of("X", "1.5"), "X", 0));
+    }
+    
+    @Test
+    @DisplayName("parseLong() should reject non-numeric values")
+    void testParseLongRejectsInvalidValues() {
+        assertThrows(IllegalStateException.class, () -> EnvSettings.parseLong(Map.of("X", "abc"), "X", 0L));
+        assertThrows(IllegalStateException.class,
+                () -> EnvSettings.parseLong(Map.of("X", "99999999999999999999"), "X", 0L));
+    }
+}
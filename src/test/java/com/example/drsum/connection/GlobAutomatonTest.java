@@ -0,0 +1,88 @@
+package com.example.drsum.connection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GlobAutomatonクラスのユニットテスト
+ */
+class GlobAutomatonTest {
+    
+    @Test
+    @DisplayName("'*' should match any sequence including the empty one")
+    void testStar() {
+        GlobAutomaton automaton = GlobAutomaton.compile(List.of("sales_*"));
+        
+        assertTrue(automaton.matches("sales_"));
+        assertTrue(automaton.matches("sales_2024"));
+        assertTrue(automaton.matches("sales_2024_q1"));
+        assertFalse(automaton.matches("sales"));
+        assertFalse(automaton.matches("pre_sales_2024"));
+    }
+    
+    @Test
+    @DisplayName("'?' should match exactly one character")
+    void testQuestionMark() {
+        GlobAutomaton automaton = GlobAutomaton.compile(List.of("log_20??"));
+        
+        assertTrue(automaton.matches("log_2024"));
+        assertFalse(automaton.matches("log_202"));
+        assertFalse(automaton.matches("log_20245"));
+    }
+    
+    @Test
+    @DisplayName("Wildcards in the middle should backtrack correctly")
+    void testInnerStar() {
+        GlobAutomaton automaton = GlobAutomaton.compile(List.of("*_summary_*"));
+        
+        assertTrue(automaton.matches("sales_summary_2024"));
+        assertTrue(automaton.matches("a_summary_summary_"));
+        assertFalse(automaton.matches("sales_summary"));
+        assertFalse(automaton.matches("summary_2024"));
+    }
+    
+    @Test
+    @DisplayName("matches() should ignore case like equalsIgnoreCase()")
+    void testIgnoreCase() {
+        GlobAutomaton automaton = GlobAutomaton.compile(List.of("Sales_*", "ｖ＿売上*"));
+        
+        assertTrue(automaton.matches("SALES_2024"));
+        assertTrue(automaton.matches("sales_2024"));
+        assertTrue(automaton.matches("Ｖ＿売上_月次"));
+    }
+    
+    @Test
+    @DisplayName("Multiple patterns should be combined into one automaton")
+    void testMultiplePatterns() {
+        GlobAutomaton automaton = GlobAutomaton.compile(List.of("sales_*", "*_archive", "tmp_?"));
+        
+        assertTrue(automaton.matches("sales_2024"));
+        assertTrue(automaton.matches("orders_archive"));
+        assertTrue(automaton.matches("tmp_1"));
+        assertFalse(automaton.matches("tmp_12"));
+        assertFalse(automaton.matches("orders"));
+    }
+    
+    @Test
+    @DisplayName("Characters not used in any pattern should share one transition class")
+    void testUnknownCharacters() {
+        GlobAutomaton automaton = GlobAutomaton.compile(List.of("a?c"));
+        
+        assertTrue(automaton.matches("a売c"));
+        assertTrue(automaton.matches("axc"));
+        assertFalse(automaton.matches("x"));
+    }
+    
+    @Test
+    @DisplayName("compile() should return null when the automaton exceeds MAX_STATES")
+    void testTooManyStates() {
+        // "*a" の後に "?" がn個続くパターンは、直近n+1文字のどこに "a" があるかを覚えるため 2^(n+1) 状態が必要
+        assertNotNull(GlobAutomaton.compile(List.of("*a" + "?".repeat(8))));
+        assertNull(GlobAutomaton.compile(List.of("*a" + "?".repeat(14))));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.drsum.connection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PoolConfigクラスのユニットテスト
+ */
+class PoolConfigTest {
+    
+    // ========================================================================
+    // コンストラクタのテスト
+    // ========================================================================
+    
+    @Test
+    void testConstructorWithValidParameters() {
+        PoolConfig config = new PoolConfig(PoolConfig.Mode.POOLED, 1, 2, 4, 1000, 500, 100);
+        
+        assertEquals(PoolConfig.Mode.POOLED, config.getMode());
+        assertEquals(1, config.getMinIdle());
+        assertEquals(2, config.getMaxIdle());
+        assertEquals(4, config.getMaxTotal());
+        assertEquals(1000, config.getMaxLifetimeMs());
+        assertEquals(500, config.getIdleTimeoutMs());
+        assertEquals(100, config.getBorrowTimeoutMs());
+    }
+    
+    @Test
+    void testConstructorRejectsZeroMaxTotal() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new PoolConfig(PoolConfig.Mode.POOLED, 0, 0, 0, 0, 0, 0);
+        });
+    }
+    
+    @Test
+    void testConstructorRejectsMinIdleGreaterThanMaxIdle() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new PoolConfig(PoolConfig.Mode.POOLED, 3, 2, 4, 0, 0, 0);
+        });
+    }
+    
+    @Test
+    void testConstructorRejectsMaxIdleGreaterThanMaxTotal() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new PoolConfig(PoolConfig.Mode.POOLED, 0, 5, 4, 0, 0, 0);
+        });
+    }
+    
+    // ========================================================================
+    // fromMap()のテスト
+    // ========================================================================
+    
+    @Test
+    void testFromMapUsesDefaults() {
+        PoolConfig config = PoolConfig.fromMap(Map.of());
+        
+        assertEquals(PoolConfig.Mode.POOLED, config.getMode());
+        assertEquals(0, config.getMinIdle());
+        assertEquals(4, config.getMaxIdle());
+        assertEquals(8, config.getMaxTotal());
+    }
+    
+    @Test
+    void testFromMapReadsValues() {
+        PoolConfig config = PoolConfig.fromMap(Map.of(
+            "DRSUM_CONNECTION_MODE", "per_call",
+            "DRSUM_POOL_MIN_IDLE", "1",
+            "DRSUM_POOL_MAX_IDLE", "2",
+            "DRSUM_POOL_MAX_TOTAL", "3",
+            "DRSUM_POOL_MAX_LIFETIME_MS", "60000",
+            "DRSUM_POOL_IDLE_TIMEOUT_MS", "10000",
+            "DRSUM_POOL_BORROW_TIMEOUT_MS", "500"
+        ));
+        
+        assertEquals(PoolConfig.Mode.PER_CALL, config.getMode());
+        assertEquals(1, config.getMinIdle());
+        assertEquals(2, config.getMaxIdle());
+        assertEquals(3, config.getMaxTotal());
+        assertEquals(60000, config.getMaxLifetimeMs());
+        assertEquals(10000, config.getIdleTimeoutMs());
+        assertEquals(500, config.getBorrowTimeoutMs());
+    }
+    
+    @Test
+    void testFromMapRejectsUnknownMode() {
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            PoolConfig.fromMap(Map.of("DRSUM_CONNECTION_MODE", "shared"));
+        });
+        assertTrue(exception.getMessage().contains("DRSUM_CONNECTION_MODE"));
+    }
+    
+    @Test
+    void testFromMapRejectsNonNumericValue() {
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            PoolConfig.fromMap(Map.of("DRSUM_POOL_MAX_TOTAL", "many"));
+        });
+        assertTrue(exception.getMessage().contains("DRSUM_POOL_MAX_TOTAL"));
+    }
+    
+    @Test
+    void testFromMapRejectsValueOutOfIntRange() {
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            PoolConfig.fromMap(Map.of("DRSUM_POOL_MAX_TOTAL", "4294967297"));
+        });
+        assertTrue(exception.getMessage().contains("DRSUM_POOL_MAX_TOTAL"));
+    }
+}
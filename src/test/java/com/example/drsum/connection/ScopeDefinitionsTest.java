@@ -2,6 +2,9 @@ package com.example.drsum.connection;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -146,6 +149,48 @@ class ScopeDefinitionsTest {
         assertEquals(0, scopeNames.size());
     }
     
+    // ========================================================================
+    // parse()と不変性のテスト
+    // ========================================================================
+    
+    @Test
+    void testParseReadsJsonScopes() throws IOException {
+        ScopeDefinitions scopeDefinitions = ScopeDefinitions.parse(
+            "{\"sales\": [\"orders\", \"customers\"], \"empty\": null}");
+        
+        assertEquals(List.of("orders", "customers"), scopeDefinitions.getScope("sales"));
+        assertEquals(List.of(), scopeDefinitions.getScope("empty"));
+    }
+    
+    @Test
+    void testParseRejectsInvalidJson() {
+        assertThrows(IOException.class, () -> ScopeDefinitions.parse("{\"sales\": "));
+    }
+    
+    @Test
+    void testDefinitionsAreCopiedAndUnmodifiable() {
+        Map<String, List<String>> scopes = new HashMap<>();
+        scopes.put("sales", new ArrayList<>(List.of("orders")));
+        ScopeDefinitions scopeDefinitions = new ScopeDefinitions(scopes);
+        
+        scopes.get("sales").add("customers");
+        scopes.put("hr", List.of("employees"));
+        
+        assertEquals(List.of("orders"), scopeDefinitions.getScope("sales"));
+        assertFalse(scopeDefinitions.hasScope("hr"));
+        assertThrows(UnsupportedOperationException.class,
+                     () -> scopeDefinitions.getScope("sales").add("customers"));
+    }
+    
+    @Test
+    void testGetMatcherIgnoresTableNameCase() {
+        ScopeDefinitions scopeDefinitions = new ScopeDefinitions(Map.of("sales", List.of("Orders")));
+        
+        assertTrue(scopeDefinitions.getMatcher("sales").matches("ORDERS"));
+        assertFalse(scopeDefinitions.getMatcher("sales").matches("customers"));
+        assertNull(scopeDefinitions.getMatcher("hr"));
+    }
+    
     // ========================================================================
     // fromEnvironment()のテスト
     // ========================================================================
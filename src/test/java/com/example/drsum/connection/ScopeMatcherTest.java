@@ -0,0 +1,126 @@
+package com.example.drsum.connection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScopeMatcherクラスのユニットテスト
+ */
+class ScopeMatcherTest {
+    
+    @Test
+    @DisplayName("matches() should ignore case like equalsIgnoreCase()")
+    void testMatchesIgnoringCase() {
+        ScopeMatcher matcher = ScopeMatcher.of(List.of("Orders", "customers", "ｖ＿売上"));
+        
+        assertTrue(matcher.matches("orders"));
+        assertTrue(matcher.matches("ORDERS"));
+        assertTrue(matcher.matches("Customers"));
+        assertTrue(matcher.matches("Ｖ＿売上"));
+        assertFalse(matcher.matches("order"));
+        assertFalse(matcher.matches("orders2"));
+        assertFalse(matcher.matches(null));
+    }
+    
+    @Test
+    @DisplayName("Names differing only in case should be registered once")
+    void testDuplicateNames() {
+        ScopeMatcher matcher = ScopeMatcher.of(Arrays.asList("orders", "ORDERS", null, "Orders"));
+        
+        assertEquals(1, matcher.size());
+        assertTrue(matcher.matches("oRdErS"));
+    }
+    
+    @Test
+    @DisplayName("Empty scope should match nothing")
+    void testEmptyScope() {
+        assertFalse(ScopeMatcher.of(List.of()).matches("orders"));
+        assertFalse(ScopeMatcher.of(null).matches("orders"));
+        assertEquals(0, ScopeMatcher.of(null).size());
+    }
+    
+    @Test
+    @DisplayName("Large scopes should match every registered name and reject others")
+    void testLargeScope() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            names.add("Table_" + i);
+        }
+        ScopeMatcher matcher = ScopeMatcher.of(names);
+        
+        assertEquals(1000, matcher.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(matcher.matches("TABLE_" + i));
+            assertFalse(matcher.matches("table_" + (i + 1000)));
+        }
+    }
+    
+    @Test
+    @DisplayName("foldedHash() should be equal for strings that are equal ignoring case")
+    void testFoldedHash() {
+        assertEquals(ScopeMatcher.foldedHash("Sales_Summary"), ScopeMatcher.foldedHash("SALES_summary"));
+        assertEquals(ScopeMatcher.foldedHash("ｖ＿売上"), ScopeMatcher.foldedHash("Ｖ＿売上"));
+    }
+    
+    @Test
+    @DisplayName("Glob entries should match table names by wildcard")
+    void testGlobEntries() {
+        ScopeMatcher matcher = ScopeMatcher.of(List.of("sales_*", "log_20??"));
+        
+        assertTrue(matcher.matches("SALES_2024"));
+        assertTrue(matcher.matches("log_2024"));
+        assertFalse(matcher.matches("log_202"));
+        assertFalse(matcher.matches("orders"));
+        assertEquals(2, matcher.size());
+    }
+    
+    @Test
+    @DisplayName("Entries prefixed with 're:' should match as case-insensitive regular expressions")
+    void testRegexEntries() {
+        ScopeMatcher matcher = ScopeMatcher.of(List.of("re:sales_20(19|2[0-5])", "re:.*_archive"));
+        
+        assertTrue(matcher.matches("Sales_2019"));
+        assertTrue(matcher.matches("sales_2025"));
+        assertFalse(matcher.matches("sales_2026"));
+        assertTrue(matcher.matches("ORDERS_ARCHIVE"));
+        // 部分一致ではなく全体一致
+        assertFalse(matcher.matches("x_sales_2019"));
+    }
+    
+    @Test
+    @DisplayName("Exact names, globs and regular expressions should be combined")
+    void testMixedEntries() {
+        ScopeMatcher matcher = ScopeMatcher.of(List.of("orders", "sales_*", "re:tmp_\\d+"));
+        
+        assertTrue(matcher.matches("Orders"));
+        assertTrue(matcher.matches("sales_q1"));
+        assertTrue(matcher.matches("tmp_42"));
+        assertFalse(matcher.matches("tmp_x"));
+        assertFalse(matcher.matches("orders_old"));
+        assertEquals(3, matcher.size());
+    }
+    
+    @Test
+    @DisplayName("Globs too large for the automaton should still match via regular expressions")
+    void testGlobFallback() {
+        ScopeMatcher matcher = ScopeMatcher.of(List.of("*a" + "?".repeat(14), "x.y*"));
+        
+        assertTrue(matcher.matches("zzA" + "b".repeat(14)));
+        assertFalse(matcher.matches("a" + "b".repeat(13)));
+        // "." は正規表現としてではなく文字として扱われる
+        assertTrue(matcher.matches("x.y1"));
+        assertFalse(matcher.matches("xzy1"));
+    }
+    
+    @Test
+    @DisplayName("Invalid regular expression should be rejected")
+    void testInvalidRegex() {
+        assertThrows(IllegalArgumentException.class, () -> ScopeMatcher.of(List.of("re:sales_(")));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.drsum.connection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScopeSourceクラスのユニットテスト
+ * 
+ * 一時ディレクトリのスコープ定義ファイルを使い、読み込みと再読み込みを検証します。
+ */
+class ScopeSourceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private ScopeSource source;
+    
+    @AfterEach
+    void tearDown() {
+        if (source != null) {
+            source.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("of() should always return the given definitions")
+    void testFixedDefinitions() {
+        ScopeDefinitions definitions = new ScopeDefinitions(Map.of("sales", List.of("orders")));
+        source = ScopeSource.of(definitions);
+        
+        assertSame(definitions, source.get());
+        assertFalse(source.reload());
+        assertSame(definitions, source.get());
+    }
+    
+    @Test
+    @DisplayName("fromFile() should load the file and reload() should pick up edits")
+    void testReloadFromFile() throws IOException {
+        Path file = write("{\"sales\": [\"orders\"]}");
+        source = ScopeSource.fromFile(file);
+        assertEquals(List.of("orders"), source.get().getScope("sales"));
+        
+        write("{\"sales\": [\"orders\", \"customers\"]}");
+        
+        assertTrue(source.reload());
+        assertEquals(List.of("orders", "customers"), source.get().getScope("sales"));
+    }
+    
+    @Test
+    @DisplayName("reload() should keep the previous definitions when the file is invalid")
+    void testReloadKeepsPreviousOnError() throws IOException {
+        Path file = write("{\"sales\": [\"orders\"]}");
+        source = ScopeSource.fromFile(file);
+        
+        write("{\"sales\": [");
+        
+        assertFalse(source.reload());
+        assertEquals(List.of("orders"), source.get().getScope("sales"));
+    }
+    
+    @Test
+    @DisplayName("fromFile() should start empty when the file does not exist yet")
+    void testMissingFileStartsEmpty() throws IOException {
+        source = ScopeSource.fromFile(tempDir.resolve("scopes.json"));
+        
+        assertTrue(source.get().getScopeNames().isEmpty());
+    }
+    
+    @Test
+    @DisplayName("File changes should be reloaded automatically by the watcher")
+    void testWatcherReloadsOnChange() throws Exception {
+        Path file = write("{\"sales\": [\"orders\"]}");
+        source = ScopeSource.fromFile(file);
+        
+        write("{\"hr\": [\"employees\"]}");
+        
+        // WatchServiceの通知は非同期のため、反映されるまで待つ
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!source.get().hasScope("hr") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(source.get().hasScope("hr"));
+        assertFalse(source.get().hasScope("sales"));
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private Path write(String json) throws IOException {
+        Path file = tempDir.resolve("scopes.json");
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
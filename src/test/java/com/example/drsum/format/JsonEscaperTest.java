@@ -0,0 +1,68 @@
+package com.example.drsum.format;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JsonEscaperクラスのユニットテスト
+ */
+class JsonEscaperTest {
+    
+    @Test
+    @DisplayName("escape() should return the same instance when nothing needs escaping")
+    void testEscapeWithoutSpecialCharacters() {
+        String value = "受注ビュー plain text 123";
+        
+        assertSame(value, JsonEscaper.escape(value));
+    }
+    
+    @Test
+    @DisplayName("escape() should escape quotes, backslashes and whitespace controls")
+    void testEscapeSpecialCharacters() {
+        assertEquals("a\\\"b\\\\c\\nd\\re\\tf\\bg\\fh",
+                     JsonEscaper.escape("a\"b\\c\nd\re\tf\bg\fh"));
+    }
+    
+    @Test
+    @DisplayName("escape() should escape other control characters as \\u00XX")
+    void testEscapeControlCharacters() {
+        assertEquals("\\u0000x\\u001f\\u000b", JsonEscaper.escape("\u0000x\u001f\u000b"));
+    }
+    
+    @Test
+    @DisplayName("escape() should leave non-ASCII and DEL characters untouched")
+    void testEscapeLeavesNonAsciiAlone() {
+        assertEquals("日本語\u007f ", JsonEscaper.escape("日本語\u007f "));
+    }
+    
+    @Test
+    @DisplayName("escape() should return empty string for null")
+    void testEscapeNull() {
+        assertEquals("", JsonEscaper.escape(null));
+    }
+    
+    @Test
+    @DisplayName("appendEscaped() should append into the existing buffer")
+    void testAppendEscaped() {
+        StringBuilder out = new StringBuilder("prefix:");
+        
+        JsonEscaper.appendEscaped(out, "x\"y");
+        JsonEscaper.appendEscaped(out, null);
+        
+        assertEquals("prefix:x\\\"y", out.toString());
+    }
+    
+    @Test
+    @DisplayName("appendQuoted() should wrap the escaped value in quotes")
+    void testAppendQuoted() {
+        StringBuilder out = new StringBuilder();
+        
+        JsonEscaper.appendQuoted(out, "end\\");
+        out.append(',');
+        JsonEscaper.appendQuoted(out, null);
+        
+        assertEquals("\"end\\\\\",\"\"", out.toString());
+    }
+}
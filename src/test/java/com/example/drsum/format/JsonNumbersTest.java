@@ -0,0 +1,35 @@
+package com.example.drsum.format;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JsonNumbersクラスのユニットテスト
+ */
+class JsonNumbersTest {
+    
+    @Test
+    @DisplayName("isJsonNumber() should accept integers, decimals and exponents")
+    void testValidNumbers() {
+        for (String value : new String[] {"0", "-0", "7", "-42", "150000.00", "0.5", "1e10", "1E+3", "-2.5e-7"}) {
+            assertTrue(JsonNumbers.isJsonNumber(value), value);
+        }
+    }
+    
+    @Test
+    @DisplayName("isJsonNumber() should reject values outside the JSON number grammar")
+    void testInvalidNumbers() {
+        for (String value : new String[] {"", "-", "+1", "007", "1.", ".5", "1e", "1e+", "NaN", "Infinity",
+                                          " 1", "1 ", "1,000", "0x1F", "2006年"}) {
+            assertFalse(JsonNumbers.isJsonNumber(value), value);
+        }
+    }
+    
+    @Test
+    @DisplayName("isJsonNumber() should return false for null")
+    void testNull() {
+        assertFalse(JsonNumbers.isJsonNumber(null));
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.drsum.format;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JsonOutputクラスのユニットテスト
+ * 
+ * 整形レイアウトはクエリ結果のJSON（columns と rows を1要素1行）と同じ形を検証します。
+ */
+class JsonOutputTest {
+    
+    // ========================================================================
+    // レイアウトのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("pretty() should break top-level entries and arrays but keep rows on one line")
+    void testPrettyLayout() throws IOException {
+        try (JsonOutput out = JsonOutput.pretty()) {
+            writeResult(out.generator());
+            
+            assertEquals("{\n"
+                       + "  \"columns\": [\n"
+                       + "    {\"name\": \"年\", \"type\": 2}\n"
+                       + "  ],\n"
+                       + "  \"rows\": [\n"
+                       + "    [\"2006\", null],\n"
+                       + "    [\"2007\", \"a\\\"b\"]\n"
+                       + "  ],\n"
+                       + "  \"empty\": [],\n"
+                       + "  \"row_count\": 2\n"
+                       + "}", out.toJson());
+        }
+    }
+    
+    @Test
+    @DisplayName("pretty(objectDepth) should also break nested objects up to the given depth")
+    void testPrettyWithNestedObjects() throws IOException {
+        try (JsonOutput out = JsonOutput.pretty(3)) {
+            JsonGenerator gen = out.generator();
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("columns");
+            gen.writeStartObject();
+            gen.writeStringField("name", "ID");
+            gen.writeBooleanField("unique", true);
+            gen.writeEndObject();
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("sample_data");
+            gen.writeStartArray();
+            gen.writeString("1");
+            gen.writeString("2");
+            gen.writeEndArray();
+            gen.writeEndArray();
+            gen.writeEndObject();
+            
+            assertEquals("{\n"
+                       + "  \"columns\": [\n"
+                       + "    {\n"
+                       + "      \"name\": \"ID\",\n"
+                       + "      \"unique\": true\n"
+                       + "    }\n"
+                       + "  ],\n"
+                       + "  \"sample_data\": [\n"
+                       + "    [\"1\", \"2\"]\n"
+                       + "  ]\n"
+                       + "}", out.toJson());
+        }
+    }
+    
+    @Test
+    @DisplayName("compact() should write without whitespace")
+    void testCompactLayout() throws IOException {
+        try (JsonOutput out = JsonOutput.compact()) {
+            writeResult(out.generator());
+            
+            assertEquals("{\"columns\":[{\"name\":\"年\",\"type\":2}],"
+                       + "\"rows\":[[\"2006\",null],[\"2007\",\"a\\\"b\"]],\"empty\":[],\"row_count\":2}",
+                         out.toJson());
+        }
+    }
+    
+    // ========================================================================
+    // バッファ再利用のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("Buffer should be reset between outputs on the same thread")
+    void testBufferIsReset() throws IOException {
+        try (JsonOutput out = JsonOutput.compact()) {
+            out.generator().writeString("first value");
+            assertEquals("\"first value\"", out.toJson());
+        }
+        try (JsonOutput out = JsonOutput.compact()) {
+            out.generator().writeNumber(1);
+            assertEquals("1", out.toJson());
+        }
+    }
+    
+    @Test
+    @DisplayName("Nested outputs on the same thread should not share a buffer")
+    void testNestedOutputs() throws IOException {
+        try (JsonOutput outer = JsonOutput.compact()) {
+            outer.generator().writeStartArray();
+            outer.generator().writeString("outer");
+            
+            try (JsonOutput inner = JsonOutput.compact()) {
+                inner.generator().writeString("inner");
+                assertEquals("\"inner\"", inner.toJson());
+            }
+            
+            outer.generator().writeEndArray();
+            assertEquals("[\"outer\"]", outer.toJson());
+        }
+    }
+    
+    @Test
+    @DisplayName("Output larger than the initial buffer should be written completely")
+    void testLargeOutput() throws IOException {
+        String value = "x".repeat(JsonOutput.INITIAL_CAPACITY);
+        try (JsonOutput out = JsonOutput.compact()) {
+            JsonGenerator gen = out.generator();
+            gen.writeStartArray();
+            gen.writeString(value);
+            gen.writeString(value);
+            gen.writeEndArray();
+            
+            assertEquals(value.length() * 2 + 7, out.toJson().length());
+        }
+    }
+    
+    @Test
+    @DisplayName("byteLength() should count UTF-8 bytes incrementally and restart for a reused buffer")
+    void testByteLength() throws IOException {
+        try (JsonOutput out = JsonOutput.compact()) {
+            JsonGenerator gen = out.generator();
+            gen.writeStartArray();
+            gen.writeString("東京");
+            assertEquals(9, out.byteLength());
+            gen.writeString("a");
+            gen.writeEndArray();
+            assertEquals(14, out.byteLength());
+            assertEquals("[\"東京\",\"a\"]", out.toJson());
+        }
+        try (JsonOutput out = JsonOutput.compact()) {
+            out.generator().writeStartArray();
+            assertEquals(1, out.byteLength());
+        }
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private static void writeResult(JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("columns");
+        gen.writeStartObject();
+        gen.writeStringField("name", "年");
+        gen.writeNumberField("type", 2);
+        gen.writeEndObject();
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("rows");
+        gen.writeStartArray();
+        gen.writeString("2006");
+        gen.writeNull();
+        gen.writeEndArray();
+        gen.writeStartArray();
+        gen.writeString("2007");
+        gen.writeString("a\"b");
+        gen.writeEndArray();
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("empty");
+        gen.writeEndArray();
+        gen.writeNumberField("row_count", 2);
+        gen.writeEndObject();
+    }
+}
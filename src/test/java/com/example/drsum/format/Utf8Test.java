@@ -0,0 +1,32 @@
+package com.example.drsum.format;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Utf8クラスのユニットテスト
+ */
+class Utf8Test {
+    
+    @Test
+    @DisplayName("encodedLength() should match String.getBytes(UTF_8)")
+    void testEncodedLength() {
+        for (String value : new String[] {"", "abc", "é", "東京", "a😀b", "売上 2024/01"}) {
+            int expected = value.getBytes(StandardCharsets.UTF_8).length;
+            assertEquals(expected, Utf8.encodedLength(value), value);
+            assertEquals(expected, Utf8.encodedLength(value.toCharArray(), 0, value.length()), value);
+        }
+        assertEquals(0, Utf8.encodedLength(null));
+    }
+    
+    @Test
+    @DisplayName("encodedLength() should count only the given range")
+    void testEncodedLengthOfRange() {
+        assertEquals(6, Utf8.encodedLength("ab東京cd", 2, 4));
+        assertEquals(3, Utf8.encodedLength("ab東京cd".toCharArray(), 3, 4));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.drsum.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LatencyHistogramクラスのユニットテスト
+ */
+class LatencyHistogramTest {
+    
+    @Test
+    @DisplayName("Small values should be counted exactly")
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.recordMicros(i);
+        }
+        
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        
+        assertEquals(50, snapshot.getCount());
+        assertEquals(25, snapshot.getValueAtPercentile(50));
+        assertEquals(50, snapshot.getValueAtPercentile(100));
+        assertEquals(25.5, snapshot.getMeanMicros(), 0.001);
+        assertEquals(50, snapshot.getMaxMicros());
+    }
+    
+    @Test
+    @DisplayName("Bucket bounds should stay within about 3% of the recorded value")
+    void testBucketPrecision() {
+        for (long value : new long[] {64, 100, 1_000, 12_345, 1_000_000, 3_600_000_000L}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long highest = LatencyHistogram.highestValueInBucket(index);
+            
+            assertTrue(highest >= value, "bucket of " + value);
+            assertTrue(highest - value <= value / 32, "bucket of " + value);
+            assertEquals(index, LatencyHistogram.bucketIndex(highest));
+        }
+    }
+    
+    @Test
+    @DisplayName("Percentiles should follow the recorded distribution")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.recordNanos(1_000_000);  // 1ms
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.recordNanos(100_000_000);  // 100ms
+        }
+        
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        
+        assertEquals(1_000, snapshot.getValueAtPercentile(50), 1_000 / 32);
+        assertEquals(1_000, snapshot.getValueAtPercentile(90), 1_000 / 32);
+        assertEquals(100_000, snapshot.getValueAtPercentile(99), 100_000 / 32);
+        assertEquals(100_000, snapshot.getMaxMicros());
+    }
+    
+    @Test
+    @DisplayName("Out-of-range values should be clamped")
+    void testClamping() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(-5);
+        histogram.recordMicros(Long.MAX_VALUE);
+        
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE_MICROS, snapshot.getMaxMicros());
+    }
+    
+    @Test
+    @DisplayName("An empty histogram should report zeros")
+    void testEmpty() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+        assertEquals(0, snapshot.getMeanMicros());
+    }
+    
+    @Test
+    @DisplayName("Concurrent recording should not lose counts")
+    void testConcurrentRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int perThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    histogram.recordMicros(i % 500);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        
+        assertEquals((long) threads * perThread, snapshot.getCount());
+        assertEquals(499, snapshot.getMaxMicros());
+    }
+    
+    @Test
+    @DisplayName("reset() should clear all counts")
+    void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(1_000);
+        
+        histogram.reset();
+        
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMaxMicros());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.drsum.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ServerStats・CallMetricsクラスのユニットテスト
+ */
+class ServerStatsTest {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    @Test
+    @DisplayName("finish() should record the call, its phases, rows and bytes")
+    void testCallIsRecorded() {
+        ServerStats serverStats = new ServerStats();
+        ToolStats stats = serverStats.tool("execute_query");
+        
+        CallMetrics metrics = CallMetrics.start(stats);
+        assertSame(metrics, CallMetrics.current());
+        CallMetrics.current().addSince(Phase.EXECUTE, System.nanoTime() - 2_000_000);
+        CallMetrics.current().addSince(Phase.FETCH, System.nanoTime() - 1_000_000);
+        CallMetrics.current().addSince(Phase.FETCH, System.nanoTime() - 1_000_000);
+        CallMetrics.current().addRows(120);
+        metrics.setResponseBytes(4096);
+        metrics.finish(false);
+        
+        assertEquals(1, stats.getCalls());
+        assertEquals(0, stats.getErrors());
+        assertEquals(120, stats.getRows());
+        assertEquals(4096, stats.getResponseBytes());
+        assertEquals(1, stats.histogram(Phase.TOTAL).snapshot().getCount());
+        assertEquals(1, stats.histogram(Phase.FETCH).snapshot().getCount());
+        assertTrue(stats.histogram(Phase.FETCH).snapshot().getMaxMicros() >= 2_000);
+        assertEquals(0, stats.histogram(Phase.CONNECT).snapshot().getCount());
+    }
+    
+    @Test
+    @DisplayName("finish() should unbind the call from the thread and count errors")
+    void testFinishUnbinds() {
+        ServerStats serverStats = new ServerStats();
+        ToolStats stats = serverStats.tool("list_tables");
+        
+        CallMetrics.start(stats).finish(true);
+        CallMetrics.current().addRows(10);
+        CallMetrics.current().finish(false);
+        
+        assertEquals(1, stats.getCalls());
+        assertEquals(1, stats.getErrors());
+        assertEquals(0, stats.getRows());
+    }
+    
+    @Test
+    @DisplayName("tool() should return the same statistics for the same name")
+    void testToolIsShared() {
+        ServerStats serverStats = new ServerStats();
+        
+        assertSame(serverStats.tool("get_metadata"), serverStats.tool("get_metadata"));
+        assertNotSame(serverStats.tool("get_metadata"), serverStats.tool("list_tables"));
+    }
+    
+    @Test
+    @DisplayName("toJson() should list tools with counters and the phases that were recorded")
+    void testToJson() throws Exception {
+        ServerStats serverStats = new ServerStats();
+        serverStats.recordConfigLoad(12_300_000);
+        CallMetrics metrics = CallMetrics.start(serverStats.tool("execute_query"));
+        metrics.addSince(Phase.CONNECT, System.nanoTime());
+        metrics.addRows(3);
+        metrics.finish(false);
+        serverStats.tool("refresh_metadata");
+        
+        JsonNode root = MAPPER.readTree(serverStats.toJson());
+        
+        assertEquals(12.3, root.get("config_load_ms").asDouble(), 0.001);
+        assertTrue(root.has("uptime_seconds"));
+        JsonNode query = root.get("tools").get("execute_query");
+        assertEquals(1, query.get("calls").asLong());
+        assertEquals(3, query.get("rows").asLong());
+        assertTrue(query.get("phases").has("total"));
+        assertTrue(query.get("phases").has("connect"));
+        assertFalse(query.get("phases").has("fetch"));
+        JsonNode total = query.get("phases").get("total");
+        for (String field : new String[] {"count", "mean_ms", "p50_ms", "p90_ms", "p99_ms", "max_ms"}) {
+            assertTrue(total.has(field), field);
+        }
+        assertEquals(0, root.get("tools").get("refresh_metadata").get("calls").asLong());
+    }
+    
+    @Test
+    @DisplayName("reset() should clear the per-tool statistics")
+    void testReset() throws Exception {
+        ServerStats serverStats = new ServerStats();
+        CallMetrics.start(serverStats.tool("list_tables")).finish(false);
+        
+        serverStats.reset();
+        
+        ToolStats stats = serverStats.tool("list_tables");
+        assertEquals(0, stats.getCalls());
+        assertEquals(0, stats.histogram(Phase.TOTAL).snapshot().getCount());
+        assertFalse(MAPPER.readTree(serverStats.toJson()).get("tools").get("list_tables")
+                .get("phases").has("total"));
+    }
+    
+    @Test
+    @DisplayName("Calls outside a measured tool call should be ignored")
+    void testCurrentWithoutStart() {
+        CallMetrics metrics = CallMetrics.current();
+        
+        assertDoesNotThrow(() -> {
+            metrics.addSince(Phase.EXECUTE, System.nanoTime());
+            metrics.addRows(5);
+            metrics.finish(false);
+        });
+    }
+    
+    @Test
+    @DisplayName("startPeriodicLog() with a non-positive interval should not start a thread")
+    void testPeriodicLogDisabled() {
+        try (ServerStats serverStats = new ServerStats()) {
+            serverStats.startPeriodicLog(0);
+            serverStats.tool("list_tables");
+            
+            assertDoesNotThrow(serverStats::logSummary);
+        }
+    }
+}
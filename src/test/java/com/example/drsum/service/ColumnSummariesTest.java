@@ -0,0 +1,92 @@
+package com.example.drsum.service;
+
+import com.example.drsum.format.JsonOutput;
+import com.example.drsum.format.ObjectMappers;
+import com.example.drsum.model.DrSumTypes;
+import com.example.drsum.model.ResultColumn;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ColumnSummariesクラスのユニットテスト
+ */
+class ColumnSummariesTest {
+    
+    private static final List<ResultColumn> COLUMNS = List.of(
+        ResultColumn.of("PRICE", DrSumTypes.NUMERIC),
+        ResultColumn.of("CITY", DrSumTypes.VARCHAR));
+    
+    @Test
+    @DisplayName("Numeric columns should compare as numbers, others lexicographically")
+    void testMinMax() throws IOException {
+        ColumnSummaries summaries = new ColumnSummaries(COLUMNS);
+        summaries.add(row("9", "b"));
+        summaries.add(row("10", "a"));
+        summaries.add(row("-2.5", null));
+        summaries.add(row("NaN", "c"));
+        
+        JsonNode json = write(summaries);
+        
+        assertEquals("PRICE", json.get(0).get("name").asText());
+        assertEquals(-2.5, json.get(0).get("min").asDouble());
+        assertEquals(10, json.get(0).get("max").asInt());
+        assertTrue(json.get(0).get("max").isNumber());
+        assertEquals("a", json.get(1).get("min").asText());
+        assertEquals("c", json.get(1).get("max").asText());
+        assertEquals(1, json.get(1).get("null_count").asLong());
+    }
+    
+    @Test
+    @DisplayName("A column with only NULLs should report null min/max and no distinct values")
+    void testAllNulls() throws IOException {
+        ColumnSummaries summaries = new ColumnSummaries(COLUMNS);
+        summaries.add(row(null, null));
+        summaries.add(row(null, null));
+        
+        JsonNode json = write(summaries);
+        
+        assertTrue(json.get(0).get("min").isNull());
+        assertTrue(json.get(0).get("max").isNull());
+        assertEquals(2, json.get(0).get("null_count").asLong());
+        assertEquals(0, json.get(0).get("distinct_estimate").asLong());
+    }
+    
+    @Test
+    @DisplayName("distinct_estimate should be exact for a few values and close for many")
+    void testDistinctEstimate() throws IOException {
+        ColumnSummaries summaries = new ColumnSummaries(COLUMNS);
+        for (int i = 0; i < 100000; i++) {
+            summaries.add(row(String.valueOf(i), "city" + (i % 3)));
+        }
+        
+        JsonNode json = write(summaries);
+        
+        long many = json.get(0).get("distinct_estimate").asLong();
+        assertTrue(Math.abs(many - 100000) < 100000 * 0.1, "estimate: " + many);
+        assertEquals(3, json.get(1).get("distinct_estimate").asLong());
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private static JsonNode write(ColumnSummaries summaries) throws IOException {
+        try (JsonOutput out = JsonOutput.compact()) {
+            summaries.write(out.generator());
+            return ObjectMappers.shared().readTree(out.toJson());
+        }
+    }
+    
+    private static Vector<String> row(String... values) {
+        return new Vector<>(Arrays.asList(values));
+    }
+}
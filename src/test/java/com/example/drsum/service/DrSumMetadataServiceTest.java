@@ -1,12 +1,17 @@
 package com.example.drsum.service;
 
+import com.example.drsum.backend.InMemoryBackend;
+import com.example.drsum.backend.InMemoryBackendConfig;
+import com.example.drsum.connection.ConnectionProvider;
 import com.example.drsum.connection.DrSumConnection;
 import com.example.drsum.connection.ScopeDefinitions;
+import jp.co.dw_sapporo.drsum_ea.DWException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 
 import java.util.HashMap;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -140,6 +145,155 @@ class DrSumMetadataServiceTest {
         assertTrue(exception.getMessage().contains("Not connected"));
     }
     
+    @Test
+    @DisplayName("getTableList() and getTableMetadata() should work against the in-memory backend")
+    void testMetadataWithInMemoryBackend() throws Exception {
+        DrSumConnection connection = new DrSumConnection(new InMemoryBackend(
+                InMemoryBackendConfig.builder().tables(2).views(1).columns(3).build()));
+        connection.connect(InMemoryBackend.defaultConfig("SALES"));
+        try {
+            DrSumMetadataService service = new DrSumMetadataService(connection);
+            
+            String tables = service.getTableList();
+            String metadata = service.getTableMetadata("VIEW_001", 2);
+            
+            assertTrue(tables.contains("\"database\": \"SALES\""));
+            assertTrue(tables.contains("\"total_count\": 3"));
+            assertTrue(metadata.contains("\"type_name\": \"INTEGER\""));
+            assertTrue(metadata.contains("\"sample_data\""));
+        } finally {
+            connection.disconnect();
+        }
+    }
+    
+    // ========================================================================
+    // getTableMetadataBatch() のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("getTableMetadataBatch() should validate table names before checking the connection")
+    void testGetTableMetadataBatchValidation() {
+        DrSumMetadataService service = new DrSumMetadataService(mockConnection);
+        
+        assertThrows(IllegalArgumentException.class, () -> service.getTableMetadataBatch(null, 3));
+        assertThrows(IllegalArgumentException.class, () -> service.getTableMetadataBatch(List.of(), 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getTableMetadataBatch(List.of("TABLE_001", " "), 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getTableMetadataBatch(List.of("TABLE_001"), -1));
+        assertThrows(IllegalStateException.class,
+                () -> service.getTableMetadataBatch(List.of("TABLE_001"), 3));
+    }
+    
+    @Test
+    @DisplayName("getTableMetadataBatch() should return one document with an error entry per failed table")
+    void testGetTableMetadataBatchWithInMemoryBackend() throws Exception {
+        DrSumConnection connection = new DrSumConnection(new InMemoryBackend(
+                InMemoryBackendConfig.builder().tables(3).views(1).columns(2).build()));
+        connection.connect(InMemoryBackend.defaultConfig("SALES"));
+        try {
+            DrSumMetadataService service = new DrSumMetadataService(connection);
+            
+            String json = service.getTableMetadataBatch(
+                    List.of("TABLE_002", "MISSING", "VIEW_001", "TABLE_002"), 1);
+            
+            assertTrue(json.contains("\"database\": \"SALES\""));
+            assertTrue(json.contains("\"table_count\": 3"));
+            assertTrue(json.contains("\"error_count\": 1"));
+            assertTrue(json.contains("\"error\": \"Table not found or has no columns: MISSING\""));
+            assertTrue(json.indexOf("TABLE_002") < json.indexOf("MISSING"));
+            assertTrue(json.indexOf("MISSING") < json.indexOf("VIEW_001"));
+        } finally {
+            connection.disconnect();
+        }
+    }
+    
+    @Test
+    @DisplayName("getTableMetadataBatch() should fetch tables in parallel over borrowed connections")
+    void testGetTableMetadataBatchInParallel() throws Exception {
+        InMemoryBackend backend = new InMemoryBackend(
+                InMemoryBackendConfig.builder().tables(6).columns(2).metadataLatencyMs(20).build());
+        DrSumConnection connection = new DrSumConnection(backend);
+        connection.connect(InMemoryBackend.defaultConfig("SALES"));
+        InMemoryProvider provider = new InMemoryProvider(backend, 3);
+        try (TableFanOut fanOut = new TableFanOut(provider, 4, "test-metadata-batch")) {
+            DrSumMetadataService service = new DrSumMetadataService(connection, null, null, fanOut);
+            List<String> tables = List.of("TABLE_001", "TABLE_002", "TABLE_003",
+                                          "TABLE_004", "TABLE_005", "TABLE_006");
+            
+            String json = service.getTableMetadataBatch(tables, 2);
+            
+            assertTrue(json.contains("\"table_count\": 6"));
+            assertTrue(json.contains("\"error_count\": 0"));
+            for (String table : tables) {
+                assertTrue(json.contains("\"table\": \"" + table + "\""));
+            }
+            assertTrue(provider.borrowed > 0);
+            assertEquals(provider.borrowed, provider.returned);
+        } finally {
+            connection.disconnect();
+        }
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    /**
+     * tryAcquire()でインメモリバックエンドの接続を指定した本数まで貸し出すプロバイダー
+     */
+    private static class InMemoryProvider implements ConnectionProvider {
+        private final InMemoryBackend backend;
+        private int available;
+        int borrowed;
+        int returned;
+        
+        InMemoryProvider(InMemoryBackend backend, int available) {
+            this.backend = backend;
+            this.available = available;
+        }
+        
+        @Override
+        public DrSumConnection acquire() {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public synchronized DrSumConnection tryAcquire() throws DWException {
+            if (available == 0) {
+                return null;
+            }
+            available--;
+            borrowed++;
+            DrSumConnection connection = new DrSumConnection(backend);
+            connection.connect(InMemoryBackend.defaultConfig("SALES"));
+            return connection;
+        }
+        
+        @Override
+        public synchronized void release(DrSumConnection connection) {
+            returned++;
+            disconnect(connection);
+        }
+        
+        @Override
+        public synchronized void invalidate(DrSumConnection connection) {
+            disconnect(connection);
+        }
+        
+        private static void disconnect(DrSumConnection connection) {
+            try {
+                connection.disconnect();
+            } catch (DWException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+    
     // Note: 実際のメタデータ取得テストはDr.Sumサーバーが必要なため、
     // 統合テスト（DrSumMcpServerTest）で実施されます。
 }
@@ -1,5 +1,7 @@
 package com.example.drsum.service;
 
+import com.example.drsum.backend.InMemoryBackend;
+import com.example.drsum.backend.InMemoryBackendConfig;
 import com.example.drsum.connection.DrSumConnection;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,6 +46,16 @@ class DrSumQueryServiceTest {
         assertNotNull(service);
     }
     
+    @Test
+    @DisplayName("Constructor should throw exception when fetch size is not positive")
+    void testConstructorWithInvalidFetchSize() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            new DrSumQueryService(mockConnection, 0);
+        });
+        
+        assertTrue(exception.getMessage().contains("Fetch size must be positive"));
+    }
+    
     // ========================================================================
     // executeQuery()のテスト
     // ========================================================================
@@ -96,6 +108,91 @@ class DrSumQueryServiceTest {
         assertTrue(exception.getMessage().contains("Not connected"));
     }
     
+    @Test
+    @DisplayName("executeQuery() should throw exception when paging is requested without a result store")
+    void testExecuteQueryWithPagingButNoStore() {
+        DrSumQueryService service = new DrSumQueryService(mockConnection);
+        QueryOptions options = QueryOptions.builder().pageSize(10).build();
+        
+        Exception exception = assertThrows(IllegalStateException.class, () -> {
+            service.executeQuery("SELECT * FROM test", options);
+        });
+        
+        assertTrue(exception.getMessage().contains("Paging is not available"));
+    }
+    
+    @Test
+    @DisplayName("executeQuery() should return rows from the in-memory backend")
+    void testExecuteQueryWithInMemoryBackend() throws Exception {
+        DrSumConnection connection = new DrSumConnection(new InMemoryBackend(
+                InMemoryBackendConfig.builder().columns(3).rows(25).build()));
+        connection.connect(InMemoryBackend.defaultConfig(null));
+        try {
+            DrSumQueryService service = new DrSumQueryService(connection, 10);
+            
+            String json = service.executeQuery("SELECT * FROM TABLE_001 LIMIT 12");
+            
+            assertTrue(json.contains("\"name\": \"ID\""));
+            assertTrue(json.contains("\"row_count\": 12"));
+        } finally {
+            connection.disconnect();
+        }
+    }
+    
+    // ========================================================================
+    // QueryOptionsのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("QueryOptions defaults should be unlimited and unpaged")
+    void testQueryOptionsDefaults() {
+        QueryOptions options = QueryOptions.defaults();
+        
+        assertEquals(0, options.getMaxRows());
+        assertEquals(0, options.getOffset());
+        assertEquals(0, options.getMaxResponseBytes());
+        assertFalse(options.isPaged());
+    }
+    
+    @Test
+    @DisplayName("QueryOptions should reject negative values")
+    void testQueryOptionsRejectsNegativeValues() {
+        assertThrows(IllegalArgumentException.class, () -> QueryOptions.builder().maxRows(-1));
+        assertThrows(IllegalArgumentException.class, () -> QueryOptions.builder().offset(-1));
+        assertThrows(IllegalArgumentException.class, () -> QueryOptions.builder().pageSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> QueryOptions.builder().maxResponseBytes(-1));
+    }
+    
+    // ========================================================================
+    // isReadOnlyのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("isReadOnly() should accept SELECT and WITH statements")
+    void testIsReadOnlyAcceptsQueries() {
+        assertTrue(DrSumQueryService.isReadOnly("SELECT * FROM sales"));
+        assertTrue(DrSumQueryService.isReadOnly("  select 1"));
+        assertTrue(DrSumQueryService.isReadOnly("WITH t AS (SELECT 1) SELECT * FROM t"));
+        assertTrue(DrSumQueryService.isReadOnly("(SELECT 1) UNION (SELECT 2)"));
+        assertTrue(DrSumQueryService.isReadOnly("-- comment\n/* block */ SELECT 1"));
+        assertTrue(DrSumQueryService.isReadOnly("SELECT 1; -- done\n;"));
+        assertTrue(DrSumQueryService.isReadOnly("SELECT ';DELETE FROM t' FROM \"a;b\""));
+        assertTrue(DrSumQueryService.isReadOnly("SELECT 'it''s; fine' FROM t /* ; x */"));
+    }
+    
+    @Test
+    @DisplayName("isReadOnly() should reject updates and ambiguous statements")
+    void testIsReadOnlyRejectsOthers() {
+        assertFalse(DrSumQueryService.isReadOnly(null));
+        assertFalse(DrSumQueryService.isReadOnly(""));
+        assertFalse(DrSumQueryService.isReadOnly("INSERT INTO sales VALUES (1)"));
+        assertFalse(DrSumQueryService.isReadOnly("DELETE FROM sales"));
+        assertFalse(DrSumQueryService.isReadOnly("SELECTED"));
+        assertFalse(DrSumQueryService.isReadOnly("/* unterminated SELECT 1"));
+        assertFalse(DrSumQueryService.isReadOnly("SELECT 1; DELETE FROM t"));
+        assertFalse(DrSumQueryService.isReadOnly("SELECT 'a' FROM t;/* x */UPDATE t SET a = 1"));
+    }
+    
     // Note: 実際のクエリ実行テストはDr.Sumサーバーが必要なため、
     // 統合テスト（DrSumMcpServerTest）で実施されます。
 }
@@ -0,0 +1,56 @@
+package com.example.drsum.service;
+
+import com.example.drsum.connection.ConnectionProvider;
+import com.example.drsum.connection.DrSumConnection;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * tryAcquire()で指定した本数まで接続を貸し出すテスト用プロバイダー
+ * 
+ * 貸し出した接続は未接続で、取得・返却・破棄・中断の回数だけを数えます。
+ */
+class FakeConnectionProvider implements ConnectionProvider {
+    final AtomicInteger available;
+    final AtomicInteger acquired = new AtomicInteger();
+    final AtomicInteger released = new AtomicInteger();
+    final AtomicInteger invalidated = new AtomicInteger();
+    final AtomicInteger aborted = new AtomicInteger();
+    
+    FakeConnectionProvider(int available) {
+        this.available = new AtomicInteger(available);
+    }
+    
+    @Override
+    public DrSumConnection acquire() {
+        throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public DrSumConnection tryAcquire() {
+        if (available.getAndDecrement() <= 0) {
+            return null;
+        }
+        acquired.incrementAndGet();
+        return new DrSumConnection() {
+            @Override
+            public void abort() {
+                aborted.incrementAndGet();
+            }
+        };
+    }
+    
+    @Override
+    public void release(DrSumConnection connection) {
+        released.incrementAndGet();
+    }
+    
+    @Override
+    public void invalidate(DrSumConnection connection) {
+        invalidated.incrementAndGet();
+    }
+    
+    @Override
+    public void close() {
+    }
+}
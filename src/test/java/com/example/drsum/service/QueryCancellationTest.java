@@ -0,0 +1,180 @@
+package com.example.drsum.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryCancellation・QueryWatchdogクラスのユニットテスト
+ */
+class QueryCancellationTest {
+    
+    // ========================================================================
+    // QueryCancellationのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("cancel() should run the registered abort action once and record the reason")
+    void testCancelRunsAbortAction() {
+        QueryCancellation cancellation = new QueryCancellation();
+        AtomicInteger aborted = new AtomicInteger();
+        cancellation.onAbort(aborted::incrementAndGet);
+        
+        assertTrue(cancellation.cancel(QueryCancellation.Reason.CANCELLED));
+        assertFalse(cancellation.cancel(QueryCancellation.Reason.TIMEOUT));
+        
+        assertEquals(1, aborted.get());
+        assertTrue(cancellation.isCancelled());
+        assertEquals(QueryCancellation.Reason.CANCELLED, cancellation.getReason());
+    }
+    
+    @Test
+    @DisplayName("onAbort() should run the action immediately when already cancelled")
+    void testOnAbortAfterCancel() {
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.cancel(QueryCancellation.Reason.CANCELLED);
+        AtomicInteger aborted = new AtomicInteger();
+        
+        cancellation.onAbort(aborted::incrementAndGet);
+        
+        assertEquals(1, aborted.get());
+    }
+    
+    @Test
+    @DisplayName("cancel() after finish() should be ignored")
+    void testCancelAfterFinish() {
+        QueryCancellation cancellation = new QueryCancellation();
+        AtomicInteger aborted = new AtomicInteger();
+        cancellation.onAbort(aborted::incrementAndGet);
+        cancellation.finish();
+        
+        assertFalse(cancellation.cancel(QueryCancellation.Reason.TIMEOUT));
+        assertEquals(0, aborted.get());
+        assertDoesNotThrow(cancellation::throwIfCancelled);
+    }
+    
+    @Test
+    @DisplayName("Clearing the abort action should keep cancel() from closing anything")
+    void testClearAbortAction() {
+        QueryCancellation cancellation = new QueryCancellation();
+        AtomicInteger aborted = new AtomicInteger();
+        cancellation.onAbort(aborted::incrementAndGet);
+        cancellation.onAbort(null);
+        
+        assertTrue(cancellation.cancel(QueryCancellation.Reason.CANCELLED));
+        assertEquals(0, aborted.get());
+    }
+    
+    @Test
+    @DisplayName("throwIfCancelled() should report the reason")
+    void testThrowIfCancelled() {
+        QueryCancellation cancellation = new QueryCancellation();
+        assertDoesNotThrow(cancellation::throwIfCancelled);
+        
+        cancellation.cancel(QueryCancellation.Reason.CANCELLED);
+        
+        QueryCancelledException exception = assertThrows(QueryCancelledException.class,
+                cancellation::throwIfCancelled);
+        assertEquals(QueryCancellation.Reason.CANCELLED, exception.getReason());
+        assertTrue(exception.getMessage().contains("cancelled"));
+    }
+    
+    @Test
+    @DisplayName("An exception thrown by the abort action should not propagate")
+    void testAbortActionFailure() {
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.onAbort(() -> {
+            throw new IllegalStateException("already closed");
+        });
+        
+        assertTrue(cancellation.cancel(QueryCancellation.Reason.CANCELLED));
+    }
+    
+    // ========================================================================
+    // QueryWatchdogのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("watch() should abort the call with TIMEOUT after the time limit")
+    void testWatchdogTimesOut() throws Exception {
+        try (QueryWatchdog watchdog = new QueryWatchdog()) {
+            QueryCancellation cancellation = new QueryCancellation();
+            CountDownLatch aborted = new CountDownLatch(1);
+            cancellation.onAbort(aborted::countDown);
+            
+            watchdog.watch(cancellation, 50);
+            
+            assertTrue(aborted.await(5, TimeUnit.SECONDS));
+            QueryCancelledException exception = assertThrows(QueryCancelledException.class,
+                    cancellation::throwIfCancelled);
+            assertEquals(QueryCancellation.Reason.TIMEOUT, exception.getReason());
+            assertEquals(50, exception.getTimeoutMs());
+            assertTrue(exception.getElapsedMs() >= 50);
+        }
+    }
+    
+    @Test
+    @DisplayName("A blocking abort action should not delay other timeouts")
+    void testWatchdogAbortDoesNotBlockTimer() throws Exception {
+        try (QueryWatchdog watchdog = new QueryWatchdog()) {
+            QueryCancellation hung = new QueryCancellation();
+            QueryCancellation other = new QueryCancellation();
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch aborted = new CountDownLatch(1);
+            hung.onAbort(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            other.onAbort(aborted::countDown);
+            
+            watchdog.watch(hung, 20);
+            watchdog.watch(other, 100);
+            
+            try {
+                assertTrue(aborted.await(5, TimeUnit.SECONDS));
+                assertTrue(hung.isCancelled());
+            } finally {
+                release.countDown();
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("finish() should disarm the watchdog timer")
+    void testWatchdogDisarmedByFinish() throws Exception {
+        try (QueryWatchdog watchdog = new QueryWatchdog()) {
+            QueryCancellation cancellation = new QueryCancellation();
+            AtomicInteger aborted = new AtomicInteger();
+            cancellation.onAbort(aborted::incrementAndGet);
+            
+            watchdog.watch(cancellation, 100);
+            cancellation.finish();
+            Thread.sleep(250);
+            
+            assertEquals(0, aborted.get());
+            assertFalse(cancellation.isCancelled());
+        }
+    }
+    
+    @Test
+    @DisplayName("watch() with a non-positive limit should not start a timer")
+    void testWatchdogWithoutLimit() throws Exception {
+        try (QueryWatchdog watchdog = new QueryWatchdog()) {
+            QueryCancellation cancellation = new QueryCancellation();
+            
+            watchdog.watch(cancellation, 0);
+            Thread.sleep(50);
+            
+            assertFalse(cancellation.isCancelled());
+            assertEquals(0, cancellation.getTimeoutMs());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.drsum.service;
+
+import com.example.drsum.model.DrSumTypes;
+import com.example.drsum.model.ResultColumn;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryPageServiceクラスのユニットテスト
+ * 
+ * Dr.Sumサーバーを使わずに、QueryResultStoreに直接保存した結果を使って
+ * 継続トークンによるページ取得を検証します。
+ */
+class QueryPageServiceTest {
+    
+    private static final Pattern TOKEN = Pattern.compile("\"continuation_token\": \"([^\"]+)\"");
+    
+    private QueryResultStore store;
+    private QueryPageService service;
+    
+    @BeforeEach
+    void setUp() {
+        store = new QueryResultStore(60000, 4, 100);
+        service = new QueryPageService(store);
+    }
+    
+    @Test
+    @DisplayName("fetchPage() should walk through all stored rows page by page")
+    void testFetchPageWalksAllRows() {
+        String token = store.put(createResult(2, 5, 2, false));
+        
+        String page1 = service.fetchPage(token, 0);
+        assertTrue(page1.contains("\"row_count\": 2"));
+        assertTrue(page1.contains("[\"2\"]"));
+        assertTrue(page1.contains("\"has_more\": true"));
+        
+        String page2 = service.fetchPage(extractToken(page1), 0);
+        assertTrue(page2.contains("\"offset\": 4"));
+        assertTrue(page2.contains("[\"5\"]"));
+        
+        String page3 = service.fetchPage(extractToken(page2), 0);
+        assertTrue(page3.contains("\"row_count\": 1"));
+        assertTrue(page3.contains("[\"6\"]"));
+        assertTrue(page3.contains("\"has_more\": false"));
+        assertFalse(page3.contains("continuation_token"));
+    }
+    
+    @Test
+    @DisplayName("fetchPage() should honour an explicit page size")
+    void testFetchPageWithExplicitPageSize() {
+        String token = store.put(createResult(0, 5, 2, false));
+        
+        String page = service.fetchPage(token, 5);
+        
+        assertTrue(page.contains("\"row_count\": 5"));
+        assertTrue(page.contains("\"has_more\": false"));
+    }
+    
+    @Test
+    @DisplayName("Last page should report truncation of the stored result")
+    void testLastPageReportsTruncation() {
+        String token = store.put(createResult(0, 1, 2, true));
+        
+        String page = service.fetchPage(token, 0);
+        
+        assertTrue(page.contains("\"truncated\": true"));
+    }
+    
+    @Test
+    @DisplayName("Same token should return the same page again")
+    void testTokenIsRepeatable() {
+        String token = store.put(createResult(0, 3, 2, false));
+        
+        assertEquals(service.fetchPage(token, 0), service.fetchPage(token, 0));
+    }
+    
+    @Test
+    @DisplayName("fetchPage() should reject unknown tokens")
+    void testFetchPageWithUnknownToken() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            service.fetchPage("missing:0", 0);
+        });
+        
+        assertTrue(exception.getMessage().contains("expired or is unknown"));
+    }
+    
+    @Test
+    @DisplayName("fetchPage() should write numeric columns as JSON numbers and keep other values as strings")
+    void testFetchPageWritesTypedValues() {
+        List<ResultColumn> schema = List.of(
+            ResultColumn.of("ID", DrSumTypes.INTEGER),
+            ResultColumn.of("PRICE", DrSumTypes.NUMERIC),
+            ResultColumn.of("RATE", DrSumTypes.REAL),
+            ResultColumn.of("CODE", DrSumTypes.VARCHAR));
+        List<Vector<String>> rows = new ArrayList<>();
+        rows.add(new Vector<>(List.of("1", "150000.00", "-1.5E3", "007")));
+        Vector<String> invalid = new Vector<>(List.of("NaN", "1.", "+2", "x"));
+        invalid.set(3, null);
+        rows.add(invalid);
+        String token = store.put(new QueryResultStore.StoredResult(schema, rows, 0, 10, false));
+        
+        String page = service.fetchPage(token, 0);
+        
+        assertTrue(page.contains("[1, 150000.00, -1.5E3, \"007\"]"), page);
+        assertTrue(page.contains("[\"NaN\", \"1.\", \"+2\", null]"), page);
+    }
+    
+    @Test
+    @DisplayName("fetchPage() should honour the requested output format")
+    void testFetchPageWithOutputFormat() {
+        String token = store.put(createResult(0, 3, 2, false));
+        
+        String page = service.fetchPage(token, 0, OutputFormat.CSV);
+        
+        assertTrue(page.startsWith("N\n0\n1\n# {\"row_count\":2,\"offset\":0,\"has_more\":true,"), page);
+    }
+    
+    @Test
+    @DisplayName("fetchPage() should end the page early once max_response_bytes is reached")
+    void testFetchPageWithinResponseBudget() {
+        String token = store.put(createResult(0, 5, 5, false));
+        
+        // "N\n" + "0\n" = 4バイト、"1\n" まで書くと6バイトで上限（5バイト）に達する
+        String page = service.fetchPage(token, 0, OutputFormat.CSV, 5);
+        
+        assertTrue(page.startsWith("N\n0\n1\n# {\"row_count\":2,\"offset\":0,\"has_more\":true,"), page);
+        assertTrue(page.contains(":2\"}"), page);
+        
+        String unlimited = service.fetchPage(token, 0, OutputFormat.CSV, 0);
+        assertTrue(unlimited.contains("\"row_count\":5"), unlimited);
+    }
+    
+    @Test
+    @DisplayName("fetchPage() should reject offsets outside the stored rows")
+    void testFetchPageWithOutOfRangeToken() {
+        String id = QueryResultStore.Token.parse(store.put(createResult(2, 3, 2, false))).getId();
+        
+        assertThrows(IllegalArgumentException.class, () -> service.fetchPage(id + ":1", 0));
+        assertThrows(IllegalArgumentException.class, () -> service.fetchPage(id + ":6", 0));
+    }
+    
+    @Test
+    @DisplayName("fetchPage() should reject negative page size")
+    void testFetchPageWithNegativePageSize() {
+        String token = store.put(createResult(0, 3, 2, false));
+        
+        assertThrows(IllegalArgumentException.class, () -> service.fetchPage(token, -1));
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private static QueryResultStore.StoredResult createResult(int startIndex, int rowCount,
+                                                              int pageSize, boolean truncated) {
+        List<Vector<String>> rows = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            Vector<String> row = new Vector<>();
+            row.add(String.valueOf(startIndex + i));
+            rows.add(row);
+        }
+        return new QueryResultStore.StoredResult(List.of(ResultColumn.of("N", DrSumTypes.VARCHAR)), rows,
+                                                 startIndex, pageSize, truncated);
+    }
+    
+    private static String extractToken(String json) {
+        Matcher matcher = TOKEN.matcher(json);
+        assertTrue(matcher.find(), "continuation_token not found in: " + json);
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.drsum.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryResultCacheクラスのユニットテスト
+ */
+class QueryResultCacheTest {
+    
+    private final AtomicLong now = new AtomicLong(0);
+    
+    // ========================================================================
+    // 取得と登録のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("Equivalent SQL with the same options should hit the cache")
+    void testEquivalentSqlHits() {
+        QueryResultCache cache = new QueryResultCache(1000, 1_000_000, now::get);
+        QueryOptions options = QueryOptions.defaults();
+        
+        cache.put(SqlFingerprint.of("SELECT * FROM sales"), options, "{\"rows\": []}");
+        
+        assertEquals("{\"rows\": []}", cache.get(SqlFingerprint.of("select *  from sales;"), options));
+        assertEquals(1, cache.getStats().getHits());
+    }
+    
+    @Test
+    @DisplayName("Different result options should not share an entry")
+    void testOptionsArePartOfKey() {
+        QueryResultCache cache = new QueryResultCache(1000, 1_000_000, now::get);
+        SqlFingerprint sql = SqlFingerprint.of("SELECT * FROM sales");
+        
+        cache.put(sql, QueryOptions.defaults(), "json");
+        
+        assertNull(cache.get(sql, QueryOptions.builder().maxRows(10).build()));
+        assertNull(cache.get(sql, QueryOptions.builder().outputFormat(OutputFormat.CSV).build()));
+        assertNull(cache.get(sql, QueryOptions.builder().maxResponseBytes(4096).build()));
+        assertEquals(3, cache.getStats().getMisses());
+    }
+    
+    @Test
+    @DisplayName("Entries should expire after the TTL")
+    void testExpiresAfterTtl() {
+        QueryResultCache cache = new QueryResultCache(1000, 1_000_000, now::get);
+        SqlFingerprint sql = SqlFingerprint.of("SELECT * FROM sales");
+        cache.put(sql, QueryOptions.defaults(), "result");
+        
+        now.set(999);
+        assertNotNull(cache.get(sql, QueryOptions.defaults()));
+        now.set(1000);
+        assertNull(cache.get(sql, QueryOptions.defaults()));
+        assertEquals(0, cache.getTotalBytes());
+    }
+    
+    // ========================================================================
+    // サイズ上限のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("Least recently used entries should be evicted when the byte limit is exceeded")
+    void testEvictsByBytes() {
+        QueryResultCache cache = new QueryResultCache(1000, 1000, now::get);
+        String result = "x".repeat(150);
+        SqlFingerprint a = SqlFingerprint.of("SELECT * FROM a");
+        SqlFingerprint b = SqlFingerprint.of("SELECT * FROM b");
+        SqlFingerprint c = SqlFingerprint.of("SELECT * FROM c");
+        
+        cache.put(a, QueryOptions.defaults(), result);
+        cache.put(b, QueryOptions.defaults(), result);
+        cache.get(a, QueryOptions.defaults());
+        cache.put(c, QueryOptions.defaults(), result);
+        
+        assertNotNull(cache.get(a, QueryOptions.defaults()));
+        assertNull(cache.get(b, QueryOptions.defaults()));
+        assertNotNull(cache.get(c, QueryOptions.defaults()));
+        assertEquals(1, cache.getStats().getEvictions());
+        assertTrue(cache.getTotalBytes() <= 1000);
+    }
+    
+    @Test
+    @DisplayName("A single result larger than the limit should not be cached")
+    void testSkipsOversizedResult() {
+        QueryResultCache cache = new QueryResultCache(1000, 1000, now::get);
+        
+        assertFalse(cache.put(SqlFingerprint.of("SELECT * FROM a"), QueryOptions.defaults(), "x".repeat(1000)));
+        assertEquals(0, cache.getStats().getSize());
+    }
+    
+    // ========================================================================
+    // 無効化と対象判定のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("invalidateTable() should drop only results that read the table")
+    void testInvalidateTable() {
+        QueryResultCache cache = new QueryResultCache(1000, 1_000_000, now::get);
+        SqlFingerprint joined = SqlFingerprint.of("SELECT * FROM sales JOIN regions ON sales.r = regions.id");
+        SqlFingerprint other = SqlFingerprint.of("SELECT * FROM items");
+        cache.put(joined, QueryOptions.defaults(), "joined");
+        cache.put(other, QueryOptions.defaults(), "other");
+        
+        assertEquals(1, cache.invalidateTable("Regions"));
+        assertNull(cache.get(joined, QueryOptions.defaults()));
+        assertEquals("other", cache.get(other, QueryOptions.defaults()));
+        assertEquals(1, cache.invalidateAll());
+        assertEquals(0, cache.getTotalBytes());
+    }
+    
+    @Test
+    @DisplayName("A read after a write should miss results of the written table only")
+    void testReadAfterWriteMisses() {
+        QueryResultCache cache = new QueryResultCache(1000, 1_000_000, now::get);
+        SqlFingerprint sales = SqlFingerprint.of("SELECT SUM(amount) FROM sales");
+        SqlFingerprint items = SqlFingerprint.of("SELECT * FROM items");
+        cache.put(sales, QueryOptions.defaults(), "before");
+        cache.put(items, QueryOptions.defaults(), "items");
+        
+        assertEquals(1, cache.invalidateAfterWrite("INSERT INTO dbo.Sales VALUES (1, 100)"));
+        assertNull(cache.get(sales, QueryOptions.defaults()));
+        assertEquals("items", cache.get(items, QueryOptions.defaults()));
+        
+        // 対象を判定できない更新は全体を破棄する
+        cache.put(sales, QueryOptions.defaults(), "after");
+        assertEquals(2, cache.invalidateAfterWrite("CALL refresh_all()"));
+        assertEquals(0, cache.getTotalBytes());
+    }
+    
+    @Test
+    @DisplayName("isCacheable() should accept only unpaged read-only queries")
+    void testIsCacheable() {
+        assertTrue(QueryResultCache.isCacheable("SELECT * FROM sales", QueryOptions.defaults()));
+        assertFalse(QueryResultCache.isCacheable("DELETE FROM sales", QueryOptions.defaults()));
+        assertFalse(QueryResultCache.isCacheable("SELECT * FROM sales", QueryOptions.builder().pageSize(10).build()));
+    }
+    
+    @Test
+    @DisplayName("Constructor should reject invalid limits")
+    void testRejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultCache(0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultCache(1000, 0));
+    }
+}
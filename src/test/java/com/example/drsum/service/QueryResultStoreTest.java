@@ -0,0 +1,162 @@
+package com.example.drsum.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryResultStoreクラスのユニットテスト
+ */
+class QueryResultStoreTest {
+    
+    private final AtomicLong now = new AtomicLong(0);
+    
+    // ========================================================================
+    // 保存と取得のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("put() should return a token pointing at the first stored row")
+    void testPutReturnsTokenAtStartIndex() {
+        QueryResultStore store = new QueryResultStore(1000, 4, 100, now::get);
+        
+        String token = store.put(createResult(10, 5));
+        QueryResultStore.Token parsed = QueryResultStore.Token.parse(token);
+        
+        assertEquals(10, parsed.getOffset());
+        assertNotNull(store.get(parsed.getId()));
+    }
+    
+    @Test
+    @DisplayName("Result should expire after the TTL since last access")
+    void testResultExpiresAfterTtl() {
+        QueryResultStore store = new QueryResultStore(1000, 4, 100, now::get);
+        String id = QueryResultStore.Token.parse(store.put(createResult(0, 1))).getId();
+        
+        now.set(900);
+        assertNotNull(store.get(id));
+        
+        // アクセスにより期限が延長される
+        now.set(1800);
+        assertNotNull(store.get(id));
+        
+        now.set(2800);
+        assertNull(store.get(id));
+        assertEquals(0, store.size());
+    }
+    
+    @Test
+    @DisplayName("Oldest result should be discarded when the store is full")
+    void testOldestResultIsDiscardedWhenFull() {
+        QueryResultStore store = new QueryResultStore(1000, 2, 100, now::get);
+        
+        String first = QueryResultStore.Token.parse(store.put(createResult(0, 1))).getId();
+        store.put(createResult(0, 1));
+        store.put(createResult(0, 1));
+        
+        assertEquals(2, store.size());
+        assertNull(store.get(first));
+    }
+    
+    @Test
+    @DisplayName("Constructor should reject non-positive limits")
+    void testConstructorRejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultStore(0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultStore(1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultStore(1, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultStore(1, 1, 1, -1, Path.of(".")));
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultStore(1, 1, 1, 0, null));
+    }
+    
+    // ========================================================================
+    // 一時ファイルに退避した結果のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("Spilled rows should be paged like in-heap rows")
+    void testSpilledResultIsReadable(@TempDir Path dir) throws IOException {
+        QueryResultStore store = new QueryResultStore(1000, 4, 100, 1, dir, now::get);
+        SpilledRows rows;
+        try (SpilledRows.Writer writer = SpilledRows.writer(store.getSpillDirectory())) {
+            writer.add(new Vector<>(List.of("5")));
+            writer.add(new Vector<>(List.of("6")));
+            rows = writer.finish();
+        }
+        
+        String id = QueryResultStore.Token.parse(store.put(
+            new QueryResultStore.StoredResult(List.of(), rows, 5, 2, false))).getId();
+        QueryResultStore.StoredResult stored = store.get(id);
+        
+        assertTrue(stored.isSpilled());
+        assertEquals("6", stored.getRow(6).get(0));
+        assertEquals(1, store.getSpillThresholdBytes());
+    }
+    
+    @Test
+    @DisplayName("Clearing the store should leave no spilled temp file behind")
+    void testClearReleasesSpilledRows(@TempDir Path dir) throws IOException {
+        QueryResultStore store = new QueryResultStore(1000, 4, 100, 1, dir, now::get);
+        SpilledRows rows;
+        try (SpilledRows.Writer writer = SpilledRows.writer(dir)) {
+            writer.add(new Vector<>(List.of("a")));
+            rows = writer.finish();
+        }
+        store.put(new QueryResultStore.StoredResult(List.of(), rows, 0, 1, false));
+        
+        store.clear();
+        
+        assertEquals(0, store.size());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+    
+    // ========================================================================
+    // Token のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("Token should round-trip through toString() and parse()")
+    void testTokenRoundTrip() {
+        QueryResultStore.Token token = QueryResultStore.Token.parse(
+            new QueryResultStore.Token("abc", 42).toString());
+        
+        assertEquals("abc", token.getId());
+        assertEquals(42, token.getOffset());
+    }
+    
+    @Test
+    @DisplayName("Token.parse() should reject malformed tokens")
+    void testTokenParseRejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> QueryResultStore.Token.parse("abc"));
+        assertThrows(IllegalArgumentException.class, () -> QueryResultStore.Token.parse(":1"));
+        assertThrows(IllegalArgumentException.class, () -> QueryResultStore.Token.parse("abc:"));
+        assertThrows(IllegalArgumentException.class, () -> QueryResultStore.Token.parse("abc:x"));
+        assertThrows(IllegalArgumentException.class, () -> QueryResultStore.Token.parse("abc:-1"));
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private static QueryResultStore.StoredResult createResult(int startIndex, int rowCount) {
+        List<Vector<String>> rows = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            Vector<String> row = new Vector<>();
+            row.add(String.valueOf(startIndex + i));
+            rows.add(row);
+        }
+        return new QueryResultStore.StoredResult(List.of(), rows, startIndex, 2, false);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.drsum.service;
+
+import com.example.drsum.model.DrSumTypes;
+import com.example.drsum.model.ResultColumn;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryResultWriterと出力形式ごとの実装のユニットテスト
+ */
+class QueryResultWriterTest {
+    
+    private static final List<ResultColumn> COLUMNS = List.of(
+        ResultColumn.of("ID", DrSumTypes.INTEGER),
+        ResultColumn.of("CITY", DrSumTypes.VARCHAR));
+    
+    // ========================================================================
+    // OutputFormatのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("fromParameter() should default to json and accept names case-insensitively")
+    void testFromParameter() {
+        assertEquals(OutputFormat.JSON, OutputFormat.fromParameter(null));
+        assertEquals(OutputFormat.JSON, OutputFormat.fromParameter(" "));
+        assertEquals(OutputFormat.JSON_COMPACT, OutputFormat.fromParameter("json_compact"));
+        assertEquals(OutputFormat.COLUMNAR, OutputFormat.fromParameter("Columnar"));
+        assertEquals(OutputFormat.TSV, OutputFormat.fromParameter(" TSV "));
+    }
+    
+    @Test
+    @DisplayName("fromParameter() should reject unknown formats")
+    void testFromParameterRejectsUnknown() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                                           () -> OutputFormat.fromParameter("xml"));
+        assertTrue(exception.getMessage().contains("xml"));
+    }
+    
+    // ========================================================================
+    // JSONのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("json_compact should write the row-oriented result without whitespace")
+    void testJsonCompact() throws IOException {
+        String result = write(OutputFormat.JSON_COMPACT, rows(row("1", "東京"), row("2", null)),
+                              Map.of("has_more", false));
+        
+        assertEquals("{\"columns\":[{\"name\":\"ID\",\"display_name\":\"ID\",\"type\":1},"
+                   + "{\"name\":\"CITY\",\"display_name\":\"CITY\",\"type\":0}],"
+                   + "\"rows\":[[1,\"東京\"],[2,null]],\"row_count\":2,\"has_more\":false}", result);
+    }
+    
+    // ========================================================================
+    // columnarのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("columnar should write one array per column and dictionary-encode repetitive strings")
+    void testColumnarWithDictionary() throws IOException {
+        String result = write(OutputFormat.COLUMNAR,
+                              rows(row("1", "東京"), row("2", "大阪"), row("3", "東京"), row("4", null)),
+                              Map.of());
+        
+        assertTrue(result.contains("\"format\": \"columnar\""), result);
+        assertTrue(result.contains("    [1, 2, 3, 4],\n"), result);
+        assertTrue(result.contains("    {\"dictionary\": [\"東京\", \"大阪\"], \"codes\": [0, 1, 0, null]}\n"),
+                   result);
+        assertTrue(result.contains("\"row_count\": 4"), result);
+    }
+    
+    @Test
+    @DisplayName("columnar should keep plain arrays for high-cardinality or short columns")
+    void testColumnarWithoutDictionary() throws IOException {
+        String distinct = write(OutputFormat.COLUMNAR,
+                                rows(row("1", "a"), row("2", "b"), row("3", "c"), row("4", "a")), Map.of());
+        String shortColumn = write(OutputFormat.COLUMNAR, rows(row("1", "a"), row("2", "a")), Map.of());
+        
+        assertTrue(distinct.contains("[\"a\", \"b\", \"c\", \"a\"]"), distinct);
+        assertTrue(shortColumn.contains("[\"a\", \"a\"]"), shortColumn);
+        assertFalse(shortColumn.contains("dictionary"), shortColumn);
+    }
+    
+    // ========================================================================
+    // CSV/TSVのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("csv should quote special values and append the summary as a comment line")
+    void testCsv() throws IOException {
+        Map<String, Object> extras = new LinkedHashMap<>();
+        extras.put("has_more", true);
+        extras.put("continuation_token", "abc:2");
+        String result = write(OutputFormat.CSV,
+                              rows(row("1", "a,b"), row("2", "say \"hi\""), row("3", ""), row("4", null)),
+                              extras);
+        
+        assertEquals("ID,CITY\n"
+                   + "1,\"a,b\"\n"
+                   + "2,\"say \"\"hi\"\"\"\n"
+                   + "3,\"\"\n"
+                   + "4,\n"
+                   + "# {\"row_count\":4,\"has_more\":true,\"continuation_token\":\"abc:2\"}", result);
+    }
+    
+    @Test
+    @DisplayName("tsv should escape tabs, newlines and backslashes and write NULL as \\N")
+    void testTsv() throws IOException {
+        String result = write(OutputFormat.TSV,
+                              rows(row("1", "a\tb"), row("2", "x\ny\\z"), row("3", null)), Map.of());
+        
+        assertEquals("ID\tCITY\n"
+                   + "1\ta\\tb\n"
+                   + "2\tx\\ny\\\\z\n"
+                   + "3\t\\N\n"
+                   + "# {\"row_count\":3}", result);
+    }
+    
+    // ========================================================================
+    // outputBytesのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("outputBytes() should count the UTF-8 bytes written so far")
+    void testOutputBytes() throws IOException {
+        try (QueryResultWriter writer = QueryResultWriter.create(OutputFormat.JSON_COMPACT)) {
+            writer.begin(COLUMNS);
+            writer.writeRow(row("1", "東京"));
+            
+            String written = "{\"columns\":[{\"name\":\"ID\",\"display_name\":\"ID\",\"type\":1},"
+                           + "{\"name\":\"CITY\",\"display_name\":\"CITY\",\"type\":0}],"
+                           + "\"rows\":[[1,\"東京\"]";
+            assertEquals(written.getBytes(StandardCharsets.UTF_8).length, writer.outputBytes());
+        }
+        try (QueryResultWriter writer = QueryResultWriter.create(OutputFormat.TSV)) {
+            writer.begin(COLUMNS);
+            assertEquals(8, writer.outputBytes());
+            writer.writeRow(row("1", "東京"));
+            assertEquals(17, writer.outputBytes());
+        }
+    }
+    
+    @Test
+    @DisplayName("outputBytes() of columnar should grow with every row")
+    void testColumnarOutputBytes() throws IOException {
+        try (QueryResultWriter writer = QueryResultWriter.create(OutputFormat.COLUMNAR)) {
+            writer.begin(COLUMNS);
+            long empty = writer.outputBytes();
+            writer.writeRow(row("1", "東京"));
+            long oneRow = writer.outputBytes();
+            writer.writeRow(row("2", null));
+            
+            assertTrue(oneRow > empty);
+            assertTrue(writer.outputBytes() > oneRow);
+        }
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private static String write(OutputFormat format, List<Vector<String>> rows, Map<String, Object> extras)
+            throws IOException {
+        try (QueryResultWriter writer = QueryResultWriter.create(format)) {
+            writer.begin(COLUMNS);
+            for (Vector<String> row : rows) {
+                writer.writeRow(row);
+            }
+            return writer.finish(rows.size(), extras);
+        }
+    }
+    
+    @SafeVarargs
+    private static List<Vector<String>> rows(Vector<String>... rows) {
+        return Arrays.asList(rows);
+    }
+    
+    private static Vector<String> row(String... values) {
+        return new Vector<>(Arrays.asList(values));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.drsum.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SpilledRowsクラスのユニットテスト
+ */
+class SpilledRowsTest {
+    
+    @TempDir
+    Path dir;
+    
+    // ========================================================================
+    // 書き出しと読み出しのテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("Rows should round-trip including nulls, empty strings and multi-byte text")
+    void testRoundTrip() throws IOException {
+        List<Vector<String>> rows = List.of(
+            row("1", "東京", null),
+            row("2", "", "a,b\"c"),
+            row(),
+            row("x".repeat(300), "売上 明細", "🍣"));
+        
+        SpilledRows spilled;
+        try (SpilledRows.Writer writer = SpilledRows.writer(dir)) {
+            for (Vector<String> r : rows) {
+                writer.add(r);
+            }
+            assertEquals(4, writer.size());
+            spilled = writer.finish();
+        }
+        
+        assertEquals(rows, spilled);
+        assertEquals(rows.get(3), spilled.get(3));
+        assertTrue(spilled.getFileBytes() > 0);
+        assertThrows(IndexOutOfBoundsException.class, () -> spilled.get(4));
+        spilled.close();
+    }
+    
+    @Test
+    @DisplayName("Rows should never straddle a segment boundary")
+    void testRowsAcrossSmallSegments() throws IOException {
+        List<Vector<String>> rows = new ArrayList<>();
+        SpilledRows spilled;
+        try (SpilledRows.Writer writer = new SpilledRows.Writer(dir, 64)) {
+            for (int i = 0; i < 100; i++) {
+                Vector<String> r = row(String.valueOf(i), "v".repeat(i % 40));
+                rows.add(r);
+                writer.add(r);
+            }
+            spilled = writer.finish();
+        }
+        
+        assertEquals(100, spilled.size());
+        for (int i = 99; i >= 0; i--) {
+            assertEquals(rows.get(i), spilled.get(i));
+        }
+        spilled.close();
+    }
+    
+    @Test
+    @DisplayName("A row larger than a segment should be rejected")
+    void testRejectsOversizedRow() throws IOException {
+        try (SpilledRows.Writer writer = new SpilledRows.Writer(dir, 16)) {
+            assertThrows(IllegalStateException.class, () -> writer.add(row("x".repeat(100))));
+        }
+    }
+    
+    // ========================================================================
+    // 一時ファイルの削除のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("An aborted writer should delete its temp file")
+    void testAbortedWriterDeletesFile() throws IOException {
+        try (SpilledRows.Writer writer = SpilledRows.writer(dir)) {
+            writer.add(row("a"));
+            assertEquals(1, countFiles());
+        }
+        assertEquals(0, countFiles());
+    }
+    
+    @Test
+    @DisplayName("No temp file should remain after the rows are closed")
+    void testClosedRowsLeaveNoFile() throws IOException {
+        SpilledRows spilled;
+        try (SpilledRows.Writer writer = SpilledRows.writer(dir)) {
+            writer.add(row("a"));
+            spilled = writer.finish();
+        }
+        spilled.close();
+        
+        assertEquals(0, countFiles());
+        // マップはGCされるまで有効なため、削除後も読み出せる
+        assertEquals(row("a"), spilled.get(0));
+    }
+    
+    @Test
+    @DisplayName("estimateHeapBytes() should grow with the row contents")
+    void testEstimateHeapBytes() {
+        assertTrue(SpilledRows.estimateHeapBytes(row("abc")) < SpilledRows.estimateHeapBytes(row("abcdef")));
+        assertTrue(SpilledRows.estimateHeapBytes(row((String) null)) < SpilledRows.estimateHeapBytes(row("")));
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private static Vector<String> row(String... values) {
+        return new Vector<>(Arrays.asList(values));
+    }
+    
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
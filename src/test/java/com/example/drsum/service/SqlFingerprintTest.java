@@ -0,0 +1,76 @@
+package com.example.drsum.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SqlFingerprintクラスのユニットテスト
+ */
+class SqlFingerprintTest {
+    
+    // ========================================================================
+    // 正規化のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("Whitespace, comments, keyword case and trailing semicolons should not matter")
+    void testEquivalentQueriesShareFingerprint() {
+        String expected = SqlFingerprint.of("SELECT region, SUM(amount) FROM sales GROUP BY region").getNormalized();
+        
+        assertEquals(expected, SqlFingerprint.of("select region,sum(amount)\n  from sales\tgroup by region;")
+                .getNormalized());
+        assertEquals(expected, SqlFingerprint.of("-- monthly\nSELECT region , SUM( amount ) /* x */ FROM sales "
+                + "GROUP BY region").getNormalized());
+    }
+    
+    @Test
+    @DisplayName("Literals, identifiers and token order should be preserved")
+    void testDifferentQueriesKeepDistinctFingerprints() {
+        String base = SqlFingerprint.of("SELECT * FROM sales WHERE region = 'East'").getNormalized();
+        
+        assertNotEquals(base, SqlFingerprint.of("SELECT * FROM sales WHERE region = 'east'").getNormalized());
+        assertNotEquals(base, SqlFingerprint.of("SELECT * FROM Sales WHERE region = 'East'").getNormalized());
+        assertNotEquals(SqlFingerprint.of("SELECT a, b FROM t").getNormalized(),
+                        SqlFingerprint.of("SELECT b, a FROM t").getNormalized());
+        assertTrue(SqlFingerprint.of("SELECT 'a  --  b' FROM t").getNormalized().contains("'a  --  b'"));
+    }
+    
+    @Test
+    @DisplayName("of() should reject null or empty SQL")
+    void testRejectsEmptySql() {
+        assertThrows(IllegalArgumentException.class, () -> SqlFingerprint.of(null));
+        assertThrows(IllegalArgumentException.class, () -> SqlFingerprint.of("  "));
+    }
+    
+    // ========================================================================
+    // テーブル名抽出のテスト
+    // ========================================================================
+    
+    @Test
+    @DisplayName("Tables in FROM lists and JOIN clauses should be extracted")
+    void testExtractsTables() {
+        assertEquals(Set.of("SALES"), SqlFingerprint.of("SELECT * FROM sales").getTables());
+        assertEquals(Set.of("SALES", "REGIONS", "ITEMS"), SqlFingerprint.of(
+                "SELECT * FROM sales s, regions AS r JOIN items i ON s.item = i.id WHERE s.r = r.id").getTables());
+        assertEquals(Set.of("ORDERS"), SqlFingerprint.of(
+                "SELECT * FROM (SELECT id FROM dbo.orders) o WHERE o.id > 1").getTables());
+        assertEquals(Set.of("売上 明細"), SqlFingerprint.of("SELECT * FROM \"売上 明細\"").getTables());
+    }
+    
+    @Test
+    @DisplayName("writeTarget() should extract the table of INSERT, UPDATE and DELETE statements")
+    void testWriteTarget() {
+        assertEquals("SALES", SqlFingerprint.writeTarget("insert into sales (id) values (1)"));
+        assertEquals("SALES", SqlFingerprint.writeTarget("-- fix\nUPDATE dbo.sales SET amount = 0"));
+        assertEquals("SALES", SqlFingerprint.writeTarget("DELETE FROM /* old */ sales WHERE id = 1"));
+        assertEquals("SALES", SqlFingerprint.writeTarget("DELETE sales WHERE id = 1"));
+        assertEquals("売上 明細", SqlFingerprint.writeTarget("UPDATE \"売上 明細\" SET a = 1"));
+        assertNull(SqlFingerprint.writeTarget("SELECT * FROM sales"));
+        assertNull(SqlFingerprint.writeTarget("CALL refresh_all()"));
+        assertNull(SqlFingerprint.writeTarget(null));
+    }
+}
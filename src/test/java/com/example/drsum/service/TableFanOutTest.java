@@ -0,0 +1,219 @@
+package com.example.drsum.service;
+
+import com.example.drsum.connection.DrSumConnection;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TableFanOutクラスのユニットテスト
+ * 
+ * Dr.Sumサーバーを使わずに、テーブルごとの処理と接続プロバイダーを差し替えて
+ * 並列実行と接続の返却を検証します。
+ */
+class TableFanOutTest {
+    
+    private TableFanOut fanOut;
+    
+    @AfterEach
+    void tearDown() {
+        if (fanOut != null) {
+            fanOut.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Constructor should reject invalid arguments")
+    void testConstructorValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new TableFanOut(null, 2, "test"));
+        assertThrows(IllegalArgumentException.class, () -> new TableFanOut(new FakeConnectionProvider(1), 0, "test"));
+    }
+    
+    @Test
+    @DisplayName("run() should process every table once and return borrowed connections")
+    void testRunUsesExtraConnections() throws DWException {
+        FakeConnectionProvider provider = new FakeConnectionProvider(3);
+        Set<DrSumConnection> used = ConcurrentHashMap.newKeySet();
+        AtomicInteger calls = new AtomicInteger();
+        fanOut = new TableFanOut(provider, 4, "test-fan-out");
+        
+        Map<String, Integer> result = fanOut.run(new DrSumConnection(), names(100), (connection, table) -> {
+            used.add(connection);
+            calls.incrementAndGet();
+            return table.length();
+        });
+        
+        assertEquals(100, result.size());
+        assertEquals(100, calls.get());
+        assertEquals(Integer.valueOf(4), result.get("T_50"));
+        assertEquals(provider.acquired.get(), provider.released.get());
+        assertTrue(used.size() >= 1);
+    }
+    
+    @Test
+    @DisplayName("run() should not borrow more connections than there are tables")
+    void testRunLimitsWorkersToTableCount() throws DWException {
+        FakeConnectionProvider provider = new FakeConnectionProvider(8);
+        fanOut = new TableFanOut(provider, 8, "test-fan-out");
+        
+        Map<String, String> result = fanOut.run(new DrSumConnection(), names(2), (connection, table) -> table);
+        
+        assertEquals(2, result.size());
+        assertTrue(provider.acquired.get() <= 1);
+    }
+    
+    @Test
+    @DisplayName("run() with parallelism 1 should use only the caller's connection")
+    void testRunSequential() throws DWException {
+        FakeConnectionProvider provider = new FakeConnectionProvider(3);
+        DrSumConnection caller = new DrSumConnection();
+        Set<DrSumConnection> used = ConcurrentHashMap.newKeySet();
+        fanOut = new TableFanOut(provider, 1, "test-fan-out");
+        
+        fanOut.run(caller, names(5), (connection, table) -> used.add(connection));
+        
+        assertEquals(Set.of(caller), used);
+        assertEquals(0, provider.acquired.get());
+    }
+    
+    @Test
+    @DisplayName("run() should propagate Dr.Sum errors and still return borrowed connections")
+    void testRunPropagatesErrors() {
+        FakeConnectionProvider provider = new FakeConnectionProvider(3);
+        fanOut = new TableFanOut(provider, 4, "test-fan-out");
+        
+        assertThrows(DWException.class, () -> fanOut.run(new DrSumConnection(), names(50), (connection, table) -> {
+            if (table.equals("T_7")) {
+                throw new DWException("schema unavailable");
+            }
+            return table;
+        }));
+        assertEquals(provider.acquired.get(), provider.released.get() + provider.invalidated.get());
+    }
+    
+    @Test
+    @DisplayName("run() should wait for blocked workers when the caller's table fails")
+    void testCallerFailureWaitsForWorkers() {
+        FakeConnectionProvider provider = new FakeConnectionProvider(1);
+        DrSumConnection caller = new DrSumConnection();
+        QueryCancellation cancellation = new QueryCancellation();
+        CountDownLatch workerStarted = new CountDownLatch(1);
+        CountDownLatch releaseWorker = new CountDownLatch(1);
+        AtomicInteger workerTables = new AtomicInteger();
+        fanOut = new TableFanOut(provider, 2, "test-fan-out");
+        
+        Thread releaser = new Thread(() -> {
+            try {
+                workerStarted.await(5, TimeUnit.SECONDS);
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            releaseWorker.countDown();
+        });
+        releaser.start();
+        
+        TableFanOut.TableTask<String> task = (connection, table) -> {
+            if (connection != caller) {
+                // Dr.Sumの応答を待っている状態を再現
+                workerTables.incrementAndGet();
+                workerStarted.countDown();
+                try {
+                    releaseWorker.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return table;
+            }
+            try {
+                workerStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new DWException("schema unavailable");
+        };
+        
+        DWException error = assertThrows(DWException.class, () -> fanOut.run(caller, names(10), task, cancellation));
+        
+        // 戻った時点でワーカーは終了し、借りた接続は返却済みで残りのテーブルは処理されない
+        assertEquals("schema unavailable", error.getMessage());
+        assertEquals(0, releaseWorker.getCount());
+        assertEquals(1, workerTables.get());
+        assertEquals(1, provider.released.get());
+        
+        // 終了後の中断は呼び出し元の接続だけを閉じる
+        cancellation.cancel(QueryCancellation.Reason.TIMEOUT);
+        assertEquals(0, provider.aborted.get());
+    }
+    
+    @Test
+    @DisplayName("Cancelling the call should abort borrowed connections and discard them")
+    void testCancelAbortsBorrowedConnections() {
+        FakeConnectionProvider provider = new FakeConnectionProvider(1);
+        DrSumConnection caller = new DrSumConnection();
+        QueryCancellation cancellation = new QueryCancellation();
+        CountDownLatch workerStarted = new CountDownLatch(1);
+        fanOut = new TableFanOut(provider, 2, "test-fan-out");
+        
+        assertThrows(DWException.class, () -> fanOut.run(caller, names(10), (connection, table) -> {
+            if (connection != caller) {
+                // 中断で接続が閉じられるまでDr.Sumの応答を待っている状態を再現
+                workerStarted.countDown();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (provider.aborted.get() == 0 && System.nanoTime() - deadline < 0) {
+                    Thread.onSpinWait();
+                }
+                throw new DWException("connection closed");
+            }
+            try {
+                workerStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            cancellation.cancel(QueryCancellation.Reason.CANCELLED);
+            throw new DWException("connection closed");
+        }, cancellation));
+        
+        assertEquals(1, provider.aborted.get());
+        assertEquals(1, provider.invalidated.get());
+        assertEquals(0, provider.released.get());
+    }
+    
+    @Test
+    @DisplayName("run() should not borrow connections once the call is cancelled")
+    void testCancelledCallDoesNotBorrow() throws DWException {
+        FakeConnectionProvider provider = new FakeConnectionProvider(3);
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.cancel(QueryCancellation.Reason.CANCELLED);
+        fanOut = new TableFanOut(provider, 4, "test-fan-out");
+        
+        fanOut.run(new DrSumConnection(), names(10), (connection, table) -> table, cancellation);
+        
+        assertEquals(0, provider.acquired.get());
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private static List<String> names(int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add("T_" + i);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.drsum.service;
+
+import com.example.drsum.connection.DrSumConnection;
+import jp.co.dw_sapporo.drsum_ea.DWException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ViewClassifierクラスのユニットテスト
+ * 
+ * Dr.Sumサーバーを使わずに、判定処理と接続プロバイダーを差し替えて
+ * 並列判定と接続の返却を検証します。
+ */
+class ViewClassifierTest {
+    
+    private ViewClassifier classifier;
+    
+    @AfterEach
+    void tearDown() {
+        if (classifier != null) {
+            classifier.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("classify() should classify every table and return borrowed connections")
+    void testClassifyUsesExtraConnections() throws DWException {
+        FakeConnectionProvider provider = new FakeConnectionProvider(3);
+        Set<DrSumConnection> used = ConcurrentHashMap.newKeySet();
+        classifier = new ViewClassifier(provider, 4, (connection, db, table) -> {
+            used.add(connection);
+            return table.startsWith("V_");
+        });
+        
+        Map<String, Boolean> result = classifier.classify(new DrSumConnection(), "DB", names(200));
+        
+        assertEquals(200, result.size());
+        assertTrue(result.get("V_0"));
+        assertFalse(result.get("T_1"));
+        assertEquals(provider.acquired.get(), provider.released.get());
+        assertTrue(used.size() >= 1);
+    }
+    
+    @Test
+    @DisplayName("classify() should fall back to the caller's connection when none can be borrowed")
+    void testClassifyWithoutExtraConnections() throws DWException {
+        FakeConnectionProvider provider = new FakeConnectionProvider(0);
+        DrSumConnection caller = new DrSumConnection();
+        Set<DrSumConnection> used = ConcurrentHashMap.newKeySet();
+        classifier = new ViewClassifier(provider, 4, (connection, db, table) -> {
+            used.add(connection);
+            return false;
+        });
+        
+        Map<String, Boolean> result = classifier.classify(caller, "DB", names(10));
+        
+        assertEquals(10, result.size());
+        assertEquals(Set.of(caller), used);
+    }
+    
+    @Test
+    @DisplayName("classify() with parallelism 1 should not borrow connections")
+    void testClassifySequential() throws DWException {
+        FakeConnectionProvider provider = new FakeConnectionProvider(3);
+        classifier = new ViewClassifier(provider, 1, (connection, db, table) -> false);
+        
+        assertEquals(5, classifier.classify(new DrSumConnection(), "DB", names(5)).size());
+        assertEquals(0, provider.acquired.get());
+    }
+    
+    @Test
+    @DisplayName("classify() should propagate Dr.Sum errors and still return borrowed connections")
+    void testClassifyPropagatesErrors() {
+        FakeConnectionProvider provider = new FakeConnectionProvider(3);
+        classifier = new ViewClassifier(provider, 4, (connection, db, table) -> {
+            if (table.equals("T_7")) {
+                throw new DWException("view info unavailable");
+            }
+            return false;
+        });
+        
+        assertThrows(DWException.class, () -> classifier.classify(new DrSumConnection(), "DB", names(50)));
+        assertEquals(provider.acquired.get(), provider.released.get() + provider.invalidated.get());
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private static List<String> names(int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add((i % 2 == 0 ? "V_" : "T_") + i);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.drsum.transport;
+
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.HttpClientStreamableHttpTransport;
+import io.modelcontextprotocol.json.McpJsonMapper;
+import io.modelcontextprotocol.server.McpServer;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpSchema;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StreamableHttpTransportProviderクラスのユニットテスト
+ * 
+ * ローカルの空きポートでサーバーを起動し、MCP Java SDKのHTTPクライアントで接続して検証します。
+ */
+class StreamableHttpTransportProviderTest {
+    
+    private StreamableHttpTransportProvider transport;
+    private McpSyncServer server;
+    private final AtomicInteger calls = new AtomicInteger();
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        startServer(StreamableHttpTransportProvider.DEFAULT_SESSION_IDLE_TIMEOUT,
+                    StreamableHttpTransportProvider.DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+    
+    private void startServer(Duration sessionIdleTimeout, int maxConcurrentRequests) throws Exception {
+        startServer(sessionIdleTimeout, maxConcurrentRequests, StreamableHttpTransportProvider.DEFAULT_MAX_SESSIONS);
+    }
+    
+    /**
+     * 指定した設定でサーバーを起動（起動済みのサーバーは閉じる）
+     */
+    private void startServer(Duration sessionIdleTimeout, int maxConcurrentRequests, int maxSessions)
+            throws Exception {
+        if (server != null) {
+            server.close();
+        }
+        transport = new StreamableHttpTransportProvider(McpJsonMapper.getDefault(),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                StreamableHttpTransportProvider.DEFAULT_ENDPOINT, sessionIdleTimeout, maxConcurrentRequests,
+                maxSessions);
+        
+        McpSchema.Tool echoTool = McpSchema.Tool.builder()
+                .name("echo")
+                .description("Echo the text parameter")
+                .inputSchema(new McpSchema.JsonSchema("object", Map.of(), List.of(), null, null, null))
+                .build();
+        server = McpServer.sync(transport)
+                .serverInfo("test-server", "1.0.0")
+                .capabilities(McpSchema.ServerCapabilities.builder().tools(true).build())
+                .tools(McpServerFeatures.SyncToolSpecification.builder()
+                        .tool(echoTool)
+                        .callHandler((exchange, request) -> {
+                            calls.incrementAndGet();
+                            String text = (String) request.arguments().get("text");
+                            return McpSchema.CallToolResult.builder()
+                                    .content(List.of(new McpSchema.TextContent("echo: " + text)))
+                                    .build();
+                        })
+                        .build())
+                .build();
+        transport.start();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+    
+    // ========================================================================
+    // MCPクライアントからの利用
+    // ========================================================================
+    
+    @Test
+    @DisplayName("MCP client should initialize, list tools and call a tool over HTTP")
+    void testClientRoundTrip() {
+        try (McpSyncClient client = createClient()) {
+            client.initialize();
+            
+            List<McpSchema.Tool> tools = client.listTools().tools();
+            assertEquals(1, tools.size());
+            assertEquals("echo", tools.get(0).name());
+            
+            McpSchema.CallToolResult result = client.callTool(
+                    new McpSchema.CallToolRequest("echo", Map.of("text", "hello")));
+            assertEquals("echo: hello", ((McpSchema.TextContent) result.content().get(0)).text());
+        }
+    }
+    
+    @Test
+    @DisplayName("Multiple clients should share one server with separate sessions")
+    void testMultipleClientsShareServer() {
+        try (McpSyncClient first = createClient(); McpSyncClient second = createClient()) {
+            first.initialize();
+            second.initialize();
+            assertEquals(2, transport.getSessionCount());
+            
+            first.callTool(new McpSchema.CallToolRequest("echo", Map.of("text", "a")));
+            second.callTool(new McpSchema.CallToolRequest("echo", Map.of("text", "b")));
+            assertEquals(2, calls.get());
+        }
+    }
+    
+    // ========================================================================
+    // HTTPレベルの検証
+    // ========================================================================
+    
+    @Test
+    @DisplayName("Request without a session id should be rejected with 400")
+    void testMissingSessionId() throws Exception {
+        HttpResponse<String> response = post(toolsListBody(), Map.of());
+        
+        assertEquals(400, response.statusCode());
+    }
+    
+    @Test
+    @DisplayName("Request with an unknown session id should be rejected with 404")
+    void testUnknownSession() throws Exception {
+        HttpResponse<String> response = post(toolsListBody(), Map.of("Mcp-Session-Id", "no-such-session"));
+        
+        assertEquals(404, response.statusCode());
+    }
+    
+    @Test
+    @DisplayName("Request from a non-local Origin should be rejected with 403")
+    void testForeignOrigin() throws Exception {
+        HttpResponse<String> response = post(toolsListBody(), Map.of("Origin", "http://evil.example.com"));
+        
+        assertEquals(403, response.statusCode());
+    }
+    
+    @Test
+    @DisplayName("POST without the required Accept types should be rejected with 400")
+    void testMissingAccept() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(endpointUri())
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toolsListBody()))
+                .build();
+        
+        assertEquals(400, send(request).statusCode());
+    }
+    
+    @Test
+    @DisplayName("Unsupported methods should be rejected with 405")
+    void testUnsupportedMethod() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(endpointUri())
+                .PUT(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+        
+        assertEquals(405, send(request).statusCode());
+    }
+    
+    @Test
+    @DisplayName("Request body larger than the cap should be rejected with 413")
+    void testOversizedBody() throws Exception {
+        String sessionId = initializeSession();
+        String body = "{\"padding\":\"" + "x".repeat(StreamableHttpTransportProvider.MAX_REQUEST_BODY_BYTES) + "\"}";
+        
+        HttpResponse<String> response = post(body, Map.of("Mcp-Session-Id", sessionId));
+        
+        assertEquals(413, response.statusCode());
+        assertEquals(0, calls.get());
+    }
+    
+    @Test
+    @DisplayName("Request body without Content-Length should be cut off at the cap with 413")
+    void testOversizedStreamedBody() throws Exception {
+        String sessionId = initializeSession();
+        byte[] body = new byte[StreamableHttpTransportProvider.MAX_REQUEST_BODY_BYTES + 1];
+        HttpRequest request = HttpRequest.newBuilder(endpointUri())
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json, text/event-stream")
+                .header("Mcp-Session-Id", sessionId)
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(body)))
+                .build();
+        
+        assertEquals(413, send(request).statusCode());
+    }
+    
+    @Test
+    @DisplayName("exceedsBodyLimit() should check the Content-Length header against the cap")
+    void testExceedsBodyLimit() {
+        int limit = StreamableHttpTransportProvider.MAX_REQUEST_BODY_BYTES;
+        assertFalse(StreamableHttpTransportProvider.exceedsBodyLimit(null));
+        assertFalse(StreamableHttpTransportProvider.exceedsBodyLimit("0"));
+        assertFalse(StreamableHttpTransportProvider.exceedsBodyLimit(String.valueOf(limit)));
+        assertTrue(StreamableHttpTransportProvider.exceedsBodyLimit(String.valueOf(limit + 1)));
+        assertTrue(StreamableHttpTransportProvider.exceedsBodyLimit("99999999999999999999"));
+        assertFalse(StreamableHttpTransportProvider.exceedsBodyLimit("abc"));
+    }
+    
+    // ========================================================================
+    // セッションの期限切れと同時リクエスト数の上限
+    // ========================================================================
+    
+    @Test
+    @DisplayName("A session without requests for longer than the idle timeout should be expired")
+    void testIdleSessionExpires() throws Exception {
+        startServer(Duration.ofMillis(300), StreamableHttpTransportProvider.DEFAULT_MAX_CONCURRENT_REQUESTS);
+        String sessionId = initializeSession();
+        assertEquals(1, transport.getSessionCount());
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (transport.getSessionCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        
+        assertEquals(0, transport.getSessionCount());
+        assertEquals(404, post(toolsListBody(), Map.of("Mcp-Session-Id", sessionId)).statusCode());
+    }
+    
+    @Test
+    @DisplayName("A session with an open event stream should not be expired")
+    void testSessionWithOpenStreamIsKept() throws Exception {
+        startServer(Duration.ofMillis(300), StreamableHttpTransportProvider.DEFAULT_MAX_CONCURRENT_REQUESTS);
+        String sessionId = initializeSession();
+        HttpResponse<InputStream> stream = openEventStream(sessionId);
+        try {
+            Thread.sleep(800);
+            
+            assertEquals(0, transport.expireIdleSessions());
+            assertEquals(1, transport.getSessionCount());
+        } finally {
+            stream.body().close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Requests above the concurrency cap should be rejected with 503")
+    void testConcurrencyCap() throws Exception {
+        startServer(StreamableHttpTransportProvider.DEFAULT_SESSION_IDLE_TIMEOUT, 1);
+        String sessionId = initializeSession();
+        HttpResponse<InputStream> stream = openEventStream(sessionId);
+        try {
+            HttpResponse<String> response = post(toolsListBody(), Map.of("Mcp-Session-Id", sessionId));
+            
+            assertEquals(503, response.statusCode());
+            assertEquals("1", response.headers().firstValue("Retry-After").orElse(null));
+        } finally {
+            stream.body().close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Initialize requests above the session cap should be rejected with 503")
+    void testSessionCap() throws Exception {
+        startServer(StreamableHttpTransportProvider.DEFAULT_SESSION_IDLE_TIMEOUT,
+                    StreamableHttpTransportProvider.DEFAULT_MAX_CONCURRENT_REQUESTS, 1);
+        String sessionId = initializeSession();
+        
+        HttpResponse<String> response = post(initializeBody(), Map.of());
+        
+        assertEquals(503, response.statusCode());
+        assertEquals(1, transport.getSessionCount());
+        
+        HttpRequest delete = HttpRequest.newBuilder(endpointUri())
+                .header("Mcp-Session-Id", sessionId)
+                .DELETE()
+                .build();
+        send(delete);
+        initializeSession();
+    }
+    
+    @Test
+    @DisplayName("Constructor should reject a non-positive idle timeout, concurrency cap or session cap")
+    void testConstructorValidation() {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        assertThrows(IllegalArgumentException.class, () -> new StreamableHttpTransportProvider(
+                McpJsonMapper.getDefault(), address, "/mcp", Duration.ZERO, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new StreamableHttpTransportProvider(
+                McpJsonMapper.getDefault(), address, "/mcp", Duration.ofMinutes(1), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new StreamableHttpTransportProvider(
+                McpJsonMapper.getDefault(), address, "/mcp", Duration.ofMinutes(1), 1, 0));
+    }
+    
+    @Test
+    @DisplayName("isAllowedOrigin() should accept only loopback origins")
+    void testIsAllowedOrigin() {
+        assertTrue(StreamableHttpTransportProvider.isAllowedOrigin(null));
+        assertTrue(StreamableHttpTransportProvider.isAllowedOrigin("http://localhost:3000"));
+        assertTrue(StreamableHttpTransportProvider.isAllowedOrigin("http://127.0.0.1:8080"));
+        assertTrue(StreamableHttpTransportProvider.isAllowedOrigin("http://[::1]:8080"));
+        assertFalse(StreamableHttpTransportProvider.isAllowedOrigin("https://example.com"));
+        assertFalse(StreamableHttpTransportProvider.isAllowedOrigin("not a uri"));
+    }
+    
+    // ========================================================================
+    // ヘルパー
+    // ========================================================================
+    
+    private McpSyncClient createClient() {
+        HttpClientStreamableHttpTransport clientTransport = HttpClientStreamableHttpTransport
+                .builder("http://127.0.0.1:" + transport.getAddress().getPort())
+                .endpoint(StreamableHttpTransportProvider.DEFAULT_ENDPOINT)
+                .build();
+        return McpClient.sync(clientTransport).requestTimeout(Duration.ofSeconds(10)).build();
+    }
+    
+    private URI endpointUri() {
+        return URI.create("http://127.0.0.1:" + transport.getAddress().getPort()
+                          + StreamableHttpTransportProvider.DEFAULT_ENDPOINT);
+    }
+    
+    /**
+     * initialize を送ってセッションを作成し、セッションIDを返す
+     */
+    private String initializeSession() throws Exception {
+        HttpResponse<String> response = post(initializeBody(), Map.of());
+        assertEquals(200, response.statusCode());
+        return response.headers().firstValue("Mcp-Session-Id").orElseThrow();
+    }
+    
+    private static String initializeBody() {
+        return "{\"jsonrpc\":\"2.0\",\"id\":0,\"method\":\"initialize\","
+                + "\"params\":{\"protocolVersion\":\"2025-03-26\",\"capabilities\":{},"
+                + "\"clientInfo\":{\"name\":\"test-client\",\"version\":\"1.0.0\"}}}";
+    }
+    
+    /**
+     * GETでサーバーからの通知のSSEストリームを開く（応答ヘッダーを受け取った時点で返る）
+     */
+    private HttpResponse<InputStream> openEventStream(String sessionId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(endpointUri())
+                .header("Accept", "text/event-stream")
+                .header("Mcp-Session-Id", sessionId)
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(200, response.statusCode());
+        return response;
+    }
+    
+    private static String toolsListBody() {
+        return "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/list\",\"params\":{}}";
+    }
+    
+    private HttpResponse<String> post(String body, Map<String, String> headers) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpointUri())
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json, text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        headers.forEach(builder::header);
+        return send(builder.build());
+    }
+    
+    private static HttpResponse<String> send(HttpRequest request) throws Exception {
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}